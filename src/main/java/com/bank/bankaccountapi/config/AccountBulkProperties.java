@@ -0,0 +1,14 @@
+package com.bank.bankaccountapi.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "account.bulk")
+public class AccountBulkProperties {
+
+    /**
+     * How many accounts of a bulk balance inquiry are loaded by one query and written before the next is loaded.
+     */
+    private int chunkSize = 500;
+}
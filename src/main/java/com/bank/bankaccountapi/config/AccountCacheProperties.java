@@ -0,0 +1,30 @@
+package com.bank.bankaccountapi.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "account.cache")
+public class AccountCacheProperties {
+
+    /**
+     * Which read endpoints are served from the account snapshot cache.
+     */
+    private Mode mode = Mode.NONE;
+
+    /**
+     * Maximum number of cached accounts.
+     */
+    private long maximumSize = 100_000;
+
+    /**
+     * Upper bound on how long a snapshot may be served after it was loaded.
+     */
+    private Duration expireAfterWrite = Duration.ofSeconds(5);
+
+    public enum Mode {
+        NONE, STATUS, ALL
+    }
+}
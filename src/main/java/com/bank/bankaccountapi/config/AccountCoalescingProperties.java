@@ -0,0 +1,24 @@
+package com.bank.bankaccountapi.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "account.coalescing")
+public class AccountCoalescingProperties {
+
+    /**
+     * Apply single operations that wait for the same account together, in one transaction.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Number of operation queues, rounded up to a power of two. Accounts are spread over them by hash.
+     */
+    private int stripes = 1024;
+
+    /**
+     * Most operations applied in one transaction.
+     */
+    private int maxGroupSize = 256;
+}
@@ -0,0 +1,33 @@
+package com.bank.bankaccountapi.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "account.concurrency")
+public class AccountConcurrencyProperties {
+
+    /**
+     * Strategy used to serialize concurrent operations on the same account.
+     */
+    private Strategy strategy = Strategy.STRIPED_LOCK;
+
+    /**
+     * Number of in-process lock stripes, rounded up to a power of two. Used by {@link Strategy#STRIPED_LOCK}.
+     */
+    private int stripes = 1024;
+
+    /**
+     * How many times an operation is attempted before giving up on a version conflict.
+     * Used by {@link Strategy#OPTIMISTIC}.
+     */
+    private int maxAttempts = 5;
+
+    public enum Strategy {
+        STRIPED_LOCK, OPTIMISTIC, PESSIMISTIC,
+        /**
+         * Single operations are one conditional {@code UPDATE}; batches fall back to {@link #PESSIMISTIC} row locks.
+         */
+        CONDITIONAL_UPDATE
+    }
+}
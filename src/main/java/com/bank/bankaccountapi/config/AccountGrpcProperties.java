@@ -0,0 +1,26 @@
+package com.bank.bankaccountapi.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "account.grpc")
+public class AccountGrpcProperties {
+
+    /**
+     * Serve the gRPC {@code AccountService} next to the REST endpoints.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Port of the gRPC server; 0 picks a free port.
+     */
+    private int port = 9090;
+
+    /**
+     * How long running calls may take to finish on shutdown before they are cancelled.
+     */
+    private Duration shutdownGracePeriod = Duration.ofSeconds(5);
+}
@@ -0,0 +1,19 @@
+package com.bank.bankaccountapi.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "account.metrics")
+public class AccountMetricsProperties {
+
+    /**
+     * Number of account shards with their own in-flight operations gauge.
+     */
+    private int inFlightShards = 8;
+
+    /**
+     * Publish percentile histograms for rejected and failed calls too, not only for successful ones.
+     */
+    private boolean outcomeHistograms = false;
+}
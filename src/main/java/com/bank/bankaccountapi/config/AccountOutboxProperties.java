@@ -0,0 +1,42 @@
+package com.bank.bankaccountapi.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "account.outbox")
+public class AccountOutboxProperties {
+
+    /**
+     * Write a balance-changed event to {@code ACCOUNT_OUTBOX} in the transaction of every applied operation and
+     * relay the events to the sink.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Where the relay publishes events: {@code in-memory} or {@code file}.
+     */
+    private String sink = "in-memory";
+
+    /**
+     * Pause between relay polls once the outbox is drained.
+     */
+    private Duration pollInterval = Duration.ofMillis(100);
+
+    /**
+     * Most events read, published and deleted at a time.
+     */
+    private int batchSize = 500;
+
+    /**
+     * Events the in-memory sink holds until they are drained. A batch that does not fit is refused and retried.
+     */
+    private int inMemoryCapacity = 100_000;
+
+    /**
+     * File the file sink appends events to, one JSON object per line.
+     */
+    private String file = "account-events.ndjson";
+}
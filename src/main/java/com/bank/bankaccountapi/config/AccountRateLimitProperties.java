@@ -0,0 +1,60 @@
+package com.bank.bankaccountapi.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "account.rate-limit")
+public class AccountRateLimitProperties {
+
+    /**
+     * Shed operation requests over the per-account or per-client limit with {@code 429} before they reach the
+     * service.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Limit of operations on one account number, whoever sends them.
+     */
+    private Limit perAccount = new Limit(100, 200);
+
+    /**
+     * Limit of operations from one client, identified by the {@code X-Client-Id} header or else the remote address.
+     */
+    private Limit perClient = new Limit(1_000, 2_000);
+
+    /**
+     * Most buckets kept per key kind. When the table is full, idle buckets are evicted, at most four times per
+     * {@link #idleTimeout}; keys that still do not fit share one bucket.
+     */
+    private int maxKeys = 100_000;
+
+    /**
+     * A bucket that has been full for this long is idle and may be evicted.
+     */
+    private Duration idleTimeout = Duration.ofMinutes(1);
+
+    @Data
+    public static class Limit {
+
+        /**
+         * Sustained operations per second.
+         */
+        private double rate;
+
+        /**
+         * Operations that may arrive at once after the key has been quiet.
+         */
+        private int burst;
+
+        public Limit() {
+        }
+
+        public Limit(double rate, int burst) {
+            this.rate = rate;
+            this.burst = burst;
+        }
+    }
+}
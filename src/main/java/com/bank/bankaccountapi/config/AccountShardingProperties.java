@@ -0,0 +1,45 @@
+package com.bank.bankaccountapi.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@ConfigurationProperties(prefix = "account.sharding")
+public class AccountShardingProperties {
+
+    /**
+     * Spread accounts over {@code spring.datasource} (shard 0) and {@link #shards} by a consistent hash of the
+     * account number.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Shards 1..N-1. New shards are appended; the hash then only moves accounts onto the new shards.
+     */
+    private List<Shard> shards = new ArrayList<>();
+
+    /**
+     * Threads reading shards in parallel for a bulk inquiry; 0 means one per shard.
+     */
+    private int fanOutThreads = 0;
+
+    /**
+     * Accounts moved per pair of transactions by the rebalance tool.
+     */
+    private int rebalanceBatchSize = 500;
+
+    @Data
+    public static class Shard {
+
+        private String url;
+
+        private String username = "sa";
+
+        private String password = "";
+
+        private int maximumPoolSize = 10;
+    }
+}
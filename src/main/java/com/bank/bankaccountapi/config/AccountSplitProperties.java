@@ -0,0 +1,22 @@
+package com.bank.bankaccountapi.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.HashSet;
+import java.util.Set;
+
+@Data
+@ConfigurationProperties(prefix = "account.split")
+public class AccountSplitProperties {
+
+    /**
+     * Hot accounts whose balance is spread over {@link #slots} sub-balances.
+     */
+    private Set<String> accountNumbers = new HashSet<>();
+
+    /**
+     * Number of sub-balances of a split account, including the {@code ACCOUNT} row itself.
+     */
+    private int slots = 8;
+}
@@ -0,0 +1,25 @@
+package com.bank.bankaccountapi.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "account.http")
+public class HttpExecutionProperties {
+
+    /**
+     * Threads that serve HTTP requests and application tasks.
+     */
+    private Execution execution = Execution.PLATFORM;
+
+    public enum Execution {
+        /**
+         * Bounded Tomcat worker pool, one platform thread per in-flight request.
+         */
+        PLATFORM,
+        /**
+         * A new virtual thread per request and per task. Needs a Java 21 or newer runtime.
+         */
+        VIRTUAL
+    }
+}
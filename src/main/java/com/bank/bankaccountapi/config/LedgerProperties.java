@@ -0,0 +1,31 @@
+package com.bank.bankaccountapi.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "account.ledger")
+public class LedgerProperties {
+
+    /**
+     * Serve {@code AccountService} from in-memory sharded balances instead of the database.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Number of shards, each owned by one writer thread.
+     */
+    private int shards = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * How often dirty accounts are flushed to the database.
+     */
+    private Duration flushInterval = Duration.ofMillis(100);
+
+    /**
+     * Accounts kept in memory per shard; beyond it accounts without unflushed changes are evicted.
+     */
+    private int maxAccountsPerShard = 100_000;
+}
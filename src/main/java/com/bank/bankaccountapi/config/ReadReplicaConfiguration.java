@@ -0,0 +1,115 @@
+package com.bank.bankaccountapi.config;
+
+import com.bank.bankaccountapi.replica.ClientWrites;
+import com.bank.bankaccountapi.replica.ReadReplicaRouter;
+import com.bank.bankaccountapi.replica.ReadReplicaRoutingDataSource;
+import com.bank.bankaccountapi.replica.ReadYourWritesInterceptor;
+import com.bank.bankaccountapi.replica.Replica;
+import com.bank.bankaccountapi.replica.ReplicaSynchronizer;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Replaces the auto-configured data source with one that routes read-only transactions to
+ * {@code account.read-replica.replicas}. The primary pool is still configured by {@code spring.datasource}.
+ */
+@Slf4j
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "account.read-replica.enabled", havingValue = "true")
+public class ReadReplicaConfiguration {
+
+    private static final String[] WRITE_PATHS = {
+            "/api/account/operation", "/api/account/operations/batch", "/api/account/transfer"};
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    public ReadReplicaRouter readReplicaRouter(HikariDataSource primaryDataSource, ReadReplicaProperties properties) {
+        List<Replica> replicas = new ArrayList<>();
+        for (ReadReplicaProperties.Replica settings : properties.getReplicas()) {
+            String name = "account-replica-" + (replicas.size() + 1);
+            HikariDataSource pool = new HikariDataSource();
+            pool.setPoolName(name);
+            pool.setJdbcUrl(settings.getUrl());
+            pool.setUsername(settings.getUsername());
+            pool.setPassword(settings.getPassword());
+            pool.setMaximumPoolSize(settings.getMaximumPoolSize());
+            replicas.add(new Replica(name, pool, () -> {
+                HikariPoolMXBean bean = pool.getHikariPoolMXBean();
+                return bean == null ? 0 : bean.getActiveConnections();
+            }));
+        }
+        log.info("Read-only transactions are routed to replicas. replicas = {}; selection = {}; maxStaleness = {}",
+                replicas.size(), properties.getSelection(), properties.getMaxStaleness());
+        return new ReadReplicaRouter(primaryDataSource, replicas, properties.getSelection(),
+                properties.getMaxStaleness().toMillis());
+    }
+
+    /**
+     * Pool metrics of the replicas, which are not beans and so not bound by Spring Boot. Binders run when the
+     * registry is created, before the pools hand out their first connection.
+     */
+    @Bean
+    public MeterBinder replicaPoolMetrics(ReadReplicaRouter readReplicaRouter) {
+        return registry -> readReplicaRouter.getReplicas().stream()
+                .map(Replica::getDataSource)
+                .filter(HikariDataSource.class::isInstance)
+                .map(HikariDataSource.class::cast)
+                .filter(pool -> pool.getHikariPoolMXBean() == null)
+                .forEach(pool -> pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry)));
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReadReplicaRouter readReplicaRouter) {
+        return new LazyConnectionDataSourceProxy(new ReadReplicaRoutingDataSource(readReplicaRouter));
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "account.read-replica.sync.enabled", havingValue = "true", matchIfMissing = true)
+    public ReplicaSynchronizer replicaSynchronizer(HikariDataSource primaryDataSource,
+                                                   ReadReplicaRouter readReplicaRouter,
+                                                   ReadReplicaProperties properties) {
+        return new ReplicaSynchronizer(primaryDataSource, readReplicaRouter.getReplicas(),
+                properties.getSync().getInterval());
+    }
+
+    @Bean
+    public ClientWrites clientWrites(ReadReplicaProperties properties) {
+        return new ClientWrites(properties.getMaxClients(), properties.getReadYourWritesWindow().toMillis());
+    }
+
+    @Bean
+    public WebMvcConfigurer readYourWritesConfigurer(ClientWrites clientWrites) {
+        return new WebMvcConfigurer() {
+            @Override
+            public void addInterceptors(InterceptorRegistry registry) {
+                registry.addInterceptor(new ReadYourWritesInterceptor(clientWrites, true))
+                        .addPathPatterns(WRITE_PATHS);
+                registry.addInterceptor(new ReadYourWritesInterceptor(clientWrites, false))
+                        .addPathPatterns("/api/account/**")
+                        .excludePathPatterns(WRITE_PATHS);
+            }
+        };
+    }
+}
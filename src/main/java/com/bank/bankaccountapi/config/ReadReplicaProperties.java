@@ -0,0 +1,70 @@
+package com.bank.bankaccountapi.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@ConfigurationProperties(prefix = "account.read-replica")
+public class ReadReplicaProperties {
+
+    /**
+     * Route {@code @Transactional(readOnly = true)} work to {@link #replicas}, writes and everything else to
+     * {@code spring.datasource}.
+     */
+    private boolean enabled = false;
+
+    private List<Replica> replicas = new ArrayList<>();
+
+    private Selection selection = Selection.ROUND_ROBIN;
+
+    /**
+     * A replica further behind the primary than this is skipped; with no replica fresh enough the read goes to
+     * the primary.
+     */
+    private Duration maxStaleness = Duration.ofSeconds(1);
+
+    /**
+     * How long after an operation of a client its reads must see that operation. Within this window they only go to
+     * a replica that has replicated past the operation.
+     */
+    private Duration readYourWritesWindow = Duration.ofSeconds(10);
+
+    /**
+     * Most clients whose last write is tracked for read-your-writes.
+     */
+    private int maxClients = 100_000;
+
+    private Sync sync = new Sync();
+
+    @Data
+    public static class Replica {
+
+        private String url;
+
+        private String username = "sa";
+
+        private String password = "";
+
+        private int maximumPoolSize = 10;
+    }
+
+    @Data
+    public static class Sync {
+
+        /**
+         * Copy {@code ACCOUNT} and {@code ACCOUNT_SLOT} from the primary into every replica, a stand-in for database
+         * replication when the replicas are separate H2 instances.
+         */
+        private boolean enabled = true;
+
+        private Duration interval = Duration.ofMillis(100);
+    }
+
+    public enum Selection {
+        ROUND_ROBIN, LEAST_LOADED
+    }
+}
@@ -0,0 +1,149 @@
+package com.bank.bankaccountapi.config;
+
+import com.bank.bankaccountapi.repo.AccountRepo;
+import com.bank.bankaccountapi.shard.AccountShards;
+import com.bank.bankaccountapi.shard.ShardRebalancer;
+import com.bank.bankaccountapi.shard.ShardRoutingDataSource;
+import com.bank.bankaccountapi.shard.ShardRoutingInterceptor;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.aop.framework.Advised;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Replaces the auto-configured data source with one that routes every transaction to the shard of the accounts it
+ * touches, see {@link ShardRoutingInterceptor}. Shard 0 is still configured by {@code spring.datasource} and is
+ * where SQL initialization and work without an account number go.
+ */
+@Slf4j
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "account.sharding.enabled", havingValue = "true")
+public class ShardingConfiguration {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource defaultShardDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    public AccountShards accountShards(HikariDataSource defaultShardDataSource,
+                                       AccountShardingProperties properties,
+                                       ReadReplicaProperties readReplicaProperties,
+                                       LedgerProperties ledgerProperties,
+                                       AccountSplitProperties splitProperties,
+                                       AccountCoalescingProperties coalescingProperties) {
+        // each of these runs work over several accounts in one transaction or outside the repository
+        List<String> unsupported = new ArrayList<>();
+        if (readReplicaProperties.isEnabled()) {
+            unsupported.add("account.read-replica");
+        }
+        if (ledgerProperties.isEnabled()) {
+            unsupported.add("account.ledger");
+        }
+        if (!splitProperties.getAccountNumbers().isEmpty()) {
+            unsupported.add("account.split");
+        }
+        if (coalescingProperties.isEnabled()) {
+            unsupported.add("account.coalescing");
+        }
+        if (!unsupported.isEmpty()) {
+            throw new IllegalStateException("account.sharding cannot be combined with " + unsupported);
+        }
+
+        List<DataSource> dataSources = new ArrayList<>();
+        dataSources.add(defaultShardDataSource);
+        for (AccountShardingProperties.Shard settings : properties.getShards()) {
+            HikariDataSource pool = new HikariDataSource();
+            pool.setPoolName("account-shard-" + dataSources.size());
+            pool.setJdbcUrl(settings.getUrl());
+            pool.setUsername(settings.getUsername());
+            pool.setPassword(settings.getPassword());
+            pool.setMaximumPoolSize(settings.getMaximumPoolSize());
+            dataSources.add(pool);
+        }
+        log.info("Accounts are sharded by account number. shards = {}; fanOutThreads = {}",
+                dataSources.size(), properties.getFanOutThreads());
+        return new AccountShards(dataSources, properties.getFanOutThreads());
+    }
+
+    /**
+     * Pool metrics of shards 1..N-1, which are not beans and so not bound by Spring Boot. Binders run when the
+     * registry is created, before the pools hand out their first connection.
+     */
+    @Bean
+    public MeterBinder shardPoolMetrics(AccountShards accountShards) {
+        return registry -> accountShards.getDataSources().stream()
+                .skip(1)
+                .filter(HikariDataSource.class::isInstance)
+                .map(HikariDataSource.class::cast)
+                .filter(pool -> pool.getHikariPoolMXBean() == null)
+                .forEach(pool -> pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry)));
+    }
+
+    /**
+     * SQL initialization only reaches shard 0, so the schema of the other shards is created once every bean,
+     * including the meter registry that tracks their pools, is in place.
+     */
+    @Bean
+    public SmartInitializingSingleton shardSchemaInitializer(AccountShards accountShards) {
+        return () -> {
+            ResourceDatabasePopulator schema = new ResourceDatabasePopulator(new ClassPathResource("schema.sql"));
+            accountShards.getDataSources().stream().skip(1).forEach(schema::execute);
+        };
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(AccountShards accountShards) {
+        return new LazyConnectionDataSourceProxy(new ShardRoutingDataSource(accountShards));
+    }
+
+    /**
+     * The pooled optimizer keeps one block of ids per generator for the whole session factory, so a block fetched
+     * from the sequence of one shard would be handed out on the others and collide with their own blocks. Without
+     * it every journal and outbox id is the next value of the sequence of the shard it is inserted into.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer shardSequenceIds() {
+        return hibernateProperties -> hibernateProperties.put(AvailableSettings.PREFERRED_POOLED_OPTIMIZER, "none");
+    }
+
+    @Bean
+    public static BeanPostProcessor accountRepoShardRouting(ObjectProvider<AccountShards> accountShards) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof AccountRepo) {
+                    ((Advised) bean).addAdvice(0, new ShardRoutingInterceptor(accountShards.getObject(),
+                            (AccountRepo) bean));
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public ShardRebalancer shardRebalancer(AccountShards accountShards, AccountShardingProperties properties) {
+        return new ShardRebalancer(accountShards, properties.getRebalanceBatchSize());
+    }
+}
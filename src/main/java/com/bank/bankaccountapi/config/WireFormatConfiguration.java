@@ -0,0 +1,21 @@
+package com.bank.bankaccountapi.config;
+
+import com.bank.bankaccountapi.wire.AccountProtobufHttpMessageConverter;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+/**
+ * Adds the {@code application/x-protobuf} converter after the default ones, so JSON stays the response format
+ * for clients that do not ask for protobuf.
+ */
+@Configuration(proxyBeanMethods = false)
+public class WireFormatConfiguration implements WebMvcConfigurer {
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.add(new AccountProtobufHttpMessageConverter());
+    }
+}
@@ -1,51 +1,215 @@
 package com.bank.bankaccountapi.controller;
 
+import com.bank.bankaccountapi.config.AccountBulkProperties;
+import com.bank.bankaccountapi.dto.AccountBalanceResultDto;
 import com.bank.bankaccountapi.dto.AccountDto;
 import com.bank.bankaccountapi.dto.AccountOperationDto;
+import com.bank.bankaccountapi.dto.AccountOperationResultDto;
+import com.bank.bankaccountapi.dto.AccountTransferDto;
+import com.bank.bankaccountapi.dto.AccountTransferResultDto;
+import com.bank.bankaccountapi.errorhandler.ApiError;
+import com.bank.bankaccountapi.service.AccountOperationOutcome;
 import com.bank.bankaccountapi.service.AccountService;
+import com.bank.bankaccountapi.service.metrics.AccountMetrics;
+import com.bank.bankaccountapi.service.metrics.AccountMetrics.Method;
+import com.bank.bankaccountapi.service.ratelimit.AccountRateLimiter;
+import com.bank.bankaccountapi.wire.AccountOperationValidator;
+import com.bank.bankaccountapi.wire.AccountProtobufCodec;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
+import java.io.IOException;
+import java.util.List;
+
+import static com.bank.bankaccountapi.logging.LogMarkers.SAMPLED;
 
 
 @Slf4j
+@Validated
 @RestController
 @RequestMapping("/api/account")
 @RequiredArgsConstructor
 public class AccountController {
 
+    private static final String OPERATION_REQUEST_INFO = "uri=/api/account/operation";
+
     private final AccountService accountService;
+    private final AccountMetrics metrics;
+    private final AccountBulkProperties bulkProperties;
+    private final ObjectMapper objectMapper;
+    private final AccountRateLimiter rateLimiter;
 
     @GetMapping("status/{accountNumber}")
     public String checkAccountStatus(@PathVariable("accountNumber") String accountNumber) {
-        log.info("Checking account status. accountNumber = {}", accountNumber);
-        String result = accountService.getAccountStatusByAccountNumber(accountNumber);
-        log.info("Checked account status. accountNumber = {}; status = {}", accountNumber, result);
+        log.info(SAMPLED, "Checking account status. accountNumber = {}", accountNumber);
+        long start = System.nanoTime();
+        String result;
+        try {
+            result = accountService.getAccountStatusByAccountNumber(accountNumber);
+        } catch (RuntimeException ex) {
+            metrics.record(Method.GET_STATUS, start, ex);
+            throw ex;
+        }
+        metrics.record(Method.GET_STATUS, start, null);
+        log.info(SAMPLED, "Checked account status. accountNumber = {}; status = {}", accountNumber, result);
         return result;
     }
 
     @GetMapping("balance/{accountNumber}")
     public ResponseEntity<AccountDto> getAccountBalanceInquiry(@PathVariable("accountNumber") String accountNumber) {
-        log.info("Getting account balance inquiry. accountNumber = {}", accountNumber);
-        AccountDto result = accountService.getAccountBalanceInquiryByAccountNumber(accountNumber);
-        log.info("Account balance inquiry = {}", result);
+        log.info(SAMPLED, "Getting account balance inquiry. accountNumber = {}", accountNumber);
+        long start = System.nanoTime();
+        AccountDto result;
+        try {
+            result = accountService.getAccountBalanceInquiryByAccountNumber(accountNumber);
+        } catch (RuntimeException ex) {
+            metrics.record(Method.GET_BALANCE, start, ex);
+            throw ex;
+        }
+        metrics.record(Method.GET_BALANCE, start, null);
+        log.info(SAMPLED, "Account balance inquiry. accountNumber = {}; status = {}; currency = {}; balance = {}",
+                accountNumber, result.getStatus(), result.getCurrency(), result.getBalance());
         return ResponseEntity.ok(result);
     }
 
+    /**
+     * Writes the JSON array while accounts are loaded, {@code account.bulk.chunk-size} accounts at a time,
+     * so the response is never held in memory as a whole. Once the first chunk is written the status is committed;
+     * a later failure aborts the response instead of turning it into an error response.
+     */
+    @PostMapping("balance/bulk")
+    public void getAccountBalances(@RequestBody @NotEmpty(message = "accountNumbers must be not empty")
+                                   List<@NotEmpty(message = "accountNumber must be not empty") String> accountNumbers,
+                                   HttpServletResponse response) throws IOException {
+        log.info(SAMPLED, "Bulk account balance inquiry was started. accountNumbers = {}", accountNumbers.size());
+        long start = System.nanoTime();
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        int chunkSize = Math.max(1, bulkProperties.getChunkSize());
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(response.getOutputStream())) {
+            generator.writeStartArray();
+            for (int from = 0; from < accountNumbers.size(); from += chunkSize) {
+                List<String> chunk = accountNumbers.subList(from, Math.min(from + chunkSize, accountNumbers.size()));
+                for (AccountBalanceResultDto result : accountService.getAccountBalances(chunk)) {
+                    generator.writeObject(result);
+                }
+                generator.flush();
+            }
+            generator.writeEndArray();
+        } catch (IOException | RuntimeException ex) {
+            metrics.record(Method.GET_BALANCES, start, ex);
+            throw ex;
+        }
+        metrics.record(Method.GET_BALANCES, start, null);
+        log.info(SAMPLED, "Bulk account balance inquiry was ended. accountNumbers = {}", accountNumbers.size());
+    }
+
+    /**
+     * A business rejection is answered with the {@link ApiError} template of its reason, without an exception.
+     * A request over the per-client or per-account limit is shed with {@code 429} before it reaches the service.
+     */
     @PostMapping("operation")
-    public ResponseEntity<AccountDto> applyAccountOperation(@RequestBody @Valid AccountOperationDto accountOperation) {
-        log.info("Account operation was started. accountOperation = {}", accountOperation);
-        AccountDto accountDto = accountService.applyAccountOperation(accountOperation);
-        log.info("Account operation was ended. accountOperation = {}; accountDto = {}", accountOperation, accountDto);
+    public ResponseEntity<Object> applyAccountOperation(
+            @RequestBody @Valid AccountOperationDto accountOperation,
+            @RequestHeader(value = AccountRateLimiter.CLIENT_ID_HEADER, required = false) String clientId,
+            HttpServletRequest request) {
+        rateLimiter.admit(accountOperation.getAccountNumber(), clientId != null ? clientId : request.getRemoteAddr());
+        return apply(accountOperation);
+    }
+
+    /**
+     * {@code application/x-protobuf} variant of {@link #applyAccountOperation}: the body is decoded by
+     * {@link AccountProtobufCodec} and checked by {@link AccountOperationValidator} instead of bean validation,
+     * with the same error messages. The response is protobuf when the client accepts it.
+     */
+    @PostMapping(value = "operation", consumes = AccountProtobufCodec.MEDIA_TYPE_VALUE)
+    public ResponseEntity<Object> applyBinaryAccountOperation(
+            @RequestBody AccountOperationDto accountOperation,
+            @RequestHeader(value = AccountRateLimiter.CLIENT_ID_HEADER, required = false) String clientId,
+            HttpServletRequest request) {
+        AccountOperationValidator.validate(accountOperation);
+        rateLimiter.admit(accountOperation.getAccountNumber(), clientId != null ? clientId : request.getRemoteAddr());
+        return apply(accountOperation);
+    }
+
+    private ResponseEntity<Object> apply(AccountOperationDto accountOperation) {
+        log.info(SAMPLED, "Account operation was started. accountNumber = {}; operationSign = {}; amount = {}; "
+                        + "currency = {}", accountOperation.getAccountNumber(), accountOperation.getOperationSign(),
+                accountOperation.getAmount(), accountOperation.getCurrency());
+        long start = metrics.operationStarted(accountOperation.getAccountNumber());
+        AccountOperationOutcome outcome;
+        try {
+            outcome = accountService.tryApplyAccountOperation(accountOperation);
+        } catch (RuntimeException ex) {
+            metrics.operationFinished(accountOperation.getAccountNumber(), start, ex);
+            throw ex;
+        }
+        if (!outcome.isApplied()) {
+            metrics.operationRejected(accountOperation.getAccountNumber(), start, outcome.getRejection());
+            log.info(SAMPLED, "Account operation was rejected. accountNumber = {}; reason = {}",
+                    accountOperation.getAccountNumber(), outcome.getRejection());
+            return ResponseEntity.badRequest().body(ApiError.rejected(outcome.getRejection(),
+                    accountOperation.getAccountNumber(), OPERATION_REQUEST_INFO));
+        }
+        metrics.operationFinished(accountOperation.getAccountNumber(), start, null);
+        AccountDto accountDto = outcome.getAccount();
+        log.info(SAMPLED, "Account operation was ended. accountNumber = {}; balance = {}",
+                accountDto.getAccountNumber(), accountDto.getBalance());
         return ResponseEntity.ok(accountDto);
     }
 
+    @PostMapping("operations/batch")
+    public ResponseEntity<List<AccountOperationResultDto>> applyAccountOperations(
+            @RequestBody @NotEmpty(message = "operations must be not empty")
+            List<@Valid AccountOperationDto> accountOperations) {
+        log.info(SAMPLED, "Batch account operation was started. operations = {}", accountOperations.size());
+        long start = System.nanoTime();
+        List<AccountOperationResultDto> results;
+        try {
+            results = accountService.applyAccountOperations(accountOperations);
+        } catch (RuntimeException ex) {
+            metrics.record(Method.APPLY_OPERATIONS, start, ex);
+            throw ex;
+        }
+        metrics.record(Method.APPLY_OPERATIONS, start, null);
+        log.info(SAMPLED, "Batch account operation was ended. operations = {}", results.size());
+        return ResponseEntity.ok(results);
+    }
+
+    @PostMapping("transfer")
+    public ResponseEntity<AccountTransferResultDto> transfer(@RequestBody @Valid AccountTransferDto transfer) {
+        log.info(SAMPLED, "Account transfer was started. fromAccountNumber = {}; toAccountNumber = {}; amount = {}; "
+                        + "currency = {}", transfer.getFromAccountNumber(), transfer.getToAccountNumber(),
+                transfer.getAmount(), transfer.getCurrency());
+        long start = System.nanoTime();
+        AccountTransferResultDto result;
+        try {
+            result = accountService.transfer(transfer);
+        } catch (RuntimeException ex) {
+            metrics.record(Method.TRANSFER, start, ex);
+            throw ex;
+        }
+        metrics.record(Method.TRANSFER, start, null);
+        log.info(SAMPLED, "Account transfer was ended. fromAccountNumber = {}; fromBalance = {}; "
+                        + "toAccountNumber = {}; toBalance = {}",
+                result.getFromAccount().getAccountNumber(), result.getFromAccount().getBalance(),
+                result.getToAccount().getAccountNumber(), result.getToAccount().getBalance());
+        return ResponseEntity.ok(result);
+    }
+
 }
@@ -0,0 +1,41 @@
+package com.bank.bankaccountapi.controller;
+
+import com.bank.bankaccountapi.domain.AccountStatus;
+import com.bank.bankaccountapi.service.export.AccountExporter;
+import com.bank.bankaccountapi.service.export.ExportFormat;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+@Slf4j
+@RestController
+@RequestMapping("/api/account")
+@RequiredArgsConstructor
+public class AccountExportController {
+
+    private final AccountExporter accountExporter;
+
+    /**
+     * Full-ledger export written to the response as accounts are read; see {@link AccountExporter}.
+     */
+    @GetMapping("export")
+    public void exportAccounts(@RequestParam(name = "format", defaultValue = "NDJSON") ExportFormat format,
+                               @RequestParam(name = "status", required = false) AccountStatus status,
+                               @RequestParam(name = "currency", required = false) Long currency,
+                               HttpServletResponse response) throws IOException {
+        response.setContentType(format.getContentType());
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                "attachment; filename=\"accounts." + format.getFileExtension() + "\"");
+        long rows = accountExporter.export(status, currency, format, response.getOutputStream());
+        log.info("Accounts were exported. format = {}; status = {}; currency = {}; rows = {}",
+                format, status, currency, rows);
+    }
+}
@@ -13,6 +13,7 @@ import javax.persistence.Entity;
 import javax.persistence.EnumType;
 import javax.persistence.Enumerated;
 import javax.persistence.Id;
+import javax.persistence.Version;
 import java.util.Objects;
 
 @Getter
@@ -31,13 +32,20 @@ public class Account {
     @Column(name = "CURRENCY", nullable = false)
     private Long currency;
 
+    /**
+     * Balance in minor units of {@link #currency}, see {@link com.bank.bankaccountapi.money.CurrencyUnits}.
+     */
     @Column(name = "BALANCE", nullable = false)
-    private Double balance;
+    private long balance;
 
     @Column(name = "STATUS", nullable = false)
     @Enumerated(EnumType.STRING)
     private AccountStatus status;
 
+    @Version
+    @Column(name = "VERSION", nullable = false)
+    private long version;
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -0,0 +1,80 @@
+package com.bank.bankaccountapi.domain;
+
+import com.bank.bankaccountapi.dto.OperationSign;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+import org.hibernate.Hibernate;
+import org.hibernate.annotations.Immutable;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.SequenceGenerator;
+import java.time.Instant;
+import java.util.Objects;
+
+/**
+ * Append-only journal entry of an applied account operation, written in the same transaction as the balance.
+ */
+@Getter
+@Setter
+@ToString
+@Builder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
+@Immutable
+@Entity(name = "ACCOUNT_OPERATION")
+public class AccountOperation {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "account_operation_seq")
+    @SequenceGenerator(name = "account_operation_seq", sequenceName = "ACCOUNT_OPERATION_SEQ", allocationSize = 50)
+    @Column(name = "ID", nullable = false)
+    private Long id;
+
+    @Column(name = "ACCOUNT_NUMBER", nullable = false)
+    private String accountNumber;
+
+    @Column(name = "CURRENCY", nullable = false)
+    private Long currency;
+
+    @Column(name = "AMOUNT", nullable = false)
+    private long amount;
+
+    @Column(name = "OPERATION_SIGN", nullable = false)
+    @Enumerated(EnumType.STRING)
+    private OperationSign operationSign;
+
+    @Column(name = "BALANCE_AFTER", nullable = false)
+    private long balanceAfter;
+
+    /**
+     * Client supplied key, unique per account. A repeated submission returns the result recorded here.
+     */
+    @Column(name = "IDEMPOTENCY_KEY")
+    private String idempotencyKey;
+
+    @Column(name = "CREATED_AT", nullable = false)
+    private Instant createdAt;
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || Hibernate.getClass(this) != Hibernate.getClass(o)) return false;
+        AccountOperation operation = (AccountOperation) o;
+        return id != null && Objects.equals(id, operation.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return getClass().hashCode();
+    }
+}
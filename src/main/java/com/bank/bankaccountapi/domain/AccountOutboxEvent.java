@@ -0,0 +1,81 @@
+package com.bank.bankaccountapi.domain;
+
+import com.bank.bankaccountapi.dto.OperationSign;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+import org.hibernate.Hibernate;
+import org.hibernate.annotations.Immutable;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.SequenceGenerator;
+import java.time.Instant;
+import java.util.Objects;
+
+/**
+ * Balance-changed event waiting to be relayed, written in the same transaction as the balance and its journal entry.
+ * Events of one account get increasing ids, because they are written while the account is guarded.
+ */
+@Getter
+@Setter
+@ToString
+@Builder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
+@Immutable
+@Entity(name = "ACCOUNT_OUTBOX")
+public class AccountOutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "account_outbox_seq")
+    @SequenceGenerator(name = "account_outbox_seq", sequenceName = "ACCOUNT_OUTBOX_SEQ", allocationSize = 50)
+    @Column(name = "ID", nullable = false)
+    private Long id;
+
+    /**
+     * Id of the journal entry in {@code ACCOUNT_OPERATION}.
+     */
+    @Column(name = "OPERATION_ID", nullable = false)
+    private Long operationId;
+
+    @Column(name = "ACCOUNT_NUMBER", nullable = false)
+    private String accountNumber;
+
+    @Column(name = "CURRENCY", nullable = false)
+    private Long currency;
+
+    @Column(name = "AMOUNT", nullable = false)
+    private long amount;
+
+    @Column(name = "OPERATION_SIGN", nullable = false)
+    @Enumerated(EnumType.STRING)
+    private OperationSign operationSign;
+
+    @Column(name = "BALANCE_AFTER", nullable = false)
+    private long balanceAfter;
+
+    @Column(name = "CREATED_AT", nullable = false)
+    private Instant createdAt;
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || Hibernate.getClass(this) != Hibernate.getClass(o)) return false;
+        AccountOutboxEvent event = (AccountOutboxEvent) o;
+        return id != null && Objects.equals(id, event.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return getClass().hashCode();
+    }
+}
@@ -0,0 +1,21 @@
+package com.bank.bankaccountapi.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
+public class AccountBalanceResultDto {
+
+    private String accountNumber;
+
+    private boolean found;
+
+    private AccountDto account;
+
+    private String error;
+}
@@ -1,6 +1,12 @@
 package com.bank.bankaccountapi.dto;
 
 import com.bank.bankaccountapi.domain.AccountStatus;
+import com.bank.bankaccountapi.money.CurrencyAmount;
+import com.bank.bankaccountapi.money.CurrencyUnits;
+import com.bank.bankaccountapi.money.MajorUnitsSerializer;
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -9,13 +15,14 @@ import lombok.NoArgsConstructor;
 import javax.validation.constraints.NotEmpty;
 import javax.validation.constraints.NotNull;
 import javax.validation.constraints.Positive;
+import java.math.BigDecimal;
 
 
 @Data
 @Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
-public class AccountDto {
+public class AccountDto implements CurrencyAmount {
 
     @NotEmpty(message = "accountNumber must be not empty")
     private String accountNumber;
@@ -23,10 +30,22 @@ public class AccountDto {
     @NotNull(message = "currency must be not null")
     private Long currency;
 
+    /**
+     * Balance in minor units of {@link #currency}. Exchanged in JSON as a decimal number of major units.
+     */
     @NotNull(message = "balance must be not null")
     @Positive(message = "balance must be positive number")
-    private Double balance;
+    @JsonSerialize(using = MajorUnitsSerializer.class)
+    private Long balance;
 
     @NotNull(message = "account status must be not null")
     private AccountStatus status;
+
+    @JsonCreator
+    public static AccountDto fromJson(@JsonProperty("accountNumber") String accountNumber,
+                                      @JsonProperty("currency") Long currency,
+                                      @JsonProperty("balance") BigDecimal balance,
+                                      @JsonProperty("status") AccountStatus status) {
+        return new AccountDto(accountNumber, currency, CurrencyUnits.toMinorUnits(balance, currency), status);
+    }
 }
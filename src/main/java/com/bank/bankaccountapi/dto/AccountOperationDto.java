@@ -1,5 +1,11 @@
 package com.bank.bankaccountapi.dto;
 
+import com.bank.bankaccountapi.money.CurrencyAmount;
+import com.bank.bankaccountapi.money.CurrencyUnits;
+import com.bank.bankaccountapi.money.MajorUnitsSerializer;
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -8,22 +14,45 @@ import lombok.NoArgsConstructor;
 import javax.validation.constraints.NotEmpty;
 import javax.validation.constraints.NotNull;
 import javax.validation.constraints.Positive;
+import javax.validation.constraints.Size;
+import java.math.BigDecimal;
 
 @Data
 @Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
-public class AccountOperationDto {
+public class AccountOperationDto implements CurrencyAmount {
     @NotEmpty(message = "accountNumber must be not empty")
     private String accountNumber;
 
     @NotNull(message = "currency must be not null")
     private Long currency;
 
+    /**
+     * Amount in minor units of {@link #currency}. Exchanged in JSON as a decimal number of major units.
+     */
     @NotNull(message = "amount must be not null")
     @Positive(message = "amount must be positive number")
-    private Double amount;
+    @JsonSerialize(using = MajorUnitsSerializer.class)
+    private Long amount;
 
     @NotNull(message = "operationSign must be not null")
     private OperationSign operationSign;
+
+    /**
+     * Optional client key, unique per account. Resubmitting it returns the original result without applying
+     * the operation again.
+     */
+    @Size(max = 100, message = "idempotencyKey must be at most 100 characters")
+    private String idempotencyKey;
+
+    @JsonCreator
+    public static AccountOperationDto fromJson(@JsonProperty("accountNumber") String accountNumber,
+                                               @JsonProperty("currency") Long currency,
+                                               @JsonProperty("amount") BigDecimal amount,
+                                               @JsonProperty("operationSign") OperationSign operationSign,
+                                               @JsonProperty("idempotencyKey") String idempotencyKey) {
+        return new AccountOperationDto(accountNumber, currency, CurrencyUnits.toMinorUnits(amount, currency),
+                operationSign, idempotencyKey);
+    }
 }
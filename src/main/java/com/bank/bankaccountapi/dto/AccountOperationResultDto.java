@@ -0,0 +1,21 @@
+package com.bank.bankaccountapi.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
+public class AccountOperationResultDto {
+
+    private String accountNumber;
+
+    private boolean applied;
+
+    private AccountDto account;
+
+    private String error;
+}
@@ -0,0 +1,70 @@
+package com.bank.bankaccountapi.dto;
+
+import com.bank.bankaccountapi.money.CurrencyAmount;
+import com.bank.bankaccountapi.money.CurrencyUnits;
+import com.bank.bankaccountapi.money.MajorUnitsSerializer;
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.constraints.AssertTrue;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Positive;
+import javax.validation.constraints.Size;
+import java.math.BigDecimal;
+
+/**
+ * Moves {@link #amount} from one account to another: a CREDIT of {@link #fromAccountNumber} and a DEBIT of
+ * {@link #toAccountNumber}, applied together or not at all.
+ */
+@Data
+@Builder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
+public class AccountTransferDto implements CurrencyAmount {
+    @NotEmpty(message = "fromAccountNumber must be not empty")
+    private String fromAccountNumber;
+
+    @NotEmpty(message = "toAccountNumber must be not empty")
+    private String toAccountNumber;
+
+    @NotNull(message = "currency must be not null")
+    private Long currency;
+
+    /**
+     * Amount in minor units of {@link #currency}. Exchanged in JSON as a decimal number of major units.
+     */
+    @NotNull(message = "amount must be not null")
+    @Positive(message = "amount must be positive number")
+    @JsonSerialize(using = MajorUnitsSerializer.class)
+    private Long amount;
+
+    /**
+     * Optional client key, journaled on both accounts. Resubmitting it returns the original result without
+     * transferring again.
+     */
+    @Size(max = 100, message = "idempotencyKey must be at most 100 characters")
+    private String idempotencyKey;
+
+    @JsonIgnore
+    @AssertTrue(message = "fromAccountNumber and toAccountNumber must be different")
+    public boolean isBetweenDifferentAccounts() {
+        return fromAccountNumber == null || !fromAccountNumber.equals(toAccountNumber);
+    }
+
+    @JsonCreator
+    public static AccountTransferDto fromJson(@JsonProperty("fromAccountNumber") String fromAccountNumber,
+                                              @JsonProperty("toAccountNumber") String toAccountNumber,
+                                              @JsonProperty("currency") Long currency,
+                                              @JsonProperty("amount") BigDecimal amount,
+                                              @JsonProperty("idempotencyKey") String idempotencyKey) {
+        return new AccountTransferDto(fromAccountNumber, toAccountNumber, currency,
+                CurrencyUnits.toMinorUnits(amount, currency), idempotencyKey);
+    }
+}
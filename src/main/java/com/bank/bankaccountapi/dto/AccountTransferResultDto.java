@@ -0,0 +1,17 @@
+package com.bank.bankaccountapi.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
+public class AccountTransferResultDto {
+
+    private AccountDto fromAccount;
+
+    private AccountDto toAccount;
+}
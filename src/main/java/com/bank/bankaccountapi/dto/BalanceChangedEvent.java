@@ -0,0 +1,46 @@
+package com.bank.bankaccountapi.dto;
+
+import com.bank.bankaccountapi.money.CurrencyAmount;
+import com.bank.bankaccountapi.money.MajorUnitsSerializer;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Published by the outbox relay for every applied operation. Delivery is at least once: consumers drop an
+ * {@link #eventId} they have already seen. Event ids are unique across shards. Events of one account are published in the order they were applied.
+ */
+@Data
+@Builder(toBuilder = true)
+@NoArgsConstructor
+@AllArgsConstructor
+public class BalanceChangedEvent implements CurrencyAmount {
+
+    private Long eventId;
+
+    private Long operationId;
+
+    private String accountNumber;
+
+    private Long currency;
+
+    private OperationSign operationSign;
+
+    /**
+     * Amount of the operation in minor units of {@link #currency}. Exchanged in JSON as major units.
+     */
+    @JsonSerialize(using = MajorUnitsSerializer.class)
+    private Long amount;
+
+    /**
+     * Balance right after the operation in minor units of {@link #currency}. Exchanged in JSON as major units.
+     */
+    @JsonSerialize(using = MajorUnitsSerializer.class)
+    private Long balance;
+
+    private Instant occurredAt;
+}
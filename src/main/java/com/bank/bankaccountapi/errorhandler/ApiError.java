@@ -1,13 +1,25 @@
 package com.bank.bankaccountapi.errorhandler;
 
+import com.bank.bankaccountapi.expection.AccountApiException.Reason;
 import com.fasterxml.jackson.annotation.JsonFormat;
 import lombok.Data;
 import org.springframework.http.HttpStatus;
 
 import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.Map;
 
 @Data
 public class ApiError {
+
+    private static final Map<Reason, ApiError> REJECTIONS = new EnumMap<>(Reason.class);
+
+    static {
+        for (Reason reason : Reason.values()) {
+            REJECTIONS.put(reason, new ApiError(HttpStatus.BAD_REQUEST, reason.messageFor(""), null));
+        }
+    }
+
     private String status;
     @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss", shape = JsonFormat.Shape.STRING)
     private LocalDateTime timestamp;
@@ -31,4 +43,19 @@ public class ApiError {
         this.message = message;
         this.requestInfo = requestInfo;
     }
+
+    private ApiError(ApiError template, String accountNumber, String requestInfo) {
+        this();
+        this.status = template.status;
+        this.message = template.message + accountNumber;
+        this.requestInfo = requestInfo;
+    }
+
+    /**
+     * {@code 400 BAD_REQUEST} for a business rejection, with the same message as the {@code AccountApiException} of
+     * the reason. Built from a template per reason that only lacks the account number and request info.
+     */
+    public static ApiError rejected(Reason reason, String accountNumber, String requestInfo) {
+        return new ApiError(REJECTIONS.get(reason), accountNumber, requestInfo);
+    }
 }
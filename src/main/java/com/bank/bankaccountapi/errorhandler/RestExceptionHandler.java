@@ -1,16 +1,24 @@
 package com.bank.bankaccountapi.errorhandler;
 
 import com.bank.bankaccountapi.expection.AccountApiException;
+import com.bank.bankaccountapi.expection.OperationValidationException;
+import com.bank.bankaccountapi.expection.RateLimitExceededException;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.core.Ordered;
 import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.ConstraintViolationException;
 
 import static java.util.Objects.nonNull;
 
@@ -19,13 +27,29 @@ import static java.util.Objects.nonNull;
 @RestControllerAdvice
 public class RestExceptionHandler {
 
+    /**
+     * Business rejections are expected traffic and carry no stack trace, so they are logged as one WARN line.
+     */
     @ExceptionHandler(AccountApiException.class)
     @ResponseStatus(value = HttpStatus.BAD_REQUEST)
     protected ApiError handleAccountApiException(AccountApiException ex, WebRequest request) {
-        log.error("Handled account Api exception", ex);
+        log.warn("Handled account Api exception. reason = {}; message = {}", ex.getReason(), ex.getMessage());
         return new ApiError(HttpStatus.BAD_REQUEST, ex, request.getDescription(false));
     }
 
+    /**
+     * Shed requests arrive in floods, so they are logged at DEBUG only; they are counted by the limiter.
+     */
+    @ExceptionHandler(RateLimitExceededException.class)
+    protected ResponseEntity<ApiError> handleRateLimitExceededException(RateLimitExceededException ex,
+                                                                        WebRequest request) {
+        log.debug("Handled rate limit exception. message = {}; retryAfterNanos = {}",
+                ex.getMessage(), ex.getRetryAfterNanos());
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(new ApiError(HttpStatus.TOO_MANY_REQUESTS, ex, request.getDescription(false)));
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     @ResponseStatus(value = HttpStatus.BAD_REQUEST)
     protected ApiError handleMethodArgumentNotValidException(MethodArgumentNotValidException ex, WebRequest request) {
@@ -38,6 +62,30 @@ public class RestExceptionHandler {
         return new ApiError(HttpStatus.BAD_REQUEST, message, request.getDescription(false));
     }
 
+    /**
+     * Constraint violations of a body that skipped bean validation, answered like
+     * {@link MethodArgumentNotValidException}. They are expected client rejections without a stack trace, logged
+     * like business rejections.
+     */
+    @ExceptionHandler(OperationValidationException.class)
+    @ResponseStatus(value = HttpStatus.BAD_REQUEST)
+    protected ApiError handleOperationValidationException(OperationValidationException ex, WebRequest request) {
+        log.warn("Handled OperationValidationException. message = {}", ex.getMessage());
+        return new ApiError(HttpStatus.BAD_REQUEST, ex, request.getDescription(false));
+    }
+
+    @ExceptionHandler(ConstraintViolationException.class)
+    @ResponseStatus(value = HttpStatus.BAD_REQUEST)
+    protected ApiError handleConstraintViolationException(ConstraintViolationException ex, WebRequest request) {
+        log.error("Handled ConstraintViolationException", ex);
+
+        String message = ex.getConstraintViolations().stream()
+                .findFirst()
+                .map(ConstraintViolation::getMessage)
+                .orElse(ex.getMessage());
+        return new ApiError(HttpStatus.BAD_REQUEST, message, request.getDescription(false));
+    }
+
     @ExceptionHandler(HttpMessageNotReadableException.class)
     @ResponseStatus(value = HttpStatus.BAD_REQUEST)
     protected ApiError handleHttpMessageNotReadableException(HttpMessageNotReadableException ex, WebRequest request) {
@@ -45,6 +93,13 @@ public class RestExceptionHandler {
         return new ApiError(HttpStatus.BAD_REQUEST, ex, request.getDescription(false));
     }
 
+    @ExceptionHandler(MethodArgumentTypeMismatchException.class)
+    @ResponseStatus(value = HttpStatus.BAD_REQUEST)
+    protected ApiError handleMethodArgumentTypeMismatchException(MethodArgumentTypeMismatchException ex,
+                                                                 WebRequest request) {
+        log.error("Handled MethodArgumentTypeMismatchException", ex);
+        return new ApiError(HttpStatus.BAD_REQUEST, ex, request.getDescription(false));
+    }
 
     @ExceptionHandler(Exception.class)
     @ResponseStatus(value = HttpStatus.INTERNAL_SERVER_ERROR)
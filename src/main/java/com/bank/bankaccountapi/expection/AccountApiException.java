@@ -1,8 +1,55 @@
 package com.bank.bankaccountapi.expection;
 
+/**
+ * Business rejection of a request. It is an expected outcome rather than a fault, so no stack trace is captured.
+ */
 public class AccountApiException extends RuntimeException {
 
-    public AccountApiException(String message) {
-        super(message);
+    private final Reason reason;
+
+    public AccountApiException(Reason reason, String message) {
+        super(message, null, false, false);
+        this.reason = reason;
+    }
+
+    public Reason getReason() {
+        return reason;
+    }
+
+    /**
+     * Why the request was rejected, independent of the message text.
+     */
+    public enum Reason {
+        ACCOUNT_NOT_FOUND("Account does not exists"),
+        ACCOUNT_NOT_OPEN("Account is not OPEN"),
+        CURRENCY_MISMATCH("Account and operation currencies are different"),
+        INSUFFICIENT_BALANCE("Account does not have enough balance to process operation"),
+        INVALID_OPERATION("Not valid Operation Sign"),
+        CONCURRENT_MODIFICATION("Account was modified concurrently"),
+        IDEMPOTENCY_CONFLICT("Idempotency key was already used for another operation"),
+        CROSS_SHARD("Accounts are on different shards"),
+        BALANCE_OVERFLOW("Account balance would exceed its maximum");
+
+        private final String message;
+        private final String accountMessagePrefix;
+
+        Reason(String message) {
+            this.message = message;
+            this.accountMessagePrefix = message + ". AccountNumber = ";
+        }
+
+        /**
+         * Fixed message of the reason, without any request details.
+         */
+        public String getMessage() {
+            return message;
+        }
+
+        /**
+         * Message of a rejection of an operation on the account, the same over REST, gRPC and batch results.
+         */
+        public String messageFor(String accountNumber) {
+            return accountMessagePrefix + accountNumber;
+        }
     }
 }
@@ -0,0 +1,13 @@
+package com.bank.bankaccountapi.expection;
+
+/**
+ * A request body that violates the constraints of its DTO, found without bean validation. It is the counterpart of
+ * a bean validation failure rather than a business rejection, so it has no {@link AccountApiException.Reason} and
+ * no stack trace is captured.
+ */
+public class OperationValidationException extends RuntimeException {
+
+    public OperationValidationException(String message) {
+        super(message, null, false, false);
+    }
+}
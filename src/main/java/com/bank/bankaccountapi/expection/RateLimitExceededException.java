@@ -0,0 +1,28 @@
+package com.bank.bankaccountapi.expection;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A request shed by admission control. Like {@link AccountApiException} it is expected traffic, so no stack trace
+ * is captured.
+ */
+public class RateLimitExceededException extends RuntimeException {
+
+    private final long retryAfterNanos;
+
+    public RateLimitExceededException(String message, long retryAfterNanos) {
+        super(message, null, false, false);
+        this.retryAfterNanos = retryAfterNanos;
+    }
+
+    public long getRetryAfterNanos() {
+        return retryAfterNanos;
+    }
+
+    /**
+     * Whole seconds until the request would be admitted, rounded up, for the {@code Retry-After} header.
+     */
+    public long getRetryAfterSeconds() {
+        return Math.max(1, (retryAfterNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+    }
+}
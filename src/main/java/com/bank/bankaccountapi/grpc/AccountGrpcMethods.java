@@ -0,0 +1,85 @@
+package com.bank.bankaccountapi.grpc;
+
+import com.bank.bankaccountapi.domain.AccountStatus;
+import com.bank.bankaccountapi.dto.AccountDto;
+import com.bank.bankaccountapi.dto.AccountOperationDto;
+import com.bank.bankaccountapi.dto.AccountOperationResultDto;
+import com.bank.bankaccountapi.wire.AccountProtobufCodec;
+import com.google.protobuf.CodedInputStream;
+import io.grpc.MethodDescriptor;
+import io.grpc.Status;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.function.Function;
+
+/**
+ * Methods of the gRPC {@code bank.account.v1.AccountService} from {@code src/main/proto/account.proto}, with
+ * marshallers that go straight between the DTOs and bytes through {@link AccountProtobufCodec}. Clients use the same
+ * descriptors with {@code io.grpc.stub.ClientCalls}.
+ */
+public final class AccountGrpcMethods {
+
+    public static final String SERVICE_NAME = "bank.account.v1.AccountService";
+
+    private static final MethodDescriptor.Marshaller<String> ACCOUNT_REQUEST =
+            marshaller(AccountProtobufCodec::encodeAccountNumber, AccountProtobufCodec::decodeAccountNumber);
+    private static final MethodDescriptor.Marshaller<AccountStatus> STATUS_REPLY =
+            marshaller(AccountProtobufCodec::encodeStatus, AccountProtobufCodec::decodeStatus);
+    private static final MethodDescriptor.Marshaller<AccountDto> ACCOUNT =
+            marshaller(AccountProtobufCodec::encode, AccountProtobufCodec::decodeAccount);
+    private static final MethodDescriptor.Marshaller<AccountOperationDto> OPERATION =
+            marshaller(AccountProtobufCodec::encode, AccountProtobufCodec::decodeOperation);
+    private static final MethodDescriptor.Marshaller<AccountOperationResultDto> OPERATION_RESULT =
+            marshaller(AccountProtobufCodec::encode, AccountProtobufCodec::decodeOperationResult);
+
+    public static final MethodDescriptor<String, AccountStatus> GET_ACCOUNT_STATUS =
+            method("GetAccountStatus", MethodDescriptor.MethodType.UNARY, ACCOUNT_REQUEST, STATUS_REPLY);
+    public static final MethodDescriptor<String, AccountDto> GET_ACCOUNT_BALANCE =
+            method("GetAccountBalance", MethodDescriptor.MethodType.UNARY, ACCOUNT_REQUEST, ACCOUNT);
+    public static final MethodDescriptor<AccountOperationDto, AccountDto> APPLY_OPERATION =
+            method("ApplyOperation", MethodDescriptor.MethodType.UNARY, OPERATION, ACCOUNT);
+    public static final MethodDescriptor<AccountOperationDto, AccountOperationResultDto> APPLY_OPERATIONS =
+            method("ApplyOperations", MethodDescriptor.MethodType.BIDI_STREAMING, OPERATION, OPERATION_RESULT);
+
+    private AccountGrpcMethods() {
+    }
+
+    private static <Q, R> MethodDescriptor<Q, R> method(String name, MethodDescriptor.MethodType type,
+                                                        MethodDescriptor.Marshaller<Q> request,
+                                                        MethodDescriptor.Marshaller<R> response) {
+        return MethodDescriptor.<Q, R>newBuilder()
+                .setType(type)
+                .setFullMethodName(MethodDescriptor.generateFullMethodName(SERVICE_NAME, name))
+                .setRequestMarshaller(request)
+                .setResponseMarshaller(response)
+                .build();
+    }
+
+    private static <T> MethodDescriptor.Marshaller<T> marshaller(Function<T, byte[]> encoder, Decoder<T> decoder) {
+        return new MethodDescriptor.Marshaller<>() {
+            @Override
+            public InputStream stream(T value) {
+                return new ByteArrayInputStream(encoder.apply(value));
+            }
+
+            @Override
+            public T parse(InputStream stream) {
+                try {
+                    return decoder.decode(CodedInputStream.newInstance(stream));
+                } catch (IOException ex) {
+                    throw Status.INVALID_ARGUMENT
+                            .withDescription("Malformed protobuf message: " + ex.getMessage())
+                            .withCause(ex)
+                            .asRuntimeException();
+                }
+            }
+        };
+    }
+
+    @FunctionalInterface
+    private interface Decoder<T> {
+        T decode(CodedInputStream input) throws IOException;
+    }
+}
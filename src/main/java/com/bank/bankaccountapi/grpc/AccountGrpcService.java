@@ -0,0 +1,178 @@
+package com.bank.bankaccountapi.grpc;
+
+import com.bank.bankaccountapi.domain.AccountStatus;
+import com.bank.bankaccountapi.dto.AccountDto;
+import com.bank.bankaccountapi.dto.AccountOperationDto;
+import com.bank.bankaccountapi.dto.AccountOperationResultDto;
+import com.bank.bankaccountapi.expection.AccountApiException;
+import com.bank.bankaccountapi.expection.OperationValidationException;
+import com.bank.bankaccountapi.service.AccountOperationOutcome;
+import com.bank.bankaccountapi.service.AccountService;
+import com.bank.bankaccountapi.service.metrics.AccountMetrics;
+import com.bank.bankaccountapi.service.metrics.AccountMetrics.Method;
+import com.bank.bankaccountapi.wire.AccountOperationValidator;
+import io.grpc.BindableService;
+import io.grpc.ServerServiceDefinition;
+import io.grpc.stub.ServerCalls;
+import io.grpc.stub.StreamObserver;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Supplier;
+
+import static com.bank.bankaccountapi.logging.LogMarkers.SAMPLED;
+
+/**
+ * gRPC endpoint of {@link AccountService}, next to {@link com.bank.bankaccountapi.controller.AccountController}.
+ * {@code ApplyOperations} applies the operations of a stream one after another as they arrive and answers each
+ * with an in-band result, so a client can keep many operations in flight on one HTTP/2 connection.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AccountGrpcService implements BindableService {
+
+    private final AccountService accountService;
+    private final AccountMetrics metrics;
+
+    @Override
+    public ServerServiceDefinition bindService() {
+        return ServerServiceDefinition.builder(AccountGrpcMethods.SERVICE_NAME)
+                .addMethod(AccountGrpcMethods.GET_ACCOUNT_STATUS, ServerCalls.asyncUnaryCall(this::getAccountStatus))
+                .addMethod(AccountGrpcMethods.GET_ACCOUNT_BALANCE, ServerCalls.asyncUnaryCall(this::getAccountBalance))
+                .addMethod(AccountGrpcMethods.APPLY_OPERATION, ServerCalls.asyncUnaryCall(this::applyOperation))
+                .addMethod(AccountGrpcMethods.APPLY_OPERATIONS,
+                        ServerCalls.asyncBidiStreamingCall(this::applyOperations))
+                .build();
+    }
+
+    private void getAccountStatus(String accountNumber, StreamObserver<AccountStatus> responseObserver) {
+        respond(responseObserver, () -> {
+            requireAccountNumber(accountNumber);
+            return AccountStatus.valueOf(record(Method.GET_STATUS,
+                    () -> accountService.getAccountStatusByAccountNumber(accountNumber)));
+        });
+    }
+
+    private void getAccountBalance(String accountNumber, StreamObserver<AccountDto> responseObserver) {
+        respond(responseObserver, () -> {
+            requireAccountNumber(accountNumber);
+            return record(Method.GET_BALANCE, () -> accountService.getAccountBalanceInquiryByAccountNumber(accountNumber));
+        });
+    }
+
+    private void applyOperation(AccountOperationDto operation, StreamObserver<AccountDto> responseObserver) {
+        respond(responseObserver, () -> {
+            AccountOperationValidator.validate(operation);
+            AccountOperationOutcome outcome = apply(operation);
+            if (!outcome.isApplied()) {
+                throw GrpcStatuses.rejected(outcome.getRejection(), operation.getAccountNumber());
+            }
+            return outcome.getAccount();
+        });
+    }
+
+    private StreamObserver<AccountOperationDto> applyOperations(
+            StreamObserver<AccountOperationResultDto> responseObserver) {
+        return new StreamObserver<>() {
+
+            private boolean failed;
+
+            @Override
+            public void onNext(AccountOperationDto operation) {
+                if (failed) {
+                    return;
+                }
+                AccountOperationResultDto.AccountOperationResultDtoBuilder result = AccountOperationResultDto.builder()
+                        .accountNumber(operation.getAccountNumber());
+                try {
+                    AccountOperationValidator.validate(operation);
+                    AccountOperationOutcome outcome = apply(operation);
+                    if (outcome.isApplied()) {
+                        result.applied(true).account(outcome.getAccount());
+                    } else {
+                        result.applied(false).error(outcome.getRejection().messageFor(operation.getAccountNumber()));
+                    }
+                } catch (AccountApiException | OperationValidationException ex) {
+                    result.applied(false).error(ex.getMessage());
+                } catch (RuntimeException ex) {
+                    failed = true;
+                    responseObserver.onError(GrpcStatuses.toStatusException(ex));
+                    return;
+                }
+                responseObserver.onNext(result.build());
+            }
+
+            @Override
+            public void onError(Throwable t) {
+                log.warn("ApplyOperations stream was closed by the client. status = {}", t.getMessage());
+            }
+
+            @Override
+            public void onCompleted() {
+                if (!failed) {
+                    responseObserver.onCompleted();
+                }
+            }
+        };
+    }
+
+    /**
+     * Applies the operation like the REST endpoint does: a rejection is returned as an outcome, not thrown.
+     */
+    private AccountOperationOutcome apply(AccountOperationDto operation) {
+        log.info(SAMPLED, "gRPC account operation was started. accountNumber = {}; operationSign = {}; amount = {}; "
+                        + "currency = {}", operation.getAccountNumber(), operation.getOperationSign(),
+                operation.getAmount(), operation.getCurrency());
+        long start = metrics.operationStarted(operation.getAccountNumber());
+        AccountOperationOutcome outcome;
+        try {
+            outcome = accountService.tryApplyAccountOperation(operation);
+        } catch (RuntimeException ex) {
+            metrics.operationFinished(operation.getAccountNumber(), start, ex);
+            throw ex;
+        }
+        if (!outcome.isApplied()) {
+            metrics.operationRejected(operation.getAccountNumber(), start, outcome.getRejection());
+            log.info(SAMPLED, "gRPC account operation was rejected. accountNumber = {}; reason = {}",
+                    operation.getAccountNumber(), outcome.getRejection());
+            return outcome;
+        }
+        metrics.operationFinished(operation.getAccountNumber(), start, null);
+        log.info(SAMPLED, "gRPC account operation was ended. accountNumber = {}; balance = {}",
+                outcome.getAccount().getAccountNumber(), outcome.getAccount().getBalance());
+        return outcome;
+    }
+
+    private <T> T record(Method method, Supplier<T> call) {
+        long start = System.nanoTime();
+        T result;
+        try {
+            result = call.get();
+        } catch (RuntimeException ex) {
+            metrics.record(method, start, ex);
+            throw ex;
+        }
+        metrics.record(method, start, null);
+        return result;
+    }
+
+    private static void requireAccountNumber(String accountNumber) {
+        if (accountNumber == null || accountNumber.isEmpty()) {
+            throw new OperationValidationException("accountNumber must be not empty");
+        }
+    }
+
+    private static <T> void respond(StreamObserver<T> responseObserver, Supplier<T> call) {
+        T response;
+        try {
+            response = call.get();
+        } catch (RuntimeException ex) {
+            responseObserver.onError(GrpcStatuses.toStatusException(ex));
+            return;
+        }
+        responseObserver.onNext(response);
+        responseObserver.onCompleted();
+    }
+}
@@ -0,0 +1,76 @@
+package com.bank.bankaccountapi.grpc;
+
+import com.bank.bankaccountapi.config.AccountGrpcProperties;
+import io.grpc.Server;
+import io.grpc.netty.shaded.io.grpc.netty.NettyServerBuilder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the Netty gRPC server (HTTP/2) for {@link AccountGrpcService} on {@code account.grpc.port} while the
+ * application context is running.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "account.grpc.enabled", havingValue = "true")
+public class GrpcServerLifecycle implements SmartLifecycle {
+
+    private final AccountGrpcService accountGrpcService;
+    private final AccountGrpcProperties properties;
+    private volatile Server server;
+
+    public GrpcServerLifecycle(AccountGrpcService accountGrpcService, AccountGrpcProperties properties) {
+        this.accountGrpcService = accountGrpcService;
+        this.properties = properties;
+    }
+
+    @Override
+    public void start() {
+        try {
+            server = NettyServerBuilder.forPort(properties.getPort())
+                    .addService(accountGrpcService)
+                    .build()
+                    .start();
+        } catch (IOException ex) {
+            throw new UncheckedIOException("gRPC server could not be started on port " + properties.getPort(), ex);
+        }
+        log.info("gRPC server was started. port = {}", server.getPort());
+    }
+
+    @Override
+    public void stop() {
+        Server running = server;
+        if (running == null) {
+            return;
+        }
+        running.shutdown();
+        try {
+            if (!running.awaitTermination(properties.getShutdownGracePeriod().toMillis(), TimeUnit.MILLISECONDS)) {
+                running.shutdownNow();
+            }
+        } catch (InterruptedException ex) {
+            running.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+        server = null;
+        log.info("gRPC server was stopped");
+    }
+
+    @Override
+    public boolean isRunning() {
+        return server != null;
+    }
+
+    /**
+     * Port the server is bound to, which differs from {@code account.grpc.port} when that is 0.
+     */
+    public int getPort() {
+        return server.getPort();
+    }
+}
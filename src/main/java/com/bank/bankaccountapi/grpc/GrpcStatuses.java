@@ -0,0 +1,87 @@
+package com.bank.bankaccountapi.grpc;
+
+import com.bank.bankaccountapi.expection.AccountApiException;
+import com.bank.bankaccountapi.expection.OperationValidationException;
+import io.grpc.Metadata;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * gRPC counterpart of {@link com.bank.bankaccountapi.errorhandler.RestExceptionHandler}: the same messages, with
+ * a status code per rejection reason instead of a blanket 400, and the reason itself in a trailer.
+ */
+@Slf4j
+public final class GrpcStatuses {
+
+    public static final Metadata.Key<String> REASON =
+            Metadata.Key.of("account-error-reason", Metadata.ASCII_STRING_MARSHALLER);
+
+    private GrpcStatuses() {
+    }
+
+    public static StatusRuntimeException toStatusException(RuntimeException ex) {
+        if (ex instanceof StatusRuntimeException) {
+            return (StatusRuntimeException) ex;
+        }
+        if (ex instanceof AccountApiException) {
+            AccountApiException.Reason reason = ((AccountApiException) ex).getReason();
+            log.warn("Handled account Api exception. reason = {}; message = {}", reason, ex.getMessage());
+            return rejection(reason, ex.getMessage());
+        }
+        if (ex instanceof OperationValidationException) {
+            log.warn("Handled OperationValidationException. message = {}", ex.getMessage());
+            return new RejectionException(Status.INVALID_ARGUMENT.withDescription(ex.getMessage()), null);
+        }
+        log.error("Handled by gRPC globalExceptionHandler", ex);
+        return Status.INTERNAL.withDescription(ex.getMessage()).withCause(ex).asRuntimeException();
+    }
+
+    /**
+     * Status of an operation rejected without an exception, with the same description as
+     * {@link com.bank.bankaccountapi.service.AccountOperations#rejected}.
+     */
+    public static StatusRuntimeException rejected(AccountApiException.Reason reason, String accountNumber) {
+        return rejection(reason, reason.messageFor(accountNumber));
+    }
+
+    private static StatusRuntimeException rejection(AccountApiException.Reason reason, String message) {
+        Metadata trailers = new Metadata();
+        trailers.put(REASON, reason.name());
+        return new RejectionException(statusOf(reason).withDescription(message), trailers);
+    }
+
+    static Status statusOf(AccountApiException.Reason reason) {
+        switch (reason) {
+            case ACCOUNT_NOT_FOUND:
+                return Status.NOT_FOUND;
+            case INVALID_OPERATION:
+                return Status.INVALID_ARGUMENT;
+            case CONCURRENT_MODIFICATION:
+                return Status.ABORTED;
+            case IDEMPOTENCY_CONFLICT:
+                return Status.ALREADY_EXISTS;
+            default:
+                // not open, currency mismatch, insufficient balance, cross shard, balance overflow: the request is
+                // valid but the accounts refuse it
+                return Status.FAILED_PRECONDITION;
+        }
+    }
+
+    /**
+     * Status of an expected rejection; like {@code AccountApiException} it captures no stack trace.
+     */
+    private static final class RejectionException extends StatusRuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        RejectionException(Status status, Metadata trailers) {
+            super(status, trailers);
+        }
+
+        @Override
+        public synchronized Throwable fillInStackTrace() {
+            return this;
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.bank.bankaccountapi.logging;
+
+import org.slf4j.Marker;
+import org.slf4j.MarkerFactory;
+
+public final class LogMarkers {
+
+    /**
+     * Success-path lines that may be sampled by {@link SamplingTurboFilter}.
+     */
+    public static final Marker SAMPLED = MarkerFactory.getMarker("SAMPLED");
+
+    private LogMarkers() {
+    }
+}
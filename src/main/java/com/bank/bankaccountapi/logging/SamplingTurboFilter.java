@@ -0,0 +1,31 @@
+package com.bank.bankaccountapi.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import lombok.Getter;
+import lombok.Setter;
+import org.slf4j.Marker;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Keeps on average one of {@code rate} INFO and lower events marked with {@link LogMarkers#SAMPLED}.
+ * Runs before the logging event is created, so dropped lines cost neither formatting nor appender work.
+ * WARN and ERROR events and unmarked events are never sampled.
+ */
+@Getter
+@Setter
+public class SamplingTurboFilter extends TurboFilter {
+
+    private int rate = 100;
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        if (marker != LogMarkers.SAMPLED || rate <= 1 || level.isGreaterOrEqual(Level.WARN)) {
+            return FilterReply.NEUTRAL;
+        }
+        return ThreadLocalRandom.current().nextInt(rate) == 0 ? FilterReply.NEUTRAL : FilterReply.DENY;
+    }
+}
@@ -3,11 +3,13 @@ package com.bank.bankaccountapi.mapper;
 import com.bank.bankaccountapi.domain.Account;
 import com.bank.bankaccountapi.dto.AccountDto;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 
 import java.util.List;
 
 @Mapper(componentModel = "spring")
 public interface AccountMapper {
+    @Mapping(target = "version", ignore = true)
     Account map(AccountDto accountDto);
 
     AccountDto map(Account accountDto);
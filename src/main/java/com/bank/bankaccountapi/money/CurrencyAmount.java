@@ -0,0 +1,8 @@
+package com.bank.bankaccountapi.money;
+
+/**
+ * An object carrying an amount in minor units of its ISO 4217 numeric currency.
+ */
+public interface CurrencyAmount {
+    Long getCurrency();
+}
@@ -0,0 +1,55 @@
+package com.bank.bankaccountapi.money;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Currency;
+
+/**
+ * Conversion between major units (as exchanged in JSON) and the {@code long} minor units used for storage and
+ * arithmetic. The number of minor units of a currency is looked up by its ISO 4217 numeric code.
+ */
+public final class CurrencyUnits {
+
+    public static final int DEFAULT_SCALE = 2;
+
+    private static final int[] SCALES = new int[1000];
+
+    static {
+        Arrays.fill(SCALES, DEFAULT_SCALE);
+        for (Currency currency : Currency.getAvailableCurrencies()) {
+            int numericCode = currency.getNumericCode();
+            if (numericCode > 0 && numericCode < SCALES.length) {
+                SCALES[numericCode] = Math.max(0, currency.getDefaultFractionDigits());
+            }
+        }
+    }
+
+    private CurrencyUnits() {
+    }
+
+    /**
+     * Number of minor unit digits of the currency, {@link #DEFAULT_SCALE} for unknown codes.
+     */
+    public static int scale(Long currency) {
+        if (currency == null || currency <= 0 || currency >= SCALES.length) {
+            return DEFAULT_SCALE;
+        }
+        return SCALES[currency.intValue()];
+    }
+
+    public static Long toMinorUnits(BigDecimal majorUnits, Long currency) {
+        if (majorUnits == null) {
+            return null;
+        }
+        try {
+            return majorUnits.movePointRight(scale(currency)).longValueExact();
+        } catch (ArithmeticException ex) {
+            throw new IllegalArgumentException("amount " + majorUnits.toPlainString()
+                    + " has more decimal places than currency " + currency + " allows", ex);
+        }
+    }
+
+    public static BigDecimal toMajorUnits(long minorUnits, Long currency) {
+        return BigDecimal.valueOf(minorUnits, scale(currency));
+    }
+}
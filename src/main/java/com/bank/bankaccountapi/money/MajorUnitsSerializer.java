@@ -0,0 +1,24 @@
+package com.bank.bankaccountapi.money;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+
+/**
+ * Writes a minor units amount as a decimal number in major units of the currency of the enclosing object.
+ */
+public class MajorUnitsSerializer extends StdSerializer<Long> {
+
+    public MajorUnitsSerializer() {
+        super(Long.class);
+    }
+
+    @Override
+    public void serialize(Long minorUnits, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        Object owner = gen.getCurrentValue();
+        Long currency = owner instanceof CurrencyAmount ? ((CurrencyAmount) owner).getCurrency() : null;
+        gen.writeNumber(CurrencyUnits.toMajorUnits(minorUnits, currency));
+    }
+}
@@ -0,0 +1,107 @@
+package com.bank.bankaccountapi.replica;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Last write of each client within the read-your-writes window, at most about {@code maxClients} of them. Like the
+ * rate limiter's bucket table, a client that does not fit after idle entries were swept shares one entry with every
+ * other such client, and every lookup also honours that shared entry, so no write is ever forgotten early. The
+ * clients are swept at most {@link #SWEEPS_PER_WINDOW} times per window, so a flood of new client ids does not scan
+ * the map on every write.
+ */
+public class ClientWrites {
+
+    static final int SWEEPS_PER_WINDOW = 4;
+
+    private final ConcurrentHashMap<String, Write> clients = new ConcurrentHashMap<>();
+    private final Write overflow = new Write();
+    private final AtomicLong nextSweepMillis = new AtomicLong();
+    private final int maxClients;
+    private final long windowMillis;
+    private final long sweepIntervalMillis;
+
+    public ClientWrites(int maxClients, long windowMillis) {
+        this.maxClients = Math.max(1, maxClients);
+        this.windowMillis = windowMillis;
+        this.sweepIntervalMillis = Math.max(1, windowMillis / SWEEPS_PER_WINDOW);
+    }
+
+    /**
+     * Until the returned write is {@link Write#finished finished}, reads of the client must go to the primary.
+     */
+    public Write writeStarted(String client, long nowMillis) {
+        while (true) {
+            Write write = clients.get(client);
+            if (write == null) {
+                write = register(client, nowMillis);
+            }
+            write.pending.incrementAndGet();
+            // a sweep may have removed the entry between the lookup and the increment
+            if (write == overflow || clients.get(client) == write) {
+                return write;
+            }
+            write.pending.decrementAndGet();
+        }
+    }
+
+    /**
+     * @return replication position reads of the client must see, {@link Long#MAX_VALUE} while it has a write in
+     * flight, {@code 0} without a write in the window
+     */
+    public long minPositionMillis(String client, long nowMillis) {
+        Write write = clients.get(client);
+        long position = overflow.positionMillis(nowMillis, windowMillis);
+        return write == null ? position : Math.max(position, write.positionMillis(nowMillis, windowMillis));
+    }
+
+    int size() {
+        return clients.size();
+    }
+
+    private Write register(String client, long nowMillis) {
+        if (clients.size() >= maxClients) {
+            evictIdle(nowMillis);
+            if (clients.size() >= maxClients) {
+                return overflow;
+            }
+        }
+        return clients.computeIfAbsent(client, ignored -> new Write());
+    }
+
+    /**
+     * The thread that claims the next sweep slot sweeps; the others, and every thread until the slot after it, use
+     * the overflow entry meanwhile.
+     */
+    private void evictIdle(long nowMillis) {
+        long next = nextSweepMillis.get();
+        if (nowMillis < next || !nextSweepMillis.compareAndSet(next, nowMillis + sweepIntervalMillis)) {
+            return;
+        }
+        clients.values().removeIf(write -> write.positionMillis(nowMillis, windowMillis) == 0);
+    }
+
+    public static final class Write {
+
+        private final AtomicInteger pending = new AtomicInteger();
+        private final AtomicLong lastFinishedMillis = new AtomicLong();
+
+        /**
+         * The write has committed or failed; from now on its client may read from a replica that has replicated
+         * past {@code nowMillis}.
+         */
+        public void finished(long nowMillis) {
+            lastFinishedMillis.accumulateAndGet(nowMillis, Math::max);
+            pending.decrementAndGet();
+        }
+
+        private long positionMillis(long nowMillis, long windowMillis) {
+            if (pending.get() > 0) {
+                return Long.MAX_VALUE;
+            }
+            long last = lastFinishedMillis.get();
+            return last != 0 && nowMillis - last <= windowMillis ? last : 0;
+        }
+    }
+}
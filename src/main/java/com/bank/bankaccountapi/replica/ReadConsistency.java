@@ -0,0 +1,27 @@
+package com.bank.bankaccountapi.replica;
+
+/**
+ * Replication position the reads of the current request must see, set per request by
+ * {@link ReadYourWritesInterceptor}. {@code 0} when the request has no requirement beyond the staleness bound,
+ * {@link Long#MAX_VALUE} when only the primary will do.
+ */
+public final class ReadConsistency {
+
+    private static final ThreadLocal<Long> MIN_POSITION = new ThreadLocal<>();
+
+    private ReadConsistency() {
+    }
+
+    public static long minPositionMillis() {
+        Long position = MIN_POSITION.get();
+        return position == null ? 0 : position;
+    }
+
+    public static void require(long positionMillis) {
+        MIN_POSITION.set(positionMillis);
+    }
+
+    public static void clear() {
+        MIN_POSITION.remove();
+    }
+}
@@ -0,0 +1,153 @@
+package com.bank.bankaccountapi.replica;
+
+import com.bank.bankaccountapi.config.ReadReplicaProperties.Selection;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Picks the data source of a read-only transaction: a replica that is at most {@code maxStaleness} behind the primary
+ * and has replicated past the position the request must see, else the primary. Among the eligible replicas,
+ * {@link Selection#ROUND_ROBIN} takes the next one in turn and {@link Selection#LEAST_LOADED} the one with the
+ * fewest connections in use, ties broken in turn.
+ * <p>
+ * The data source is created before the meter registry, so routing is counted in adders that are only exposed as
+ * meters once the registry binds this router.
+ */
+@Slf4j
+public class ReadReplicaRouter implements MeterBinder, Closeable {
+
+    static final String READS = "account.read.replica.reads";
+
+    private final DataSource primary;
+    private final Replica[] replicas;
+    private final Selection selection;
+    private final long maxStalenessMillis;
+    private final LongSupplier clock;
+    private final AtomicInteger next = new AtomicInteger();
+    private final LongAdder[] replicaReads;
+    private final LongAdder staleFallbacks = new LongAdder();
+    private final LongAdder readYourWritesFallbacks = new LongAdder();
+    private final LongAdder primaryReads = new LongAdder();
+
+    public ReadReplicaRouter(DataSource primary, List<Replica> replicas, Selection selection, long maxStalenessMillis) {
+        this(primary, replicas, selection, maxStalenessMillis, System::currentTimeMillis);
+    }
+
+    ReadReplicaRouter(DataSource primary, List<Replica> replicas, Selection selection, long maxStalenessMillis,
+                      LongSupplier clock) {
+        this.primary = primary;
+        this.replicas = replicas.toArray(new Replica[0]);
+        this.selection = selection;
+        this.maxStalenessMillis = maxStalenessMillis;
+        this.clock = clock;
+        this.replicaReads = new LongAdder[this.replicas.length];
+        for (int i = 0; i < this.replicas.length; i++) {
+            replicaReads[i] = new LongAdder();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (int i = 0; i < replicas.length; i++) {
+            Replica replica = replicas[i];
+            readCounter(registry, replica.getName(), "fresh", replicaReads[i]);
+            TimeGauge.builder("account.read.replica.lag", replica, TimeUnit.MILLISECONDS,
+                            lagging -> Math.max(0, clock.getAsLong() - lagging.getReplicatedUpToMillis()))
+                    .description("How far the replica is behind the primary, as of its last replication")
+                    .tag("replica", replica.getName())
+                    .register(registry);
+        }
+        readCounter(registry, "primary", "stale", staleFallbacks);
+        readCounter(registry, "primary", "read-your-writes", readYourWritesFallbacks);
+        readCounter(registry, "primary", "no-replica", primaryReads);
+    }
+
+    public DataSource getPrimary() {
+        return primary;
+    }
+
+    public List<Replica> getReplicas() {
+        return List.of(replicas);
+    }
+
+    /**
+     * @param minPositionMillis replication position the read must see, see {@link ReadConsistency}
+     */
+    public DataSource select(long minPositionMillis) {
+        int count = replicas.length;
+        if (count == 0) {
+            primaryReads.increment();
+            return primary;
+        }
+        long freshEnough = clock.getAsLong() - maxStalenessMillis;
+        int start = Math.floorMod(next.getAndIncrement(), count);
+        boolean anyFresh = false;
+        int chosen = -1;
+        int chosenLoad = Integer.MAX_VALUE;
+        for (int i = 0; i < count; i++) {
+            int index = start + i < count ? start + i : start + i - count;
+            long position = replicas[index].getReplicatedUpToMillis();
+            if (position < freshEnough) {
+                continue;
+            }
+            anyFresh = true;
+            if (position < minPositionMillis) {
+                continue;
+            }
+            if (selection == Selection.ROUND_ROBIN) {
+                chosen = index;
+                break;
+            }
+            int load = replicas[index].getActiveConnections();
+            if (load < chosenLoad) {
+                chosen = index;
+                chosenLoad = load;
+                if (load == 0) {
+                    break;
+                }
+            }
+        }
+        if (chosen < 0) {
+            (anyFresh ? readYourWritesFallbacks : staleFallbacks).increment();
+            return primary;
+        }
+        replicaReads[chosen].increment();
+        return replicas[chosen].getDataSource();
+    }
+
+    /**
+     * Closes the replica pools; the primary is a bean of its own.
+     */
+    @Override
+    public void close() {
+        for (Replica replica : replicas) {
+            if (replica.getDataSource() instanceof Closeable) {
+                try {
+                    ((Closeable) replica.getDataSource()).close();
+                } catch (IOException ex) {
+                    log.warn("Replica pool was not closed. replica = {}", replica.getName(), ex);
+                }
+            }
+        }
+    }
+
+    private static void readCounter(MeterRegistry registry, String target, String reason, LongAdder reads) {
+        FunctionCounter.builder(READS, reads, LongAdder::sum)
+                .description("Read-only transactions by the data source they were routed to")
+                .tag("target", target)
+                .tag("reason", reason)
+                .register(registry);
+    }
+}
@@ -0,0 +1,39 @@
+package com.bank.bankaccountapi.replica;
+
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Hands out connections of a replica inside read-only transactions and of the primary otherwise. The transaction
+ * manager asks for the connection before it marks the transaction read-only, so this must be wrapped in a
+ * {@link LazyConnectionDataSourceProxy}, which only asks once the first statement runs.
+ */
+public class ReadReplicaRoutingDataSource extends AbstractDataSource {
+
+    private final ReadReplicaRouter router;
+
+    public ReadReplicaRoutingDataSource(ReadReplicaRouter router) {
+        this.router = router;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return target().getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return target().getConnection(username, password);
+    }
+
+    private DataSource target() {
+        return TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                ? router.select(ReadConsistency.minPositionMillis())
+                : router.getPrimary();
+    }
+}
@@ -0,0 +1,52 @@
+package com.bank.bankaccountapi.replica;
+
+import com.bank.bankaccountapi.service.ratelimit.AccountRateLimiter;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Sets the {@link ReadConsistency} of each request from the last write of its client ({@code X-Client-Id}, else the
+ * remote address). On write endpoints it also tracks the write itself: reads of the client go to the primary from
+ * the moment the write arrives until it has finished, and then to replicas that have replicated past it.
+ */
+public class ReadYourWritesInterceptor implements HandlerInterceptor {
+
+    private static final String WRITE_ATTRIBUTE = ReadYourWritesInterceptor.class.getName() + ".write";
+
+    private final ClientWrites clientWrites;
+    private final boolean writes;
+
+    public ReadYourWritesInterceptor(ClientWrites clientWrites, boolean writes) {
+        this.clientWrites = clientWrites;
+        this.writes = writes;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        String client = request.getHeader(AccountRateLimiter.CLIENT_ID_HEADER);
+        if (client == null) {
+            client = request.getRemoteAddr();
+        }
+        long now = System.currentTimeMillis();
+        if (writes) {
+            request.setAttribute(WRITE_ATTRIBUTE, clientWrites.writeStarted(client, now));
+        }
+        ReadConsistency.require(clientWrites.minPositionMillis(client, now));
+        return true;
+    }
+
+    /**
+     * Runs after the response was written and the transaction has ended, also when the handler failed.
+     */
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        ReadConsistency.clear();
+        Object write = request.getAttribute(WRITE_ATTRIBUTE);
+        if (write != null) {
+            ((ClientWrites.Write) write).finished(System.currentTimeMillis());
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.bank.bankaccountapi.replica;
+
+import javax.sql.DataSource;
+import java.util.function.IntSupplier;
+
+/**
+ * A read replica with its replication position: every change committed on the primary before
+ * {@link #getReplicatedUpToMillis()} is visible on it.
+ */
+public class Replica {
+
+    private final String name;
+    private final DataSource dataSource;
+    private final IntSupplier activeConnections;
+    private volatile long replicatedUpToMillis;
+
+    public Replica(String name, DataSource dataSource, IntSupplier activeConnections) {
+        this.name = name;
+        this.dataSource = dataSource;
+        this.activeConnections = activeConnections;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public DataSource getDataSource() {
+        return dataSource;
+    }
+
+    public int getActiveConnections() {
+        return activeConnections.getAsInt();
+    }
+
+    public long getReplicatedUpToMillis() {
+        return replicatedUpToMillis;
+    }
+
+    /**
+     * Called by whatever replicates into this replica once everything committed before {@code positionMillis}
+     * is visible.
+     */
+    public void replicatedUpTo(long positionMillis) {
+        replicatedUpToMillis = positionMillis;
+    }
+}
@@ -0,0 +1,152 @@
+package com.bank.bankaccountapi.replica;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.ResultSetMetaData;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Stand-in for database replication between separate H2 instances: every {@code account.read-replica.sync.interval}
+ * it reads {@code ACCOUNT} and {@code ACCOUNT_SLOT} from the primary in one snapshot and replaces them on every
+ * replica in one transaction each, then advances the replica's position to the time the snapshot was started.
+ * It copies whole tables, so it is only meant for local runs and tests; a real deployment uses the database's own
+ * replication and reports the replica position from it.
+ */
+@Slf4j
+public class ReplicaSynchronizer implements SmartLifecycle {
+
+    private static final List<String> TABLES = List.of("ACCOUNT", "ACCOUNT_SLOT");
+
+    private final JdbcTemplate primary;
+    private final TransactionTemplate primarySnapshot;
+    private final List<Replica> replicas;
+    private final Duration interval;
+    private volatile ScheduledExecutorService synchronizer;
+
+    public ReplicaSynchronizer(DataSource primary, List<Replica> replicas, Duration interval) {
+        this.primary = new JdbcTemplate(primary);
+        this.primarySnapshot = new TransactionTemplate(new DataSourceTransactionManager(primary));
+        this.primarySnapshot.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.replicas = replicas;
+        this.interval = interval;
+    }
+
+    @Override
+    public void start() {
+        ResourceDatabasePopulator schema = new ResourceDatabasePopulator(new ClassPathResource("schema.sql"));
+        for (Replica replica : replicas) {
+            schema.execute(replica.getDataSource());
+        }
+        syncNow();
+        synchronizer = Executors.newSingleThreadScheduledExecutor(runnable -> new Thread(runnable, "account-replica-sync"));
+        long intervalMillis = Math.max(1, interval.toMillis());
+        synchronizer.scheduleWithFixedDelay(this::syncNow, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        log.info("Replica synchronizer was started. replicas = {}; interval = {}", replicas.size(), interval);
+    }
+
+    @Override
+    public void stop() {
+        ScheduledExecutorService running = synchronizer;
+        if (running == null) {
+            return;
+        }
+        running.shutdown();
+        try {
+            running.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        synchronizer = null;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return synchronizer != null;
+    }
+
+    /**
+     * Copies the primary into every replica now. A replica that fails keeps its old position and is retried on the
+     * next run.
+     */
+    public synchronized void syncNow() {
+        // taken before the snapshot, so everything committed before it is in the snapshot
+        long position = System.currentTimeMillis();
+        Map<String, Table> snapshot;
+        try {
+            snapshot = primarySnapshot.execute(status -> {
+                Map<String, Table> tables = new LinkedHashMap<>();
+                TABLES.forEach(table -> tables.put(table, read(table)));
+                return tables;
+            });
+        } catch (RuntimeException ex) {
+            log.warn("Primary snapshot for replicas failed", ex);
+            return;
+        }
+        for (Replica replica : replicas) {
+            try {
+                write(replica, snapshot);
+                replica.replicatedUpTo(position);
+            } catch (RuntimeException ex) {
+                log.warn("Replica was not synchronized. replica = {}", replica.getName(), ex);
+            }
+        }
+    }
+
+    private Table read(String table) {
+        return primary.query("SELECT * FROM " + table, rs -> {
+            ResultSetMetaData metaData = rs.getMetaData();
+            List<String> columns = new ArrayList<>(metaData.getColumnCount());
+            for (int column = 1; column <= metaData.getColumnCount(); column++) {
+                columns.add(metaData.getColumnName(column));
+            }
+            List<Object[]> rows = new ArrayList<>();
+            while (rs.next()) {
+                Object[] row = new Object[columns.size()];
+                for (int column = 0; column < row.length; column++) {
+                    row[column] = rs.getObject(column + 1);
+                }
+                rows.add(row);
+            }
+            return new Table(columns, rows);
+        });
+    }
+
+    private static void write(Replica replica, Map<String, Table> snapshot) {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(replica.getDataSource());
+        new TransactionTemplate(new DataSourceTransactionManager(replica.getDataSource())).executeWithoutResult(
+                status -> snapshot.forEach((table, content) -> {
+                    jdbcTemplate.update("DELETE FROM " + table);
+                    if (!content.rows.isEmpty()) {
+                        jdbcTemplate.batchUpdate("INSERT INTO " + table + " (" + String.join(", ", content.columns)
+                                + ") VALUES (" + String.join(", ", Collections.nCopies(content.columns.size(), "?"))
+                                + ")", content.rows);
+                    }
+                }));
+    }
+
+    private static final class Table {
+        private final List<String> columns;
+        private final List<Object[]> rows;
+
+        private Table(List<String> columns, List<Object[]> rows) {
+            this.columns = columns;
+            this.rows = rows;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.bank.bankaccountapi.repo;
+
+import com.bank.bankaccountapi.domain.Account;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+
+/**
+ * Plain JDBC batch writes for paths that update many accounts at once.
+ */
+@Repository
+@RequiredArgsConstructor
+public class AccountBatchRepo {
+
+    private static final String UPDATE_BALANCE_SQL =
+            "UPDATE ACCOUNT SET BALANCE = ?, VERSION = VERSION + 1 WHERE ACCOUNT_NUMBER = ?";
+    private static final String ADD_TO_BALANCE_SQL =
+            "UPDATE ACCOUNT SET BALANCE = BALANCE + ?, VERSION = VERSION + 1 WHERE ACCOUNT_NUMBER = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public int[] updateBalances(Collection<Account> accounts) {
+        return jdbcTemplate.batchUpdate(UPDATE_BALANCE_SQL, accounts, accounts.size(),
+                (ps, account) -> {
+                    ps.setLong(1, account.getBalance());
+                    ps.setString(2, account.getAccountNumber());
+                })[0];
+    }
+
+    /**
+     * @return number of updated rows, 0 if the account does not exist
+     */
+    public int addToBalance(String accountNumber, long delta) {
+        return jdbcTemplate.update(ADD_TO_BALANCE_SQL, delta, accountNumber);
+    }
+}
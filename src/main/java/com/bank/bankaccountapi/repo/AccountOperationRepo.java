@@ -0,0 +1,20 @@
+package com.bank.bankaccountapi.repo;
+
+import com.bank.bankaccountapi.domain.AccountOperation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface AccountOperationRepo extends JpaRepository<AccountOperation, Long> {
+
+    Optional<AccountOperation> findByAccountNumberAndIdempotencyKey(String accountNumber, String idempotencyKey);
+
+    List<AccountOperation> findByAccountNumberInAndIdempotencyKeyIn(Collection<String> accountNumbers,
+                                                                    Collection<String> idempotencyKeys);
+
+    List<AccountOperation> findByAccountNumberOrderById(String accountNumber);
+}
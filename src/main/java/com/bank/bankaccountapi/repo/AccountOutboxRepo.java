@@ -0,0 +1,22 @@
+package com.bank.bankaccountapi.repo;
+
+import com.bank.bankaccountapi.domain.AccountOutboxEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.QueryHint;
+import java.util.List;
+
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
+
+@Repository
+public interface AccountOutboxRepo extends JpaRepository<AccountOutboxEvent, Long> {
+
+    /**
+     * Oldest events first, so events of one account come out in the order they were written.
+     */
+    @QueryHints(@QueryHint(name = HINT_READONLY, value = "true"))
+    List<AccountOutboxEvent> findByOrderById(Pageable page);
+}
@@ -1,9 +1,70 @@
 package com.bank.bankaccountapi.repo;
 
 import com.bank.bankaccountapi.domain.Account;
+import com.bank.bankaccountapi.domain.AccountStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.LockModeType;
+import javax.persistence.QueryHint;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
+
 @Repository
 public interface AccountRepo extends JpaRepository<Account, String> {
+
+    /**
+     * Rows the JDBC driver fetches per round trip while {@link #streamAll} is consumed.
+     */
+    int EXPORT_FETCH_SIZE = 1000;
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<Account> findLockedByAccountNumber(String accountNumber);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    List<Account> findLockedByAccountNumberInOrderByAccountNumber(Collection<String> accountNumbers);
+
+    /**
+     * Accounts in account number order, optionally only those with {@code status} and {@code currency}, read through
+     * a cursor. Must be consumed and closed inside a transaction; loaded accounts stay in the persistence context
+     * until it is cleared.
+     */
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "" + EXPORT_FETCH_SIZE),
+            @QueryHint(name = HINT_READONLY, value = "true"),
+            @QueryHint(name = HINT_CACHEABLE, value = "false")
+    })
+    @Query("select a from ACCOUNT a where (:status is null or a.status = :status) "
+            + "and (:currency is null or a.currency = :currency) order by a.accountNumber")
+    Stream<Account> streamAll(@Param("status") AccountStatus status, @Param("currency") Long currency);
+
+    /**
+     * Adds {@code delta} to the balance in a single statement if the account is OPEN, held in {@code currency}
+     * and has a balance between {@code minBalance} and {@code maxBalance}, the bound that keeps the sum from
+     * overflowing. The persistence context is flushed before and cleared after, so a following {@code findById}
+     * reads the updated row.
+     *
+     * @return number of updated rows, 0 if the account did not match
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update ACCOUNT a set a.balance = a.balance + :delta, a.version = a.version + 1 "
+            + "where a.accountNumber = :accountNumber "
+            + "and a.status = com.bank.bankaccountapi.domain.AccountStatus.OPEN and a.currency = :currency "
+            + "and a.balance >= :minBalance and a.balance <= :maxBalance")
+    int applyConditionalUpdate(@Param("accountNumber") String accountNumber,
+                                             @Param("currency") Long currency,
+                                             @Param("delta") long delta,
+                                             @Param("minBalance") long minBalance,
+                                             @Param("maxBalance") long maxBalance);
 }
@@ -0,0 +1,162 @@
+package com.bank.bankaccountapi.repo;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Sub-balances of split accounts. Slot 0 is {@code ACCOUNT.BALANCE}, slots 1..K-1 are {@code ACCOUNT_SLOT} rows,
+ * so the balance of a split account is the sum over all of them.
+ */
+@Repository
+@RequiredArgsConstructor
+public class AccountSlotRepo {
+
+    private static final String CREATE_SLOT_SQL = "INSERT INTO ACCOUNT_SLOT (ACCOUNT_NUMBER, SLOT, BALANCE) "
+            + "SELECT ?, ?, 0 FROM DUAL WHERE NOT EXISTS "
+            + "(SELECT 1 FROM ACCOUNT_SLOT WHERE ACCOUNT_NUMBER = ? AND SLOT = ?)";
+    private static final String ADD_TO_ACCOUNT_SQL =
+            "UPDATE ACCOUNT SET BALANCE = BALANCE + ?, VERSION = VERSION + 1 "
+                    + "WHERE ACCOUNT_NUMBER = ? AND BALANCE + ? >= 0";
+    private static final String ADD_TO_SLOT_SQL = "UPDATE ACCOUNT_SLOT SET BALANCE = BALANCE + ? "
+            + "WHERE ACCOUNT_NUMBER = ? AND SLOT = ? AND BALANCE + ? >= 0";
+    private static final String SET_ACCOUNT_SQL =
+            "UPDATE ACCOUNT SET BALANCE = ?, VERSION = VERSION + 1 WHERE ACCOUNT_NUMBER = ?";
+    private static final String SET_SLOT_SQL =
+            "UPDATE ACCOUNT_SLOT SET BALANCE = ? WHERE ACCOUNT_NUMBER = ? AND SLOT = ?";
+    private static final String LOCK_ACCOUNT_SQL =
+            "SELECT BALANCE FROM ACCOUNT WHERE ACCOUNT_NUMBER = ? FOR UPDATE";
+    private static final String LOCK_SLOTS_SQL =
+            "SELECT SLOT, BALANCE FROM ACCOUNT_SLOT WHERE ACCOUNT_NUMBER = ? ORDER BY SLOT FOR UPDATE";
+    private static final String ALL_SLOT_BALANCES_SQL = "SELECT BALANCE FROM ACCOUNT WHERE ACCOUNT_NUMBER = ? "
+            + "UNION ALL SELECT BALANCE FROM ACCOUNT_SLOT WHERE ACCOUNT_NUMBER = ?";
+    private static final String MAX_SLOTS_SQL = "SELECT S.ACCOUNT_NUMBER, MAX(S.SLOT) AS MAX_SLOT "
+            + "FROM ACCOUNT_SLOT S JOIN ACCOUNT A ON A.ACCOUNT_NUMBER = S.ACCOUNT_NUMBER GROUP BY S.ACCOUNT_NUMBER";
+    private static final String FOLD_INTO_ACCOUNT_SQL =
+            "UPDATE ACCOUNT SET BALANCE = BALANCE + ?, VERSION = VERSION + 1 WHERE ACCOUNT_NUMBER = ?";
+    private static final String DELETE_SLOTS_SQL = "DELETE FROM ACCOUNT_SLOT WHERE ACCOUNT_NUMBER = ? AND SLOT >= ?";
+    private static final String SLOT_BALANCES_SQL =
+            "SELECT ACCOUNT_NUMBER, BALANCE FROM ACCOUNT_SLOT WHERE ACCOUNT_NUMBER IN (:accountNumbers)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    /**
+     * Creates the missing {@code ACCOUNT_SLOT} rows 1..slots-1 with a zero balance.
+     */
+    public void createSlots(String accountNumber, int slots) {
+        List<Object[]> rows = new ArrayList<>(slots);
+        for (int slot = 1; slot < slots; slot++) {
+            rows.add(new Object[]{accountNumber, slot, accountNumber, slot});
+        }
+        jdbcTemplate.batchUpdate(CREATE_SLOT_SQL, rows);
+    }
+
+    /**
+     * Adds {@code delta} to one slot unless that would make the slot negative.
+     *
+     * @return {@code false} if the slot does not exist or does not hold enough
+     */
+    public boolean addToSlot(String accountNumber, int slot, long delta) {
+        int updated = slot == 0
+                ? jdbcTemplate.update(ADD_TO_ACCOUNT_SQL, delta, accountNumber, delta)
+                : jdbcTemplate.update(ADD_TO_SLOT_SQL, delta, accountNumber, slot, delta);
+        return updated == 1;
+    }
+
+    /**
+     * Locks the {@code ACCOUNT} row and then every slot row, always in slot order, and returns their balances.
+     */
+    public TreeMap<Integer, Long> lockSlots(String accountNumber) {
+        TreeMap<Integer, Long> balances = new TreeMap<>();
+        balances.put(0, jdbcTemplate.queryForObject(LOCK_ACCOUNT_SQL, Long.class, accountNumber));
+        jdbcTemplate.query(LOCK_SLOTS_SQL,
+                rs -> {
+                    balances.put(rs.getInt("SLOT"), rs.getLong("BALANCE"));
+                },
+                accountNumber);
+        return balances;
+    }
+
+    public void setBalances(String accountNumber, Map<Integer, Long> balances) {
+        List<Object[]> slots = new ArrayList<>(balances.size());
+        balances.forEach((slot, balance) -> {
+            if (slot == 0) {
+                jdbcTemplate.update(SET_ACCOUNT_SQL, balance, accountNumber);
+            } else {
+                slots.add(new Object[]{balance, accountNumber, slot});
+            }
+        });
+        jdbcTemplate.batchUpdate(SET_SLOT_SQL, slots);
+    }
+
+    /**
+     * Highest {@code ACCOUNT_SLOT} row per existing account that has any.
+     */
+    public Map<String, Integer> maxSlots() {
+        Map<String, Integer> maxSlots = new HashMap<>();
+        jdbcTemplate.query(MAX_SLOTS_SQL, rs -> {
+            maxSlots.put(rs.getString("ACCOUNT_NUMBER"), rs.getInt("MAX_SLOT"));
+        });
+        return maxSlots;
+    }
+
+    /**
+     * Locks the account like {@link #lockSlots}, adds the balance of slots {@code fromSlot} and up to slot 0 and
+     * deletes their rows, so the total balance is unchanged.
+     *
+     * @return the balance that was moved to slot 0
+     */
+    public long foldSlots(String accountNumber, int fromSlot) {
+        SortedMap<Integer, Long> folded = lockSlots(accountNumber).tailMap(Math.max(1, fromSlot));
+        long balance = sum(folded.values());
+        jdbcTemplate.update(FOLD_INTO_ACCOUNT_SQL, balance, accountNumber);
+        jdbcTemplate.update(DELETE_SLOTS_SQL, accountNumber, Math.max(1, fromSlot));
+        return balance;
+    }
+
+    /**
+     * Balance of slot 0 plus all {@code ACCOUNT_SLOT} rows.
+     *
+     * @throws ArithmeticException if the sum does not fit into a {@code long}
+     */
+    public long totalBalance(String accountNumber) {
+        return sum(jdbcTemplate.queryForList(ALL_SLOT_BALANCES_SQL, Long.class, accountNumber, accountNumber));
+    }
+
+    /**
+     * Sum of the {@code ACCOUNT_SLOT} rows (without slot 0) per account; accounts without slots are left out.
+     *
+     * @throws ArithmeticException if a sum does not fit into a {@code long}
+     */
+    public Map<String, Long> slotBalances(Collection<String> accountNumbers) {
+        Map<String, Long> balances = new HashMap<>();
+        namedParameterJdbcTemplate.query(SLOT_BALANCES_SQL,
+                new MapSqlParameterSource("accountNumbers", accountNumbers),
+                rs -> {
+                    balances.merge(rs.getString("ACCOUNT_NUMBER"), rs.getLong("BALANCE"), Math::addExact);
+                });
+        return balances;
+    }
+
+    /**
+     * Sums in Java rather than with {@code SUM}, which widens to a decimal and would not fit into a {@code long}.
+     */
+    public static long sum(Collection<Long> balances) {
+        long sum = 0;
+        for (long balance : balances) {
+            sum = Math.addExact(sum, balance);
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,64 @@
+package com.bank.bankaccountapi.service;
+
+import com.bank.bankaccountapi.dto.AccountDto;
+import com.bank.bankaccountapi.expection.AccountApiException;
+import com.bank.bankaccountapi.expection.AccountApiException.Reason;
+
+/**
+ * Result of {@link AccountService#tryApplyAccountOperation}: the account after the operation, or the reason it was
+ * rejected. Rejections are preallocated per reason, so rejecting an operation creates no exception and no message.
+ */
+public final class AccountOperationOutcome {
+
+    private static final AccountOperationOutcome[] REJECTIONS = new AccountOperationOutcome[Reason.values().length];
+
+    static {
+        for (Reason reason : Reason.values()) {
+            REJECTIONS[reason.ordinal()] = new AccountOperationOutcome(null, reason);
+        }
+    }
+
+    private final AccountDto account;
+    private final Reason rejection;
+
+    private AccountOperationOutcome(AccountDto account, Reason rejection) {
+        this.account = account;
+        this.rejection = rejection;
+    }
+
+    public static AccountOperationOutcome applied(AccountDto account) {
+        return new AccountOperationOutcome(account, null);
+    }
+
+    public static AccountOperationOutcome rejected(Reason reason) {
+        return REJECTIONS[reason.ordinal()];
+    }
+
+    public boolean isApplied() {
+        return rejection == null;
+    }
+
+    /**
+     * Account state after the operation; {@code null} if it was rejected.
+     */
+    public AccountDto getAccount() {
+        return account;
+    }
+
+    /**
+     * Why the operation was rejected; {@code null} if it was applied.
+     */
+    public Reason getRejection() {
+        return rejection;
+    }
+
+    /**
+     * The account, or the rejection as an {@link AccountApiException} for callers that expect one.
+     */
+    public AccountDto orElseThrow(String accountNumber) {
+        if (rejection != null) {
+            throw AccountOperations.rejected(rejection, accountNumber);
+        }
+        return account;
+    }
+}
@@ -0,0 +1,189 @@
+package com.bank.bankaccountapi.service;
+
+import com.bank.bankaccountapi.domain.Account;
+import com.bank.bankaccountapi.domain.AccountOperation;
+import com.bank.bankaccountapi.domain.AccountStatus;
+import com.bank.bankaccountapi.dto.AccountOperationDto;
+import com.bank.bankaccountapi.dto.AccountTransferDto;
+import com.bank.bankaccountapi.dto.OperationSign;
+import com.bank.bankaccountapi.expection.AccountApiException;
+import com.bank.bankaccountapi.expection.AccountApiException.Reason;
+
+import java.time.Instant;
+import java.util.Objects;
+
+/**
+ * Validation and balance arithmetic of a single account operation, shared by all {@link AccountService} engines.
+ */
+public final class AccountOperations {
+
+    private AccountOperations() {
+    }
+
+    public static void apply(AccountOperationDto operation, Account account) {
+        validateAccountStatus(account);
+        validateCurrency(operation, account);
+        processAccountOperation(operation, account);
+    }
+
+    public static void processAccountOperation(AccountOperationDto operation, Account account) {
+        long amount = operation.getAmount();
+        switch (operation.getOperationSign()) {
+            case DEBIT:
+                if (account.getBalance() > Long.MAX_VALUE - amount) {
+                    throw rejected(Reason.BALANCE_OVERFLOW, account.getAccountNumber());
+                }
+                account.setBalance(account.getBalance() + amount);
+                break;
+            case CREDIT:
+                if (account.getBalance() < amount) {
+                    throw rejected(Reason.INSUFFICIENT_BALANCE, account.getAccountNumber());
+                }
+                account.setBalance(account.getBalance() - amount);
+                break;
+            default:
+                throw new AccountApiException(Reason.INVALID_OPERATION, "Not valid Operation Sign");
+        }
+    }
+
+    /**
+     * Reason {@link #apply} would reject the operation for, or {@code null} if it can be applied. Builds no message
+     * and throws nothing, for callers that report rejections as results.
+     */
+    public static Reason rejectionOf(AccountOperationDto operation, Account account) {
+        if (!AccountStatus.OPEN.equals(account.getStatus())) {
+            return Reason.ACCOUNT_NOT_OPEN;
+        }
+        if (!operation.getCurrency().equals(account.getCurrency())) {
+            return Reason.CURRENCY_MISMATCH;
+        }
+        if (operation.getOperationSign() == null) {
+            return Reason.INVALID_OPERATION;
+        }
+        if (operation.getOperationSign() == OperationSign.CREDIT && account.getBalance() < operation.getAmount()) {
+            return Reason.INSUFFICIENT_BALANCE;
+        }
+        if (operation.getOperationSign() == OperationSign.DEBIT && account.getBalance() > maximumBalance(operation)) {
+            return Reason.BALANCE_OVERFLOW;
+        }
+        return null;
+    }
+
+    /**
+     * Balance change of {@code operation} for {@link com.bank.bankaccountapi.repo.AccountRepo#applyConditionalUpdate}.
+     */
+    public static long balanceDelta(AccountOperationDto operation) {
+        switch (operation.getOperationSign()) {
+            case DEBIT:
+                return operation.getAmount();
+            case CREDIT:
+                return -operation.getAmount();
+            default:
+                throw new AccountApiException(Reason.INVALID_OPERATION, "Not valid Operation Sign");
+        }
+    }
+
+    /**
+     * Lowest balance the account may have for {@code operation} to be applied, the SQL form of
+     * {@link #processAccountOperation}.
+     */
+    public static long minimumBalance(AccountOperationDto operation) {
+        return operation.getOperationSign() == OperationSign.CREDIT ? operation.getAmount() : Long.MIN_VALUE;
+    }
+
+    /**
+     * Highest balance the account may have for {@code operation} to be applied without overflowing it.
+     */
+    public static long maximumBalance(AccountOperationDto operation) {
+        return operation.getOperationSign() == OperationSign.DEBIT
+                ? Long.MAX_VALUE - operation.getAmount()
+                : Long.MAX_VALUE;
+    }
+
+    public static void validateAccountStatus(Account account) {
+        if (!AccountStatus.OPEN.equals(account.getStatus())) {
+            throw rejected(Reason.ACCOUNT_NOT_OPEN, account.getAccountNumber());
+        }
+    }
+
+    public static void validateCurrency(AccountOperationDto accountOperation, Account account) {
+        if (!accountOperation.getCurrency().equals(account.getCurrency())) {
+            throw rejected(Reason.CURRENCY_MISMATCH, account.getAccountNumber());
+        }
+    }
+
+    /**
+     * The CREDIT of the source account of {@code transfer}.
+     */
+    public static AccountOperationDto withdrawal(AccountTransferDto transfer) {
+        return transferLeg(transfer, transfer.getFromAccountNumber(), OperationSign.CREDIT);
+    }
+
+    /**
+     * The DEBIT of the target account of {@code transfer}.
+     */
+    public static AccountOperationDto deposit(AccountTransferDto transfer) {
+        return transferLeg(transfer, transfer.getToAccountNumber(), OperationSign.DEBIT);
+    }
+
+    private static AccountOperationDto transferLeg(AccountTransferDto transfer, String accountNumber,
+                                                   OperationSign operationSign) {
+        return AccountOperationDto.builder()
+                .accountNumber(accountNumber)
+                .currency(transfer.getCurrency())
+                .amount(transfer.getAmount())
+                .operationSign(operationSign)
+                .idempotencyKey(transfer.getIdempotencyKey())
+                .build();
+    }
+
+    /**
+     * Journal entry for an operation that has just been applied to {@code account}.
+     */
+    public static AccountOperation journalEntry(AccountOperationDto operation, Account account) {
+        return AccountOperation.builder()
+                .accountNumber(account.getAccountNumber())
+                .currency(operation.getCurrency())
+                .amount(operation.getAmount())
+                .operationSign(operation.getOperationSign())
+                .balanceAfter(account.getBalance())
+                .idempotencyKey(operation.getIdempotencyKey())
+                .createdAt(Instant.now())
+                .build();
+    }
+
+    /**
+     * Account as it was right after the journaled operation, returned again for a resubmitted idempotency key.
+     */
+    public static Account replay(AccountOperation journaled, AccountOperationDto operation) {
+        if (journaled.getAmount() != operation.getAmount()
+                || journaled.getOperationSign() != operation.getOperationSign()
+                || !Objects.equals(journaled.getCurrency(), operation.getCurrency())) {
+            throw new AccountApiException(Reason.IDEMPOTENCY_CONFLICT,
+                    "Idempotency key was already used for another operation. " +
+                    "AccountNumber = " + operation.getAccountNumber() + ";" +
+                    "idempotencyKey = " + operation.getIdempotencyKey());
+        }
+        return Account.builder()
+                .accountNumber(journaled.getAccountNumber())
+                .currency(journaled.getCurrency())
+                .balance(journaled.getBalanceAfter())
+                .status(AccountStatus.OPEN)
+                .build();
+    }
+
+    public static AccountApiException accountNotFound(String accountNumber) {
+        return rejected(Reason.ACCOUNT_NOT_FOUND, accountNumber);
+    }
+
+    /**
+     * Rejection with the fixed message of the reason and the account number, never the account or operation itself.
+     */
+    public static AccountApiException rejected(Reason reason, String accountNumber) {
+        return new AccountApiException(reason, reason.messageFor(accountNumber));
+    }
+
+    public static String accountNotFoundMessage(String accountNumber) {
+        return Reason.ACCOUNT_NOT_FOUND.messageFor(accountNumber);
+    }
+}
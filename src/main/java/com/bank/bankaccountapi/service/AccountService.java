@@ -1,13 +1,73 @@
 package com.bank.bankaccountapi.service;
 
+import com.bank.bankaccountapi.dto.AccountBalanceResultDto;
 import com.bank.bankaccountapi.dto.AccountDto;
 import com.bank.bankaccountapi.dto.AccountOperationDto;
+import com.bank.bankaccountapi.dto.AccountOperationResultDto;
+import com.bank.bankaccountapi.dto.AccountTransferDto;
+import com.bank.bankaccountapi.dto.AccountTransferResultDto;
+import com.bank.bankaccountapi.expection.AccountApiException;
 
 import javax.validation.constraints.NotEmpty;
 import javax.validation.constraints.NotNull;
+import java.util.ArrayList;
+import java.util.List;
 
 public interface AccountService {
     String getAccountStatusByAccountNumber(@NotEmpty String accountNumber);
     AccountDto getAccountBalanceInquiryByAccountNumber(@NotEmpty String accountNumber);
     AccountDto applyAccountOperation(@NotNull AccountOperationDto accountOperation);
+
+    /**
+     * Like {@link #applyAccountOperation}, but a business rejection is returned as the outcome instead of thrown.
+     */
+    default AccountOperationOutcome tryApplyAccountOperation(@NotNull AccountOperationDto accountOperation) {
+        try {
+            return AccountOperationOutcome.applied(applyAccountOperation(accountOperation));
+        } catch (AccountApiException ex) {
+            return AccountOperationOutcome.rejected(ex.getReason());
+        }
+    }
+
+    /**
+     * Credits the source and debits the target account of the transfer in one transaction. A rejection of either
+     * side is thrown and leaves both accounts unchanged.
+     */
+    AccountTransferResultDto transfer(@NotNull AccountTransferDto transfer);
+
+    /**
+     * Balance inquiry for several accounts, one result per account number in the given order.
+     * Missing accounts are reported in the result instead of failing the whole inquiry.
+     */
+    default List<AccountBalanceResultDto> getAccountBalances(@NotEmpty List<String> accountNumbers) {
+        List<AccountBalanceResultDto> results = new ArrayList<>(accountNumbers.size());
+        for (String accountNumber : accountNumbers) {
+            AccountBalanceResultDto.AccountBalanceResultDtoBuilder result = AccountBalanceResultDto.builder()
+                    .accountNumber(accountNumber);
+            try {
+                results.add(result.found(true).account(getAccountBalanceInquiryByAccountNumber(accountNumber)).build());
+            } catch (AccountApiException ex) {
+                results.add(result.found(false).error(ex.getMessage()).build());
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Applies operations in the given order and returns one result per operation.
+     * Business rejections are reported in the result instead of failing the whole batch.
+     */
+    default List<AccountOperationResultDto> applyAccountOperations(@NotEmpty List<AccountOperationDto> accountOperations) {
+        List<AccountOperationResultDto> results = new ArrayList<>(accountOperations.size());
+        for (AccountOperationDto operation : accountOperations) {
+            AccountOperationResultDto.AccountOperationResultDtoBuilder result = AccountOperationResultDto.builder()
+                    .accountNumber(operation.getAccountNumber());
+            try {
+                results.add(result.applied(true).account(applyAccountOperation(operation)).build());
+            } catch (AccountApiException ex) {
+                results.add(result.applied(false).error(ex.getMessage()).build());
+            }
+        }
+        return results;
+    }
 }
@@ -1,94 +1,432 @@
 package com.bank.bankaccountapi.service;
 
 import com.bank.bankaccountapi.domain.Account;
-import com.bank.bankaccountapi.domain.AccountStatus;
+import com.bank.bankaccountapi.domain.AccountOperation;
+import com.bank.bankaccountapi.dto.AccountBalanceResultDto;
 import com.bank.bankaccountapi.dto.AccountDto;
 import com.bank.bankaccountapi.dto.AccountOperationDto;
+import com.bank.bankaccountapi.dto.AccountOperationResultDto;
+import com.bank.bankaccountapi.dto.AccountTransferDto;
+import com.bank.bankaccountapi.dto.AccountTransferResultDto;
 import com.bank.bankaccountapi.expection.AccountApiException;
+import com.bank.bankaccountapi.expection.AccountApiException.Reason;
 import com.bank.bankaccountapi.mapper.AccountMapper;
+import com.bank.bankaccountapi.repo.AccountOperationRepo;
 import com.bank.bankaccountapi.repo.AccountRepo;
+import com.bank.bankaccountapi.service.cache.AccountCache;
+import com.bank.bankaccountapi.service.coalescing.OperationCoalescer;
+import com.bank.bankaccountapi.service.coalescing.PendingOperation;
+import com.bank.bankaccountapi.service.concurrency.AccountConcurrencyStrategy;
+import com.bank.bankaccountapi.service.outbox.AccountEventOutbox;
+import com.bank.bankaccountapi.service.split.SplitAccountService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static com.bank.bankaccountapi.logging.LogMarkers.SAMPLED;
+
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class AccountServiceImpl implements AccountService {
 
     private final AccountRepo accountRepo;
+    private final AccountOperationRepo accountOperationRepo;
     private final AccountMapper mapper;
+    private final AccountConcurrencyStrategy concurrencyStrategy;
+    private final AccountCache accountCache;
+    private final SplitAccountService splitAccountService;
+    private final OperationCoalescer operationCoalescer;
+    private final AccountEventOutbox eventOutbox;
 
     @Override
     @Transactional(readOnly = true)
     public String getAccountStatusByAccountNumber(String accountNumber) {
-        log.info("Getting account status by account number. accountNumber = {}", accountNumber);
-        return accountRepo.findById(accountNumber)
+        log.info(SAMPLED, "Getting account status by account number. accountNumber = {}", accountNumber);
+        return accountCache.findForStatus(accountNumber, accountRepo::findById)
                 .map(account -> account.getStatus().toString())
                 .orElseThrow(
-                        () -> new AccountApiException("Account does not exists.AccountNumber = " + accountNumber));
+                        () -> new AccountApiException(Reason.ACCOUNT_NOT_FOUND,
+                                "Account does not exists.AccountNumber = " + accountNumber));
     }
 
     @Override
     @Transactional(readOnly = true)
     public AccountDto getAccountBalanceInquiryByAccountNumber(String accountNumber) {
-        log.info("Getting account balance inquiry by account number. accountNumber = {}", accountNumber);
-        return accountRepo.findById(accountNumber)
+        log.info(SAMPLED, "Getting account balance inquiry by account number. accountNumber = {}", accountNumber);
+        Optional<Account> account = splitAccountService.isSplit(accountNumber)
+                ? accountRepo.findById(accountNumber).map(splitAccountService::withTotalBalance)
+                : accountCache.findForBalance(accountNumber, accountRepo::findById);
+        return account
                 .map(mapper::map)
                 .orElseThrow(
-                        () -> new AccountApiException("Account does not exists.AccountNumber = " + accountNumber));
+                        () -> new AccountApiException(Reason.ACCOUNT_NOT_FOUND,
+                                "Account does not exists.AccountNumber = " + accountNumber));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<AccountBalanceResultDto> getAccountBalances(List<String> accountNumbers) {
+        log.info(SAMPLED, "Getting account balances. accountNumbers = {}", accountNumbers.size());
+        List<AccountDto> accounts = mapper.mapToAccountDtoList(splitAccountService.withTotalBalances(
+                accountRepo.findAllById(new LinkedHashSet<>(accountNumbers))));
+        Map<String, AccountDto> accountsByNumber = new HashMap<>();
+        accounts.forEach(account -> accountsByNumber.put(account.getAccountNumber(), account));
+
+        List<AccountBalanceResultDto> results = new ArrayList<>(accountNumbers.size());
+        for (String accountNumber : accountNumbers) {
+            AccountDto account = accountsByNumber.get(accountNumber);
+            results.add(AccountBalanceResultDto.builder()
+                    .accountNumber(accountNumber)
+                    .found(account != null)
+                    .account(account)
+                    .error(account == null ? AccountOperations.accountNotFoundMessage(accountNumber) : null)
+                    .build());
+        }
+        return results;
     }
 
     @Override
-    @Transactional
     public AccountDto applyAccountOperation(AccountOperationDto operation) {
-        log.info("Operation was started. operation = {}", operation);
-        Account account = accountRepo.findById(operation.getAccountNumber())
-                .orElseThrow(
-                        () -> new AccountApiException("Account does not exists. AccountNumber = "
-                                + operation.getAccountNumber()));
+        if (splitAccountService.isSplit(operation.getAccountNumber())) {
+            return mapper.map(splitAccountService.apply(operation));
+        }
+        if (operationCoalescer.isEnabled()) {
+            return operationCoalescer.submit(operation, this::applyCoalesced);
+        }
+        return applyDirectly(operation).orElseThrow(operation.getAccountNumber());
+    }
+
+    /**
+     * Rejections found by the single-operation paths are returned without an exception. Split and coalesced
+     * operations are still reported through {@link AccountApiException} and converted here.
+     */
+    @Override
+    public AccountOperationOutcome tryApplyAccountOperation(AccountOperationDto operation) {
+        if (splitAccountService.isSplit(operation.getAccountNumber()) || operationCoalescer.isEnabled()) {
+            return AccountService.super.tryApplyAccountOperation(operation);
+        }
+        try {
+            return applyDirectly(operation);
+        } catch (AccountApiException ex) {
+            return AccountOperationOutcome.rejected(ex.getReason());
+        }
+    }
+
+    private AccountOperationOutcome applyDirectly(AccountOperationDto operation) {
+        if (concurrencyStrategy.appliesConditionalUpdates() && operation.getIdempotencyKey() == null) {
+            return concurrencyStrategy.execute(operation.getAccountNumber(),
+                    () -> doApplyConditionalUpdate(operation));
+        }
+        return concurrencyStrategy.execute(operation.getAccountNumber(), () -> doApplyAccountOperation(operation));
+    }
+
+    /**
+     * Applies the operation with one {@code UPDATE ... WHERE} instead of reading and locking the account first; the
+     * updated row is read back by primary key. When no row matched, the account is read to report the same reason
+     * the read-modify-write path would have.
+     * Operations with an idempotency key take the locking path, so a resubmitted key waits for the first commit.
+     */
+    private AccountOperationOutcome doApplyConditionalUpdate(AccountOperationDto operation) {
+        log.info(SAMPLED, "Conditional operation was started. accountNumber = {}; operationSign = {}; amount = {}",
+                operation.getAccountNumber(), operation.getOperationSign(), operation.getAmount());
+        int updated = accountRepo.applyConditionalUpdate(operation.getAccountNumber(),
+                operation.getCurrency(), AccountOperations.balanceDelta(operation),
+                AccountOperations.minimumBalance(operation), AccountOperations.maximumBalance(operation));
+        if (updated == 0) {
+            return rejected(operation, conditionalUpdateRejection(operation));
+        }
+        Account updatedAccount = accountRepo.findById(operation.getAccountNumber()).orElseThrow();
+
+        eventOutbox.append(accountOperationRepo.save(AccountOperations.journalEntry(operation, updatedAccount)));
+        accountCache.updateAfterCommit(updatedAccount);
+
+        log.info(SAMPLED, "Conditional operation was ended successfully. accountNumber = {}; balance = {}; version = {}",
+                updatedAccount.getAccountNumber(), updatedAccount.getBalance(), updatedAccount.getVersion());
+        return AccountOperationOutcome.applied(mapper.map(updatedAccount));
+    }
+
+    private Reason conditionalUpdateRejection(AccountOperationDto operation) {
+        Optional<Account> current = accountRepo.findById(operation.getAccountNumber());
+        if (current.isEmpty()) {
+            return Reason.ACCOUNT_NOT_FOUND;
+        }
+        Reason rejection = AccountOperations.rejectionOf(operation, current.get());
+        // the row satisfied the operation again by the time it was read, e.g. a debit committed in between
+        return rejection != null ? rejection : Reason.CONCURRENT_MODIFICATION;
+    }
 
-        validateAccountStatus(account);
-        validateCurrency(operation, account);
+    private AccountOperationOutcome doApplyAccountOperation(AccountOperationDto operation) {
+        log.info(SAMPLED, "Operation was started. accountNumber = {}; operationSign = {}; amount = {}",
+                operation.getAccountNumber(), operation.getOperationSign(), operation.getAmount());
+        Optional<Account> found = concurrencyStrategy.findAccount(operation.getAccountNumber());
+        if (found.isEmpty()) {
+            return rejected(operation, Reason.ACCOUNT_NOT_FOUND);
+        }
+        Account account = found.get();
 
-        processAccountOperation(operation, account);
+        if (operation.getIdempotencyKey() != null) {
+            Optional<AccountOperation> journaled = accountOperationRepo.findByAccountNumberAndIdempotencyKey(
+                    operation.getAccountNumber(), operation.getIdempotencyKey());
+            if (journaled.isPresent()) {
+                log.info(SAMPLED, "Operation was already applied. accountNumber = {}; idempotencyKey = {}",
+                        operation.getAccountNumber(), operation.getIdempotencyKey());
+                return AccountOperationOutcome.applied(mapper.map(AccountOperations.replay(journaled.get(), operation)));
+            }
+        }
+
+        Reason rejection = AccountOperations.rejectionOf(operation, account);
+        if (rejection != null) {
+            return rejected(operation, rejection);
+        }
+        AccountOperations.processAccountOperation(operation, account);
 
         Account updatedAccount = accountRepo.save(account);
+        eventOutbox.append(accountOperationRepo.save(AccountOperations.journalEntry(operation, updatedAccount)));
+        accountCache.updateAfterCommit(updatedAccount);
+
+        log.info(SAMPLED, "Operation was ended successfully. accountNumber = {}; balance = {}; version = {}",
+                updatedAccount.getAccountNumber(), updatedAccount.getBalance(), updatedAccount.getVersion());
+        return AccountOperationOutcome.applied(mapper.map(updatedAccount));
+    }
+
+    private static AccountOperationOutcome rejected(AccountOperationDto operation, Reason reason) {
+        log.info(SAMPLED, "Operation was rejected. accountNumber = {}; reason = {}",
+                operation.getAccountNumber(), reason);
+        return AccountOperationOutcome.rejected(reason);
+    }
 
-        log.info("Operation was ended successfully. operation = {}; updatedAccount = {}", operation, updatedAccount);
-        return mapper.map(updatedAccount);
+    @Override
+    public List<AccountOperationResultDto> applyAccountOperations(List<AccountOperationDto> operations) {
+        Set<String> accountNumbers = operations.stream()
+                .map(AccountOperationDto::getAccountNumber)
+                .collect(Collectors.toCollection(TreeSet::new));
+        return splitAccountService.retryDeadlocks(accountNumbers, () -> concurrencyStrategy.execute(accountNumbers,
+                () -> doApplyAccountOperations(operations, accountNumbers)));
+    }
+
+    private List<AccountOperationResultDto> doApplyAccountOperations(List<AccountOperationDto> operations,
+                                                                     Set<String> accountNumbers) {
+        log.info(SAMPLED, "Batch operation was started. operations = {}; accounts = {}", operations.size(), accountNumbers.size());
+        AppliedOperations applied = applyInOrder(operations, accountNumbers);
+
+        List<AccountDto> accountDtos = mapper.mapToAccountDtoList(applied.snapshots);
+        List<AccountOperationResultDto> results = new ArrayList<>(operations.size());
+        for (int i = 0; i < operations.size(); i++) {
+            AccountApiException failure = applied.failures.get(i);
+            results.add(AccountOperationResultDto.builder()
+                    .accountNumber(operations.get(i).getAccountNumber())
+                    .applied(failure == null)
+                    .account(accountDtos.get(i))
+                    .error(failure == null ? null : failure.getMessage())
+                    .build());
+        }
+        log.info(SAMPLED, "Batch operation was ended. operations = {}; rejected = {}",
+                operations.size(), applied.failures.stream().filter(Objects::nonNull).count());
+        return results;
+    }
+
+    /**
+     * Both accounts are guarded in account number order, whichever side of the transfer they are on, so opposite
+     * transfers between the same accounts cannot deadlock. Both balances and journal entries are written in one
+     * flush at commit.
+     */
+    @Override
+    public AccountTransferResultDto transfer(AccountTransferDto transfer) {
+        Set<String> accountNumbers = new TreeSet<>(
+                List.of(transfer.getFromAccountNumber(), transfer.getToAccountNumber()));
+        return splitAccountService.retryDeadlocks(accountNumbers,
+                () -> concurrencyStrategy.execute(accountNumbers, () -> doTransfer(transfer, accountNumbers)));
+    }
+
+    private AccountTransferResultDto doTransfer(AccountTransferDto transfer, Set<String> accountNumbers) {
+        log.info(SAMPLED, "Transfer was started. fromAccountNumber = {}; toAccountNumber = {}; amount = {}",
+                transfer.getFromAccountNumber(), transfer.getToAccountNumber(), transfer.getAmount());
+        AccountOperationDto withdrawal = AccountOperations.withdrawal(transfer);
+        AccountOperationDto deposit = AccountOperations.deposit(transfer);
+        Map<String, Account> accounts = findWholeAccounts(accountNumbers);
+
+        if (transfer.getIdempotencyKey() != null) {
+            Map<List<String>, AccountOperation> journaled = findJournaled(List.of(withdrawal, deposit), accountNumbers);
+            AccountOperation withdrawn = journaled.get(idempotencyKey(withdrawal));
+            AccountOperation deposited = journaled.get(idempotencyKey(deposit));
+            if (withdrawn != null && deposited != null) {
+                log.info(SAMPLED, "Transfer was already applied. fromAccountNumber = {}; idempotencyKey = {}",
+                        transfer.getFromAccountNumber(), transfer.getIdempotencyKey());
+                return transferResult(AccountOperations.replay(withdrawn, withdrawal),
+                        AccountOperations.replay(deposited, deposit));
+            }
+            if (withdrawn != null || deposited != null) {
+                // the key was used by a single operation on one of the accounts
+                throw AccountOperations.rejected(Reason.IDEMPOTENCY_CONFLICT,
+                        withdrawn != null ? withdrawal.getAccountNumber() : deposit.getAccountNumber());
+            }
+        }
+
+        Account from = applyTransferLeg(withdrawal, accounts);
+        AccountOperation withdrawalEntry = AccountOperations.journalEntry(withdrawal, from);
+        Account to = applyTransferLeg(deposit, accounts);
+        AccountOperation depositEntry = AccountOperations.journalEntry(deposit, to);
+
+        accountRepo.saveAll(accounts.values()).forEach(accountCache::updateAfterCommit);
+        eventOutbox.appendAll(accountOperationRepo.saveAll(List.of(withdrawalEntry, depositEntry)));
+
+        log.info(SAMPLED, "Transfer was ended successfully. fromAccountNumber = {}; fromBalance = {}; "
+                        + "toAccountNumber = {}; toBalance = {}",
+                from.getAccountNumber(), from.getBalance(), to.getAccountNumber(), to.getBalance());
+        return transferResult(from, to);
+    }
+
+    private Account applyTransferLeg(AccountOperationDto leg, Map<String, Account> accounts) {
+        if (splitAccountService.isSplit(leg.getAccountNumber())) {
+            return splitAccountService.applyInTransaction(leg);
+        }
+        Account account = accounts.get(leg.getAccountNumber());
+        if (account == null) {
+            throw AccountOperations.accountNotFound(leg.getAccountNumber());
+        }
+        AccountOperations.apply(leg, account);
+        return account;
+    }
+
+    private AccountTransferResultDto transferResult(Account from, Account to) {
+        return AccountTransferResultDto.builder()
+                .fromAccount(mapper.map(from))
+                .toAccount(mapper.map(to))
+                .build();
     }
 
-    private void processAccountOperation(AccountOperationDto operation, Account account) {
-        switch (operation.getOperationSign()) {
-            case DEBIT:
-                account.setBalance(account.getBalance() + operation.getAmount());
-                break;
-            case CREDIT:
-                if (account.getBalance() < operation.getAmount()) {
-                    throw new AccountApiException("Account does not have enough balance to process operation;" +
-                            "account = " + account + ";"
-                            + "operation = " + operation);
+    /**
+     * Applies a group of single operations queued by {@link OperationCoalescer} like a batch, in one transaction, and
+     * hands every caller its own account state or rejection.
+     */
+    private void applyCoalesced(List<PendingOperation> group) {
+        List<AccountOperationDto> operations = group.stream()
+                .map(PendingOperation::getOperation)
+                .collect(Collectors.toList());
+        Set<String> accountNumbers = operations.stream()
+                .map(AccountOperationDto::getAccountNumber)
+                .collect(Collectors.toCollection(TreeSet::new));
+        AppliedOperations applied = splitAccountService.retryDeadlocks(accountNumbers,
+                () -> concurrencyStrategy.execute(accountNumbers, () -> applyInOrder(operations, accountNumbers)));
+        log.info(SAMPLED, "Coalesced operations were applied. operations = {}; accounts = {}",
+                operations.size(), accountNumbers.size());
+
+        List<AccountDto> accountDtos = mapper.mapToAccountDtoList(applied.snapshots);
+        for (int i = 0; i < group.size(); i++) {
+            if (applied.failures.get(i) == null) {
+                group.get(i).complete(accountDtos.get(i));
+            } else {
+                group.get(i).fail(applied.failures.get(i));
+            }
+        }
+    }
+
+    /**
+     * Applies the operations in order against accounts loaded once and saves them with one journal write.
+     * A rejected operation leaves its account unchanged and does not stop the ones after it.
+     */
+    private AppliedOperations applyInOrder(List<AccountOperationDto> operations, Set<String> accountNumbers) {
+        Map<String, Account> accounts = findWholeAccounts(accountNumbers);
+        Map<List<String>, AccountOperation> journaled = findJournaled(operations, accountNumbers);
+
+        AppliedOperations applied = new AppliedOperations(operations.size());
+        List<AccountOperation> journal = new ArrayList<>(operations.size());
+        for (AccountOperationDto operation : operations) {
+            Account account = accounts.get(operation.getAccountNumber());
+            boolean split = splitAccountService.isSplit(operation.getAccountNumber());
+            try {
+                if (account == null && !split) {
+                    throw AccountOperations.accountNotFound(operation.getAccountNumber());
+                }
+                AccountOperation previous = journaled.get(idempotencyKey(operation));
+                if (previous != null) {
+                    applied.add(AccountOperations.replay(previous, operation), null);
+                    continue;
                 }
-                account.setBalance(account.getBalance() - operation.getAmount());
-                break;
-            default:
-                throw new AccountApiException("Not valid Operation Sign");
+                if (split) {
+                    account = splitAccountService.applyInTransaction(operation);
+                } else {
+                    AccountOperations.apply(operation, account);
+                }
+                AccountOperation entry = AccountOperations.journalEntry(operation, account);
+                journal.add(entry);
+                if (operation.getIdempotencyKey() != null) {
+                    journaled.put(idempotencyKey(operation), entry);
+                }
+                applied.add(account.toBuilder().build(), null);
+            } catch (AccountApiException ex) {
+                applied.add(null, ex);
+            }
         }
+        accountRepo.saveAll(accounts.values()).forEach(accountCache::updateAfterCommit);
+        eventOutbox.appendAll(accountOperationRepo.saveAll(journal));
+        return applied;
     }
 
-    private void validateAccountStatus(Account account) {
-        if (!AccountStatus.OPEN.equals(account.getStatus())) {
-            throw new AccountApiException("Account is not OPEN. account = " + account);
+    /**
+     * Accounts that are loaded and saved as a whole, by account number. Split accounts are updated slot by slot and
+     * are left out.
+     */
+    private Map<String, Account> findWholeAccounts(Set<String> accountNumbers) {
+        Set<String> wholeAccountNumbers = accountNumbers.stream()
+                .filter(accountNumber -> !splitAccountService.isSplit(accountNumber))
+                .collect(Collectors.toCollection(TreeSet::new));
+        return wholeAccountNumbers.isEmpty()
+                ? new HashMap<>()
+                : concurrencyStrategy.findAccounts(wholeAccountNumbers).stream()
+                .collect(Collectors.toMap(Account::getAccountNumber, Function.identity()));
+    }
+
+    private Map<List<String>, AccountOperation> findJournaled(List<AccountOperationDto> operations,
+                                                              Set<String> accountNumbers) {
+        Set<String> keys = operations.stream()
+                .map(AccountOperationDto::getIdempotencyKey)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<List<String>, AccountOperation> journaled = new HashMap<>();
+        if (!keys.isEmpty()) {
+            accountOperationRepo.findByAccountNumberInAndIdempotencyKeyIn(accountNumbers, keys)
+                    .forEach(entry -> journaled.put(
+                            List.of(entry.getAccountNumber(), entry.getIdempotencyKey()), entry));
         }
+        return journaled;
     }
 
-    private void validateCurrency(AccountOperationDto accountOperation, Account account) {
-        if (!accountOperation.getCurrency().equals(account.getCurrency())) {
-            throw new AccountApiException("Account and operation currencies are different. " +
-                    "account's currency = " + account.getCurrency() + ";" +
-                    "operation's currency = " + accountOperation.getCurrency());
+    private static List<String> idempotencyKey(AccountOperationDto operation) {
+        return operation.getIdempotencyKey() == null
+                ? null
+                : List.of(operation.getAccountNumber(), operation.getIdempotencyKey());
+    }
+
+    /**
+     * Outcome of each operation by position: the account state after it, or the reason it was rejected.
+     */
+    private static final class AppliedOperations {
+        private final List<Account> snapshots;
+        private final List<AccountApiException> failures;
+
+        private AppliedOperations(int size) {
+            this.snapshots = new ArrayList<>(size);
+            this.failures = new ArrayList<>(size);
+        }
+
+        private void add(Account snapshot, AccountApiException failure) {
+            snapshots.add(snapshot);
+            failures.add(failure);
         }
     }
 }
@@ -0,0 +1,91 @@
+package com.bank.bankaccountapi.service.cache;
+
+import com.bank.bankaccountapi.config.AccountCacheProperties;
+import com.bank.bankaccountapi.domain.Account;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Bounded read-through cache of {@link Account} snapshots for the read endpoints.
+ * Snapshots only ever move forward by {@code VERSION}, so a slow reader cannot overwrite a newer committed write.
+ * Hit, miss and eviction counts are published as {@code cache.*} meters tagged {@code cache=account}.
+ */
+@Component
+public class AccountCache implements MeterBinder {
+
+    private final AccountCacheProperties.Mode mode;
+    private final Cache<String, Account> cache;
+
+    public AccountCache(AccountCacheProperties properties) {
+        this.mode = properties.getMode();
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(properties.getExpireAfterWrite())
+                .recordStats()
+                .build();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "account");
+    }
+
+    public Optional<Account> findForStatus(String accountNumber, Function<String, Optional<Account>> loader) {
+        return mode == AccountCacheProperties.Mode.NONE ? loader.apply(accountNumber) : find(accountNumber, loader);
+    }
+
+    public Optional<Account> findForBalance(String accountNumber, Function<String, Optional<Account>> loader) {
+        return mode == AccountCacheProperties.Mode.ALL ? find(accountNumber, loader) : loader.apply(accountNumber);
+    }
+
+    /**
+     * Publishes the account state once the current transaction commits, or immediately outside of a transaction.
+     */
+    public void updateAfterCommit(Account account) {
+        if (mode == AccountCacheProperties.Mode.NONE) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            putIfNewer(snapshot(account));
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                putIfNewer(snapshot(account));
+            }
+        });
+    }
+
+    public void invalidate(String accountNumber) {
+        cache.invalidate(accountNumber);
+    }
+
+    private Optional<Account> find(String accountNumber, Function<String, Optional<Account>> loader) {
+        Account cached = cache.getIfPresent(accountNumber);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        Optional<Account> loaded = loader.apply(accountNumber).map(this::snapshot);
+        loaded.ifPresent(this::putIfNewer);
+        return loaded;
+    }
+
+    private void putIfNewer(Account account) {
+        cache.asMap().merge(account.getAccountNumber(), account,
+                (current, candidate) -> candidate.getVersion() >= current.getVersion() ? candidate : current);
+    }
+
+    private Account snapshot(Account account) {
+        return account.toBuilder().build();
+    }
+}
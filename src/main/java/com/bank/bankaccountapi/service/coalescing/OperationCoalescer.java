@@ -0,0 +1,107 @@
+package com.bank.bankaccountapi.service.coalescing;
+
+import com.bank.bankaccountapi.config.AccountCoalescingProperties;
+import com.bank.bankaccountapi.dto.AccountDto;
+import com.bank.bankaccountapi.dto.AccountOperationDto;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Queues single operations per account stripe and applies the ones waiting together, in arrival order, as one group.
+ * A caller that finds its stripe idle takes every queued operation and applies the group on its own thread; callers
+ * that arrive meanwhile queue up for the next group. Every caller gets its own result or its own exception.
+ */
+@Slf4j
+@Component
+public class OperationCoalescer {
+
+    private final boolean enabled;
+    private final int maxGroupSize;
+    private final Stripe[] stripes;
+    private final int mask;
+
+    public OperationCoalescer(AccountCoalescingProperties properties) {
+        this.enabled = properties.isEnabled();
+        this.maxGroupSize = Math.max(1, properties.getMaxGroupSize());
+        int size = 1;
+        while (size < properties.getStripes()) {
+            size <<= 1;
+        }
+        this.stripes = new Stripe[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new Stripe();
+        }
+        this.mask = size - 1;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Queues the operation and returns its result once a group containing it was applied by {@code groupApplier}.
+     * The applier must complete or fail every operation of the group; all callers must pass the same applier.
+     */
+    public AccountDto submit(AccountOperationDto operation, Consumer<List<PendingOperation>> groupApplier) {
+        PendingOperation pending = new PendingOperation(operation);
+        Stripe stripe = stripes[stripeFor(operation.getAccountNumber())];
+        stripe.queue.add(pending);
+        while (!pending.isDone()) {
+            stripe.lock.lock();
+            try {
+                if (!pending.isDone()) {
+                    applyNextGroup(stripe, groupApplier);
+                }
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+        try {
+            return pending.join();
+        } catch (CompletionException ex) {
+            throw (RuntimeException) ex.getCause();
+        }
+    }
+
+    private void applyNextGroup(Stripe stripe, Consumer<List<PendingOperation>> groupApplier) {
+        List<PendingOperation> group = new ArrayList<>();
+        PendingOperation next;
+        while (group.size() < maxGroupSize && (next = stripe.queue.poll()) != null) {
+            group.add(next);
+        }
+        try {
+            groupApplier.accept(group);
+        } catch (RuntimeException ex) {
+            log.warn("Operation group failed. operations = {}", group.size(), ex);
+            group.forEach(member -> member.fail(ex));
+        } finally {
+            for (PendingOperation member : group) {
+                if (!member.isDone()) {
+                    member.fail(new IllegalStateException("Operation was not applied by its group"));
+                }
+            }
+        }
+    }
+
+    int queued(String accountNumber) {
+        return stripes[stripeFor(accountNumber)].queue.size();
+    }
+
+    private int stripeFor(String accountNumber) {
+        int hash = accountNumber.hashCode();
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+
+    private static final class Stripe {
+        private final Queue<PendingOperation> queue = new ConcurrentLinkedQueue<>();
+        private final ReentrantLock lock = new ReentrantLock();
+    }
+}
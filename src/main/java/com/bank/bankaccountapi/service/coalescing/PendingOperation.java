@@ -0,0 +1,37 @@
+package com.bank.bankaccountapi.service.coalescing;
+
+import com.bank.bankaccountapi.dto.AccountDto;
+import com.bank.bankaccountapi.dto.AccountOperationDto;
+import lombok.Getter;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * An operation waiting in an {@link OperationCoalescer} queue and the future its caller waits on.
+ */
+public class PendingOperation {
+
+    @Getter
+    private final AccountOperationDto operation;
+    private final CompletableFuture<AccountDto> result = new CompletableFuture<>();
+
+    PendingOperation(AccountOperationDto operation) {
+        this.operation = operation;
+    }
+
+    public void complete(AccountDto account) {
+        result.complete(account);
+    }
+
+    public void fail(RuntimeException failure) {
+        result.completeExceptionally(failure);
+    }
+
+    boolean isDone() {
+        return result.isDone();
+    }
+
+    AccountDto join() {
+        return result.join();
+    }
+}
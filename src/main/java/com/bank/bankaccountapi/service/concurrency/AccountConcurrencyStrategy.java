@@ -0,0 +1,35 @@
+package com.bank.bankaccountapi.service.concurrency;
+
+import com.bank.bankaccountapi.domain.Account;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Defines how a read-modify-write of a single account is protected against concurrent updates.
+ * Implementations own the transaction boundary, so locks are held and retries are made around the whole transaction.
+ */
+public interface AccountConcurrencyStrategy {
+
+    <T> T execute(String accountNumber, Supplier<T> operation);
+
+    /**
+     * Same as {@link #execute(String, Supplier)} for operations spanning several accounts.
+     * Account numbers are guarded in their natural order, so callers never deadlock each other.
+     */
+    <T> T execute(Collection<String> accountNumbers, Supplier<T> operation);
+
+    Optional<Account> findAccount(String accountNumber);
+
+    List<Account> findAccounts(Collection<String> accountNumbers);
+
+    /**
+     * Whether a single operation should skip the read-modify-write and be applied by
+     * {@link com.bank.bankaccountapi.repo.AccountRepo#applyConditionalUpdate} inside {@link #execute(String, Supplier)}.
+     */
+    default boolean appliesConditionalUpdates() {
+        return false;
+    }
+}
@@ -0,0 +1,65 @@
+package com.bank.bankaccountapi.service.concurrency;
+
+import com.bank.bankaccountapi.config.AccountConcurrencyProperties;
+import com.bank.bankaccountapi.domain.Account;
+import com.bank.bankaccountapi.expection.AccountApiException;
+import com.bank.bankaccountapi.expection.AccountApiException.Reason;
+import com.bank.bankaccountapi.repo.AccountRepo;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "account.concurrency.strategy", havingValue = "optimistic")
+public class OptimisticLockConcurrencyStrategy implements AccountConcurrencyStrategy {
+
+    private final AccountRepo accountRepo;
+    private final TransactionTemplate transactionTemplate;
+    private final AccountConcurrencyProperties properties;
+
+    @Override
+    public <T> T execute(String accountNumber, Supplier<T> operation) {
+        return executeWithRetry(accountNumber, operation);
+    }
+
+    @Override
+    public <T> T execute(Collection<String> accountNumbers, Supplier<T> operation) {
+        return executeWithRetry(String.join(",", accountNumbers), operation);
+    }
+
+    @Override
+    public Optional<Account> findAccount(String accountNumber) {
+        return accountRepo.findById(accountNumber);
+    }
+
+    @Override
+    public List<Account> findAccounts(Collection<String> accountNumbers) {
+        return accountRepo.findAllById(accountNumbers);
+    }
+
+    private <T> T executeWithRetry(String accountNumber, Supplier<T> operation) {
+        int maxAttempts = Math.max(1, properties.getMaxAttempts());
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> operation.get());
+            } catch (OptimisticLockingFailureException ex) {
+                if (attempt >= maxAttempts) {
+                    throw new AccountApiException(Reason.CONCURRENT_MODIFICATION,
+                            "Account was concurrently modified. AccountNumber = " + accountNumber
+                                    + "; attempts = " + attempt);
+                }
+                log.debug("Version conflict, retrying. accountNumber = {}; attempt = {}", accountNumber, attempt);
+            }
+        }
+    }
+}
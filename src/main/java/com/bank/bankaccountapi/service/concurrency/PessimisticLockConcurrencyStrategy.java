@@ -0,0 +1,42 @@
+package com.bank.bankaccountapi.service.concurrency;
+
+import com.bank.bankaccountapi.domain.Account;
+import com.bank.bankaccountapi.repo.AccountRepo;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "account.concurrency.strategy", havingValue = "pessimistic")
+public class PessimisticLockConcurrencyStrategy implements AccountConcurrencyStrategy {
+
+    private final AccountRepo accountRepo;
+    private final TransactionTemplate transactionTemplate;
+
+    @Override
+    public <T> T execute(String accountNumber, Supplier<T> operation) {
+        return transactionTemplate.execute(status -> operation.get());
+    }
+
+    @Override
+    public <T> T execute(Collection<String> accountNumbers, Supplier<T> operation) {
+        return transactionTemplate.execute(status -> operation.get());
+    }
+
+    @Override
+    public Optional<Account> findAccount(String accountNumber) {
+        return accountRepo.findLockedByAccountNumber(accountNumber);
+    }
+
+    @Override
+    public List<Account> findAccounts(Collection<String> accountNumbers) {
+        return accountRepo.findLockedByAccountNumberInOrderByAccountNumber(accountNumbers);
+    }
+}
@@ -0,0 +1,93 @@
+package com.bank.bankaccountapi.service.concurrency;
+
+import com.bank.bankaccountapi.config.AccountConcurrencyProperties;
+import com.bank.bankaccountapi.domain.Account;
+import com.bank.bankaccountapi.repo.AccountRepo;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+@Component
+@ConditionalOnProperty(name = "account.concurrency.strategy", havingValue = "striped-lock", matchIfMissing = true)
+public class StripedLockConcurrencyStrategy implements AccountConcurrencyStrategy {
+
+    private final AccountRepo accountRepo;
+    private final TransactionTemplate transactionTemplate;
+    private final ReentrantLock[] locks;
+    private final int mask;
+
+    public StripedLockConcurrencyStrategy(AccountRepo accountRepo,
+                                          TransactionTemplate transactionTemplate,
+                                          AccountConcurrencyProperties properties) {
+        this.accountRepo = accountRepo;
+        this.transactionTemplate = transactionTemplate;
+        int size = 1;
+        while (size < properties.getStripes()) {
+            size <<= 1;
+        }
+        this.locks = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        this.mask = size - 1;
+    }
+
+    @Override
+    public <T> T execute(String accountNumber, Supplier<T> operation) {
+        ReentrantLock lock = lockFor(accountNumber);
+        lock.lock();
+        try {
+            return transactionTemplate.execute(status -> operation.get());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public <T> T execute(Collection<String> accountNumbers, Supplier<T> operation) {
+        List<ReentrantLock> acquired = accountNumbers.stream()
+                .mapToInt(this::stripeFor)
+                .distinct()
+                .sorted()
+                .mapToObj(stripe -> locks[stripe])
+                .collect(Collectors.toList());
+        int locked = 0;
+        try {
+            for (ReentrantLock lock : acquired) {
+                lock.lock();
+                locked++;
+            }
+            return transactionTemplate.execute(status -> operation.get());
+        } finally {
+            for (int i = locked - 1; i >= 0; i--) {
+                acquired.get(i).unlock();
+            }
+        }
+    }
+
+    @Override
+    public Optional<Account> findAccount(String accountNumber) {
+        return accountRepo.findById(accountNumber);
+    }
+
+    @Override
+    public List<Account> findAccounts(Collection<String> accountNumbers) {
+        return accountRepo.findAllById(accountNumbers);
+    }
+
+    ReentrantLock lockFor(String accountNumber) {
+        return locks[stripeFor(accountNumber)];
+    }
+
+    private int stripeFor(String accountNumber) {
+        int hash = accountNumber.hashCode();
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+}
@@ -0,0 +1,159 @@
+package com.bank.bankaccountapi.service.export;
+
+import com.bank.bankaccountapi.domain.Account;
+import com.bank.bankaccountapi.domain.AccountStatus;
+import com.bank.bankaccountapi.mapper.AccountMapper;
+import com.bank.bankaccountapi.money.CurrencyUnits;
+import com.bank.bankaccountapi.repo.AccountRepo;
+import com.bank.bankaccountapi.service.split.SplitAccountService;
+import com.bank.bankaccountapi.shard.AccountShards;
+import com.bank.bankaccountapi.shard.ShardContext;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.MinimalPrettyPrinter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Writes every account matching a filter to a stream with bounded memory: rows come from a database cursor
+ * ({@link AccountRepo#streamAll}), and the persistence context and the output are flushed every
+ * {@link AccountRepo#EXPORT_FETCH_SIZE} rows, so heap use does not grow with the size of the table. Split accounts
+ * are exported with the sum of their slots. With {@code account.sharding} the shards are streamed one after another,
+ * each in its own read-only transaction.
+ */
+@Slf4j
+@Service
+public class AccountExporter {
+
+    private static final String CSV_HEADER = "accountNumber,currency,balance,status\n";
+
+    private final AccountRepo accountRepo;
+    private final AccountMapper mapper;
+    private final ObjectMapper objectMapper;
+    private final EntityManager entityManager;
+    private final SplitAccountService splitAccountService;
+    private final TransactionTemplate readOnlyTransactionTemplate;
+    private final int shards;
+
+    public AccountExporter(AccountRepo accountRepo,
+                           AccountMapper mapper,
+                           ObjectMapper objectMapper,
+                           EntityManager entityManager,
+                           SplitAccountService splitAccountService,
+                           TransactionTemplate transactionTemplate,
+                           ObjectProvider<AccountShards> accountShards) {
+        this.accountRepo = accountRepo;
+        this.mapper = mapper;
+        this.objectMapper = objectMapper;
+        this.entityManager = entityManager;
+        this.splitAccountService = splitAccountService;
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+        this.shards = accountShards.stream().mapToInt(AccountShards::size).findFirst().orElse(1);
+    }
+
+    /**
+     * Exports accounts with the given status and currency, {@code null} matching any, in account number order;
+     * with sharding, in account number order within each shard. The output stream is flushed but not closed.
+     *
+     * @return number of exported accounts
+     */
+    public long export(AccountStatus status, Long currency, ExportFormat format, OutputStream out)
+            throws IOException {
+        log.info("Account export was started. status = {}; currency = {}; format = {}", status, currency, format);
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(writer)
+                .setPrettyPrinter(new MinimalPrettyPrinter(""))
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        if (format == ExportFormat.CSV) {
+            writer.write(CSV_HEADER);
+        }
+        long rows = 0;
+        for (int shard = 0; shard < shards; shard++) {
+            rows += exportShard(shard, status, currency, format, writer, generator);
+        }
+        generator.close();
+        writer.flush();
+        log.info("Account export was ended. rows = {}", rows);
+        return rows;
+    }
+
+    private long exportShard(int shard, AccountStatus status, Long currency, ExportFormat format, Writer writer,
+                             JsonGenerator generator) throws IOException {
+        try {
+            return ShardContext.callOn(shard, () -> readOnlyTransactionTemplate.execute(transaction -> {
+                try {
+                    return writeAccounts(status, currency, format, writer, generator);
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            }));
+        } catch (UncheckedIOException ex) {
+            throw ex.getCause();
+        } catch (RuntimeException ex) {
+            throw ex;
+        } catch (Exception ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private long writeAccounts(AccountStatus status, Long currency, ExportFormat format, Writer writer,
+                               JsonGenerator generator) throws IOException {
+        long rows = 0;
+        try (Stream<Account> accounts = accountRepo.streamAll(status, currency)) {
+            Iterator<Account> iterator = accounts.iterator();
+            while (iterator.hasNext()) {
+                Account account = splitAccountService.withTotalBalance(iterator.next());
+                if (format == ExportFormat.CSV) {
+                    writeCsv(account, writer);
+                } else {
+                    generator.writeObject(mapper.map(account));
+                    generator.writeRaw('\n');
+                }
+                if (++rows % AccountRepo.EXPORT_FETCH_SIZE == 0) {
+                    entityManager.clear();
+                    generator.flush();
+                    writer.flush();
+                }
+            }
+        }
+        entityManager.clear();
+        generator.flush();
+        writer.flush();
+        return rows;
+    }
+
+    private static void writeCsv(Account account, Writer writer) throws IOException {
+        writeCsvValue(account.getAccountNumber(), writer);
+        writer.write(',');
+        writer.write(String.valueOf(account.getCurrency()));
+        writer.write(',');
+        writer.write(CurrencyUnits.toMajorUnits(account.getBalance(), account.getCurrency()).toPlainString());
+        writer.write(',');
+        writer.write(account.getStatus().name());
+        writer.write('\n');
+    }
+
+    private static void writeCsvValue(String value, Writer writer) throws IOException {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
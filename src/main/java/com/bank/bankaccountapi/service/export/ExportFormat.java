@@ -0,0 +1,28 @@
+package com.bank.bankaccountapi.service.export;
+
+public enum ExportFormat {
+    /**
+     * One {@link com.bank.bankaccountapi.dto.AccountDto} JSON object per line.
+     */
+    NDJSON("application/x-ndjson", "ndjson"),
+    /**
+     * {@code accountNumber,currency,balance,status} with a header line; balance in major units.
+     */
+    CSV("text/csv", "csv");
+
+    private final String contentType;
+    private final String fileExtension;
+
+    ExportFormat(String contentType, String fileExtension) {
+        this.contentType = contentType;
+        this.fileExtension = fileExtension;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getFileExtension() {
+        return fileExtension;
+    }
+}
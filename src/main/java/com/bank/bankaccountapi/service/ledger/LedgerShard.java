@@ -0,0 +1,249 @@
+package com.bank.bankaccountapi.service.ledger;
+
+import com.bank.bankaccountapi.domain.Account;
+import com.bank.bankaccountapi.domain.AccountOperation;
+import com.bank.bankaccountapi.repo.AccountBatchRepo;
+import com.bank.bankaccountapi.repo.AccountOperationRepo;
+import com.bank.bankaccountapi.repo.AccountRepo;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One partition of the in-memory ledger. All state is confined to the single writer thread,
+ * so operations are applied serially without locks; dirty accounts and their journal entries are written behind
+ * in batches, in one transaction per flush. At most {@code maxAccounts} accounts are kept; clean accounts are
+ * evicted least recently used first.
+ */
+@Slf4j
+class LedgerShard {
+
+    private final int index;
+    private final AccountRepo accountRepo;
+    private final AccountBatchRepo accountBatchRepo;
+    private final AccountOperationRepo accountOperationRepo;
+    private final TransactionTemplate transactionTemplate;
+    private final ScheduledExecutorService writer;
+    private final ExecutorService flusher;
+    private final int maxAccounts;
+
+    private final Map<String, Account> accounts = new LinkedHashMap<>(16, 0.75f, true);
+    private final Set<String> dirty = new LinkedHashSet<>();
+    private final List<AccountOperation> journal = new ArrayList<>();
+    private final Map<List<String>, AccountOperation> unflushedKeys = new HashMap<>();
+    private boolean flushing;
+    /**
+     * Flush outcomes that reached the writer after it was shut down, applied by {@link #close()}.
+     */
+    private final Queue<Runnable> afterWriter = new ConcurrentLinkedQueue<>();
+
+    LedgerShard(int index, AccountRepo accountRepo, AccountBatchRepo accountBatchRepo,
+                AccountOperationRepo accountOperationRepo, TransactionTemplate transactionTemplate,
+                Duration flushInterval, int maxAccounts) {
+        this.index = index;
+        this.accountRepo = accountRepo;
+        this.accountBatchRepo = accountBatchRepo;
+        this.accountOperationRepo = accountOperationRepo;
+        this.transactionTemplate = transactionTemplate;
+        this.maxAccounts = Math.max(1, maxAccounts);
+        this.writer = Executors.newSingleThreadScheduledExecutor(runnable -> new Thread(runnable, "ledger-shard-" + index));
+        this.flusher = Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, "ledger-flush-" + index));
+        long intervalMillis = flushInterval.toMillis();
+        writer.scheduleWithFixedDelay(this::flush, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Runs the task on the writer thread and waits for its result.
+     */
+    <T> T call(Callable<T> task) {
+        try {
+            return writer.submit(task).get();
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) ex.getCause();
+            }
+            throw new IllegalStateException(ex.getCause());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for ledger shard " + index, ex);
+        }
+    }
+
+    /**
+     * Writer thread only. Accounts are loaded from the database on first access.
+     */
+    Optional<Account> find(String accountNumber) {
+        Account account = accounts.get(accountNumber);
+        if (account == null) {
+            Optional<Account> loaded = accountRepo.findById(accountNumber);
+            loaded.ifPresent(value -> {
+                accounts.put(accountNumber, value);
+                evictClean();
+            });
+            return loaded;
+        }
+        return Optional.of(account);
+    }
+
+    /**
+     * Writer thread only.
+     */
+    void markDirty(Account account) {
+        dirty.add(account.getAccountNumber());
+    }
+
+    /**
+     * Writer thread only. Looks at entries not flushed yet before asking the database.
+     */
+    Optional<AccountOperation> findJournaled(String accountNumber, String idempotencyKey) {
+        AccountOperation unflushed = unflushedKeys.get(List.of(accountNumber, idempotencyKey));
+        if (unflushed != null) {
+            return Optional.of(unflushed);
+        }
+        return accountOperationRepo.findByAccountNumberAndIdempotencyKey(accountNumber, idempotencyKey);
+    }
+
+    /**
+     * Writer thread only.
+     */
+    void journal(AccountOperation entry) {
+        journal.add(entry);
+        if (entry.getIdempotencyKey() != null) {
+            unflushedKeys.put(List.of(entry.getAccountNumber(), entry.getIdempotencyKey()), entry);
+        }
+    }
+
+    /**
+     * Waits until the flush in flight, if any, has committed or rolled back, so no older balance of this shard can be
+     * written after what the caller writes next. The outcome of that flush is still applied on the writer later.
+     */
+    void awaitFlush() {
+        try {
+            flusher.submit(() -> {
+            }).get();
+        } catch (ExecutionException ex) {
+            throw new IllegalStateException(ex.getCause());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for flush of ledger shard " + index, ex);
+        }
+    }
+
+    /**
+     * Stops the writer, waits for the flush in flight and writes what is left, including the entries of a flush
+     * that failed while closing.
+     */
+    void close() {
+        writer.shutdown();
+        awaitTermination(writer);
+        flusher.shutdown();
+        awaitTermination(flusher);
+        for (Runnable outcome = afterWriter.poll(); outcome != null; outcome = afterWriter.poll()) {
+            outcome.run();
+        }
+        if (!dirty.isEmpty() || !journal.isEmpty()) {
+            List<Account> remaining = new ArrayList<>(dirty.size());
+            dirty.forEach(accountNumber -> remaining.add(accounts.get(accountNumber)));
+            List<AccountOperation> entries = new ArrayList<>(journal);
+            transactionTemplate.executeWithoutResult(status -> {
+                accountBatchRepo.updateBalances(remaining);
+                accountOperationRepo.saveAll(entries);
+            });
+            log.info("Ledger shard closed. shard = {}; accounts = {}; entries = {}",
+                    index, remaining.size(), entries.size());
+            dirty.clear();
+            journal.clear();
+        }
+    }
+
+    /**
+     * Writer thread only. Accounts of a flush in flight are not evicted, so a failed flush can mark them dirty
+     * again and a reload cannot read a balance the flush has not committed yet.
+     */
+    private void evictClean() {
+        if (flushing) {
+            return;
+        }
+        Iterator<Map.Entry<String, Account>> eldest = accounts.entrySet().iterator();
+        while (accounts.size() > maxAccounts && eldest.hasNext()) {
+            if (!dirty.contains(eldest.next().getKey())) {
+                eldest.remove();
+            }
+        }
+    }
+
+    private void flush() {
+        if (flushing || dirty.isEmpty()) {
+            return;
+        }
+        List<Account> snapshot = new ArrayList<>(dirty.size());
+        for (String accountNumber : dirty) {
+            snapshot.add(accounts.get(accountNumber).toBuilder().build());
+        }
+        dirty.clear();
+        List<AccountOperation> entries = new ArrayList<>(journal);
+        journal.clear();
+        flushing = true;
+        flusher.execute(() -> {
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    accountBatchRepo.updateBalances(snapshot);
+                    accountOperationRepo.saveAll(entries);
+                });
+                runOnWriter(() -> {
+                    for (AccountOperation entry : entries) {
+                        if (entry.getIdempotencyKey() != null) {
+                            unflushedKeys.remove(List.of(entry.getAccountNumber(), entry.getIdempotencyKey()));
+                        }
+                    }
+                    flushing = false;
+                });
+            } catch (RuntimeException ex) {
+                log.error("Ledger flush failed, will retry. shard = {}; accounts = {}", index, snapshot.size(), ex);
+                runOnWriter(() -> {
+                    snapshot.forEach(this::markDirty);
+                    journal.addAll(0, entries);
+                    flushing = false;
+                });
+            }
+        });
+    }
+
+    private void runOnWriter(Runnable task) {
+        try {
+            writer.execute(task);
+        } catch (RejectedExecutionException ex) {
+            // shard is closing, close() applies it once the writer has stopped
+            afterWriter.add(task);
+        }
+    }
+
+    private void awaitTermination(ExecutorService executor) {
+        try {
+            if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+                log.warn("Ledger shard executor did not terminate in time. shard = {}", index);
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,250 @@
+package com.bank.bankaccountapi.service.ledger;
+
+import com.bank.bankaccountapi.config.AccountSplitProperties;
+import com.bank.bankaccountapi.config.LedgerProperties;
+import com.bank.bankaccountapi.domain.Account;
+import com.bank.bankaccountapi.domain.AccountOperation;
+import com.bank.bankaccountapi.dto.AccountDto;
+import com.bank.bankaccountapi.dto.AccountOperationDto;
+import com.bank.bankaccountapi.dto.AccountTransferDto;
+import com.bank.bankaccountapi.dto.AccountTransferResultDto;
+import com.bank.bankaccountapi.expection.AccountApiException.Reason;
+import com.bank.bankaccountapi.mapper.AccountMapper;
+import com.bank.bankaccountapi.repo.AccountBatchRepo;
+import com.bank.bankaccountapi.repo.AccountOperationRepo;
+import com.bank.bankaccountapi.repo.AccountRepo;
+import com.bank.bankaccountapi.service.AccountOperations;
+import com.bank.bankaccountapi.service.AccountService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * {@link AccountService} that keeps balances in memory, partitioned by account number into shards with
+ * a single writer thread each. The database stays the source of truth: accounts are loaded on first access
+ * and dirty balances are flushed in JDBC batches, together with their journal entries, every
+ * {@code account.ledger.flush-interval}.
+ * While enabled this service must be the only writer of the {@code ACCOUNT} table. It takes {@code ACCOUNT.BALANCE}
+ * as the whole balance, so it cannot serve split accounts.
+ * A transfer between accounts of different shards holds both writer threads while it runs, the one of the lower
+ * shard waiting for the higher, so transfers cannot deadlock. Two shards flush in two transactions, so such a
+ * transfer is not written behind: both legs are written through in one transaction before they are applied in
+ * memory.
+ */
+@Slf4j
+@Primary
+@Service
+@ConditionalOnProperty(name = "account.ledger.enabled", havingValue = "true")
+public class ShardedLedgerAccountService implements AccountService {
+
+    private final AccountBatchRepo accountBatchRepo;
+    private final AccountOperationRepo accountOperationRepo;
+    private final AccountMapper mapper;
+    private final TransactionTemplate transactionTemplate;
+    private final LedgerShard[] shards;
+
+    public ShardedLedgerAccountService(AccountRepo accountRepo,
+                                       AccountBatchRepo accountBatchRepo,
+                                       AccountOperationRepo accountOperationRepo,
+                                       AccountMapper mapper,
+                                       TransactionTemplate transactionTemplate,
+                                       LedgerProperties properties,
+                                       AccountSplitProperties splitProperties) {
+        if (!splitProperties.getAccountNumbers().isEmpty()) {
+            throw new IllegalStateException("account.ledger cannot be combined with account.split");
+        }
+        this.accountBatchRepo = accountBatchRepo;
+        this.accountOperationRepo = accountOperationRepo;
+        this.mapper = mapper;
+        this.transactionTemplate = transactionTemplate;
+        this.shards = new LedgerShard[Math.max(1, properties.getShards())];
+        for (int i = 0; i < shards.length; i++) {
+            shards[i] = new LedgerShard(i, accountRepo, accountBatchRepo, accountOperationRepo,
+                    transactionTemplate, properties.getFlushInterval(), properties.getMaxAccountsPerShard());
+        }
+    }
+
+    @Override
+    public String getAccountStatusByAccountNumber(String accountNumber) {
+        log.debug("Getting account status by account number. accountNumber = {}", accountNumber);
+        LedgerShard shard = shardFor(accountNumber);
+        return shard.call(() -> findAccount(shard, accountNumber).getStatus().toString());
+    }
+
+    @Override
+    public AccountDto getAccountBalanceInquiryByAccountNumber(String accountNumber) {
+        log.debug("Getting account balance inquiry by account number. accountNumber = {}", accountNumber);
+        LedgerShard shard = shardFor(accountNumber);
+        return shard.call(() -> mapper.map(findAccount(shard, accountNumber)));
+    }
+
+    @Override
+    public AccountDto applyAccountOperation(AccountOperationDto operation) {
+        log.debug("Operation was started. operation = {}", operation);
+        LedgerShard shard = shardFor(operation.getAccountNumber());
+        return shard.call(() -> {
+            Account account = shard.find(operation.getAccountNumber())
+                    .orElseThrow(() -> AccountOperations.accountNotFound(operation.getAccountNumber()));
+            if (operation.getIdempotencyKey() != null) {
+                Optional<AccountOperation> journaled = shard.findJournaled(operation.getAccountNumber(),
+                        operation.getIdempotencyKey());
+                if (journaled.isPresent()) {
+                    return mapper.map(AccountOperations.replay(journaled.get(), operation));
+                }
+            }
+            AccountOperations.apply(operation, account);
+            shard.markDirty(account);
+            shard.journal(AccountOperations.journalEntry(operation, account));
+            return mapper.map(account);
+        });
+    }
+
+    /**
+     * Both legs are checked before either is applied, so a rejection of either side leaves both accounts unchanged.
+     * The writer of the lower shard waits for the writer of the higher one, never the other way round. Legs on one
+     * shard are written behind like single operations; legs on two shards are written through, see
+     * {@link #transferAcrossShards}.
+     */
+    @Override
+    public AccountTransferResultDto transfer(AccountTransferDto transfer) {
+        log.debug("Transfer was started. transfer = {}", transfer);
+        AccountOperationDto withdrawal = AccountOperations.withdrawal(transfer);
+        AccountOperationDto deposit = AccountOperations.deposit(transfer);
+        boolean withdrawalFirst = shardIndex(withdrawal.getAccountNumber()) <= shardIndex(deposit.getAccountNumber());
+        AccountOperationDto first = withdrawalFirst ? withdrawal : deposit;
+        AccountOperationDto second = withdrawalFirst ? deposit : withdrawal;
+        LedgerShard firstShard = shardFor(first.getAccountNumber());
+        LedgerShard secondShard = shardFor(second.getAccountNumber());
+
+        AccountDto[] legs = firstShard.call(() -> {
+            Account firstAccount = findAccount(firstShard, first.getAccountNumber());
+            AccountOperation firstJournaled = findJournaled(firstShard, first);
+            if (firstJournaled == null) {
+                Reason rejection = AccountOperations.rejectionOf(first, firstAccount);
+                if (rejection != null) {
+                    throw AccountOperations.rejected(rejection, first.getAccountNumber());
+                }
+            }
+            if (secondShard != firstShard) {
+                return secondShard.call(() -> transferAcrossShards(firstShard, first, firstAccount, firstJournaled,
+                        secondShard, second));
+            }
+            AccountDto secondResult = applyTransferLeg(secondShard, second, firstJournaled, first);
+            if (firstJournaled != null) {
+                return new AccountDto[]{mapper.map(AccountOperations.replay(firstJournaled, first)), secondResult};
+            }
+            AccountOperations.apply(first, firstAccount);
+            firstShard.markDirty(firstAccount);
+            firstShard.journal(AccountOperations.journalEntry(first, firstAccount));
+            return new AccountDto[]{mapper.map(firstAccount), secondResult};
+        });
+        return AccountTransferResultDto.builder()
+                .fromAccount(withdrawalFirst ? legs[0] : legs[1])
+                .toAccount(withdrawalFirst ? legs[1] : legs[0])
+                .build();
+    }
+
+    @PreDestroy
+    public void close() {
+        for (LedgerShard shard : shards) {
+            shard.close();
+        }
+    }
+
+    private Account findAccount(LedgerShard shard, String accountNumber) {
+        return shard.find(accountNumber)
+                .orElseThrow(() -> AccountOperations.accountNotFound(accountNumber));
+    }
+
+    /**
+     * Writer threads of both shards only. Waits for the flushes in flight of both shards, so neither can write an
+     * older balance afterwards, then adds both legs to the balances and journals both entries in one transaction.
+     * The accounts are changed in memory only once it committed. Later flushes write balances that already include
+     * the transfer.
+     */
+    private AccountDto[] transferAcrossShards(LedgerShard firstShard, AccountOperationDto first, Account firstAccount,
+                                              AccountOperation firstJournaled, LedgerShard secondShard,
+                                              AccountOperationDto second) {
+        Account secondAccount = findAccount(secondShard, second.getAccountNumber());
+        AccountOperation secondJournaled = findJournaled(secondShard, second);
+        if (firstJournaled != null && secondJournaled != null) {
+            return new AccountDto[]{mapper.map(AccountOperations.replay(firstJournaled, first)),
+                    mapper.map(AccountOperations.replay(secondJournaled, second))};
+        }
+        if (firstJournaled != null || secondJournaled != null) {
+            throw AccountOperations.rejected(Reason.IDEMPOTENCY_CONFLICT,
+                    secondJournaled != null ? second.getAccountNumber() : first.getAccountNumber());
+        }
+        Reason rejection = AccountOperations.rejectionOf(second, secondAccount);
+        if (rejection != null) {
+            throw AccountOperations.rejected(rejection, second.getAccountNumber());
+        }
+
+        Account firstAfter = firstAccount.toBuilder().build();
+        AccountOperations.apply(first, firstAfter);
+        Account secondAfter = secondAccount.toBuilder().build();
+        AccountOperations.apply(second, secondAfter);
+        firstShard.awaitFlush();
+        secondShard.awaitFlush();
+        transactionTemplate.executeWithoutResult(status -> {
+            addToBalance(first);
+            addToBalance(second);
+            accountOperationRepo.saveAll(List.of(AccountOperations.journalEntry(first, firstAfter),
+                    AccountOperations.journalEntry(second, secondAfter)));
+        });
+
+        firstAccount.setBalance(firstAfter.getBalance());
+        secondAccount.setBalance(secondAfter.getBalance());
+        return new AccountDto[]{mapper.map(firstAccount), mapper.map(secondAccount)};
+    }
+
+    private void addToBalance(AccountOperationDto operation) {
+        if (accountBatchRepo.addToBalance(operation.getAccountNumber(), AccountOperations.balanceDelta(operation)) == 0) {
+            throw new IllegalStateException("Ledger account is missing in the database. accountNumber = "
+                    + operation.getAccountNumber());
+        }
+    }
+
+    /**
+     * Writer thread of {@code shard} only. Replays the leg if the transfer was applied before; a key found on one
+     * leg only was used by a single operation.
+     */
+    private AccountDto applyTransferLeg(LedgerShard shard, AccountOperationDto leg,
+                                        AccountOperation otherJournaled, AccountOperationDto otherLeg) {
+        Account account = findAccount(shard, leg.getAccountNumber());
+        AccountOperation journaled = findJournaled(shard, leg);
+        if (journaled != null && otherJournaled != null) {
+            return mapper.map(AccountOperations.replay(journaled, leg));
+        }
+        if (journaled != null || otherJournaled != null) {
+            throw AccountOperations.rejected(Reason.IDEMPOTENCY_CONFLICT,
+                    journaled != null ? leg.getAccountNumber() : otherLeg.getAccountNumber());
+        }
+        AccountOperations.apply(leg, account);
+        shard.markDirty(account);
+        shard.journal(AccountOperations.journalEntry(leg, account));
+        return mapper.map(account);
+    }
+
+    private static AccountOperation findJournaled(LedgerShard shard, AccountOperationDto operation) {
+        if (operation.getIdempotencyKey() == null) {
+            return null;
+        }
+        return shard.findJournaled(operation.getAccountNumber(), operation.getIdempotencyKey()).orElse(null);
+    }
+
+    private LedgerShard shardFor(String accountNumber) {
+        return shards[shardIndex(accountNumber)];
+    }
+
+    private int shardIndex(String accountNumber) {
+        int hash = accountNumber.hashCode();
+        return Math.floorMod(hash ^ (hash >>> 16), shards.length);
+    }
+}
@@ -0,0 +1,125 @@
+package com.bank.bankaccountapi.service.metrics;
+
+import com.bank.bankaccountapi.config.AccountMetricsProperties;
+import com.bank.bankaccountapi.expection.AccountApiException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Timers for {@link com.bank.bankaccountapi.service.AccountService} calls, tagged by method and outcome, and
+ * in-flight operation gauges per account shard. Every meter is registered up front, so recording a call is
+ * an array lookup and a primitive update with no allocation. Only the success timers publish a percentile histogram
+ * unless {@code account.metrics.outcome-histograms} is set, so each rejection reason adds a few series, not a
+ * histogram, per method.
+ */
+@Component
+public class AccountMetrics {
+
+    static final String TIMER = "account.service";
+    static final String IN_FLIGHT = "account.operations.in.flight";
+
+    private static final AccountApiException.Reason[] REASONS = AccountApiException.Reason.values();
+    private static final int SUCCESS = 0;
+    private static final int ERROR = REASONS.length + 1;
+
+    private final Timer[][] timers;
+    private final AtomicIntegerArray inFlight;
+
+    public AccountMetrics(MeterRegistry registry, AccountMetricsProperties properties) {
+        Method[] methods = Method.values();
+        this.timers = new Timer[methods.length][ERROR + 1];
+        for (Method method : methods) {
+            for (int outcome = SUCCESS; outcome <= ERROR; outcome++) {
+                timers[method.ordinal()][outcome] = Timer.builder(TIMER)
+                        .description("AccountService calls")
+                        .tag("method", method.tag)
+                        .tag("outcome", outcomeTag(outcome))
+                        .publishPercentileHistogram(outcome == SUCCESS || properties.isOutcomeHistograms())
+                        .register(registry);
+            }
+        }
+        this.inFlight = new AtomicIntegerArray(Math.max(1, properties.getInFlightShards()));
+        for (int shard = 0; shard < inFlight.length(); shard++) {
+            int index = shard;
+            Gauge.builder(IN_FLIGHT, inFlight, gauges -> gauges.get(index))
+                    .description("Account operations being applied")
+                    .tag("shard", String.valueOf(shard))
+                    .register(registry);
+        }
+    }
+
+    /**
+     * Marks an operation on the account as in flight and returns the start time for {@link #operationFinished}.
+     */
+    public long operationStarted(String accountNumber) {
+        inFlight.incrementAndGet(shardOf(accountNumber));
+        return System.nanoTime();
+    }
+
+    public void operationFinished(String accountNumber, long startNanos, RuntimeException failure) {
+        inFlight.decrementAndGet(shardOf(accountNumber));
+        record(Method.APPLY_OPERATION, startNanos, failure);
+    }
+
+    /**
+     * Like {@link #operationFinished(String, long, RuntimeException)} for an operation rejected without an exception.
+     */
+    public void operationRejected(String accountNumber, long startNanos, AccountApiException.Reason rejection) {
+        inFlight.decrementAndGet(shardOf(accountNumber));
+        timers[Method.APPLY_OPERATION.ordinal()][rejection.ordinal() + 1]
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Records a finished call; {@code failure} is {@code null} on success.
+     */
+    public void record(Method method, long startNanos, Exception failure) {
+        timers[method.ordinal()][outcomeOf(failure)].record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private int shardOf(String accountNumber) {
+        int hash = accountNumber.hashCode();
+        return Math.floorMod(hash ^ (hash >>> 16), inFlight.length());
+    }
+
+    private static int outcomeOf(Exception failure) {
+        if (failure == null) {
+            return SUCCESS;
+        }
+        if (failure instanceof AccountApiException) {
+            return ((AccountApiException) failure).getReason().ordinal() + 1;
+        }
+        return ERROR;
+    }
+
+    private static String outcomeTag(int outcome) {
+        if (outcome == SUCCESS) {
+            return "success";
+        }
+        if (outcome == ERROR) {
+            return "error";
+        }
+        return REASONS[outcome - 1].name().toLowerCase(Locale.ROOT).replace('_', '-');
+    }
+
+    public enum Method {
+        GET_STATUS("getAccountStatusByAccountNumber"),
+        GET_BALANCE("getAccountBalanceInquiryByAccountNumber"),
+        GET_BALANCES("getAccountBalances"),
+        APPLY_OPERATION("applyAccountOperation"),
+        APPLY_OPERATIONS("applyAccountOperations"),
+        TRANSFER("transfer");
+
+        private final String tag;
+
+        Method(String tag) {
+            this.tag = tag;
+        }
+    }
+}
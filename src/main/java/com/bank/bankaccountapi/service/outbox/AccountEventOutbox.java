@@ -0,0 +1,63 @@
+package com.bank.bankaccountapi.service.outbox;
+
+import com.bank.bankaccountapi.config.AccountOutboxProperties;
+import com.bank.bankaccountapi.domain.AccountOperation;
+import com.bank.bankaccountapi.domain.AccountOutboxEvent;
+import com.bank.bankaccountapi.repo.AccountOutboxRepo;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Writes a balance-changed event for every journal entry into {@code ACCOUNT_OUTBOX}, in the caller's transaction,
+ * so an event exists if and only if the balance change committed. {@link AccountOutboxRelay} publishes them.
+ */
+@Component
+@RequiredArgsConstructor
+public class AccountEventOutbox {
+
+    private final AccountOutboxRepo outboxRepo;
+    private final AccountOutboxProperties properties;
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    /**
+     * Must run in the transaction that saved the entries; they must have their ids already.
+     */
+    public void append(AccountOperation journaled) {
+        if (properties.isEnabled()) {
+            outboxRepo.save(eventOf(journaled));
+        }
+    }
+
+    /**
+     * Same as {@link #append(AccountOperation)} for several entries, written in one insert batch.
+     */
+    public void appendAll(Collection<AccountOperation> journaled) {
+        if (!properties.isEnabled() || journaled.isEmpty()) {
+            return;
+        }
+        List<AccountOutboxEvent> events = new ArrayList<>(journaled.size());
+        for (AccountOperation entry : journaled) {
+            events.add(eventOf(entry));
+        }
+        outboxRepo.saveAll(events);
+    }
+
+    private static AccountOutboxEvent eventOf(AccountOperation journaled) {
+        return AccountOutboxEvent.builder()
+                .operationId(journaled.getId())
+                .accountNumber(journaled.getAccountNumber())
+                .currency(journaled.getCurrency())
+                .amount(journaled.getAmount())
+                .operationSign(journaled.getOperationSign())
+                .balanceAfter(journaled.getBalanceAfter())
+                .createdAt(journaled.getCreatedAt())
+                .build();
+    }
+}
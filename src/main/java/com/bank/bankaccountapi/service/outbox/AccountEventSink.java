@@ -0,0 +1,17 @@
+package com.bank.bankaccountapi.service.outbox;
+
+import com.bank.bankaccountapi.dto.BalanceChangedEvent;
+
+import java.util.List;
+
+/**
+ * Destination of relayed balance-changed events, e.g. a message broker.
+ */
+public interface AccountEventSink {
+
+    /**
+     * Publishes the events in the given order and returns once the destination has accepted all of them.
+     * Throwing means the batch is published again later, possibly in part twice.
+     */
+    void publish(List<BalanceChangedEvent> events) throws Exception;
+}
@@ -0,0 +1,206 @@
+package com.bank.bankaccountapi.service.outbox;
+
+import com.bank.bankaccountapi.config.AccountOutboxProperties;
+import com.bank.bankaccountapi.domain.AccountOutboxEvent;
+import com.bank.bankaccountapi.dto.BalanceChangedEvent;
+import com.bank.bankaccountapi.repo.AccountOutboxRepo;
+import com.bank.bankaccountapi.shard.AccountShards;
+import com.bank.bankaccountapi.shard.ShardContext;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Drains {@code ACCOUNT_OUTBOX} on a single thread: reads the oldest {@code account.outbox.batch-size} events,
+ * publishes them to the {@link AccountEventSink} and deletes them once the sink has accepted them. A failed publish
+ * deletes nothing and the same batch is read again after {@code account.outbox.poll-interval}; a crash between
+ * publish and delete publishes the batch again. Delivery is therefore at least once, and since batches are read in
+ * id order and never skipped, events of one account are published in the order they were written.
+ * <p>
+ * With {@code account.sharding} every shard has its own outbox next to its accounts, and each poll drains the
+ * shards one after another. Event and operation ids come from per-shard sequences, so they are published as
+ * {@link AccountShards#globalId} to stay unique across shards.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "account.outbox.enabled", havingValue = "true")
+public class AccountOutboxRelay implements SmartLifecycle {
+
+    static final String LAG = "account.outbox.relay.lag";
+    static final String BATCH_SIZE = "account.outbox.relay.batch.size";
+    static final String OLDEST_AGE = "account.outbox.oldest.age";
+    static final String FAILURES = "account.outbox.relay.failures";
+
+    private final AccountOutboxRepo outboxRepo;
+    private final AccountEventSink sink;
+    private final AccountOutboxProperties properties;
+    private final Timer lag;
+    private final DistributionSummary batchSize;
+    private final Counter failures;
+    private final int shards;
+    private final AtomicLongArray oldestCreatedAtMillis;
+    private volatile ScheduledExecutorService relay;
+    private volatile boolean stopping;
+
+    @Autowired
+    public AccountOutboxRelay(AccountOutboxRepo outboxRepo,
+                              AccountEventSink sink,
+                              AccountOutboxProperties properties,
+                              MeterRegistry registry,
+                              ObjectProvider<AccountShards> accountShards) {
+        this(outboxRepo, sink, properties, registry,
+                accountShards.stream().mapToInt(AccountShards::size).findFirst().orElse(1));
+    }
+
+    AccountOutboxRelay(AccountOutboxRepo outboxRepo,
+                       AccountEventSink sink,
+                       AccountOutboxProperties properties,
+                       MeterRegistry registry,
+                       int shards) {
+        this.outboxRepo = outboxRepo;
+        this.sink = sink;
+        this.properties = properties;
+        this.shards = Math.max(1, shards);
+        this.oldestCreatedAtMillis = new AtomicLongArray(this.shards);
+        this.lag = Timer.builder(LAG)
+                .description("Time from the balance change to the sink accepting its event")
+                .publishPercentileHistogram()
+                .register(registry);
+        this.batchSize = DistributionSummary.builder(BATCH_SIZE)
+                .description("Events published per relay batch")
+                .register(registry);
+        this.failures = Counter.builder(FAILURES)
+                .description("Relay batches that failed and will be retried")
+                .register(registry);
+        TimeGauge.builder(OLDEST_AGE, oldestCreatedAtMillis, TimeUnit.MILLISECONDS,
+                        AccountOutboxRelay::oldestAgeMillis)
+                .description("Age of the oldest event not published yet, as of the last poll")
+                .register(registry);
+    }
+
+    @Override
+    public void start() {
+        stopping = false;
+        relay = Executors.newSingleThreadScheduledExecutor(runnable -> new Thread(runnable, "account-outbox-relay"));
+        long intervalMillis = Math.max(1, properties.getPollInterval().toMillis());
+        relay.scheduleWithFixedDelay(this::drain, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        log.info("Outbox relay was started. sink = {}; batchSize = {}; pollInterval = {}",
+                sink.getClass().getSimpleName(), properties.getBatchSize(), properties.getPollInterval());
+    }
+
+    @Override
+    public void stop() {
+        ScheduledExecutorService running = relay;
+        if (running == null) {
+            return;
+        }
+        stopping = true;
+        running.shutdown();
+        try {
+            if (!running.awaitTermination(30, TimeUnit.SECONDS)) {
+                log.warn("Outbox relay did not stop in time");
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        relay = null;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return relay != null;
+    }
+
+    /**
+     * Relays full batches back to back until the outbox of every shard has fewer than a batch left. A failing shard
+     * does not hold up the others.
+     */
+    void drain() {
+        int limit = Math.max(1, properties.getBatchSize());
+        for (int shard = 0; shard < shards && !stopping; shard++) {
+            int current = shard;
+            try {
+                ShardContext.callOn(shard, () -> {
+                    while (relayBatch(current, limit) == limit && !stopping) {
+                        // keep going, the outbox is behind
+                    }
+                    return null;
+                });
+            } catch (Exception ex) {
+                failures.increment();
+                log.warn("Outbox relay batch failed, will retry. shard = {}; pollInterval = {}",
+                        shard, properties.getPollInterval(), ex);
+            }
+        }
+    }
+
+    /**
+     * @return how many events were published
+     */
+    int relayBatch(int shard, int limit) throws Exception {
+        List<AccountOutboxEvent> batch = outboxRepo.findByOrderById(PageRequest.of(0, limit));
+        oldestCreatedAtMillis.set(shard, batch.isEmpty() ? 0 : batch.get(0).getCreatedAt().toEpochMilli());
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        List<BalanceChangedEvent> events = new ArrayList<>(batch.size());
+        List<Long> ids = new ArrayList<>(batch.size());
+        for (AccountOutboxEvent event : batch) {
+            events.add(BalanceChangedEvent.builder()
+                    .eventId(AccountShards.globalId(shard, event.getId()))
+                    .operationId(AccountShards.globalId(shard, event.getOperationId()))
+                    .accountNumber(event.getAccountNumber())
+                    .currency(event.getCurrency())
+                    .operationSign(event.getOperationSign())
+                    .amount(event.getAmount())
+                    .balance(event.getBalanceAfter())
+                    .occurredAt(event.getCreatedAt())
+                    .build());
+            ids.add(event.getId());
+        }
+
+        sink.publish(events);
+        Instant published = Instant.now();
+        outboxRepo.deleteAllByIdInBatch(ids);
+        if (batch.size() < limit) {
+            oldestCreatedAtMillis.set(shard, 0);
+        }
+
+        batchSize.record(batch.size());
+        for (AccountOutboxEvent event : batch) {
+            lag.record(Duration.between(event.getCreatedAt(), published));
+        }
+        log.debug("Outbox batch was relayed. events = {}; firstId = {}; lastId = {}",
+                batch.size(), ids.get(0), ids.get(ids.size() - 1));
+        return batch.size();
+    }
+
+    private static double oldestAgeMillis(AtomicLongArray oldestCreatedAtMillis) {
+        long oldest = Long.MAX_VALUE;
+        for (int shard = 0; shard < oldestCreatedAtMillis.length(); shard++) {
+            long createdAt = oldestCreatedAtMillis.get(shard);
+            if (createdAt != 0) {
+                oldest = Math.min(oldest, createdAt);
+            }
+        }
+        return oldest == Long.MAX_VALUE ? 0 : Math.max(0, System.currentTimeMillis() - oldest);
+    }
+}
@@ -0,0 +1,67 @@
+package com.bank.bankaccountapi.service.outbox;
+
+import com.bank.bankaccountapi.config.AccountOutboxProperties;
+import com.bank.bankaccountapi.dto.BalanceChangedEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * File stand-in for a broker: appends each event as one JSON line and forces the batch to disk before it counts as
+ * accepted. A consumer tails the file and skips event ids it has seen.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "account.outbox.sink", havingValue = "file")
+public class FileAccountEventSink implements AccountEventSink {
+
+    private final Path file;
+    private final ObjectWriter writer;
+    private FileChannel channel;
+
+    public FileAccountEventSink(AccountOutboxProperties properties, ObjectMapper objectMapper) {
+        this.file = Paths.get(properties.getFile());
+        this.writer = objectMapper.writerFor(BalanceChangedEvent.class);
+    }
+
+    /**
+     * Called by the relay thread only.
+     */
+    @Override
+    public void publish(List<BalanceChangedEvent> events) throws IOException {
+        ByteArrayOutputStream lines = new ByteArrayOutputStream(events.size() * 256);
+        for (BalanceChangedEvent event : events) {
+            writer.writeValue(lines, event);
+            lines.write('\n');
+        }
+        if (channel == null) {
+            channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.APPEND);
+            log.info("File event sink was opened. file = {}", file.toAbsolutePath());
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(lines.toByteArray());
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        channel.force(false);
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+        }
+    }
+}
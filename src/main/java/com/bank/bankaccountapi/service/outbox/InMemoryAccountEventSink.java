@@ -0,0 +1,46 @@
+package com.bank.bankaccountapi.service.outbox;
+
+import com.bank.bankaccountapi.config.AccountOutboxProperties;
+import com.bank.bankaccountapi.dto.BalanceChangedEvent;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * In-process stand-in for a broker: a bounded queue consumers drain. A batch that does not fit is refused as a
+ * whole, so the relay retries it once consumers have caught up.
+ */
+@Component
+@ConditionalOnProperty(name = "account.outbox.sink", havingValue = "in-memory", matchIfMissing = true)
+public class InMemoryAccountEventSink implements AccountEventSink {
+
+    private final BlockingQueue<BalanceChangedEvent> events;
+
+    public InMemoryAccountEventSink(AccountOutboxProperties properties) {
+        this.events = new LinkedBlockingQueue<>(Math.max(1, properties.getInMemoryCapacity()));
+    }
+
+    /**
+     * Called by the relay thread only, so the free capacity cannot shrink between the check and the adds.
+     */
+    @Override
+    public void publish(List<BalanceChangedEvent> batch) {
+        if (events.remainingCapacity() < batch.size()) {
+            throw new IllegalStateException("In-memory event sink is full. pending = " + events.size());
+        }
+        events.addAll(batch);
+    }
+
+    /**
+     * Removes and returns up to {@code maxEvents} events, oldest first.
+     */
+    public List<BalanceChangedEvent> drain(int maxEvents) {
+        List<BalanceChangedEvent> drained = new ArrayList<>(Math.min(maxEvents, events.size()));
+        events.drainTo(drained, maxEvents);
+        return drained;
+    }
+}
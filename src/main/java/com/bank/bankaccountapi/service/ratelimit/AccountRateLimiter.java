@@ -0,0 +1,89 @@
+package com.bank.bankaccountapi.service.ratelimit;
+
+import com.bank.bankaccountapi.config.AccountRateLimitProperties;
+import com.bank.bankaccountapi.expection.RateLimitExceededException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Admission control for account operations: a token bucket per client and one per account number, checked before
+ * the operation reaches the service. The client bucket is checked first, so a client over its own limit does not
+ * use up the tokens of the account it floods; its token is given back when the account bucket sheds the operation,
+ * so a client retrying one throttled account keeps its quota for other accounts.
+ */
+@Component
+public class AccountRateLimiter {
+
+    /**
+     * Request header identifying the client; the remote address is used without it.
+     */
+    public static final String CLIENT_ID_HEADER = "X-Client-Id";
+
+    static final String REJECTED = "account.rate.limit.rejected";
+    static final String KEYS = "account.rate.limit.keys";
+
+    private final boolean enabled;
+    private final LongSupplier clock;
+    private final TokenBucketTable accounts;
+    private final TokenBucketTable clients;
+    private final Counter accountRejections;
+    private final Counter clientRejections;
+
+    @Autowired
+    public AccountRateLimiter(AccountRateLimitProperties properties, MeterRegistry registry) {
+        this(properties, registry, System::nanoTime);
+    }
+
+    AccountRateLimiter(AccountRateLimitProperties properties, MeterRegistry registry, LongSupplier clock) {
+        this.enabled = properties.isEnabled();
+        this.clock = clock;
+        long now = clock.getAsLong();
+        long idleNanos = properties.getIdleTimeout().toNanos();
+        this.accounts = new TokenBucketTable(properties.getPerAccount(), properties.getMaxKeys(), idleNanos, now);
+        this.clients = new TokenBucketTable(properties.getPerClient(), properties.getMaxKeys(), idleNanos, now);
+        this.accountRejections = Counter.builder(REJECTED)
+                .description("Operations shed by admission control")
+                .tag("scope", "account")
+                .register(registry);
+        this.clientRejections = Counter.builder(REJECTED)
+                .description("Operations shed by admission control")
+                .tag("scope", "client")
+                .register(registry);
+        Gauge.builder(KEYS, accounts, TokenBucketTable::size)
+                .description("Token buckets held")
+                .tag("scope", "account")
+                .register(registry);
+        Gauge.builder(KEYS, clients, TokenBucketTable::size)
+                .description("Token buckets held")
+                .tag("scope", "client")
+                .register(registry);
+    }
+
+    /**
+     * Takes a token for the client and one for the account.
+     *
+     * @throws RateLimitExceededException if either has none left; nothing is taken from either then
+     */
+    public void admit(String accountNumber, String clientId) {
+        if (!enabled) {
+            return;
+        }
+        long now = clock.getAsLong();
+        long retryAfter = clients.tryAcquire(clientId, now);
+        if (retryAfter > 0) {
+            clientRejections.increment();
+            throw new RateLimitExceededException("Too many operations from the client", retryAfter);
+        }
+        retryAfter = accounts.tryAcquire(accountNumber, now);
+        if (retryAfter > 0) {
+            clients.release(clientId);
+            accountRejections.increment();
+            throw new RateLimitExceededException("Too many operations on the account", retryAfter);
+        }
+    }
+}
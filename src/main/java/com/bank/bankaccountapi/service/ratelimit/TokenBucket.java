@@ -0,0 +1,52 @@
+package com.bank.bankaccountapi.service.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket kept as a single timestamp (generic cell rate algorithm): {@code fullAt} is the time at which the
+ * bucket would be full again. Taking a token moves it one emission interval later; a token is available while
+ * {@code fullAt} is at most the bucket capacity ahead of now. One CAS per check, no lock and no allocation.
+ */
+final class TokenBucket {
+
+    private final AtomicLong fullAt;
+
+    TokenBucket(long nowNanos) {
+        this.fullAt = new AtomicLong(nowNanos);
+    }
+
+    /**
+     * @param intervalNanos  time to earn one token
+     * @param capacityNanos  {@code burst * intervalNanos}
+     * @return {@code 0} if a token was taken, otherwise nanoseconds until one is available
+     */
+    long tryAcquire(long nowNanos, long intervalNanos, long capacityNanos) {
+        while (true) {
+            long current = fullAt.get();
+            // compared by difference, nanoTime may be negative
+            long next = (current - nowNanos > 0 ? current : nowNanos) + intervalNanos;
+            long ahead = next - nowNanos;
+            if (ahead > capacityNanos) {
+                return ahead - capacityNanos;
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Gives back a token taken by {@link #tryAcquire}. Takes and returns only add to {@code fullAt}, so they commute
+     * with concurrent ones.
+     */
+    void release(long intervalNanos) {
+        fullAt.addAndGet(-intervalNanos);
+    }
+
+    /**
+     * A bucket that has been full since {@code idleSinceNanos} carries no state a new bucket would not have.
+     */
+    boolean isFullSince(long idleSinceNanos) {
+        return fullAt.get() - idleSinceNanos < 0;
+    }
+}
@@ -0,0 +1,88 @@
+package com.bank.bankaccountapi.service.ratelimit;
+
+import com.bank.bankaccountapi.config.AccountRateLimitProperties.Limit;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link TokenBucket}s by key, at most about {@code maxKeys} of them. A known key costs a map lookup and a CAS.
+ * A new key that does not fit triggers a sweep of idle buckets, at most {@link #SWEEPS_PER_IDLE_TIMEOUT} sweeps per
+ * idle timeout; if the table is still full, the key is limited by a bucket shared with every other key that did
+ * not fit, so an unbounded number of keys can neither bypass the limit nor make every request scan the table.
+ */
+final class TokenBucketTable {
+
+    static final int SWEEPS_PER_IDLE_TIMEOUT = 4;
+
+    private final ConcurrentHashMap<String, TokenBucket> buckets;
+    private final long intervalNanos;
+    private final long capacityNanos;
+    private final long idleNanos;
+    private final int maxKeys;
+    private final TokenBucket overflow;
+    private final long sweepIntervalNanos;
+    private final AtomicLong nextSweepNanos;
+
+    TokenBucketTable(Limit limit, int maxKeys, long idleNanos, long nowNanos) {
+        this.intervalNanos = Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / limit.getRate()));
+        this.capacityNanos = Math.max(1, limit.getBurst()) * intervalNanos;
+        this.idleNanos = idleNanos;
+        this.maxKeys = Math.max(1, maxKeys);
+        this.buckets = new ConcurrentHashMap<>(Math.min(this.maxKeys, 1 << 16));
+        this.overflow = new TokenBucket(nowNanos);
+        this.sweepIntervalNanos = Math.max(1, idleNanos / SWEEPS_PER_IDLE_TIMEOUT);
+        this.nextSweepNanos = new AtomicLong(nowNanos);
+    }
+
+    /**
+     * @return {@code 0} if a token was taken, otherwise nanoseconds until one is available
+     */
+    long tryAcquire(String key, long nowNanos) {
+        TokenBucket bucket = buckets.get(key);
+        if (bucket == null) {
+            bucket = register(key, nowNanos);
+        }
+        return bucket.tryAcquire(nowNanos, intervalNanos, capacityNanos);
+    }
+
+    /**
+     * Gives back a token {@link #tryAcquire} just took for {@code key}. Its bucket cannot have been evicted in
+     * between, since a bucket a token was taken from is not idle; without one the token came from the overflow
+     * bucket.
+     */
+    void release(String key) {
+        TokenBucket bucket = buckets.get(key);
+        (bucket != null ? bucket : overflow).release(intervalNanos);
+    }
+
+    int size() {
+        return buckets.size();
+    }
+
+    private TokenBucket register(String key, long nowNanos) {
+        if (buckets.size() >= maxKeys) {
+            evictIdle(nowNanos);
+            if (buckets.size() >= maxKeys) {
+                return overflow;
+            }
+        }
+        return buckets.computeIfAbsent(key, ignored -> new TokenBucket(nowNanos));
+    }
+
+    /**
+     * The thread that claims the next sweep slot sweeps; the others, and every thread until the slot after it,
+     * use the overflow bucket meanwhile. A bucket taken from concurrently with its removal loses that token, which
+     * is at most one extra token for a key that was idle anyway.
+     */
+    void evictIdle(long nowNanos) {
+        long next = nextSweepNanos.get();
+        // compared by difference, nanoTime may be negative
+        if (nowNanos - next < 0 || !nextSweepNanos.compareAndSet(next, nowNanos + sweepIntervalNanos)) {
+            return;
+        }
+        long idleSince = nowNanos - idleNanos;
+        buckets.values().removeIf(bucket -> bucket.isFullSince(idleSince));
+    }
+}
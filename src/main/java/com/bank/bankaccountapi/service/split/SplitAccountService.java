@@ -0,0 +1,261 @@
+package com.bank.bankaccountapi.service.split;
+
+import com.bank.bankaccountapi.config.AccountSplitProperties;
+import com.bank.bankaccountapi.domain.Account;
+import com.bank.bankaccountapi.dto.AccountOperationDto;
+import com.bank.bankaccountapi.dto.OperationSign;
+import com.bank.bankaccountapi.expection.AccountApiException.Reason;
+import com.bank.bankaccountapi.repo.AccountOperationRepo;
+import com.bank.bankaccountapi.repo.AccountRepo;
+import com.bank.bankaccountapi.repo.AccountSlotRepo;
+import com.bank.bankaccountapi.service.AccountOperations;
+import com.bank.bankaccountapi.service.outbox.AccountEventOutbox;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static com.bank.bankaccountapi.logging.LogMarkers.SAMPLED;
+
+/**
+ * Hot accounts ({@code account.split.account-numbers}) whose balance is spread over K sub-balance slots
+ * ({@code account.split.slots}): slot 0 is {@code ACCOUNT.BALANCE}, slots 1..K-1 are {@code ACCOUNT_SLOT} rows.
+ * Concurrent operations on one account then mostly lock different rows instead of serializing on one.
+ * <ul>
+ *     <li>DEBIT adds the amount to a random slot, unless the sum of all slots it reads would exceed
+ *     {@link Long#MAX_VALUE} ({@code BALANCE_OVERFLOW}).</li>
+ *     <li>CREDIT takes the amount from a random slot if that slot holds enough. Otherwise it borrows: it locks the
+ *     {@code ACCOUNT} row and all slots in slot order, rejects the operation if their sum is not enough, and
+ *     otherwise spreads the remaining sum evenly over all slots, the remainder of the division going to slot 0.
+ *     Borrowing locks in the same order every time, but the CREDIT that fell back to it may still hold the lock of
+ *     its random slot (H2 keeps the lock of a row a conditional update did not change), so two borrowing
+ *     transactions can deadlock; the victim is retried, whether it was a single operation, a batch, a transfer
+ *     or a coalesced group.</li>
+ *     <li>The balance is the sum of all slots.</li>
+ * </ul>
+ * Status and currency stay on the {@code ACCOUNT} row and are checked with the usual rejection reasons. At startup
+ * the slots of accounts that are no longer split, and slots beyond {@code account.split.slots}, are folded back
+ * into slot 0 so their balance is not lost.
+ */
+@Slf4j
+@Service
+public class SplitAccountService {
+
+    private static final int DEADLOCK_ATTEMPTS = 3;
+
+    private final AccountRepo accountRepo;
+    private final AccountSlotRepo accountSlotRepo;
+    private final AccountOperationRepo accountOperationRepo;
+    private final AccountEventOutbox eventOutbox;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate replayTransactionTemplate;
+    private final Set<String> accountNumbers;
+    private final int slots;
+
+    public SplitAccountService(AccountRepo accountRepo,
+                               AccountSlotRepo accountSlotRepo,
+                               AccountOperationRepo accountOperationRepo,
+                               AccountEventOutbox eventOutbox,
+                               EntityManager entityManager,
+                               TransactionTemplate transactionTemplate,
+                               AccountSplitProperties properties) {
+        this.accountRepo = accountRepo;
+        this.accountSlotRepo = accountSlotRepo;
+        this.accountOperationRepo = accountOperationRepo;
+        this.eventOutbox = eventOutbox;
+        this.entityManager = entityManager;
+        this.transactionTemplate = transactionTemplate;
+        this.replayTransactionTemplate = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        this.replayTransactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.accountNumbers = Set.copyOf(properties.getAccountNumbers());
+        this.slots = Math.max(1, properties.getSlots());
+    }
+
+    /**
+     * Folds slots that are no longer used into slot 0 and creates the missing slots of split accounts.
+     */
+    @PostConstruct
+    public void prepareSlots() {
+        transactionTemplate.executeWithoutResult(status -> {
+            accountSlotRepo.maxSlots().forEach((accountNumber, maxSlot) -> {
+                int fromSlot = isSplit(accountNumber) ? slots : 1;
+                if (maxSlot >= fromSlot) {
+                    long balance = accountSlotRepo.foldSlots(accountNumber, fromSlot);
+                    log.info("Unused account slots were folded into the account. accountNumber = {}; fromSlot = {}; "
+                            + "balance = {}", accountNumber, fromSlot, balance);
+                }
+            });
+            accountNumbers.forEach(accountNumber -> accountSlotRepo.createSlots(accountNumber, slots));
+        });
+        if (!accountNumbers.isEmpty()) {
+            log.info("Split accounts are ready. accounts = {}; slots = {}", accountNumbers.size(), slots);
+        }
+    }
+
+    public boolean isSplit(String accountNumber) {
+        return !accountNumbers.isEmpty() && accountNumbers.contains(accountNumber);
+    }
+
+    /**
+     * Applies and journals the operation in its own transaction, again if the transaction was rolled back as
+     * a deadlock victim. A resubmitted idempotency key returns the journaled result, also when the first submission
+     * committed while this one was running.
+     */
+    public Account apply(AccountOperationDto operation) {
+        return retryDeadlocks(List.of(operation.getAccountNumber()), () -> applyOnce(operation));
+    }
+
+    /**
+     * Runs {@code transaction} and, if it touches a split account and was rolled back as a deadlock victim, runs it
+     * again. {@code transaction} must start and end its own transaction.
+     */
+    public <T> T retryDeadlocks(Collection<String> accountNumbers, Supplier<T> transaction) {
+        if (accountNumbers.stream().noneMatch(this::isSplit)) {
+            return transaction.get();
+        }
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transaction.get();
+            } catch (ConcurrencyFailureException ex) {
+                if (attempt >= DEADLOCK_ATTEMPTS) {
+                    throw ex;
+                }
+                log.debug("Split account transaction was a deadlock victim, retrying. accountNumbers = {}; "
+                        + "attempt = {}", accountNumbers, attempt);
+            }
+        }
+    }
+
+    private Account applyOnce(AccountOperationDto operation) {
+        try {
+            return transactionTemplate.execute(status -> {
+                Optional<Account> replayed = replay(operation);
+                if (replayed.isPresent()) {
+                    return replayed.get();
+                }
+                Account account = applyInTransaction(operation);
+                eventOutbox.append(accountOperationRepo.save(AccountOperations.journalEntry(operation, account)));
+                return account;
+            });
+        } catch (DataIntegrityViolationException ex) {
+            if (operation.getIdempotencyKey() == null) {
+                throw ex;
+            }
+            // the same key was applied on another slot concurrently and committed first
+            return replayTransactionTemplate.execute(status -> replay(operation)).orElseThrow(() -> ex);
+        }
+    }
+
+    /**
+     * Applies the operation in the current transaction without journaling it.
+     *
+     * @return snapshot of the account with the balance summed over all slots
+     */
+    public Account applyInTransaction(AccountOperationDto operation) {
+        Account account = accountRepo.findById(operation.getAccountNumber())
+                .orElseThrow(() -> AccountOperations.accountNotFound(operation.getAccountNumber()));
+        // the ACCOUNT row is updated through JDBC below, so the entity must not stay managed with the old balance
+        entityManager.detach(account);
+        AccountOperations.validateAccountStatus(account);
+        AccountOperations.validateCurrency(operation, account);
+
+        if (operation.getOperationSign() == OperationSign.DEBIT
+                && totalBalance(operation.getAccountNumber()) > AccountOperations.maximumBalance(operation)) {
+            throw AccountOperations.rejected(Reason.BALANCE_OVERFLOW, operation.getAccountNumber());
+        }
+
+        int slot = ThreadLocalRandom.current().nextInt(slots);
+        long delta = AccountOperations.balanceDelta(operation);
+        if (!accountSlotRepo.addToSlot(operation.getAccountNumber(), slot, delta)) {
+            if (operation.getOperationSign() == OperationSign.DEBIT) {
+                // the slot row is missing, e.g. the account was split after the slots were created
+                slot = 0;
+                if (!accountSlotRepo.addToSlot(operation.getAccountNumber(), slot, delta)) {
+                    // slot 0 is the ACCOUNT row itself, so the account was deleted after it was read
+                    throw AccountOperations.accountNotFound(operation.getAccountNumber());
+                }
+            } else {
+                borrow(operation);
+            }
+        }
+        log.info(SAMPLED, "Split account operation was applied. accountNumber = {}; slot = {}; delta = {}",
+                operation.getAccountNumber(), slot, delta);
+        return account.toBuilder()
+                .balance(totalBalance(operation.getAccountNumber()))
+                .build();
+    }
+
+    private long totalBalance(String accountNumber) {
+        try {
+            return accountSlotRepo.totalBalance(accountNumber);
+        } catch (ArithmeticException ex) {
+            throw AccountOperations.rejected(Reason.BALANCE_OVERFLOW, accountNumber);
+        }
+    }
+
+    private void borrow(AccountOperationDto operation) {
+        TreeMap<Integer, Long> balances = accountSlotRepo.lockSlots(operation.getAccountNumber());
+        long total = AccountSlotRepo.sum(balances.values());
+        if (total < operation.getAmount()) {
+            throw AccountOperations.rejected(Reason.INSUFFICIENT_BALANCE, operation.getAccountNumber());
+        }
+        long remaining = total - operation.getAmount();
+        long share = remaining / balances.size();
+        balances.replaceAll((slot, balance) -> share);
+        balances.put(0, share + remaining % balances.size());
+        accountSlotRepo.setBalances(operation.getAccountNumber(), balances);
+        log.info(SAMPLED, "Split account operation borrowed across slots. accountNumber = {}; slots = {}",
+                operation.getAccountNumber(), balances.size());
+    }
+
+    /**
+     * Copies of the accounts with the balance summed over all slots for split accounts; others are returned as is.
+     */
+    public List<Account> withTotalBalances(List<Account> accounts) {
+        List<String> split = accounts.stream()
+                .map(Account::getAccountNumber)
+                .filter(this::isSplit)
+                .collect(Collectors.toList());
+        if (split.isEmpty()) {
+            return accounts;
+        }
+        Map<String, Long> slotBalances = accountSlotRepo.slotBalances(split);
+        List<Account> result = new ArrayList<>(accounts.size());
+        for (Account account : accounts) {
+            Long slotBalance = slotBalances.get(account.getAccountNumber());
+            result.add(slotBalance == null
+                    ? account
+                    : account.toBuilder().balance(Math.addExact(account.getBalance(), slotBalance)).build());
+        }
+        return result;
+    }
+
+    public Account withTotalBalance(Account account) {
+        return withTotalBalances(List.of(account)).get(0);
+    }
+
+    private Optional<Account> replay(AccountOperationDto operation) {
+        if (operation.getIdempotencyKey() == null) {
+            return Optional.empty();
+        }
+        return accountOperationRepo.findByAccountNumberAndIdempotencyKey(
+                        operation.getAccountNumber(), operation.getIdempotencyKey())
+                .map(journaled -> AccountOperations.replay(journaled, operation));
+    }
+}
@@ -0,0 +1,160 @@
+package com.bank.bankaccountapi.shard;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * The shard databases and the placement of accounts on them. An account lives on the shard picked by a jump
+ * consistent hash of its account number: the placement is stable across restarts and instances, and appending a
+ * shard only moves the accounts that now hash to the new shard, about 1/N of them, which
+ * {@link ShardRebalancer} copies over.
+ */
+@Slf4j
+public class AccountShards implements Closeable {
+
+    /**
+     * Ids every shard has to itself in ids published outside the shard, see {@link #globalId}.
+     */
+    public static final long ID_RANGE = 1L << 48;
+    private static final long MAX_SHARDS = Long.MAX_VALUE / ID_RANGE;
+
+    private final List<DataSource> dataSources;
+    private final ExecutorService fanOut;
+
+    /**
+     * @param dataSources shard 0 first; every shard but the first is closed with this object
+     */
+    public AccountShards(List<DataSource> dataSources, int fanOutThreads) {
+        if (dataSources.isEmpty()) {
+            throw new IllegalArgumentException("At least one shard is required");
+        }
+        if (dataSources.size() > MAX_SHARDS) {
+            throw new IllegalArgumentException("At most " + MAX_SHARDS + " shards are supported");
+        }
+        this.dataSources = List.copyOf(dataSources);
+        AtomicInteger threads = new AtomicInteger();
+        this.fanOut = Executors.newFixedThreadPool(fanOutThreads > 0 ? fanOutThreads : dataSources.size(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "account-shard-fan-out-" + threads.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    public int size() {
+        return dataSources.size();
+    }
+
+    public DataSource getDataSource(int shard) {
+        return dataSources.get(shard);
+    }
+
+    public List<DataSource> getDataSources() {
+        return dataSources;
+    }
+
+    public int shardOf(String accountNumber) {
+        return shardOf(accountNumber, dataSources.size());
+    }
+
+    /**
+     * Jump consistent hash (Lamping and Veach) of a 64-bit FNV-1a hash of the account number.
+     */
+    public static int shardOf(String accountNumber, int shards) {
+        long key = 0xcbf29ce484222325L;
+        for (int i = 0; i < accountNumber.length(); i++) {
+            key ^= accountNumber.charAt(i);
+            key *= 0x100000001b3L;
+        }
+        long bucket = -1;
+        long jump = 0;
+        while (jump < shards) {
+            bucket = jump;
+            key = key * 2862933555777941757L + 1;
+            jump = (long) ((bucket + 1) * ((double) (1L << 31) / (double) ((key >>> 33) + 1)));
+        }
+        return (int) bucket;
+    }
+
+    /**
+     * Id of a row of {@code shard} that is unique across shards. Every shard has its own sequences, so the same id
+     * exists on each of them; shard {@code n} is given the ids from {@code n * ID_RANGE} on, and shard 0 keeps its ids
+     * as they are, the same as without sharding.
+     */
+    public static long globalId(int shard, long id) {
+        if (id < 0 || id >= ID_RANGE) {
+            throw new IllegalStateException("Id is out of the range of its shard. shard = " + shard + "; id = " + id);
+        }
+        return shard * ID_RANGE + id;
+    }
+
+    /**
+     * Account numbers by shard, in shard order.
+     */
+    public Map<Integer, List<String>> byShard(Iterable<String> accountNumbers) {
+        Map<Integer, List<String>> byShard = new TreeMap<>();
+        for (String accountNumber : accountNumbers) {
+            byShard.computeIfAbsent(shardOf(accountNumber), shard -> new ArrayList<>()).add(accountNumber);
+        }
+        return byShard;
+    }
+
+    /**
+     * Runs {@code read} for every shard in parallel, each on its shard and outside the caller's transaction, and
+     * concatenates the results in shard order. The first failure is rethrown once every read has ended.
+     */
+    public <T> List<T> fanOut(Map<Integer, List<String>> accountNumbersByShard,
+                              Function<List<String>, ? extends Iterable<T>> read) {
+        List<Future<? extends Iterable<T>>> reads = new ArrayList<>(accountNumbersByShard.size());
+        accountNumbersByShard.forEach((shard, accountNumbers) -> reads.add(
+                fanOut.submit(() -> ShardContext.callOn(shard, () -> read.apply(accountNumbers)))));
+        List<T> merged = new ArrayList<>();
+        RuntimeException failure = null;
+        for (Future<? extends Iterable<T>> shardRead : reads) {
+            try {
+                shardRead.get().forEach(merged::add);
+            } catch (ExecutionException ex) {
+                if (failure == null) {
+                    failure = ex.getCause() instanceof RuntimeException
+                            ? (RuntimeException) ex.getCause()
+                            : new IllegalStateException("Shard read failed", ex.getCause());
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                reads.forEach(pending -> pending.cancel(true));
+                throw new IllegalStateException("Interrupted while reading shards", ex);
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        return merged;
+    }
+
+    @Override
+    public void close() {
+        fanOut.shutdownNow();
+        for (DataSource dataSource : dataSources.subList(1, dataSources.size())) {
+            if (dataSource instanceof Closeable) {
+                try {
+                    ((Closeable) dataSource).close();
+                } catch (IOException ex) {
+                    log.warn("Shard pool was not closed. dataSource = {}", dataSource, ex);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.bank.bankaccountapi.shard;
+
+import com.bank.bankaccountapi.expection.AccountApiException;
+import com.bank.bankaccountapi.expection.AccountApiException.Reason;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Shard the work of the current thread runs on. Inside a transaction the first account accessed, or else the first
+ * connection taken, fixes the shard until the transaction completes; touching an account of another shard in the
+ * same transaction is rejected with {@link Reason#CROSS_SHARD}, since one transaction cannot span two databases.
+ */
+public final class ShardContext {
+
+    private static final ThreadLocal<Integer> SHARD = new ThreadLocal<>();
+
+    private ShardContext() {
+    }
+
+    /**
+     * @return the shard bound to the current thread, {@code null} if none is
+     */
+    public static Integer current() {
+        return SHARD.get();
+    }
+
+    /**
+     * Runs {@code work} on {@code shard} and restores the previous binding afterwards. Transactions started by
+     * {@code work} run on the shard.
+     */
+    public static <T> T callOn(int shard, Callable<T> work) throws Exception {
+        Integer previous = SHARD.get();
+        SHARD.set(shard);
+        try {
+            return work.call();
+        } finally {
+            if (previous == null) {
+                SHARD.remove();
+            } else {
+                SHARD.set(previous);
+            }
+        }
+    }
+
+    public static void runOn(int shard, Runnable work) {
+        try {
+            callOn(shard, () -> {
+                work.run();
+                return null;
+            });
+        } catch (RuntimeException ex) {
+            throw ex;
+        } catch (Exception ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    /**
+     * Binds the current transaction to {@code shard} until it completes.
+     *
+     * @throws AccountApiException if it is already bound to another shard
+     */
+    static void bindToTransaction(int shard, Object accountNumbers) {
+        Integer bound = SHARD.get();
+        if (bound == null) {
+            SHARD.set(shard);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    SHARD.remove();
+                }
+            });
+        } else if (bound != shard) {
+            throw crossShard(accountNumbers);
+        }
+    }
+
+    static AccountApiException crossShard(Object accountNumbers) {
+        return new AccountApiException(Reason.CROSS_SHARD,
+                Reason.CROSS_SHARD.getMessage() + ". AccountNumbers = " + accountNumbers);
+    }
+
+    static AccountApiException unrouted(String method) {
+        return new AccountApiException(Reason.CROSS_SHARD,
+                Reason.CROSS_SHARD.getMessage() + ". Method = " + method);
+    }
+}
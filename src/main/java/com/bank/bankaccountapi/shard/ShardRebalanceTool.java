@@ -0,0 +1,44 @@
+package com.bank.bankaccountapi.shard;
+
+import com.bank.bankaccountapi.BankAccountApiApplication;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Offline rebalance: starts the application with the given settings but without the web server, the gRPC server,
+ * the outbox relay and SQL initialization, moves every account to the shard it hashes to and exits. Run it with the
+ * new shard list while no instance is serving:
+ * <pre>
+ * java -cp bank-account-api.jar -Dloader.main=com.bank.bankaccountapi.shard.ShardRebalanceTool \
+ *     org.springframework.boot.loader.PropertiesLauncher --account.sharding.shards[0].url=... ...
+ * </pre>
+ */
+@Slf4j
+public final class ShardRebalanceTool {
+
+    private static final String[] OFFLINE = {
+            "--account.sharding.enabled=true",
+            "--account.grpc.enabled=false",
+            "--account.outbox.enabled=false",
+            "--spring.sql.init.mode=never"};
+
+    private ShardRebalanceTool() {
+    }
+
+    public static void main(String[] args) {
+        List<String> settings = new ArrayList<>(List.of(args));
+        settings.addAll(List.of(OFFLINE));
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(BankAccountApiApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(settings.toArray(new String[0]))) {
+            long moved = context.getBean(ShardRebalancer.class).rebalance();
+            log.info("Rebalance tool finished. movedAccounts = {}", moved);
+        }
+    }
+}
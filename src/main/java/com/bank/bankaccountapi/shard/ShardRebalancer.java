@@ -0,0 +1,187 @@
+package com.bank.bankaccountapi.shard;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.ResultSetMetaData;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Moves every account that is not on the shard its account number hashes to, with its sub-balance slots, journal and
+ * unpublished outbox events, in batches of {@code batchSize} accounts. A batch is first copied into the target shard,
+ * replacing whatever an interrupted earlier run left there, and then deleted from the source shard, so the tool can
+ * be run again after a failure. It is meant to run offline, after shards were appended and before any instance
+ * serves traffic with the new shard list; see {@link ShardRebalanceTool}.
+ * <p>
+ * Journal and outbox ids come from per-shard sequences, so moved rows get new ids from the target shard. With
+ * sharding the pooled optimizer is disabled, so every row takes a single sequence value, and the values taken here
+ * are never handed out again by Hibernate.
+ */
+@Slf4j
+public class ShardRebalancer {
+
+    private static final String ACCOUNT = "ACCOUNT";
+    private static final String SLOT = "ACCOUNT_SLOT";
+    private static final String OPERATION = "ACCOUNT_OPERATION";
+    private static final String OUTBOX = "ACCOUNT_OUTBOX";
+    private static final List<String> TABLES = List.of(ACCOUNT, SLOT, OPERATION, OUTBOX);
+
+    private final AccountShards shards;
+    private final int batchSize;
+
+    public ShardRebalancer(AccountShards shards, int batchSize) {
+        this.shards = shards;
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    /**
+     * @return how many accounts were moved
+     */
+    public long rebalance() {
+        long moved = 0;
+        for (int source = 0; source < shards.size(); source++) {
+            moved += rebalance(source);
+        }
+        log.info("Shards were rebalanced. shards = {}; movedAccounts = {}", shards.size(), moved);
+        return moved;
+    }
+
+    private long rebalance(int source) {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(shards.getDataSource(source));
+        Map<Integer, Long> movedByTarget = new LinkedHashMap<>();
+        String after = "";
+        while (true) {
+            List<String> page = jdbcTemplate.queryForList("SELECT ACCOUNT_NUMBER FROM ACCOUNT "
+                            + "WHERE ACCOUNT_NUMBER > ? ORDER BY ACCOUNT_NUMBER FETCH FIRST ? ROWS ONLY",
+                    String.class, after, batchSize);
+            if (page.isEmpty()) {
+                break;
+            }
+            after = page.get(page.size() - 1);
+            Map<Integer, List<String>> byShard = shards.byShard(page);
+            byShard.remove(source);
+            byShard.forEach((target, accountNumbers) -> {
+                move(source, target, accountNumbers);
+                movedByTarget.merge(target, (long) accountNumbers.size(), Long::sum);
+            });
+        }
+        movedByTarget.forEach((target, accounts) -> log.info(
+                "Accounts were moved. fromShard = {}; toShard = {}; accounts = {}", source, target, accounts));
+        return movedByTarget.values().stream().mapToLong(Long::longValue).sum();
+    }
+
+    private void move(int source, int target, List<String> accountNumbers) {
+        DataSource sourceDataSource = shards.getDataSource(source);
+        DataSource targetDataSource = shards.getDataSource(target);
+        NamedParameterJdbcTemplate sourceJdbcTemplate = new NamedParameterJdbcTemplate(sourceDataSource);
+        Map<String, Rows> rows = new LinkedHashMap<>();
+        TABLES.forEach(table -> rows.put(table, read(sourceJdbcTemplate, table, accountNumbers)));
+
+        NamedParameterJdbcTemplate targetJdbcTemplate = new NamedParameterJdbcTemplate(targetDataSource);
+        inTransaction(targetDataSource, () -> {
+            delete(targetJdbcTemplate, accountNumbers);
+            Map<Object, Long> operationIds = renumber(targetJdbcTemplate, rows.get(OPERATION), "ID",
+                    "ACCOUNT_OPERATION_SEQ");
+            renumber(targetJdbcTemplate, rows.get(OUTBOX), "ID", "ACCOUNT_OUTBOX_SEQ");
+            rows.get(OUTBOX).replace("OPERATION_ID", operationIds);
+            rows.forEach((table, content) -> insert(targetJdbcTemplate.getJdbcTemplate(), table, content));
+        });
+        inTransaction(sourceDataSource, () -> delete(sourceJdbcTemplate, accountNumbers));
+    }
+
+    private static Rows read(NamedParameterJdbcTemplate jdbcTemplate, String table, List<String> accountNumbers) {
+        return jdbcTemplate.query("SELECT * FROM " + table + " WHERE ACCOUNT_NUMBER IN (:accountNumbers)"
+                        + (table.equals(OPERATION) || table.equals(OUTBOX) ? " ORDER BY ID" : ""),
+                new MapSqlParameterSource("accountNumbers", accountNumbers),
+                rs -> {
+                    ResultSetMetaData metaData = rs.getMetaData();
+                    List<String> columns = new ArrayList<>(metaData.getColumnCount());
+                    for (int column = 1; column <= metaData.getColumnCount(); column++) {
+                        columns.add(metaData.getColumnName(column));
+                    }
+                    List<Object[]> values = new ArrayList<>();
+                    while (rs.next()) {
+                        Object[] row = new Object[columns.size()];
+                        for (int column = 0; column < row.length; column++) {
+                            row[column] = rs.getObject(column + 1);
+                        }
+                        values.add(row);
+                    }
+                    return new Rows(columns, values);
+                });
+    }
+
+    /**
+     * Gives the rows new ids from the sequence of the target shard, in their old order.
+     *
+     * @return new id by old id
+     */
+    private static Map<Object, Long> renumber(NamedParameterJdbcTemplate jdbcTemplate, Rows rows, String idColumn,
+                                              String sequence) {
+        Map<Object, Long> ids = new HashMap<>();
+        if (rows.values.isEmpty()) {
+            return ids;
+        }
+        List<Long> newIds = jdbcTemplate.getJdbcTemplate().queryForList(
+                "SELECT NEXT VALUE FOR " + sequence + " FROM SYSTEM_RANGE(1, ?)", Long.class, rows.values.size());
+        Collections.sort(newIds);
+        int column = rows.columns.indexOf(idColumn);
+        for (int i = 0; i < rows.values.size(); i++) {
+            Object[] row = rows.values.get(i);
+            ids.put(row[column], newIds.get(i));
+            row[column] = newIds.get(i);
+        }
+        return ids;
+    }
+
+    private static void insert(JdbcTemplate jdbcTemplate, String table, Rows rows) {
+        if (rows.values.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO " + table + " (" + String.join(", ", rows.columns) + ") VALUES ("
+                + String.join(", ", Collections.nCopies(rows.columns.size(), "?")) + ")", rows.values);
+    }
+
+    private static void delete(NamedParameterJdbcTemplate jdbcTemplate, List<String> accountNumbers) {
+        MapSqlParameterSource parameters = new MapSqlParameterSource("accountNumbers", accountNumbers);
+        for (int i = TABLES.size() - 1; i >= 0; i--) {
+            jdbcTemplate.update("DELETE FROM " + TABLES.get(i) + " WHERE ACCOUNT_NUMBER IN (:accountNumbers)",
+                    parameters);
+        }
+    }
+
+    private static void inTransaction(DataSource dataSource, Runnable work) {
+        new TransactionTemplate(new DataSourceTransactionManager(dataSource)).executeWithoutResult(
+                status -> work.run());
+    }
+
+    private static final class Rows {
+        private final List<String> columns;
+        private final List<Object[]> values;
+
+        private Rows(List<String> columns, List<Object[]> values) {
+            this.columns = columns;
+            this.values = values;
+        }
+
+        private void replace(String column, Map<Object, Long> replacements) {
+            int index = columns.indexOf(column);
+            for (Object[] row : values) {
+                Long replacement = replacements.get(row[index]);
+                if (replacement != null) {
+                    row[index] = replacement;
+                }
+            }
+        }
+    }
+}
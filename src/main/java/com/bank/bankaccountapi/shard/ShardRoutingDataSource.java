@@ -0,0 +1,47 @@
+package com.bank.bankaccountapi.shard;
+
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Hands out connections of the shard bound in {@link ShardContext}, or of shard 0 for work that is not routed by
+ * account number; a transaction that takes a shard 0 connection that way is bound to shard 0. The transaction
+ * manager asks for the connection before the first repository call has picked the shard, so this must be wrapped in
+ * a {@link LazyConnectionDataSourceProxy}, which only asks once the first statement runs.
+ */
+public class ShardRoutingDataSource extends AbstractDataSource {
+
+    private static final int DEFAULT_SHARD = 0;
+
+    private final AccountShards shards;
+
+    public ShardRoutingDataSource(AccountShards shards) {
+        this.shards = shards;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return target().getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return target().getConnection(username, password);
+    }
+
+    private DataSource target() {
+        Integer shard = ShardContext.current();
+        if (shard == null) {
+            shard = DEFAULT_SHARD;
+            if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                ShardContext.bindToTransaction(DEFAULT_SHARD, "[]");
+            }
+        }
+        return shards.getDataSource(shard);
+    }
+}
@@ -0,0 +1,116 @@
+package com.bank.bankaccountapi.shard;
+
+import com.bank.bankaccountapi.domain.Account;
+import com.bank.bankaccountapi.repo.AccountRepo;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Routes {@link AccountRepo} calls to the shard of the accounts they take: every {@code String} argument of the
+ * repository is an account number, and {@link Account} arguments and collections of either are keys too. Inside a
+ * transaction the first call binds the transaction to its shard (see {@link ShardContext}), so the journal, slot
+ * and outbox writes that follow go to the same database.
+ * <p>
+ * A {@code findAllById} over several shards is answered by reading every shard in parallel when it runs outside a
+ * read-write transaction; any other call over several shards is rejected as cross-shard. Calls without an account
+ * number, such as {@code findAll} and {@code streamAll}, run on the shard the work is already bound to, as inside
+ * {@link ShardContext#callOn}; unbound, they are rejected as cross-shard when there is more than one shard.
+ */
+public class ShardRoutingInterceptor implements MethodInterceptor {
+
+    private static final String FAN_OUT_METHOD = "findAllById";
+
+    private final AccountShards shards;
+    private final AccountRepo accountRepo;
+
+    /**
+     * @param accountRepo the advised repository itself, which runs the per-shard reads of a fan-out
+     */
+    public ShardRoutingInterceptor(AccountShards shards, AccountRepo accountRepo) {
+        this.shards = shards;
+        this.accountRepo = accountRepo;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        String method = invocation.getMethod().getName();
+        if (invocation.getMethod().getDeclaringClass() == Object.class || "flush".equals(method)) {
+            return invocation.proceed();
+        }
+        List<String> accountNumbers = new ArrayList<>();
+        if (!collectAccountNumbers(invocation.getArguments(), accountNumbers)) {
+            if (shards.size() == 1 || ShardContext.current() != null) {
+                return invocation.proceed();
+            }
+            throw ShardContext.unrouted("AccountRepo." + method);
+        }
+        if (accountNumbers.isEmpty()) {
+            return invocation.proceed();
+        }
+        Map<Integer, List<String>> byShard = shards.byShard(accountNumbers);
+        if (byShard.size() == 1) {
+            return proceedOn(byShard.keySet().iterator().next(), accountNumbers, invocation);
+        }
+        if (FAN_OUT_METHOD.equals(method) && (!TransactionSynchronizationManager.isSynchronizationActive()
+                || TransactionSynchronizationManager.isCurrentTransactionReadOnly())) {
+            return shards.fanOut(byShard, accountRepo::findAllById);
+        }
+        throw ShardContext.crossShard(accountNumbers);
+    }
+
+    private static Object proceedOn(int shard, List<String> accountNumbers, MethodInvocation invocation)
+            throws Exception {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            ShardContext.bindToTransaction(shard, accountNumbers);
+            return proceed(invocation);
+        }
+        return ShardContext.callOn(shard, () -> proceed(invocation));
+    }
+
+    private static Object proceed(MethodInvocation invocation) throws Exception {
+        try {
+            return invocation.proceed();
+        } catch (Exception | Error ex) {
+            throw ex;
+        } catch (Throwable ex) {
+            throw new UndeclaredThrowableException(ex);
+        }
+    }
+
+    /**
+     * @return whether any argument is an account key, even an empty collection of them
+     */
+    private static boolean collectAccountNumbers(Object[] arguments, List<String> accountNumbers) {
+        boolean keyed = false;
+        for (Object argument : arguments) {
+            if (argument instanceof Collection) {
+                keyed |= ((Collection<?>) argument).isEmpty();
+                for (Object element : (Collection<?>) argument) {
+                    keyed |= addAccountNumber(element, accountNumbers);
+                }
+            } else {
+                keyed |= addAccountNumber(argument, accountNumbers);
+            }
+        }
+        return keyed;
+    }
+
+    private static boolean addAccountNumber(Object key, List<String> accountNumbers) {
+        if (key instanceof String) {
+            accountNumbers.add((String) key);
+            return true;
+        }
+        if (key instanceof Account) {
+            accountNumbers.add(((Account) key).getAccountNumber());
+            return true;
+        }
+        return false;
+    }
+}
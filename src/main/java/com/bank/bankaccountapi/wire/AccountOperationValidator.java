@@ -0,0 +1,46 @@
+package com.bank.bankaccountapi.wire;
+
+import com.bank.bankaccountapi.dto.AccountOperationDto;
+import com.bank.bankaccountapi.expection.OperationValidationException;
+
+/**
+ * Checks the constraints declared on {@link AccountOperationDto} in plain code, for bodies that do not go through
+ * bean validation. Reports the first violated constraint in field order with the same message as its annotation.
+ */
+public final class AccountOperationValidator {
+
+    private static final int MAX_IDEMPOTENCY_KEY_LENGTH = 100;
+
+    private AccountOperationValidator() {
+    }
+
+    public static void validate(AccountOperationDto operation) {
+        String violation = firstViolation(operation);
+        if (violation != null) {
+            throw new OperationValidationException(violation);
+        }
+    }
+
+    static String firstViolation(AccountOperationDto operation) {
+        if (operation.getAccountNumber() == null || operation.getAccountNumber().isEmpty()) {
+            return "accountNumber must be not empty";
+        }
+        if (operation.getCurrency() == null) {
+            return "currency must be not null";
+        }
+        if (operation.getAmount() == null) {
+            return "amount must be not null";
+        }
+        if (operation.getAmount() <= 0) {
+            return "amount must be positive number";
+        }
+        if (operation.getOperationSign() == null) {
+            return "operationSign must be not null";
+        }
+        if (operation.getIdempotencyKey() != null
+                && operation.getIdempotencyKey().length() > MAX_IDEMPOTENCY_KEY_LENGTH) {
+            return "idempotencyKey must be at most 100 characters";
+        }
+        return null;
+    }
+}
@@ -0,0 +1,304 @@
+package com.bank.bankaccountapi.wire;
+
+import com.bank.bankaccountapi.domain.AccountStatus;
+import com.bank.bankaccountapi.dto.AccountDto;
+import com.bank.bankaccountapi.dto.AccountOperationDto;
+import com.bank.bankaccountapi.dto.AccountOperationResultDto;
+import com.bank.bankaccountapi.dto.OperationSign;
+import com.bank.bankaccountapi.errorhandler.ApiError;
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.WireFormat;
+import org.springframework.http.MediaType;
+
+import java.io.IOException;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Protobuf encoding of the operation endpoint bodies as described in {@code src/main/proto/account.proto}, written
+ * field by field without generated message classes or reflection. Amounts and balances are minor units.
+ * Absent fields decode to {@code null}, and so do enum numbers this codec does not know.
+ */
+public final class AccountProtobufCodec {
+
+    public static final String MEDIA_TYPE_VALUE = "application/x-protobuf";
+    public static final MediaType MEDIA_TYPE = MediaType.parseMediaType(MEDIA_TYPE_VALUE);
+
+    private static final int ACCOUNT_NUMBER = 1;
+    private static final int CURRENCY = 2;
+    private static final int AMOUNT = 3;
+    private static final int BALANCE = 3;
+    private static final int OPERATION_SIGN = 4;
+    private static final int STATUS = 4;
+    private static final int IDEMPOTENCY_KEY = 5;
+
+    private static final int REQUEST_ACCOUNT_NUMBER = 1;
+    private static final int REPLY_STATUS = 1;
+
+    private static final int RESULT_ACCOUNT_NUMBER = 1;
+    private static final int RESULT_APPLIED = 2;
+    private static final int RESULT_ACCOUNT = 3;
+    private static final int RESULT_ERROR = 4;
+
+    private static final int ERROR_STATUS = 1;
+    private static final int ERROR_TIMESTAMP = 2;
+    private static final int ERROR_MESSAGE = 3;
+    private static final int ERROR_REQUEST_INFO = 4;
+
+    private static final int ACCOUNT_NUMBER_TAG = tag(ACCOUNT_NUMBER, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+    private static final int CURRENCY_TAG = tag(CURRENCY, WireFormat.WIRETYPE_VARINT);
+    private static final int AMOUNT_TAG = tag(AMOUNT, WireFormat.WIRETYPE_VARINT);
+    private static final int BALANCE_TAG = tag(BALANCE, WireFormat.WIRETYPE_VARINT);
+    private static final int OPERATION_SIGN_TAG = tag(OPERATION_SIGN, WireFormat.WIRETYPE_VARINT);
+    private static final int STATUS_TAG = tag(STATUS, WireFormat.WIRETYPE_VARINT);
+    private static final int IDEMPOTENCY_KEY_TAG = tag(IDEMPOTENCY_KEY, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+    private static final int REQUEST_ACCOUNT_NUMBER_TAG = tag(REQUEST_ACCOUNT_NUMBER,
+            WireFormat.WIRETYPE_LENGTH_DELIMITED);
+    private static final int REPLY_STATUS_TAG = tag(REPLY_STATUS, WireFormat.WIRETYPE_VARINT);
+    private static final int RESULT_ACCOUNT_NUMBER_TAG = tag(RESULT_ACCOUNT_NUMBER,
+            WireFormat.WIRETYPE_LENGTH_DELIMITED);
+    private static final int RESULT_APPLIED_TAG = tag(RESULT_APPLIED, WireFormat.WIRETYPE_VARINT);
+    private static final int RESULT_ACCOUNT_TAG = tag(RESULT_ACCOUNT, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+    private static final int RESULT_ERROR_TAG = tag(RESULT_ERROR, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+
+    private static final OperationSign[] OPERATION_SIGNS = OperationSign.values();
+    private static final AccountStatus[] STATUSES = AccountStatus.values();
+    private static final DateTimeFormatter TIMESTAMP_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private AccountProtobufCodec() {
+    }
+
+    public static AccountOperationDto decodeOperation(CodedInputStream input) throws IOException {
+        AccountOperationDto operation = new AccountOperationDto();
+        int tag;
+        while ((tag = input.readTag()) != 0) {
+            if (tag == ACCOUNT_NUMBER_TAG) {
+                operation.setAccountNumber(input.readStringRequireUtf8());
+            } else if (tag == CURRENCY_TAG) {
+                operation.setCurrency(input.readInt64());
+            } else if (tag == AMOUNT_TAG) {
+                operation.setAmount(input.readInt64());
+            } else if (tag == OPERATION_SIGN_TAG) {
+                operation.setOperationSign(enumValue(OPERATION_SIGNS, input.readEnum()));
+            } else if (tag == IDEMPOTENCY_KEY_TAG) {
+                operation.setIdempotencyKey(input.readStringRequireUtf8());
+            } else {
+                input.skipField(tag);
+            }
+        }
+        return operation;
+    }
+
+    public static byte[] encode(AccountOperationDto operation) {
+        int size = stringSize(ACCOUNT_NUMBER, operation.getAccountNumber())
+                + int64Size(CURRENCY, operation.getCurrency())
+                + int64Size(AMOUNT, operation.getAmount())
+                + enumSize(OPERATION_SIGN, operation.getOperationSign())
+                + stringSize(IDEMPOTENCY_KEY, operation.getIdempotencyKey());
+        byte[] bytes = new byte[size];
+        CodedOutputStream output = CodedOutputStream.newInstance(bytes);
+        try {
+            writeString(output, ACCOUNT_NUMBER, operation.getAccountNumber());
+            writeInt64(output, CURRENCY, operation.getCurrency());
+            writeInt64(output, AMOUNT, operation.getAmount());
+            writeEnum(output, OPERATION_SIGN, operation.getOperationSign());
+            writeString(output, IDEMPOTENCY_KEY, operation.getIdempotencyKey());
+            output.checkNoSpaceLeft();
+        } catch (IOException ex) {
+            throw new IllegalStateException("Encoded size of operation was miscalculated", ex);
+        }
+        return bytes;
+    }
+
+    public static AccountDto decodeAccount(CodedInputStream input) throws IOException {
+        AccountDto account = new AccountDto();
+        int tag;
+        while ((tag = input.readTag()) != 0) {
+            if (tag == ACCOUNT_NUMBER_TAG) {
+                account.setAccountNumber(input.readStringRequireUtf8());
+            } else if (tag == CURRENCY_TAG) {
+                account.setCurrency(input.readInt64());
+            } else if (tag == BALANCE_TAG) {
+                account.setBalance(input.readInt64());
+            } else if (tag == STATUS_TAG) {
+                account.setStatus(enumValue(STATUSES, input.readEnum()));
+            } else {
+                input.skipField(tag);
+            }
+        }
+        return account;
+    }
+
+    public static byte[] encode(AccountDto account) {
+        int size = stringSize(ACCOUNT_NUMBER, account.getAccountNumber())
+                + int64Size(CURRENCY, account.getCurrency())
+                + int64Size(BALANCE, account.getBalance())
+                + enumSize(STATUS, account.getStatus());
+        byte[] bytes = new byte[size];
+        CodedOutputStream output = CodedOutputStream.newInstance(bytes);
+        try {
+            writeString(output, ACCOUNT_NUMBER, account.getAccountNumber());
+            writeInt64(output, CURRENCY, account.getCurrency());
+            writeInt64(output, BALANCE, account.getBalance());
+            writeEnum(output, STATUS, account.getStatus());
+            output.checkNoSpaceLeft();
+        } catch (IOException ex) {
+            throw new IllegalStateException("Encoded size of account was miscalculated", ex);
+        }
+        return bytes;
+    }
+
+    /**
+     * Account number of an {@code AccountRequest}, {@code null} if absent.
+     */
+    public static String decodeAccountNumber(CodedInputStream input) throws IOException {
+        String accountNumber = null;
+        int tag;
+        while ((tag = input.readTag()) != 0) {
+            if (tag == REQUEST_ACCOUNT_NUMBER_TAG) {
+                accountNumber = input.readStringRequireUtf8();
+            } else {
+                input.skipField(tag);
+            }
+        }
+        return accountNumber;
+    }
+
+    public static byte[] encodeAccountNumber(String accountNumber) {
+        byte[] bytes = new byte[stringSize(REQUEST_ACCOUNT_NUMBER, accountNumber)];
+        CodedOutputStream output = CodedOutputStream.newInstance(bytes);
+        try {
+            writeString(output, REQUEST_ACCOUNT_NUMBER, accountNumber);
+            output.checkNoSpaceLeft();
+        } catch (IOException ex) {
+            throw new IllegalStateException("Encoded size of account request was miscalculated", ex);
+        }
+        return bytes;
+    }
+
+    public static AccountStatus decodeStatus(CodedInputStream input) throws IOException {
+        AccountStatus status = null;
+        int tag;
+        while ((tag = input.readTag()) != 0) {
+            if (tag == REPLY_STATUS_TAG) {
+                status = enumValue(STATUSES, input.readEnum());
+            } else {
+                input.skipField(tag);
+            }
+        }
+        return status;
+    }
+
+    public static byte[] encodeStatus(AccountStatus status) {
+        byte[] bytes = new byte[enumSize(REPLY_STATUS, status)];
+        CodedOutputStream output = CodedOutputStream.newInstance(bytes);
+        try {
+            writeEnum(output, REPLY_STATUS, status);
+            output.checkNoSpaceLeft();
+        } catch (IOException ex) {
+            throw new IllegalStateException("Encoded size of account status was miscalculated", ex);
+        }
+        return bytes;
+    }
+
+    public static AccountOperationResultDto decodeOperationResult(CodedInputStream input) throws IOException {
+        AccountOperationResultDto result = new AccountOperationResultDto();
+        int tag;
+        while ((tag = input.readTag()) != 0) {
+            if (tag == RESULT_ACCOUNT_NUMBER_TAG) {
+                result.setAccountNumber(input.readStringRequireUtf8());
+            } else if (tag == RESULT_APPLIED_TAG) {
+                result.setApplied(input.readBool());
+            } else if (tag == RESULT_ACCOUNT_TAG) {
+                result.setAccount(decodeAccount(CodedInputStream.newInstance(input.readByteArray())));
+            } else if (tag == RESULT_ERROR_TAG) {
+                result.setError(input.readStringRequireUtf8());
+            } else {
+                input.skipField(tag);
+            }
+        }
+        return result;
+    }
+
+    public static byte[] encode(AccountOperationResultDto result) {
+        byte[] account = result.getAccount() == null ? null : encode(result.getAccount());
+        int size = stringSize(RESULT_ACCOUNT_NUMBER, result.getAccountNumber())
+                + (result.isApplied() ? CodedOutputStream.computeBoolSize(RESULT_APPLIED, true) : 0)
+                + (account == null ? 0 : CodedOutputStream.computeByteArraySize(RESULT_ACCOUNT, account))
+                + stringSize(RESULT_ERROR, result.getError());
+        byte[] bytes = new byte[size];
+        CodedOutputStream output = CodedOutputStream.newInstance(bytes);
+        try {
+            writeString(output, RESULT_ACCOUNT_NUMBER, result.getAccountNumber());
+            if (result.isApplied()) {
+                output.writeBool(RESULT_APPLIED, true);
+            }
+            if (account != null) {
+                output.writeByteArray(RESULT_ACCOUNT, account);
+            }
+            writeString(output, RESULT_ERROR, result.getError());
+            output.checkNoSpaceLeft();
+        } catch (IOException ex) {
+            throw new IllegalStateException("Encoded size of operation result was miscalculated", ex);
+        }
+        return bytes;
+    }
+
+    public static byte[] encode(ApiError error) {
+        String timestamp = error.getTimestamp() == null ? null : TIMESTAMP_FORMAT.format(error.getTimestamp());
+        int size = stringSize(ERROR_STATUS, error.getStatus())
+                + stringSize(ERROR_TIMESTAMP, timestamp)
+                + stringSize(ERROR_MESSAGE, error.getMessage())
+                + stringSize(ERROR_REQUEST_INFO, error.getRequestInfo());
+        byte[] bytes = new byte[size];
+        CodedOutputStream output = CodedOutputStream.newInstance(bytes);
+        try {
+            writeString(output, ERROR_STATUS, error.getStatus());
+            writeString(output, ERROR_TIMESTAMP, timestamp);
+            writeString(output, ERROR_MESSAGE, error.getMessage());
+            writeString(output, ERROR_REQUEST_INFO, error.getRequestInfo());
+            output.checkNoSpaceLeft();
+        } catch (IOException ex) {
+            throw new IllegalStateException("Encoded size of error was miscalculated", ex);
+        }
+        return bytes;
+    }
+
+    private static int tag(int field, int wireType) {
+        return field << 3 | wireType;
+    }
+
+    private static <E extends Enum<E>> E enumValue(E[] values, int number) {
+        return number >= 1 && number <= values.length ? values[number - 1] : null;
+    }
+
+    private static int stringSize(int field, String value) {
+        return value == null ? 0 : CodedOutputStream.computeStringSize(field, value);
+    }
+
+    private static int int64Size(int field, Long value) {
+        return value == null ? 0 : CodedOutputStream.computeInt64Size(field, value);
+    }
+
+    private static int enumSize(int field, Enum<?> value) {
+        return value == null ? 0 : CodedOutputStream.computeEnumSize(field, value.ordinal() + 1);
+    }
+
+    private static void writeString(CodedOutputStream output, int field, String value) throws IOException {
+        if (value != null) {
+            output.writeString(field, value);
+        }
+    }
+
+    private static void writeInt64(CodedOutputStream output, int field, Long value) throws IOException {
+        if (value != null) {
+            output.writeInt64(field, value);
+        }
+    }
+
+    private static void writeEnum(CodedOutputStream output, int field, Enum<?> value) throws IOException {
+        if (value != null) {
+            output.writeEnum(field, value.ordinal() + 1);
+        }
+    }
+}
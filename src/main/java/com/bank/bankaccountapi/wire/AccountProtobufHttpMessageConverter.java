@@ -0,0 +1,58 @@
+package com.bank.bankaccountapi.wire;
+
+import com.bank.bankaccountapi.dto.AccountDto;
+import com.bank.bankaccountapi.dto.AccountOperationDto;
+import com.bank.bankaccountapi.errorhandler.ApiError;
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.InvalidProtocolBufferException;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+import java.io.IOException;
+
+/**
+ * Reads {@link AccountOperationDto} and writes {@link AccountDto} and {@link ApiError} as
+ * {@code application/x-protobuf} through {@link AccountProtobufCodec}.
+ */
+public class AccountProtobufHttpMessageConverter extends AbstractHttpMessageConverter<Object> {
+
+    public AccountProtobufHttpMessageConverter() {
+        super(AccountProtobufCodec.MEDIA_TYPE);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return clazz == AccountOperationDto.class || clazz == AccountDto.class || clazz == ApiError.class;
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, MediaType mediaType) {
+        return clazz == AccountOperationDto.class && canRead(mediaType);
+    }
+
+    @Override
+    public boolean canWrite(Class<?> clazz, MediaType mediaType) {
+        return (clazz == AccountDto.class || clazz == ApiError.class) && canWrite(mediaType);
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) throws IOException {
+        try {
+            return AccountProtobufCodec.decodeOperation(CodedInputStream.newInstance(inputMessage.getBody()));
+        } catch (InvalidProtocolBufferException ex) {
+            throw new HttpMessageNotReadableException("Malformed protobuf body: " + ex.getMessage(), ex, inputMessage);
+        }
+    }
+
+    @Override
+    protected void writeInternal(Object body, HttpOutputMessage outputMessage) throws IOException {
+        byte[] bytes = body instanceof AccountDto
+                ? AccountProtobufCodec.encode((AccountDto) body)
+                : AccountProtobufCodec.encode((ApiError) body);
+        outputMessage.getHeaders().setContentLength(bytes.length);
+        outputMessage.getBody().write(bytes);
+    }
+}
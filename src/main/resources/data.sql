@@ -1,8 +1,8 @@
 insert into ACCOUNT(ACCOUNT_NUMBER, CURRENCY, BALANCE, STATUS)
-values ('1000123', 978, 0.00, 'OPEN');
+values ('1000123', 978, 0, 'OPEN');
 insert into ACCOUNT(ACCOUNT_NUMBER, CURRENCY, BALANCE, STATUS)
-values ('1000456', 840, 1002.00, 'OPEN');
+values ('1000456', 840, 100200, 'OPEN');
 insert into ACCOUNT(ACCOUNT_NUMBER, CURRENCY, BALANCE, STATUS)
-values ('1000678', 978, 345.00, 'OPEN');
+values ('1000678', 978, 34500, 'OPEN');
 insert into ACCOUNT(ACCOUNT_NUMBER, CURRENCY, BALANCE, STATUS)
-values ('1000236', 978, 0.00, 'CLOSED');
\ No newline at end of file
+values ('1000236', 978, 0, 'CLOSED');
\ No newline at end of file
@@ -0,0 +1,20 @@
+-- Converts an existing ACCOUNT table from DOUBLE PRECISION balances in major units
+-- to BIGINT balances in minor units of the account currency (ISO 4217 numeric code).
+-- Currencies not listed below have 2 minor unit digits, matching CurrencyUnits.scale.
+-- Run once against databases created before the switch; fresh databases get the new schema.sql.
+
+ALTER TABLE ACCOUNT ADD COLUMN BALANCE_MINOR BIGINT;
+
+UPDATE ACCOUNT
+SET BALANCE_MINOR = CAST(ROUND(BALANCE * CASE
+        WHEN CURRENCY IN (20, 56, 108, 112, 152, 174, 262, 300, 324, 352, 380, 392, 410, 442, 450, 548,
+                          600, 620, 626, 642, 646, 704, 724, 792, 800, 940, 950, 952, 953, 974,
+                          955, 956, 957, 958, 959, 960, 961, 962, 963, 964, 965, 994, 999) THEN 1
+        WHEN CURRENCY IN (48, 368, 400, 414, 434, 512, 788) THEN 1000
+        WHEN CURRENCY IN (990) THEN 10000
+        ELSE 100
+    END, 0) AS BIGINT);
+
+ALTER TABLE ACCOUNT DROP COLUMN BALANCE;
+ALTER TABLE ACCOUNT ALTER COLUMN BALANCE_MINOR RENAME TO BALANCE;
+ALTER TABLE ACCOUNT ALTER COLUMN BALANCE SET NOT NULL;
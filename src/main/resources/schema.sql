@@ -1,7 +1,50 @@
 CREATE TABLE IF NOT EXISTS ACCOUNT (
     ACCOUNT_NUMBER VARCHAR(50) NOT NULL,
     CURRENCY BIGINT NOT NULL,
-    BALANCE DOUBLE PRECISION NOT NULL,
+    BALANCE BIGINT NOT NULL,
     STATUS VARCHAR(10) NOT NULL,
+    VERSION BIGINT DEFAULT 0 NOT NULL,
     primary key (ACCOUNT_NUMBER)
 );
+
+-- INCREMENT BY must match allocationSize of AccountOperation's generator: ids are handed out in blocks of 50
+CREATE SEQUENCE IF NOT EXISTS ACCOUNT_OPERATION_SEQ START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS ACCOUNT_OPERATION (
+    ID BIGINT NOT NULL,
+    ACCOUNT_NUMBER VARCHAR(50) NOT NULL,
+    CURRENCY BIGINT NOT NULL,
+    AMOUNT BIGINT NOT NULL,
+    OPERATION_SIGN VARCHAR(10) NOT NULL,
+    BALANCE_AFTER BIGINT NOT NULL,
+    IDEMPOTENCY_KEY VARCHAR(100),
+    CREATED_AT TIMESTAMP NOT NULL,
+    primary key (ID)
+);
+
+CREATE UNIQUE INDEX IF NOT EXISTS UX_ACCOUNT_OPERATION_IDEMPOTENCY_KEY
+    ON ACCOUNT_OPERATION (ACCOUNT_NUMBER, IDEMPOTENCY_KEY);
+
+-- sub-balances of split accounts (account.split), slot 0 is ACCOUNT.BALANCE itself
+CREATE TABLE IF NOT EXISTS ACCOUNT_SLOT (
+    ACCOUNT_NUMBER VARCHAR(50) NOT NULL,
+    SLOT INT NOT NULL,
+    BALANCE BIGINT DEFAULT 0 NOT NULL,
+    primary key (ACCOUNT_NUMBER, SLOT)
+);
+
+-- balance changes waiting for the outbox relay (account.outbox), deleted once the sink has accepted them.
+-- INCREMENT BY must match allocationSize of AccountOutboxEvent's generator
+CREATE SEQUENCE IF NOT EXISTS ACCOUNT_OUTBOX_SEQ START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS ACCOUNT_OUTBOX (
+    ID BIGINT NOT NULL,
+    OPERATION_ID BIGINT NOT NULL,
+    ACCOUNT_NUMBER VARCHAR(50) NOT NULL,
+    CURRENCY BIGINT NOT NULL,
+    AMOUNT BIGINT NOT NULL,
+    OPERATION_SIGN VARCHAR(10) NOT NULL,
+    BALANCE_AFTER BIGINT NOT NULL,
+    CREATED_AT TIMESTAMP NOT NULL,
+    primary key (ID)
+);
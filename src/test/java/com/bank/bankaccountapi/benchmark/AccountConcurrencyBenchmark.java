@@ -0,0 +1,148 @@
+package com.bank.bankaccountapi.benchmark;
+
+import com.bank.bankaccountapi.config.AccountCoalescingProperties;
+import com.bank.bankaccountapi.config.AccountConcurrencyProperties;
+import com.bank.bankaccountapi.domain.Account;
+import com.bank.bankaccountapi.domain.AccountStatus;
+import com.bank.bankaccountapi.dto.AccountOperationDto;
+import com.bank.bankaccountapi.dto.OperationSign;
+import com.bank.bankaccountapi.mapper.AccountMapper;
+import com.bank.bankaccountapi.repo.AccountOperationRepo;
+import com.bank.bankaccountapi.repo.AccountRepo;
+import com.bank.bankaccountapi.service.AccountServiceImpl;
+import com.bank.bankaccountapi.service.cache.AccountCache;
+import com.bank.bankaccountapi.service.coalescing.OperationCoalescer;
+import com.bank.bankaccountapi.service.concurrency.AccountConcurrencyStrategy;
+import com.bank.bankaccountapi.service.concurrency.ConditionalUpdateConcurrencyStrategy;
+import com.bank.bankaccountapi.service.concurrency.OptimisticLockConcurrencyStrategy;
+import com.bank.bankaccountapi.service.concurrency.PessimisticLockConcurrencyStrategy;
+import com.bank.bankaccountapi.service.concurrency.StripedLockConcurrencyStrategy;
+import com.bank.bankaccountapi.service.outbox.AccountEventOutbox;
+import com.bank.bankaccountapi.service.split.SplitAccountService;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Contention benchmark: throughput of {@code applyAccountOperation} on a single hot account for each
+ * concurrency strategy, with and without coalescing, as the number of threads per account grows.
+ * Run with {@code ./mvnw test -Pbenchmark -Dtest=AccountConcurrencyBenchmark}.
+ */
+@Slf4j
+@Tag("benchmark")
+@SpringBootTest(properties = {"spring.jpa.show-sql=false", "logging.level.com.bank.bankaccountapi=WARN"})
+class AccountConcurrencyBenchmark {
+
+    private static final String ACCOUNT_NUMBER = "benchmark-hot-1";
+    private static final int[] THREADS = {1, 2, 4, 8, 16, 32};
+    private static final int OPERATIONS_PER_THREAD = 500;
+
+    @Autowired
+    private AccountRepo accountRepo;
+    @Autowired
+    private AccountOperationRepo accountOperationRepo;
+    @Autowired
+    private AccountMapper accountMapper;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private AccountCache accountCache;
+    @Autowired
+    private SplitAccountService splitAccountService;
+    @Autowired
+    private AccountEventOutbox eventOutbox;
+
+    @Test
+    void measureThroughputPerStrategy() throws Exception {
+        StringBuilder report = new StringBuilder(String.format("%n%-18s %10s %8s %12s %10s%n",
+                "strategy", "coalescing", "threads", "ops/s", "failed"));
+        for (AccountConcurrencyProperties.Strategy strategy : AccountConcurrencyProperties.Strategy.values()) {
+            for (boolean coalescing : new boolean[]{false, true}) {
+                AccountCoalescingProperties coalescingProperties = new AccountCoalescingProperties();
+                coalescingProperties.setEnabled(coalescing);
+                AccountServiceImpl accountService = new AccountServiceImpl(accountRepo, accountOperationRepo,
+                        accountMapper, createStrategy(strategy), accountCache, splitAccountService,
+                        new OperationCoalescer(coalescingProperties), eventOutbox);
+                for (int threads : THREADS) {
+                    resetAccount();
+                    run(accountService, threads, 50);
+                    long[] result = run(accountService, threads, OPERATIONS_PER_THREAD);
+                    report.append(String.format("%-18s %10s %8d %12d %10d%n",
+                            strategy, coalescing, threads, result[0], result[1]));
+                }
+            }
+        }
+        accountRepo.deleteById(ACCOUNT_NUMBER);
+        log.warn("Account concurrency benchmark:{}", report);
+    }
+
+    private long[] run(AccountServiceImpl accountService, int threads, int operationsPerThread) throws Exception {
+        AccountOperationDto operation = AccountOperationDto.builder()
+                .accountNumber(ACCOUNT_NUMBER)
+                .currency(978L)
+                .amount(100L)
+                .operationSign(OperationSign.DEBIT)
+                .build();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicLong failed = new AtomicLong();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int j = 0; j < operationsPerThread; j++) {
+                    try {
+                        accountService.applyAccountOperation(operation);
+                    } catch (RuntimeException ex) {
+                        failed.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+        long startedAt = System.nanoTime();
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        long elapsed = System.nanoTime() - startedAt;
+        executor.shutdown();
+        long operations = (long) threads * operationsPerThread;
+        return new long[]{operations * 1_000_000_000L / elapsed, failed.get()};
+    }
+
+    private void resetAccount() {
+        accountRepo.deleteAll(accountRepo.findAllById(List.of(ACCOUNT_NUMBER)));
+        accountRepo.save(Account.builder()
+                .accountNumber(ACCOUNT_NUMBER)
+                .currency(978L)
+                .balance(0L)
+                .status(AccountStatus.OPEN)
+                .build());
+    }
+
+    private AccountConcurrencyStrategy createStrategy(AccountConcurrencyProperties.Strategy strategy) {
+        AccountConcurrencyProperties properties = new AccountConcurrencyProperties();
+        switch (strategy) {
+            case OPTIMISTIC:
+                return new OptimisticLockConcurrencyStrategy(accountRepo, transactionTemplate, properties);
+            case PESSIMISTIC:
+                return new PessimisticLockConcurrencyStrategy(accountRepo, transactionTemplate);
+            case CONDITIONAL_UPDATE:
+                return new ConditionalUpdateConcurrencyStrategy(accountRepo, transactionTemplate);
+            default:
+                return new StripedLockConcurrencyStrategy(accountRepo, transactionTemplate, properties);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package com.bank.bankaccountapi.benchmark;
+
+import com.bank.bankaccountapi.domain.Account;
+import com.bank.bankaccountapi.domain.AccountStatus;
+import com.bank.bankaccountapi.repo.AccountRepo;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * Full MVC path of {@code AccountController}: request mapping, JSON, validation, service and exception handling.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AccountControllerBenchmark {
+
+    private static final String ACCOUNT_NUMBER = "jmh-controller";
+    private static final String OPERATION_JSON = "{\"accountNumber\":\"" + ACCOUNT_NUMBER + "\","
+            + "\"currency\":978,\"amount\":1.0,\"operationSign\":\"DEBIT\"}";
+    private static final String REJECTED_OPERATION_JSON = "{\"accountNumber\":\"" + ACCOUNT_NUMBER + "\","
+            + "\"currency\":840,\"amount\":1.0,\"operationSign\":\"DEBIT\"}";
+
+    private ConfigurableApplicationContext context;
+    private MockMvc mockMvc;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContexts.start(WebApplicationType.SERVLET);
+        context.getBean(AccountRepo.class).save(Account.builder()
+                .accountNumber(ACCOUNT_NUMBER)
+                .currency(978L)
+                .balance(0L)
+                .status(AccountStatus.OPEN)
+                .build());
+        mockMvc = MockMvcBuilders.webAppContextSetup((WebApplicationContext) context).build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public MvcResult getStatus() throws Exception {
+        return mockMvc.perform(get("/api/account/status/" + ACCOUNT_NUMBER)).andReturn();
+    }
+
+    @Benchmark
+    public MvcResult getBalance() throws Exception {
+        return mockMvc.perform(get("/api/account/balance/" + ACCOUNT_NUMBER)).andReturn();
+    }
+
+    @Benchmark
+    public MvcResult applyOperation() throws Exception {
+        return mockMvc.perform(post("/api/account/operation")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(OPERATION_JSON)).andReturn();
+    }
+
+    @Benchmark
+    public MvcResult applyRejectedOperation() throws Exception {
+        return mockMvc.perform(post("/api/account/operation")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(REJECTED_OPERATION_JSON)).andReturn();
+    }
+}
@@ -0,0 +1,111 @@
+package com.bank.bankaccountapi.benchmark;
+
+import com.bank.bankaccountapi.repo.AccountRepo;
+import com.bank.bankaccountapi.service.export.AccountExporter;
+import com.bank.bankaccountapi.service.export.ExportFormat;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Full-ledger export: rows/s and how much the live heap (heap still used after a collection) grows while exporting,
+ * for the cursor based {@link AccountExporter} and, as a reference, {@code findAll()}. The H2 table itself lives in
+ * the heap, so growth is measured against the live heap after loading the accounts.
+ * Run with {@code ./mvnw test -Pbenchmark -Dtest=AccountExportBenchmark -Dbenchmark.accounts=1000000}.
+ */
+@Slf4j
+@Tag("benchmark")
+@SpringBootTest(properties = {"spring.jpa.show-sql=false", "logging.level.com.bank.bankaccountapi=WARN"})
+class AccountExportBenchmark {
+
+    private static final int ACCOUNTS = Integer.getInteger("benchmark.accounts", 1_000_000);
+    private static final int INSERT_BATCH = 10_000;
+
+    @Autowired
+    private AccountExporter accountExporter;
+    @Autowired
+    private AccountRepo accountRepo;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void measureExportThroughputAndHeapGrowth() throws Exception {
+        insertAccounts();
+        StringBuilder report = new StringBuilder(String.format("%n%-10s %10s %12s %16s%n",
+                "export", "rows", "rows/s", "heap growth MB"));
+        for (ExportFormat format : ExportFormat.values()) {
+            long[] result = measure(() -> accountExporter.export(null, null, format, OutputStream.nullOutputStream()));
+            report.append(String.format("%-10s %10d %12d %16d%n", format, result[0], result[1], result[2]));
+        }
+        long[] findAll = measure(() -> transactionTemplate.execute(status -> (long) accountRepo.findAll().size()));
+        report.append(String.format("%-10s %10d %12d %16d%n", "findAll", findAll[0], findAll[1], findAll[2]));
+        jdbcTemplate.update("DELETE FROM ACCOUNT WHERE ACCOUNT_NUMBER LIKE 'export-%'");
+        log.warn("Account export benchmark ({} accounts):{}", ACCOUNTS, report);
+    }
+
+    private long[] measure(Export export) throws Exception {
+        System.gc();
+        long baseline = liveHeap();
+        AtomicLong peak = new AtomicLong(baseline);
+        AtomicBoolean running = new AtomicBoolean(true);
+        Thread sampler = new Thread(() -> {
+            while (running.get()) {
+                peak.accumulateAndGet(liveHeap(), Math::max);
+                try {
+                    Thread.sleep(5);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        });
+        sampler.start();
+        long start = System.nanoTime();
+        long rows = export.run();
+        long elapsed = System.nanoTime() - start;
+        running.set(false);
+        sampler.join();
+        return new long[]{rows, rows * 1_000_000_000L / Math.max(1, elapsed), (peak.get() - baseline) >> 20};
+    }
+
+    private static long liveHeap() {
+        long used = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP && pool.getCollectionUsage() != null) {
+                used += pool.getCollectionUsage().getUsed();
+            }
+        }
+        return used;
+    }
+
+    private void insertAccounts() {
+        for (int from = 0; from < ACCOUNTS; from += INSERT_BATCH) {
+            List<Object[]> rows = new ArrayList<>(INSERT_BATCH);
+            for (int i = from; i < Math.min(from + INSERT_BATCH, ACCOUNTS); i++) {
+                rows.add(new Object[]{String.format("export-%09d", i), i % 2 == 0 ? 978L : 840L, (long) i,
+                        i % 10 == 0 ? "CLOSED" : "OPEN"});
+            }
+            jdbcTemplate.batchUpdate(
+                    "INSERT INTO ACCOUNT(ACCOUNT_NUMBER, CURRENCY, BALANCE, STATUS) VALUES (?, ?, ?, ?)", rows);
+        }
+    }
+
+    @FunctionalInterface
+    private interface Export {
+        long run() throws Exception;
+    }
+}
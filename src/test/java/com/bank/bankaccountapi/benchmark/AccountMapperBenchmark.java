@@ -0,0 +1,41 @@
+package com.bank.bankaccountapi.benchmark;
+
+import com.bank.bankaccountapi.domain.Account;
+import com.bank.bankaccountapi.domain.AccountStatus;
+import com.bank.bankaccountapi.dto.AccountDto;
+import com.bank.bankaccountapi.mapper.AccountMapper;
+import org.mapstruct.factory.Mappers;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AccountMapperBenchmark {
+
+    private final AccountMapper mapper = Mappers.getMapper(AccountMapper.class);
+
+    private final Account account = Account.builder()
+            .accountNumber("1000123")
+            .currency(978L)
+            .balance(34500L)
+            .status(AccountStatus.OPEN)
+            .build();
+
+    @Benchmark
+    public AccountDto mapAccount() {
+        return mapper.map(account);
+    }
+}
@@ -0,0 +1,85 @@
+package com.bank.bankaccountapi.benchmark;
+
+import com.bank.bankaccountapi.config.AccountRateLimitProperties;
+import com.bank.bankaccountapi.expection.RateLimitExceededException;
+import com.bank.bankaccountapi.service.ratelimit.AccountRateLimiter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of one admission check: admitted (limits far above the benchmark rate) over {@code KEYS} accounts, shed
+ * (a limit of one token a day, so the exception path is measured), and admitted with every thread on one account
+ * and one client, which is the CAS contention a flood on a single account causes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AccountRateLimiterBenchmark {
+
+    private static final int KEYS = 10_000;
+
+    private final String[] accountNumbers = new String[KEYS];
+    private AccountRateLimiter admitting;
+    private AccountRateLimiter shedding;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        for (int i = 0; i < KEYS; i++) {
+            accountNumbers[i] = "benchmark-" + i;
+        }
+        admitting = new AccountRateLimiter(properties(1e9, 1_000_000_000), new SimpleMeterRegistry());
+        shedding = new AccountRateLimiter(properties(1.0 / 86_400, 1), new SimpleMeterRegistry());
+        shedding.admit(accountNumbers[0], "client-1");
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        private int next;
+    }
+
+    @Benchmark
+    public void admitted(Cursor cursor) {
+        cursor.next = (cursor.next + 1) % KEYS;
+        admitting.admit(accountNumbers[cursor.next], "client-1");
+    }
+
+    @Benchmark
+    public RateLimitExceededException shed() {
+        try {
+            shedding.admit(accountNumbers[0], "client-1");
+            return null;
+        } catch (RateLimitExceededException ex) {
+            return ex;
+        }
+    }
+
+    @Benchmark
+    @Threads(4)
+    public void admittedContended() {
+        admitting.admit(accountNumbers[0], "client-1");
+    }
+
+    private static AccountRateLimitProperties properties(double rate, int burst) {
+        AccountRateLimitProperties properties = new AccountRateLimitProperties();
+        properties.setEnabled(true);
+        properties.setPerAccount(new AccountRateLimitProperties.Limit(rate, burst));
+        properties.setPerClient(new AccountRateLimitProperties.Limit(rate, burst));
+        return properties;
+    }
+}
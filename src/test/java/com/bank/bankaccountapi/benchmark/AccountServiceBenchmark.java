@@ -0,0 +1,105 @@
+package com.bank.bankaccountapi.benchmark;
+
+import com.bank.bankaccountapi.domain.Account;
+import com.bank.bankaccountapi.domain.AccountStatus;
+import com.bank.bankaccountapi.dto.AccountDto;
+import com.bank.bankaccountapi.dto.AccountOperationDto;
+import com.bank.bankaccountapi.dto.OperationSign;
+import com.bank.bankaccountapi.repo.AccountRepo;
+import com.bank.bankaccountapi.service.AccountService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * {@code applyAccountOperation} with all threads on one account (contended) and with one account per thread,
+ * for the read-modify-write path under the default lock and for the single conditional {@code UPDATE}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AccountServiceBenchmark {
+
+    private static final String HOT_ACCOUNT_NUMBER = "jmh-hot";
+
+    @Param({"striped-lock", "conditional-update"})
+    private String strategy;
+
+    private ConfigurableApplicationContext context;
+    private AccountService accountService;
+    private AccountRepo accountRepo;
+    private AccountOperationDto hotOperation;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContexts.start(WebApplicationType.NONE,
+                "account.concurrency.strategy=" + strategy);
+        accountService = context.getBean(AccountService.class);
+        accountRepo = context.getBean(AccountRepo.class);
+        hotOperation = createAccount(HOT_ACCOUNT_NUMBER);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public AccountDto contended() {
+        return accountService.applyAccountOperation(hotOperation);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public AccountDto uncontended(ThreadAccount threadAccount) {
+        return accountService.applyAccountOperation(threadAccount.operation);
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadAccount {
+
+        private static final AtomicInteger SEQUENCE = new AtomicInteger();
+
+        private AccountOperationDto operation;
+
+        @Setup(Level.Trial)
+        public void setUp(AccountServiceBenchmark benchmark) {
+            operation = benchmark.createAccount("jmh-" + SEQUENCE.incrementAndGet());
+        }
+    }
+
+    AccountOperationDto createAccount(String accountNumber) {
+        accountRepo.save(Account.builder()
+                .accountNumber(accountNumber)
+                .currency(978L)
+                .balance(0L)
+                .status(AccountStatus.OPEN)
+                .build());
+        return AccountOperationDto.builder()
+                .accountNumber(accountNumber)
+                .currency(978L)
+                .amount(100L)
+                .operationSign(OperationSign.DEBIT)
+                .build();
+    }
+}
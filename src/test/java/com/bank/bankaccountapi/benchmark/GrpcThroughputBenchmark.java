@@ -0,0 +1,222 @@
+package com.bank.bankaccountapi.benchmark;
+
+import com.bank.bankaccountapi.domain.Account;
+import com.bank.bankaccountapi.domain.AccountStatus;
+import com.bank.bankaccountapi.dto.AccountOperationDto;
+import com.bank.bankaccountapi.dto.AccountOperationResultDto;
+import com.bank.bankaccountapi.dto.OperationSign;
+import com.bank.bankaccountapi.grpc.AccountGrpcMethods;
+import com.bank.bankaccountapi.grpc.GrpcServerLifecycle;
+import com.bank.bankaccountapi.repo.AccountRepo;
+import io.grpc.CallOptions;
+import io.grpc.ManagedChannel;
+import io.grpc.netty.shaded.io.grpc.netty.NettyChannelBuilder;
+import io.grpc.stub.ClientCalls;
+import io.grpc.stub.StreamObserver;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Debit throughput over REST (JSON, one HTTP/1.1 keep-alive connection per client thread), gRPC unary calls
+ * (one shared HTTP/2 connection) and gRPC {@code ApplyOperations} streams, each keeping {@code WINDOW} operations
+ * in flight. Run with {@code ./mvnw test -Pbenchmark -Dtest=GrpcThroughputBenchmark}.
+ */
+@Slf4j
+@Tag("benchmark")
+class GrpcThroughputBenchmark {
+
+    private static final int CLIENTS = Integer.getInteger("benchmark.clients", 64);
+    private static final int OPERATIONS = Integer.getInteger("benchmark.operations", 20_000);
+    private static final int STREAMS = 8;
+    private static final int WINDOW = 64;
+    private static final int ACCOUNTS = 100;
+
+    @Test
+    void measureThroughputPerTransport() throws Exception {
+        ConfigurableApplicationContext context = BenchmarkContexts.start(WebApplicationType.SERVLET,
+                "account.grpc.enabled=true", "account.grpc.port=0");
+        ManagedChannel channel = null;
+        try {
+            createAccounts(context.getBean(AccountRepo.class));
+            String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+            channel = NettyChannelBuilder.forAddress("localhost", context.getBean(GrpcServerLifecycle.class).getPort())
+                    .usePlaintext()
+                    .build();
+            ManagedChannel grpc = channel;
+            StringBuilder report = new StringBuilder(String.format("%n%-12s %10s %10s%n", "transport", "ops/s", "failed"));
+            report.append(measure("rest-json", operations -> runClients(i -> sendRest(baseUrl, i), operations)));
+            report.append(measure("grpc-unary", operations -> runClients(i -> sendUnary(grpc, i), operations)));
+            report.append(measure("grpc-stream", operations -> runStreams(grpc, operations)));
+            log.warn("gRPC throughput benchmark, {} operations:{}", OPERATIONS, report);
+        } finally {
+            if (channel != null) {
+                channel.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+            }
+            context.close();
+        }
+    }
+
+    private String measure(String transport, Run run) throws Exception {
+        run.operations(OPERATIONS / 10);
+        long startedAt = System.nanoTime();
+        long failed = run.operations(OPERATIONS);
+        long elapsed = System.nanoTime() - startedAt;
+        return String.format("%-12s %10d %10d%n", transport, OPERATIONS * 1_000_000_000L / elapsed, failed);
+    }
+
+    private long runClients(Client client, int operations) throws Exception {
+        ExecutorService clients = Executors.newFixedThreadPool(CLIENTS);
+        AtomicInteger next = new AtomicInteger();
+        AtomicLong failed = new AtomicLong();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>(CLIENTS);
+        for (int c = 0; c < CLIENTS; c++) {
+            futures.add(clients.submit(() -> {
+                start.await();
+                for (int i = next.getAndIncrement(); i < operations; i = next.getAndIncrement()) {
+                    if (!client.send(i)) {
+                        failed.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        clients.shutdown();
+        return failed.get();
+    }
+
+    /**
+     * Opens {@code STREAMS} streams and sends each its share of operations, never more than {@code WINDOW}
+     * unanswered at a time.
+     */
+    private long runStreams(ManagedChannel channel, int operations) throws Exception {
+        AtomicLong failed = new AtomicLong();
+        List<CompletableFuture<Void>> completions = new ArrayList<>(STREAMS);
+        for (int s = 0; s < STREAMS; s++) {
+            Semaphore window = new Semaphore(WINDOW);
+            CompletableFuture<Void> completed = new CompletableFuture<>();
+            completions.add(completed);
+            StreamObserver<AccountOperationDto> requests = ClientCalls.asyncBidiStreamingCall(
+                    channel.newCall(AccountGrpcMethods.APPLY_OPERATIONS, CallOptions.DEFAULT),
+                    new StreamObserver<>() {
+                        @Override
+                        public void onNext(AccountOperationResultDto result) {
+                            if (!result.isApplied()) {
+                                failed.incrementAndGet();
+                            }
+                            window.release();
+                        }
+
+                        @Override
+                        public void onError(Throwable t) {
+                            completed.completeExceptionally(t);
+                        }
+
+                        @Override
+                        public void onCompleted() {
+                            completed.complete(null);
+                        }
+                    });
+            int stream = s;
+            CompletableFuture.runAsync(() -> {
+                for (int i = stream; i < operations; i += STREAMS) {
+                    window.acquireUninterruptibly();
+                    requests.onNext(operation(i));
+                }
+                requests.onCompleted();
+            });
+        }
+        CompletableFuture.allOf(completions.toArray(CompletableFuture[]::new)).get(10, TimeUnit.MINUTES);
+        return failed.get();
+    }
+
+    private boolean sendUnary(ManagedChannel channel, int i) {
+        try {
+            ClientCalls.blockingUnaryCall(channel, AccountGrpcMethods.APPLY_OPERATION, CallOptions.DEFAULT,
+                    operation(i));
+            return true;
+        } catch (RuntimeException ex) {
+            return false;
+        }
+    }
+
+    private boolean sendRest(String baseUrl, int i) {
+        try {
+            HttpURLConnection connection = (HttpURLConnection) new URL(baseUrl + "/api/account/operation")
+                    .openConnection();
+            connection.setRequestMethod("POST");
+            connection.setRequestProperty("Content-Type", "application/json");
+            connection.setDoOutput(true);
+            try (OutputStream body = connection.getOutputStream()) {
+                body.write(("{\"accountNumber\":\"load-" + (i % ACCOUNTS) + "\",\"currency\":978,\"amount\":1.0,"
+                        + "\"operationSign\":\"DEBIT\"}").getBytes(StandardCharsets.UTF_8));
+            }
+            int status = connection.getResponseCode();
+            try (InputStream response = status < 400 ? connection.getInputStream() : connection.getErrorStream()) {
+                if (response != null) {
+                    response.readAllBytes();
+                }
+            }
+            return status == 200;
+        } catch (IOException ex) {
+            return false;
+        }
+    }
+
+    private static AccountOperationDto operation(int i) {
+        return AccountOperationDto.builder()
+                .accountNumber("load-" + (i % ACCOUNTS))
+                .currency(978L)
+                .amount(100L)
+                .operationSign(OperationSign.DEBIT)
+                .build();
+    }
+
+    private void createAccounts(AccountRepo accountRepo) {
+        accountRepo.saveAll(IntStream.range(0, ACCOUNTS)
+                .mapToObj(i -> Account.builder()
+                        .accountNumber("load-" + i)
+                        .currency(978L)
+                        .balance(0L)
+                        .status(AccountStatus.OPEN)
+                        .build())
+                .collect(Collectors.toList()));
+    }
+
+    @FunctionalInterface
+    private interface Client {
+        boolean send(int i);
+    }
+
+    @FunctionalInterface
+    private interface Run {
+        long operations(int operations) throws Exception;
+    }
+}
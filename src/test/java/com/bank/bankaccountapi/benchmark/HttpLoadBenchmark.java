@@ -0,0 +1,200 @@
+package com.bank.bankaccountapi.benchmark;
+
+import com.bank.bankaccountapi.domain.Account;
+import com.bank.bankaccountapi.domain.AccountStatus;
+import com.bank.bankaccountapi.repo.AccountRepo;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Load test of the real HTTP stack: latency percentiles with {@code CONNECTIONS} (5000 by default,
+ * {@code -Dbenchmark.connections}) clients, each sending requests one after another over its own keep-alive
+ * connection. Half are balance inquiries and half debit operations. Runs every {@code account.http.execution}
+ * mode the runtime supports ({@code virtual} needs Java 21+) and the platform mode with the {@code prod-db}
+ * persistence profile, and reports how long requests waited for and held a pooled JDBC connection.
+ * Run with {@code ./mvnw test -Pbenchmark -Dtest=HttpLoadBenchmark}.
+ */
+@Slf4j
+@Tag("benchmark")
+class HttpLoadBenchmark {
+
+    private static final int CONNECTIONS = Integer.getInteger("benchmark.connections", 5_000);
+    private static final int REQUESTS = Integer.getInteger("benchmark.requests", 50_000);
+    private static final int ACCOUNTS = 100;
+
+    @Test
+    void measureLatencyPerExecutionMode() throws Exception {
+        System.setProperty("http.maxConnections", String.valueOf(CONNECTIONS));
+        Map<String, String[]> setups = new LinkedHashMap<>();
+        setups.put("platform", new String[]{"account.http.execution=platform"});
+        setups.put("prod-db", new String[]{"account.http.execution=platform", "spring.profiles.active=prod-db"});
+        if (Runtime.version().feature() >= 21) {
+            setups.put("virtual", new String[]{"account.http.execution=virtual"});
+        }
+        StringBuilder report = new StringBuilder(String.format("%n%-10s %10s %10s %10s %10s %10s %12s %12s%n",
+                "setup", "req/s", "p50 ms", "p99 ms", "max ms", "failed", "pool wait ms", "conn held ms"));
+        for (Map.Entry<String, String[]> setup : setups.entrySet()) {
+            List<String> properties = new ArrayList<>(Arrays.asList(setup.getValue()));
+            properties.add("server.tomcat.max-connections=10000");
+            properties.add("server.tomcat.accept-count=1000");
+            ConfigurableApplicationContext context = BenchmarkContexts.start(WebApplicationType.SERVLET,
+                    properties.toArray(String[]::new));
+            try {
+                createAccounts(context.getBean(AccountRepo.class));
+                String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+                run(baseUrl, REQUESTS / 10);
+                MeterRegistry registry = context.getBean(MeterRegistry.class);
+                double[] acquire = snapshot(registry, "hikaricp.connections.acquire");
+                double[] usage = snapshot(registry, "hikaricp.connections.usage");
+                Result result = run(baseUrl, REQUESTS);
+                report.append(result.format(setup.getKey(),
+                        meanMillisSince(registry, "hikaricp.connections.acquire", acquire),
+                        meanMillisSince(registry, "hikaricp.connections.usage", usage)));
+            } finally {
+                context.close();
+            }
+        }
+        log.warn("HTTP load benchmark, {} connections:{}", CONNECTIONS, report);
+    }
+
+    private static double[] snapshot(MeterRegistry registry, String timer) {
+        Timer found = registry.find(timer).timer();
+        return found == null
+                ? new double[]{0, 0}
+                : new double[]{found.count(), found.totalTime(TimeUnit.MILLISECONDS)};
+    }
+
+    /**
+     * Mean of the timer over the samples recorded after {@code before} was taken.
+     */
+    private static double meanMillisSince(MeterRegistry registry, String timer, double[] before) {
+        double[] after = snapshot(registry, timer);
+        double count = after[0] - before[0];
+        return count == 0 ? Double.NaN : (after[1] - before[1]) / count;
+    }
+
+    private Result run(String baseUrl, int requests) throws Exception {
+        ExecutorService clients = Executors.newFixedThreadPool(CONNECTIONS);
+        AtomicInteger next = new AtomicInteger();
+        AtomicLong failed = new AtomicLong();
+        long[] latencies = new long[requests];
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>(CONNECTIONS);
+        for (int c = 0; c < CONNECTIONS; c++) {
+            futures.add(clients.submit(() -> {
+                start.await();
+                for (int i = next.getAndIncrement(); i < requests; i = next.getAndIncrement()) {
+                    long sentAt = System.nanoTime();
+                    if (!send(baseUrl, i)) {
+                        failed.incrementAndGet();
+                    }
+                    latencies[i] = System.nanoTime() - sentAt;
+                }
+                return null;
+            }));
+        }
+        long startedAt = System.nanoTime();
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        long elapsed = System.nanoTime() - startedAt;
+        clients.shutdown();
+
+        Arrays.sort(latencies);
+        return new Result(requests * 1_000_000_000L / elapsed,
+                latencies[requests / 2], latencies[requests * 99 / 100], latencies[requests - 1], failed.get());
+    }
+
+    /**
+     * One blocking request; {@code HttpURLConnection} keeps the connection alive for the next request of this thread.
+     */
+    private boolean send(String baseUrl, int i) {
+        String accountNumber = "load-" + (i % ACCOUNTS);
+        try {
+            HttpURLConnection connection;
+            if (i % 2 == 0) {
+                connection = (HttpURLConnection) new URL(baseUrl + "/api/account/balance/" + accountNumber)
+                        .openConnection();
+            } else {
+                connection = (HttpURLConnection) new URL(baseUrl + "/api/account/operation").openConnection();
+                connection.setRequestMethod("POST");
+                connection.setRequestProperty("Content-Type", "application/json");
+                connection.setDoOutput(true);
+                try (OutputStream body = connection.getOutputStream()) {
+                    body.write(("{\"accountNumber\":\"" + accountNumber + "\",\"currency\":978,\"amount\":1.0,"
+                            + "\"operationSign\":\"DEBIT\"}").getBytes(StandardCharsets.UTF_8));
+                }
+            }
+            connection.setConnectTimeout(60_000);
+            connection.setReadTimeout(60_000);
+            int status = connection.getResponseCode();
+            try (InputStream response = status < 400 ? connection.getInputStream() : connection.getErrorStream()) {
+                if (response != null) {
+                    response.readAllBytes();
+                }
+            }
+            return status == 200;
+        } catch (IOException ex) {
+            return false;
+        }
+    }
+
+    private void createAccounts(AccountRepo accountRepo) {
+        accountRepo.saveAll(IntStream.range(0, ACCOUNTS)
+                .mapToObj(i -> Account.builder()
+                        .accountNumber("load-" + i)
+                        .currency(978L)
+                        .balance(0L)
+                        .status(AccountStatus.OPEN)
+                        .build())
+                .collect(Collectors.toList()));
+    }
+
+    private static final class Result {
+        private final long throughput;
+        private final long p50;
+        private final long p99;
+        private final long max;
+        private final long failed;
+
+        private Result(long throughput, long p50, long p99, long max, long failed) {
+            this.throughput = throughput;
+            this.p50 = p50;
+            this.p99 = p99;
+            this.max = max;
+            this.failed = failed;
+        }
+
+        private String format(String setup, double poolWait, double connectionHeld) {
+            return String.format("%-10s %10d %10.1f %10.1f %10.1f %10d %12.3f %12.3f%n", setup, throughput,
+                    p50 / 1e6, p99 / 1e6, max / 1e6, failed, poolWait, connectionHeld);
+        }
+    }
+}
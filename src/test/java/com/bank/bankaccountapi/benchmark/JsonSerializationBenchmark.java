@@ -0,0 +1,75 @@
+package com.bank.bankaccountapi.benchmark;
+
+import com.bank.bankaccountapi.domain.AccountStatus;
+import com.bank.bankaccountapi.dto.AccountDto;
+import com.bank.bankaccountapi.dto.AccountOperationDto;
+import com.bank.bankaccountapi.dto.OperationSign;
+import com.bank.bankaccountapi.errorhandler.ApiError;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson cost of the request and response bodies, using the same {@link ObjectMapper} setup as Spring MVC.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonSerializationBenchmark {
+
+    private ObjectMapper objectMapper;
+    private AccountDto accountDto;
+    private ApiError apiError;
+    private byte[] operationJson;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        accountDto = AccountDto.builder()
+                .accountNumber("1000123")
+                .currency(978L)
+                .balance(34500L)
+                .status(AccountStatus.OPEN)
+                .build();
+        apiError = new ApiError(HttpStatus.BAD_REQUEST,
+                "Account does not exists. AccountNumber = 1000999", "uri=/api/account/operation");
+        operationJson = objectMapper.writeValueAsBytes(AccountOperationDto.builder()
+                .accountNumber("1000123")
+                .currency(978L)
+                .amount(1000L)
+                .operationSign(OperationSign.DEBIT)
+                .build());
+    }
+
+    @Benchmark
+    public byte[] writeAccountDto() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(accountDto);
+    }
+
+    @Benchmark
+    public byte[] writeApiError() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(apiError);
+    }
+
+    @Benchmark
+    public AccountOperationDto readAccountOperationDto() throws IOException {
+        return objectMapper.readValue(operationJson, AccountOperationDto.class);
+    }
+}
@@ -0,0 +1,98 @@
+package com.bank.bankaccountapi.benchmark;
+
+import com.bank.bankaccountapi.domain.Account;
+import com.bank.bankaccountapi.domain.AccountStatus;
+import com.bank.bankaccountapi.repo.AccountRepo;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * Request path throughput with the default synchronous INFO logging and SQL echo versus the {@code prod}
+ * profile (async appender, sampled success lines, no SQL echo). Console output goes to
+ * {@code target/logging-benchmark-<mode>.log} so it is still written but does not flood the JMH output.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class LoggingBenchmark {
+
+    private static final String ACCOUNT_NUMBER = "jmh-logging";
+    private static final String OPERATION_JSON = "{\"accountNumber\":\"" + ACCOUNT_NUMBER + "\","
+            + "\"currency\":978,\"amount\":1.0,\"operationSign\":\"DEBIT\"}";
+
+    @Param({"default", "prod"})
+    private String mode;
+
+    private PrintStream originalOut;
+    private ConfigurableApplicationContext context;
+    private MockMvc mockMvc;
+
+    @Setup(Level.Trial)
+    public void setUp() throws FileNotFoundException {
+        originalOut = System.out;
+        System.setOut(new PrintStream(new FileOutputStream("target/logging-benchmark-" + mode + ".log"), true));
+
+        context = "prod".equals(mode)
+                ? BenchmarkContexts.start(WebApplicationType.SERVLET,
+                "spring.profiles.active=prod", "logging.level.root=INFO")
+                : BenchmarkContexts.start(WebApplicationType.SERVLET,
+                "spring.jpa.show-sql=true", "logging.level.root=INFO");
+        context.getBean(AccountRepo.class).save(Account.builder()
+                .accountNumber(ACCOUNT_NUMBER)
+                .currency(978L)
+                .balance(0L)
+                .status(AccountStatus.OPEN)
+                .build());
+        mockMvc = MockMvcBuilders.webAppContextSetup((WebApplicationContext) context).build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+        System.out.close();
+        System.setOut(originalOut);
+    }
+
+    @Benchmark
+    public MvcResult getStatus() throws Exception {
+        return mockMvc.perform(get("/api/account/status/" + ACCOUNT_NUMBER)).andReturn();
+    }
+
+    @Benchmark
+    public MvcResult applyOperation() throws Exception {
+        return mockMvc.perform(post("/api/account/operation")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(OPERATION_JSON)).andReturn();
+    }
+}
@@ -0,0 +1,107 @@
+package com.bank.bankaccountapi.benchmark;
+
+import com.bank.bankaccountapi.dto.AccountOperationDto;
+import com.bank.bankaccountapi.dto.OperationSign;
+import com.bank.bankaccountapi.replica.ReplicaSynchronizer;
+import com.bank.bankaccountapi.service.AccountService;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Throughput of a read-heavy mix (9 balance inquiries per DEBIT) on the primary alone and with two H2 replicas
+ * behind round-robin and least-loaded selection. Every pool has the default 10 connections, so the replicas mostly
+ * add connections that reads do not have to share with writes.
+ * Run with {@code ./mvnw test -Pbenchmark -Dtest=ReadReplicaBenchmark}.
+ */
+@Slf4j
+@Tag("benchmark")
+class ReadReplicaBenchmark {
+
+    private static final int ACCOUNTS = 200;
+    private static final int THREADS = 32;
+    private static final int OPERATIONS_PER_THREAD = 2_000;
+    private static final int READS_PER_WRITE = 9;
+
+    @Test
+    void measureThroughputPerRouting() throws Exception {
+        StringBuilder report = new StringBuilder(String.format("%n%-14s %8s %12s%n", "routing", "threads", "ops/s"));
+        report.append(String.format("%-14s %8d %12d%n", "primary", THREADS, measure()));
+        report.append(String.format("%-14s %8d %12d%n", "round-robin", THREADS, measure(
+                "account.read-replica.selection=round-robin")));
+        report.append(String.format("%-14s %8d %12d%n", "least-loaded", THREADS, measure(
+                "account.read-replica.selection=least-loaded")));
+        log.warn("Read replica benchmark:{}", report);
+    }
+
+    private long measure(String... replicaProperties) throws Exception {
+        List<String> properties = new ArrayList<>();
+        if (replicaProperties.length > 0) {
+            properties.add("account.read-replica.enabled=true");
+            properties.add("account.read-replica.replicas[0].url=jdbc:h2:mem:replica-benchmark-1");
+            properties.add("account.read-replica.replicas[1].url=jdbc:h2:mem:replica-benchmark-2");
+            properties.addAll(List.of(replicaProperties));
+        }
+        try (ConfigurableApplicationContext context = BenchmarkContexts.start(WebApplicationType.NONE,
+                properties.toArray(new String[0]))) {
+            JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+            for (int i = 0; i < ACCOUNTS; i++) {
+                jdbcTemplate.update("INSERT INTO ACCOUNT (ACCOUNT_NUMBER, CURRENCY, BALANCE, STATUS) "
+                        + "VALUES (?, 978, 0, 'OPEN')", accountNumber(i));
+            }
+            context.getBeanProvider(ReplicaSynchronizer.class).ifAvailable(ReplicaSynchronizer::syncNow);
+            AccountService accountService = context.getBean(AccountService.class);
+            run(accountService, 200);
+            return run(accountService, OPERATIONS_PER_THREAD);
+        }
+    }
+
+    private long run(AccountService accountService, int operationsPerThread) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int j = 0; j < operationsPerThread; j++) {
+                    String accountNumber = accountNumber(random.nextInt(ACCOUNTS));
+                    if (j % (READS_PER_WRITE + 1) == 0) {
+                        accountService.applyAccountOperation(AccountOperationDto.builder()
+                                .accountNumber(accountNumber)
+                                .currency(978L)
+                                .amount(1L)
+                                .operationSign(OperationSign.DEBIT)
+                                .build());
+                    } else {
+                        accountService.getAccountBalanceInquiryByAccountNumber(accountNumber);
+                    }
+                }
+                return null;
+            }));
+        }
+        long startedAt = System.nanoTime();
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        long elapsed = System.nanoTime() - startedAt;
+        executor.shutdown();
+        return (long) THREADS * operationsPerThread * 1_000_000_000L / elapsed;
+    }
+
+    private static String accountNumber(int index) {
+        return "benchmark-replica-" + index;
+    }
+}
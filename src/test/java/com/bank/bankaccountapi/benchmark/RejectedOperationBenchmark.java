@@ -0,0 +1,117 @@
+package com.bank.bankaccountapi.benchmark;
+
+import com.bank.bankaccountapi.domain.Account;
+import com.bank.bankaccountapi.domain.AccountStatus;
+import com.bank.bankaccountapi.dto.AccountOperationDto;
+import com.bank.bankaccountapi.dto.OperationSign;
+import com.bank.bankaccountapi.errorhandler.ApiError;
+import com.bank.bankaccountapi.expection.AccountApiException;
+import com.bank.bankaccountapi.repo.AccountRepo;
+import com.bank.bankaccountapi.service.AccountOperationOutcome;
+import com.bank.bankaccountapi.service.AccountService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.http.MediaType.APPLICATION_JSON;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * Throughput of rejected operations, the bulk of the traffic during a card-testing attack: an unknown account and
+ * a CREDIT above the balance. {@code exception} is a rejection thrown by {@code applyAccountOperation} and turned
+ * into an {@link ApiError} like {@code RestExceptionHandler} does; {@code outcome} is {@code tryApplyAccountOperation}
+ * with {@link ApiError#rejected}, which builds no exception; {@code http} is the whole MVC path of the operation
+ * endpoint.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RejectedOperationBenchmark {
+
+    private static final String ACCOUNT_NUMBER = "jmh-rejected";
+    private static final String REQUEST_INFO = "uri=/api/account/operation";
+
+    @Param({"account-not-found", "insufficient-balance"})
+    private String rejection;
+
+    private ConfigurableApplicationContext context;
+    private AccountService accountService;
+    private MockMvc mockMvc;
+    private AccountOperationDto operation;
+    private String operationJson;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContexts.start(WebApplicationType.SERVLET);
+        context.getBean(AccountRepo.class).save(Account.builder()
+                .accountNumber(ACCOUNT_NUMBER)
+                .currency(978L)
+                .balance(100L)
+                .status(AccountStatus.OPEN)
+                .build());
+        accountService = context.getBean(AccountService.class);
+        mockMvc = MockMvcBuilders.webAppContextSetup((WebApplicationContext) context).build();
+        String accountNumber = "account-not-found".equals(rejection) ? "jmh-missing" : ACCOUNT_NUMBER;
+        operation = AccountOperationDto.builder()
+                .accountNumber(accountNumber)
+                .currency(978L)
+                .amount(1_000_000L)
+                .operationSign(OperationSign.CREDIT)
+                .build();
+        operationJson = "{\"accountNumber\":\"" + accountNumber + "\",\"currency\":978,\"amount\":10000.0,"
+                + "\"operationSign\":\"CREDIT\"}";
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public ApiError exception() {
+        try {
+            accountService.applyAccountOperation(operation);
+            throw new IllegalStateException("Operation was not rejected");
+        } catch (AccountApiException ex) {
+            return new ApiError(HttpStatus.BAD_REQUEST, ex, REQUEST_INFO);
+        }
+    }
+
+    @Benchmark
+    public ApiError outcome() {
+        AccountOperationOutcome outcome = accountService.tryApplyAccountOperation(operation);
+        if (outcome.isApplied()) {
+            throw new IllegalStateException("Operation was not rejected");
+        }
+        return ApiError.rejected(outcome.getRejection(), operation.getAccountNumber(), REQUEST_INFO);
+    }
+
+    @Benchmark
+    public MvcResult http() throws Exception {
+        return mockMvc.perform(post("/api/account/operation")
+                .contentType(APPLICATION_JSON)
+                .content(operationJson)).andReturn();
+    }
+}
@@ -0,0 +1,113 @@
+package com.bank.bankaccountapi.benchmark;
+
+import com.bank.bankaccountapi.domain.Account;
+import com.bank.bankaccountapi.domain.AccountStatus;
+import com.bank.bankaccountapi.dto.AccountOperationDto;
+import com.bank.bankaccountapi.dto.OperationSign;
+import com.bank.bankaccountapi.repo.AccountRepo;
+import com.bank.bankaccountapi.service.AccountService;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Throughput of single DEBIT operations on random accounts, with a bulk inquiry of {@link #BULK_SIZE} accounts every
+ * {@link #OPERATIONS_PER_BULK} operations, as the accounts are spread over more H2 shards. Every shard has its own
+ * pool of 10 connections, so writes stop queueing for the one pool and the one database.
+ * Run with {@code ./mvnw test -Pbenchmark -Dtest=ShardingBenchmark}.
+ */
+@Slf4j
+@Tag("benchmark")
+class ShardingBenchmark {
+
+    private static final int[] SHARDS = {1, 2, 4};
+    private static final int ACCOUNTS = 1_000;
+    private static final int THREADS = 32;
+    private static final int OPERATIONS_PER_THREAD = 1_000;
+    private static final int OPERATIONS_PER_BULK = 10;
+    private static final int BULK_SIZE = 20;
+
+    @Test
+    void measureThroughputPerShardCount() throws Exception {
+        StringBuilder report = new StringBuilder(String.format("%n%6s %8s %12s%n", "shards", "threads", "ops/s"));
+        for (int shards : SHARDS) {
+            report.append(String.format("%6d %8d %12d%n", shards, THREADS, measure(shards)));
+        }
+        log.warn("Sharding benchmark:{}", report);
+    }
+
+    private long measure(int shards) throws Exception {
+        List<String> properties = new ArrayList<>();
+        properties.add("account.sharding.enabled=true");
+        for (int shard = 1; shard < shards; shard++) {
+            properties.add("account.sharding.shards[" + (shard - 1) + "].url=jdbc:h2:mem:shard-benchmark-"
+                    + shards + "-" + shard);
+        }
+        try (ConfigurableApplicationContext context = BenchmarkContexts.start(WebApplicationType.NONE,
+                properties.toArray(new String[0]))) {
+            AccountRepo accountRepo = context.getBean(AccountRepo.class);
+            for (int i = 0; i < ACCOUNTS; i++) {
+                accountRepo.save(Account.builder()
+                        .accountNumber(accountNumber(i))
+                        .currency(978L)
+                        .balance(0L)
+                        .status(AccountStatus.OPEN)
+                        .build());
+            }
+            AccountService accountService = context.getBean(AccountService.class);
+            run(accountService, 100);
+            return run(accountService, OPERATIONS_PER_THREAD);
+        }
+    }
+
+    private long run(AccountService accountService, int operationsPerThread) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int j = 0; j < operationsPerThread; j++) {
+                    if (j % OPERATIONS_PER_BULK == 0) {
+                        List<String> accountNumbers = new ArrayList<>(BULK_SIZE);
+                        for (int k = 0; k < BULK_SIZE; k++) {
+                            accountNumbers.add(accountNumber(random.nextInt(ACCOUNTS)));
+                        }
+                        accountService.getAccountBalances(accountNumbers);
+                    } else {
+                        accountService.applyAccountOperation(AccountOperationDto.builder()
+                                .accountNumber(accountNumber(random.nextInt(ACCOUNTS)))
+                                .currency(978L)
+                                .amount(1L)
+                                .operationSign(OperationSign.DEBIT)
+                                .build());
+                    }
+                }
+                return null;
+            }));
+        }
+        long startedAt = System.nanoTime();
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        long elapsed = System.nanoTime() - startedAt;
+        executor.shutdown();
+        return (long) THREADS * operationsPerThread * 1_000_000_000L / elapsed;
+    }
+
+    private static String accountNumber(int index) {
+        return "benchmark-shard-" + index;
+    }
+}
@@ -0,0 +1,127 @@
+package com.bank.bankaccountapi.benchmark;
+
+import com.bank.bankaccountapi.config.AccountCoalescingProperties;
+import com.bank.bankaccountapi.config.AccountConcurrencyProperties;
+import com.bank.bankaccountapi.config.AccountSplitProperties;
+import com.bank.bankaccountapi.dto.AccountOperationDto;
+import com.bank.bankaccountapi.dto.OperationSign;
+import com.bank.bankaccountapi.mapper.AccountMapper;
+import com.bank.bankaccountapi.repo.AccountOperationRepo;
+import com.bank.bankaccountapi.repo.AccountRepo;
+import com.bank.bankaccountapi.repo.AccountSlotRepo;
+import com.bank.bankaccountapi.service.AccountServiceImpl;
+import com.bank.bankaccountapi.service.cache.AccountCache;
+import com.bank.bankaccountapi.service.coalescing.OperationCoalescer;
+import com.bank.bankaccountapi.service.concurrency.StripedLockConcurrencyStrategy;
+import com.bank.bankaccountapi.service.outbox.AccountEventOutbox;
+import com.bank.bankaccountapi.service.split.SplitAccountService;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Throughput of DEBIT operations on one hot account as it is split into more sub-balance slots;
+ * 1 slot is the unsplit account behind the default striped lock.
+ * Run with {@code ./mvnw test -Pbenchmark -Dtest=SplitAccountBenchmark}.
+ */
+@Slf4j
+@Tag("benchmark")
+@SpringBootTest(properties = {"spring.jpa.show-sql=false", "logging.level.com.bank.bankaccountapi=WARN"})
+class SplitAccountBenchmark {
+
+    private static final String ACCOUNT_NUMBER = "benchmark-split-1";
+    private static final int[] SLOTS = {1, 2, 4, 8, 16};
+    private static final int THREADS = 16;
+    private static final int OPERATIONS_PER_THREAD = 500;
+
+    @Autowired
+    private AccountRepo accountRepo;
+    @Autowired
+    private AccountSlotRepo accountSlotRepo;
+    @Autowired
+    private AccountOperationRepo accountOperationRepo;
+    @Autowired
+    private AccountMapper accountMapper;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private AccountCache accountCache;
+    @Autowired
+    private AccountEventOutbox eventOutbox;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void measureThroughputPerSlotCount() throws Exception {
+        StringBuilder report = new StringBuilder(String.format("%n%6s %8s %12s%n", "slots", "threads", "ops/s"));
+        for (int slots : SLOTS) {
+            resetAccount();
+            AccountSplitProperties properties = new AccountSplitProperties();
+            properties.setSlots(slots);
+            properties.setAccountNumbers(slots == 1 ? Set.of() : Set.of(ACCOUNT_NUMBER));
+            SplitAccountService splitAccountService = new SplitAccountService(accountRepo, accountSlotRepo,
+                    accountOperationRepo, eventOutbox, entityManager, transactionTemplate, properties);
+            splitAccountService.prepareSlots();
+            AccountServiceImpl accountService = new AccountServiceImpl(accountRepo, accountOperationRepo,
+                    accountMapper, new StripedLockConcurrencyStrategy(accountRepo, transactionTemplate,
+                    new AccountConcurrencyProperties()), accountCache, splitAccountService,
+                    new OperationCoalescer(new AccountCoalescingProperties()), eventOutbox);
+            run(accountService, 50);
+            report.append(String.format("%6d %8d %12d%n", slots, THREADS, run(accountService, OPERATIONS_PER_THREAD)));
+        }
+        jdbcTemplate.update("DELETE FROM ACCOUNT_SLOT WHERE ACCOUNT_NUMBER = ?", ACCOUNT_NUMBER);
+        jdbcTemplate.update("DELETE FROM ACCOUNT WHERE ACCOUNT_NUMBER = ?", ACCOUNT_NUMBER);
+        log.warn("Split account benchmark:{}", report);
+    }
+
+    private long run(AccountServiceImpl accountService, int operationsPerThread) throws Exception {
+        AccountOperationDto operation = AccountOperationDto.builder()
+                .accountNumber(ACCOUNT_NUMBER)
+                .currency(978L)
+                .amount(100L)
+                .operationSign(OperationSign.DEBIT)
+                .build();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int j = 0; j < operationsPerThread; j++) {
+                    accountService.applyAccountOperation(operation);
+                }
+                return null;
+            }));
+        }
+        long startedAt = System.nanoTime();
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        long elapsed = System.nanoTime() - startedAt;
+        executor.shutdown();
+        return (long) THREADS * operationsPerThread * 1_000_000_000L / elapsed;
+    }
+
+    private void resetAccount() {
+        jdbcTemplate.update("DELETE FROM ACCOUNT_SLOT WHERE ACCOUNT_NUMBER = ?", ACCOUNT_NUMBER);
+        jdbcTemplate.update("DELETE FROM ACCOUNT WHERE ACCOUNT_NUMBER = ?", ACCOUNT_NUMBER);
+        jdbcTemplate.update("INSERT INTO ACCOUNT (ACCOUNT_NUMBER, CURRENCY, BALANCE, STATUS) VALUES (?, 978, 0, 'OPEN')",
+                ACCOUNT_NUMBER);
+    }
+}
@@ -0,0 +1,235 @@
+package com.bank.bankaccountapi.benchmark;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.ServerSocket;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.jar.JarOutputStream;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Cold start of the packaged application, each setup in a fresh JVM: time from launching {@code java} to the first
+ * successful {@code GET /api/account/status/{accountNumber}}, and resident memory after {@code WARMUP_REQUESTS}
+ * requests. Reports the median of {@code ROUNDS} launches per setup.
+ * Needs the executable jar: {@code ./mvnw -DskipTests package && ./mvnw test -Pbenchmark -Dtest=StartupBenchmark}.
+ */
+@Slf4j
+@Tag("benchmark")
+class StartupBenchmark {
+
+    private static final int ROUNDS = Integer.getInteger("benchmark.rounds", 3);
+    private static final int WARMUP_REQUESTS = Integer.getInteger("benchmark.requests", 1_000);
+    private static final String MAIN_CLASS = "com.bank.bankaccountapi.BankAccountApiApplication";
+    private static final String ACCOUNT_NUMBER = "1000123";
+    private static final Path WORK_DIR = Paths.get("target", "startup-benchmark");
+    private static final long STARTUP_TIMEOUT_NANOS = TimeUnit.MINUTES.toNanos(3);
+    private static final String COMPONENT_INDEX = "META-INF/spring.components";
+
+    @Test
+    void measureTimeToFirstRequestPerSetup() throws Exception {
+        Path jar = executableJar();
+        String exploded = explode(jar);
+        Path archive = WORK_DIR.resolve("app.jsa");
+        List<String> fastStart = List.of("--spring.profiles.active=fast-start");
+
+        Map<String, Launch> setups = new LinkedHashMap<>();
+        setups.put("fat-jar", new Launch(List.of("-jar", jar.toString()), List.of()));
+        setups.put("exploded", new Launch(List.of("-cp", exploded, MAIN_CLASS), List.of()));
+        setups.put("fast-start", new Launch(List.of("-cp", exploded, MAIN_CLASS), fastStart));
+        setups.put("fast-start+cds", new Launch(List.of("-XX:SharedArchiveFile=" + archive,
+                "-cp", exploded, MAIN_CLASS), fastStart));
+        setups.put("fast-start+cds+c1", new Launch(List.of("-XX:SharedArchiveFile=" + archive,
+                "-XX:TieredStopAtLevel=1", "-cp", exploded, MAIN_CLASS), fastStart));
+
+        // training run: the classes loaded up to and while serving requests are dumped when the JVM exits
+        Files.deleteIfExists(archive);
+        new Launch(List.of("-XX:ArchiveClassesAtExit=" + archive, "-cp", exploded, MAIN_CLASS), fastStart).run();
+        log.warn("CDS archive {} is {} MB", archive, Files.size(archive) / (1024 * 1024));
+
+        StringBuilder report = new StringBuilder(String.format("%n%-20s %16s %14s%n",
+                "setup", "first request ms", "RSS MB"));
+        for (Map.Entry<String, Launch> setup : setups.entrySet()) {
+            long[] startup = new long[ROUNDS];
+            long[] rss = new long[ROUNDS];
+            for (int round = 0; round < ROUNDS; round++) {
+                long[] result = setup.getValue().run();
+                startup[round] = result[0];
+                rss[round] = result[1];
+            }
+            report.append(String.format("%-20s %16d %14d%n", setup.getKey(), median(startup), median(rss)));
+        }
+        log.warn("Startup benchmark, {} rounds, {} warm-up requests:{}", ROUNDS, WARMUP_REQUESTS, report);
+    }
+
+    private static Path executableJar() throws IOException {
+        try (Stream<Path> files = Files.list(Paths.get("target"))) {
+            return files.filter(file -> file.getFileName().toString().matches("bank-account-api-.*\\.jar"))
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalStateException("No executable jar in target, run "
+                            + "./mvnw -DskipTests package first"));
+        }
+    }
+
+    /**
+     * Unpacks the dependencies of the executable jar and packs the application classes into a jar of their own:
+     * CDS only archives classes loaded from plain jars on the class path, not from nested jars or directories.
+     */
+    private static String explode(Path jar) throws IOException {
+        Path lib = WORK_DIR.resolve("lib");
+        Files.createDirectories(lib);
+        Path application = WORK_DIR.resolve("application.jar");
+        try (JarFile source = new JarFile(jar.toFile());
+             JarOutputStream classes = new JarOutputStream(Files.newOutputStream(application))) {
+            Enumeration<JarEntry> entries = source.entries();
+            while (entries.hasMoreElements()) {
+                JarEntry entry = entries.nextElement();
+                if (entry.getName().startsWith("BOOT-INF/lib/") && !entry.isDirectory()) {
+                    try (InputStream in = source.getInputStream(entry)) {
+                        Files.copy(in, lib.resolve(entry.getName().substring("BOOT-INF/lib/".length())),
+                                StandardCopyOption.REPLACE_EXISTING);
+                    }
+                } else if (entry.getName().startsWith("BOOT-INF/classes/")
+                        && entry.getName().length() > "BOOT-INF/classes/".length()) {
+                    // directory entries too: component scanning without the index resolves packages through them
+                    classes.putNextEntry(new JarEntry(entry.getName().substring("BOOT-INF/classes/".length())));
+                    try (InputStream in = source.getInputStream(entry)) {
+                        in.transferTo(classes);
+                    }
+                    classes.closeEntry();
+                } else if (entry.getName().equals(COMPONENT_INDEX)) {
+                    // repackaging moves the index out of BOOT-INF/classes
+                    classes.putNextEntry(new JarEntry(COMPONENT_INDEX));
+                    try (InputStream in = source.getInputStream(entry)) {
+                        in.transferTo(classes);
+                    }
+                    classes.closeEntry();
+                }
+            }
+        }
+        try (Stream<Path> jars = Files.list(lib)) {
+            // a fixed order, so the class path of every run matches the one the CDS archive was dumped with
+            return Stream.concat(Stream.of(application), jars.sorted())
+                    .map(Path::toString)
+                    .collect(Collectors.joining(File.pathSeparator));
+        }
+    }
+
+    private static long median(long[] values) {
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+
+    private static final class Launch {
+        private final List<String> jvmArguments;
+        private final List<String> applicationArguments;
+
+        private Launch(List<String> jvmArguments, List<String> applicationArguments) {
+            this.jvmArguments = jvmArguments;
+            this.applicationArguments = applicationArguments;
+        }
+
+        /**
+         * Starts the JVM, waits for the first successful request, warms up and stops it.
+         *
+         * @return milliseconds to the first successful request and resident memory in MB after the warm-up
+         */
+        private long[] run() throws Exception {
+            int port = freePort();
+            List<String> command = new ArrayList<>();
+            command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+            command.addAll(jvmArguments);
+            command.add("--server.port=" + port);
+            command.addAll(applicationArguments);
+            String url = "http://localhost:" + port + "/api/account/status/" + ACCOUNT_NUMBER;
+
+            long startedAt = System.nanoTime();
+            Process process = new ProcessBuilder(command)
+                    .redirectErrorStream(true)
+                    .redirectOutput(WORK_DIR.resolve("application.log").toFile())
+                    .start();
+            try {
+                while (!get(url)) {
+                    if (!process.isAlive()) {
+                        throw new IllegalStateException("Application exited with " + process.exitValue()
+                                + ", see " + WORK_DIR.resolve("application.log"));
+                    }
+                    if (System.nanoTime() - startedAt > STARTUP_TIMEOUT_NANOS) {
+                        throw new IllegalStateException(url + " did not answer 200 in time, see "
+                                + WORK_DIR.resolve("application.log"));
+                    }
+                    Thread.sleep(10);
+                }
+                long firstRequest = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+                for (int i = 0; i < WARMUP_REQUESTS; i++) {
+                    get(url);
+                }
+                return new long[]{firstRequest, residentMegabytes(process.pid())};
+            } finally {
+                process.destroy();
+                if (!process.waitFor(60, TimeUnit.SECONDS)) {
+                    process.destroyForcibly().waitFor();
+                }
+            }
+        }
+
+        private static boolean get(String url) {
+            try {
+                HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+                connection.setConnectTimeout(1_000);
+                connection.setReadTimeout(60_000);
+                int status = connection.getResponseCode();
+                try (InputStream response = status < 400 ? connection.getInputStream() : connection.getErrorStream()) {
+                    if (response != null) {
+                        response.transferTo(OutputStream.nullOutputStream());
+                    }
+                }
+                return status == 200;
+            } catch (IOException ex) {
+                return false;
+            }
+        }
+
+        /**
+         * {@code VmRSS} of the process on Linux, -1 elsewhere.
+         */
+        private static long residentMegabytes(long pid) throws IOException {
+            Path status = Paths.get("/proc", String.valueOf(pid), "status");
+            if (!Files.exists(status)) {
+                return -1;
+            }
+            return Files.readAllLines(status).stream()
+                    .filter(line -> line.startsWith("VmRSS:"))
+                    .map(line -> Long.parseLong(line.replaceAll("\\D", "")) / 1024)
+                    .findFirst()
+                    .orElse(-1L);
+        }
+
+        private static int freePort() throws IOException {
+            try (ServerSocket socket = new ServerSocket(0)) {
+                return socket.getLocalPort();
+            }
+        }
+    }
+}
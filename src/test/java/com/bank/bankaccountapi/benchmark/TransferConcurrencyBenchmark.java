@@ -0,0 +1,181 @@
+package com.bank.bankaccountapi.benchmark;
+
+import com.bank.bankaccountapi.config.AccountCoalescingProperties;
+import com.bank.bankaccountapi.config.AccountConcurrencyProperties;
+import com.bank.bankaccountapi.domain.Account;
+import com.bank.bankaccountapi.domain.AccountStatus;
+import com.bank.bankaccountapi.dto.AccountTransferDto;
+import com.bank.bankaccountapi.expection.AccountApiException;
+import com.bank.bankaccountapi.mapper.AccountMapper;
+import com.bank.bankaccountapi.repo.AccountOperationRepo;
+import com.bank.bankaccountapi.repo.AccountRepo;
+import com.bank.bankaccountapi.service.AccountServiceImpl;
+import com.bank.bankaccountapi.service.cache.AccountCache;
+import com.bank.bankaccountapi.service.coalescing.OperationCoalescer;
+import com.bank.bankaccountapi.service.concurrency.AccountConcurrencyStrategy;
+import com.bank.bankaccountapi.service.concurrency.ConditionalUpdateConcurrencyStrategy;
+import com.bank.bankaccountapi.service.concurrency.OptimisticLockConcurrencyStrategy;
+import com.bank.bankaccountapi.service.concurrency.PessimisticLockConcurrencyStrategy;
+import com.bank.bankaccountapi.service.concurrency.StripedLockConcurrencyStrategy;
+import com.bank.bankaccountapi.service.outbox.AccountEventOutbox;
+import com.bank.bankaccountapi.service.split.SplitAccountService;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Random transfers between a few hot accounts for each concurrency strategy, in both directions between every pair.
+ * Each setting runs {@code ROUNDS} times in a row to show whether throughput holds; a deadlock shows up as a round
+ * that does not finish, lock timeouts as failed transfers, lost updates as a changed sum of balances.
+ * Run with {@code ./mvnw test -Pbenchmark -Dtest=TransferConcurrencyBenchmark}.
+ */
+@Slf4j
+@Tag("benchmark")
+@SpringBootTest(properties = {"spring.jpa.show-sql=false", "logging.level.com.bank.bankaccountapi=WARN",
+        "logging.level.org.hibernate.engine.jdbc.batch.internal.BatchingBatch=OFF"})
+class TransferConcurrencyBenchmark {
+
+    private static final int HOT_ACCOUNTS = 4;
+    private static final long INITIAL_BALANCE = 1_000_000L;
+    private static final int[] THREADS = {1, 4, 16, 32};
+    private static final int ROUNDS = 3;
+    private static final int TRANSFERS_PER_THREAD = 300;
+
+    @Autowired
+    private AccountRepo accountRepo;
+    @Autowired
+    private AccountOperationRepo accountOperationRepo;
+    @Autowired
+    private AccountMapper accountMapper;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private AccountCache accountCache;
+    @Autowired
+    private SplitAccountService splitAccountService;
+    @Autowired
+    private AccountEventOutbox eventOutbox;
+
+    private final List<String> accountNumbers = IntStream.range(0, HOT_ACCOUNTS)
+            .mapToObj(i -> "benchmark-transfer-" + i)
+            .collect(Collectors.toList());
+
+    @Test
+    void measureTransferThroughputPerStrategy() throws Exception {
+        StringBuilder report = new StringBuilder(String.format("%n%-18s %8s %14s %14s %10s %8s%n",
+                "strategy", "threads", "min ops/s", "max ops/s", "rejected", "failed"));
+        for (AccountConcurrencyProperties.Strategy strategy : AccountConcurrencyProperties.Strategy.values()) {
+            AccountServiceImpl accountService = new AccountServiceImpl(accountRepo, accountOperationRepo,
+                    accountMapper, createStrategy(strategy), accountCache, splitAccountService,
+                    new OperationCoalescer(new AccountCoalescingProperties()), eventOutbox);
+            for (int threads : THREADS) {
+                resetAccounts();
+                run(accountService, threads, 30);
+                long min = Long.MAX_VALUE;
+                long max = 0;
+                long rejected = 0;
+                long failed = 0;
+                for (int round = 0; round < ROUNDS; round++) {
+                    long[] result = run(accountService, threads, TRANSFERS_PER_THREAD);
+                    min = Math.min(min, result[0]);
+                    max = Math.max(max, result[0]);
+                    rejected += result[1];
+                    failed += result[2];
+                }
+                long total = accountRepo.findAllById(accountNumbers).stream().mapToLong(Account::getBalance).sum();
+                assertEquals(HOT_ACCOUNTS * INITIAL_BALANCE, total, strategy + " lost money with " + threads + " threads");
+                report.append(String.format("%-18s %8d %14d %14d %10d %8d%n",
+                        strategy, threads, min, max, rejected, failed));
+            }
+        }
+        accountRepo.deleteAll(accountRepo.findAllById(accountNumbers));
+        log.warn("Transfer concurrency benchmark, {} hot accounts:{}", HOT_ACCOUNTS, report);
+    }
+
+    /**
+     * @return transfers per second, business rejections and other failures
+     */
+    private long[] run(AccountServiceImpl accountService, int threads, int transfersPerThread) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicLong rejected = new AtomicLong();
+        AtomicLong failed = new AtomicLong();
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                for (int j = 0; j < transfersPerThread; j++) {
+                    int from = random.nextInt(HOT_ACCOUNTS);
+                    int to = (from + 1 + random.nextInt(HOT_ACCOUNTS - 1)) % HOT_ACCOUNTS;
+                    try {
+                        accountService.transfer(AccountTransferDto.builder()
+                                .fromAccountNumber(accountNumbers.get(from))
+                                .toAccountNumber(accountNumbers.get(to))
+                                .currency(978L)
+                                .amount(1L + random.nextInt(100))
+                                .build());
+                    } catch (AccountApiException ex) {
+                        rejected.incrementAndGet();
+                    } catch (RuntimeException ex) {
+                        failed.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+        long startedAt = System.nanoTime();
+        start.countDown();
+        for (Future<?> future : futures) {
+            // a deadlock would hold every thread far longer than this
+            future.get(5, TimeUnit.MINUTES);
+        }
+        long elapsed = System.nanoTime() - startedAt;
+        executor.shutdown();
+        long transfers = (long) threads * transfersPerThread;
+        return new long[]{transfers * 1_000_000_000L / elapsed, rejected.get(), failed.get()};
+    }
+
+    private void resetAccounts() {
+        accountRepo.deleteAll(accountRepo.findAllById(accountNumbers));
+        for (String accountNumber : accountNumbers) {
+            accountRepo.save(Account.builder()
+                    .accountNumber(accountNumber)
+                    .currency(978L)
+                    .balance(INITIAL_BALANCE)
+                    .status(AccountStatus.OPEN)
+                    .build());
+        }
+    }
+
+    private AccountConcurrencyStrategy createStrategy(AccountConcurrencyProperties.Strategy strategy) {
+        AccountConcurrencyProperties properties = new AccountConcurrencyProperties();
+        switch (strategy) {
+            case OPTIMISTIC:
+                return new OptimisticLockConcurrencyStrategy(accountRepo, transactionTemplate, properties);
+            case PESSIMISTIC:
+                return new PessimisticLockConcurrencyStrategy(accountRepo, transactionTemplate);
+            case CONDITIONAL_UPDATE:
+                return new ConditionalUpdateConcurrencyStrategy(accountRepo, transactionTemplate);
+            default:
+                return new StripedLockConcurrencyStrategy(accountRepo, transactionTemplate, properties);
+        }
+    }
+}
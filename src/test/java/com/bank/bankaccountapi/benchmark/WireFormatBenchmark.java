@@ -0,0 +1,99 @@
+package com.bank.bankaccountapi.benchmark;
+
+import com.bank.bankaccountapi.domain.AccountStatus;
+import com.bank.bankaccountapi.dto.AccountDto;
+import com.bank.bankaccountapi.dto.AccountOperationDto;
+import com.bank.bankaccountapi.dto.OperationSign;
+import com.bank.bankaccountapi.wire.AccountOperationValidator;
+import com.bank.bankaccountapi.wire.AccountProtobufCodec;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.protobuf.CodedInputStream;
+import lombok.extern.slf4j.Slf4j;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import javax.validation.Validation;
+import javax.validation.Validator;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request body cost of {@code POST /api/account/operation}: Jackson plus bean validation versus
+ * {@link AccountProtobufCodec} plus {@link AccountOperationValidator}. Body sizes are logged at setup.
+ */
+@Slf4j
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WireFormatBenchmark {
+
+    private ObjectMapper objectMapper;
+    private Validator validator;
+    private AccountDto accountDto;
+    private byte[] operationJson;
+    private byte[] operationProtobuf;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        validator = Validation.buildDefaultValidatorFactory().getValidator();
+        accountDto = AccountDto.builder()
+                .accountNumber("1000123")
+                .currency(978L)
+                .balance(34500L)
+                .status(AccountStatus.OPEN)
+                .build();
+        AccountOperationDto operation = AccountOperationDto.builder()
+                .accountNumber("1000123")
+                .currency(978L)
+                .amount(1000L)
+                .operationSign(OperationSign.DEBIT)
+                .idempotencyKey("3f0c2a8e-payment-gateway-0001")
+                .build();
+        operationJson = objectMapper.writeValueAsBytes(operation);
+        operationProtobuf = AccountProtobufCodec.encode(operation);
+        log.warn("Wire format body sizes. requestJson = {}; requestProtobuf = {}; responseJson = {}; "
+                        + "responseProtobuf = {}", operationJson.length, operationProtobuf.length,
+                objectMapper.writeValueAsBytes(accountDto).length, AccountProtobufCodec.encode(accountDto).length);
+    }
+
+    @Benchmark
+    public AccountOperationDto readOperationJson() throws IOException {
+        AccountOperationDto operation = objectMapper.readValue(operationJson, AccountOperationDto.class);
+        if (!validator.validate(operation).isEmpty()) {
+            throw new IllegalStateException("Benchmark operation is not valid");
+        }
+        return operation;
+    }
+
+    @Benchmark
+    public AccountOperationDto readOperationProtobuf() throws IOException {
+        AccountOperationDto operation = AccountProtobufCodec.decodeOperation(
+                CodedInputStream.newInstance(operationProtobuf));
+        AccountOperationValidator.validate(operation);
+        return operation;
+    }
+
+    @Benchmark
+    public byte[] writeAccountJson() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(accountDto);
+    }
+
+    @Benchmark
+    public byte[] writeAccountProtobuf() {
+        return AccountProtobufCodec.encode(accountDto);
+    }
+}
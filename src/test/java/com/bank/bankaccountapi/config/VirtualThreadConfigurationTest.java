@@ -0,0 +1,46 @@
+package com.bank.bankaccountapi.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeFalse;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+@Slf4j
+class VirtualThreadConfigurationTest {
+
+    private static final boolean VIRTUAL_THREADS_AVAILABLE = Runtime.version().feature() >= 21;
+
+    @Test
+    void shouldRunTasksOnVirtualThreads() throws Exception {
+        assumeTrue(VIRTUAL_THREADS_AVAILABLE);
+
+        //given
+        ExecutorService executor = VirtualThreadConfiguration.newVirtualThreadPerTaskExecutor("test-virtual-");
+
+        //when
+        String actual = executor.submit(() -> Thread.currentThread().toString()).get();
+        log.info("actual = {}", actual);
+        executor.shutdown();
+
+        //then
+        assertTrue(actual.contains("test-virtual-0"));
+    }
+
+    @Test
+    void shouldFailFastOnRuntimeWithoutVirtualThreads() {
+        assumeFalse(VIRTUAL_THREADS_AVAILABLE);
+
+        //when
+        IllegalStateException thrown = assertThrows(IllegalStateException.class,
+                () -> VirtualThreadConfiguration.newVirtualThreadPerTaskExecutor("test-virtual-"));
+        log.error("Handled test-error", thrown);
+
+        //then
+        assertTrue(thrown.getMessage().contains("needs a Java 21 or newer runtime"));
+    }
+}
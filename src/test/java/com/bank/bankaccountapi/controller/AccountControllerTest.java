@@ -1,34 +1,55 @@
 package com.bank.bankaccountapi.controller;
 
+import com.bank.bankaccountapi.config.AccountBulkProperties;
+import com.bank.bankaccountapi.dto.AccountBalanceResultDto;
 import com.bank.bankaccountapi.dto.AccountDto;
 import com.bank.bankaccountapi.dto.AccountOperationDto;
+import com.bank.bankaccountapi.dto.AccountOperationResultDto;
+import com.bank.bankaccountapi.expection.AccountApiException.Reason;
+import com.bank.bankaccountapi.expection.RateLimitExceededException;
+import com.bank.bankaccountapi.service.AccountOperationOutcome;
 import com.bank.bankaccountapi.service.AccountService;
+import com.bank.bankaccountapi.service.metrics.AccountMetrics;
+import com.bank.bankaccountapi.service.ratelimit.AccountRateLimiter;
+import com.bank.bankaccountapi.wire.AccountProtobufCodec;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.protobuf.CodedInputStream;
 import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
 
+import java.util.List;
+
 import static com.bank.bankaccountapi.domain.AccountStatus.OPEN;
 import static com.bank.bankaccountapi.dto.OperationSign.CREDIT;
 import static org.hamcrest.Matchers.containsString;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @Slf4j
-@WebMvcTest(AccountController.class)
+@WebMvcTest(controllers = AccountController.class, properties = "account.bulk.chunk-size=2")
+@EnableConfigurationProperties(AccountBulkProperties.class)
 class AccountControllerTest {
 
     @Autowired
@@ -40,6 +61,12 @@ class AccountControllerTest {
     @MockBean
     private AccountService accountService;
 
+    @MockBean
+    private AccountMetrics accountMetrics;
+
+    @MockBean
+    private AccountRateLimiter rateLimiter;
+
     @Test
     @SneakyThrows
     void shouldReturnAccountStatus() {
@@ -62,7 +89,7 @@ class AccountControllerTest {
         AccountDto accountDto = AccountDto.builder()
                 .accountNumber("test-1")
                 .currency(1L)
-                .balance(10.0)
+                .balance(1000L)
                 .status(OPEN)
                 .build();
         when(accountService.getAccountBalanceInquiryByAccountNumber("test-1"))
@@ -88,17 +115,17 @@ class AccountControllerTest {
         AccountDto accountDto = AccountDto.builder()
                 .accountNumber("test-1")
                 .currency(1L)
-                .balance(20.0)
+                .balance(2000L)
                 .status(OPEN)
                 .build();
         AccountOperationDto operation = AccountOperationDto.builder()
                 .accountNumber("test-1")
                 .currency(1L)
-                .amount(10.0)
+                .amount(1000L)
                 .operationSign(CREDIT)
                 .build();
-        when(accountService.applyAccountOperation(operation))
-                .thenReturn(accountDto);
+        when(accountService.tryApplyAccountOperation(operation))
+                .thenReturn(AccountOperationOutcome.applied(accountDto));
 
         //when
         MvcResult mvcResult = mockMvc.perform(post("/api/account/operation")
@@ -114,6 +141,61 @@ class AccountControllerTest {
         assertEquals(accountDto, actual);
     }
 
+    @Test
+    @SneakyThrows
+    void shouldAnswerRejectedAccountOperationFromTemplate() {
+        //given
+        AccountOperationDto operation = AccountOperationDto.builder()
+                .accountNumber("test-1")
+                .currency(1L)
+                .amount(1000L)
+                .operationSign(CREDIT)
+                .build();
+        when(accountService.tryApplyAccountOperation(operation))
+                .thenReturn(AccountOperationOutcome.rejected(Reason.INSUFFICIENT_BALANCE));
+
+        //when
+        //then
+        mockMvc.perform(post("/api/account/operation")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(operation)))
+                .andDo(print())
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.status").value("400 BAD_REQUEST"))
+                .andExpect(jsonPath("$.message")
+                        .value("Account does not have enough balance to process operation. AccountNumber = test-1"))
+                .andExpect(jsonPath("$.requestInfo").value("uri=/api/account/operation"));
+        verify(accountMetrics).operationRejected(eq("test-1"), anyLong(), eq(Reason.INSUFFICIENT_BALANCE));
+    }
+
+    @Test
+    @SneakyThrows
+    void shouldShedAccountOperationOverRateLimitWithRetryAfter() {
+        //given
+        AccountOperationDto operation = AccountOperationDto.builder()
+                .accountNumber("test-1")
+                .currency(1L)
+                .amount(1000L)
+                .operationSign(CREDIT)
+                .build();
+        doThrow(new RateLimitExceededException("Too many operations on the account", 1_500_000_000L))
+                .when(rateLimiter).admit("test-1", "client-1");
+
+        //when
+        //then
+        mockMvc.perform(post("/api/account/operation")
+                        .header(AccountRateLimiter.CLIENT_ID_HEADER, "client-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(operation)))
+                .andDo(print())
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "2"))
+                .andExpect(jsonPath("$.status").value("429 TOO_MANY_REQUESTS"))
+                .andExpect(jsonPath("$.message").value("Too many operations on the account"));
+        verify(accountService, never()).tryApplyAccountOperation(any());
+        verify(accountMetrics, never()).operationStarted(any());
+    }
+
     @Test
     @SneakyThrows
     void shouldValidateApplyAccountOperationRequestBody() {
@@ -121,12 +203,12 @@ class AccountControllerTest {
         AccountDto accountDto = AccountDto.builder()
                 .accountNumber("test-1")
                 .currency(1L)
-                .balance(20.0)
+                .balance(2000L)
                 .status(OPEN)
                 .build();
 
-        when(accountService.applyAccountOperation(any()))
-                .thenReturn(accountDto);
+        when(accountService.tryApplyAccountOperation(any()))
+                .thenReturn(AccountOperationOutcome.applied(accountDto));
 
         //when
         //then
@@ -141,7 +223,7 @@ class AccountControllerTest {
         AccountOperationDto operation = AccountOperationDto.builder()
                 .accountNumber(null)
                 .currency(1L)
-                .amount(10.0)
+                .amount(1000L)
                 .operationSign(CREDIT)
                 .build();
         mockMvc.perform(post("/api/account/operation")
@@ -177,7 +259,7 @@ class AccountControllerTest {
 
         //negative amount
         operation = operation.toBuilder()
-                .amount(-1.0)
+                .amount(-100L)
                 .build();
         mockMvc.perform(post("/api/account/operation")
                         .contentType(MediaType.APPLICATION_JSON)
@@ -188,7 +270,7 @@ class AccountControllerTest {
 
         //empty operationSign
         operation = operation.toBuilder()
-                .amount(1.0)
+                .amount(100L)
                 .operationSign(null)
                 .build();
         mockMvc.perform(post("/api/account/operation")
@@ -198,4 +280,257 @@ class AccountControllerTest {
                 .andExpect(status().isBadRequest())
                 .andExpect(jsonPath("$.message").value(containsString("operationSign must be not null")));
     }
-}
\ No newline at end of file
+
+    @Test
+    @SneakyThrows
+    void shouldApplyAccountOperationInProtobuf() {
+        //given
+        AccountDto accountDto = AccountDto.builder()
+                .accountNumber("test-1")
+                .currency(978L)
+                .balance(1012L)
+                .status(OPEN)
+                .build();
+        AccountOperationDto operation = AccountOperationDto.builder()
+                .accountNumber("test-1")
+                .currency(978L)
+                .amount(1L)
+                .operationSign(CREDIT)
+                .build();
+        when(accountService.tryApplyAccountOperation(operation))
+                .thenReturn(AccountOperationOutcome.applied(accountDto));
+
+        //when
+        MvcResult mvcResult = mockMvc.perform(post("/api/account/operation")
+                        .contentType(AccountProtobufCodec.MEDIA_TYPE)
+                        .accept(AccountProtobufCodec.MEDIA_TYPE)
+                        .content(AccountProtobufCodec.encode(operation)))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(AccountProtobufCodec.MEDIA_TYPE))
+                .andReturn();
+        AccountDto actual = AccountProtobufCodec.decodeAccount(
+                CodedInputStream.newInstance(mvcResult.getResponse().getContentAsByteArray()));
+        log.info("actual = {}", actual);
+
+        //then
+        assertEquals(accountDto, actual);
+    }
+
+    @Test
+    @SneakyThrows
+    void shouldValidateProtobufOperationWithSameMessagesAsJson() {
+        //given
+        AccountOperationDto valid = AccountOperationDto.builder()
+                .accountNumber("test-1")
+                .currency(978L)
+                .amount(1000L)
+                .operationSign(CREDIT)
+                .build();
+        List<AccountOperationDto> invalid = List.of(
+                valid.toBuilder().accountNumber(null).build(),
+                valid.toBuilder().currency(null).build(),
+                valid.toBuilder().amount(null).build(),
+                valid.toBuilder().amount(-100L).build(),
+                valid.toBuilder().operationSign(null).build());
+
+        //when
+        //then
+        for (AccountOperationDto operation : invalid) {
+            String jsonMessage = objectMapper.readTree(mockMvc.perform(post("/api/account/operation")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(operation)))
+                    .andExpect(status().isBadRequest())
+                    .andReturn().getResponse().getContentAsString()).get("message").asText();
+            mockMvc.perform(post("/api/account/operation")
+                            .contentType(AccountProtobufCodec.MEDIA_TYPE)
+                            .accept(MediaType.APPLICATION_JSON)
+                            .content(AccountProtobufCodec.encode(operation)))
+                    .andDo(print())
+                    .andExpect(status().isBadRequest())
+                    .andExpect(jsonPath("$.message").value(jsonMessage));
+        }
+
+        //errors in protobuf for protobuf clients
+        mockMvc.perform(post("/api/account/operation")
+                        .contentType(AccountProtobufCodec.MEDIA_TYPE)
+                        .accept(AccountProtobufCodec.MEDIA_TYPE)
+                        .content(AccountProtobufCodec.encode(invalid.get(3))))
+                .andDo(print())
+                .andExpect(status().isBadRequest())
+                .andExpect(content().contentType(AccountProtobufCodec.MEDIA_TYPE))
+                .andExpect(content().string(containsString("amount must be positive number")));
+
+        //malformed body
+        mockMvc.perform(post("/api/account/operation")
+                        .contentType(AccountProtobufCodec.MEDIA_TYPE)
+                        .content(new byte[]{10, 50, 1}))
+                .andDo(print())
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value(containsString("Malformed protobuf body")));
+        verify(accountService, times(0)).tryApplyAccountOperation(any());
+    }
+
+    @Test
+    @SneakyThrows
+    void shouldExchangeAmountsInMajorUnitsOfCurrency() {
+        //given
+        AccountDto accountDto = AccountDto.builder()
+                .accountNumber("test-1")
+                .currency(978L)
+                .balance(1012L)
+                .status(OPEN)
+                .build();
+        AccountOperationDto operation = AccountOperationDto.builder()
+                .accountNumber("test-1")
+                .currency(978L)
+                .amount(1L)
+                .operationSign(CREDIT)
+                .build();
+        when(accountService.tryApplyAccountOperation(operation))
+                .thenReturn(AccountOperationOutcome.applied(accountDto));
+
+        //when
+        //then
+        mockMvc.perform(post("/api/account/operation")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"accountNumber\":\"test-1\",\"currency\":978,\"amount\":0.01,"
+                                + "\"operationSign\":\"CREDIT\"}"))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("\"balance\":10.12")));
+
+        //more decimal places than the currency has
+        mockMvc.perform(post("/api/account/operation")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"accountNumber\":\"test-1\",\"currency\":978,\"amount\":0.001,"
+                                + "\"operationSign\":\"CREDIT\"}"))
+                .andDo(print())
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value(containsString("has more decimal places than currency")));
+    }
+
+    @Test
+    @SneakyThrows
+    void shouldApplyAccountOperationsBatch() {
+        //given
+        AccountOperationDto operation = AccountOperationDto.builder()
+                .accountNumber("test-1")
+                .currency(1L)
+                .amount(1000L)
+                .operationSign(CREDIT)
+                .build();
+        List<AccountOperationResultDto> results = List.of(
+                AccountOperationResultDto.builder()
+                        .accountNumber("test-1")
+                        .applied(true)
+                        .account(AccountDto.builder()
+                                .accountNumber("test-1")
+                                .currency(1L)
+                                .balance(1000L)
+                                .status(OPEN)
+                                .build())
+                        .build(),
+                AccountOperationResultDto.builder()
+                        .accountNumber("test-1")
+                        .applied(false)
+                        .error("Account does not have enough balance to process operation")
+                        .build());
+        when(accountService.applyAccountOperations(List.of(operation, operation)))
+                .thenReturn(results);
+
+        //when
+        //then
+        mockMvc.perform(post("/api/account/operations/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(operation, operation))))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].applied").value(true))
+                .andExpect(jsonPath("$[0].account.balance").value(10.0))
+                .andExpect(jsonPath("$[1].applied").value(false))
+                .andExpect(jsonPath("$[1].error").value(containsString("enough balance")));
+    }
+
+    @Test
+    @SneakyThrows
+    void shouldValidateApplyAccountOperationsBatchRequestBody() {
+        //given
+        AccountOperationDto operation = AccountOperationDto.builder()
+                .accountNumber("test-1")
+                .currency(1L)
+                .amount(-100L)
+                .operationSign(CREDIT)
+                .build();
+
+        //when
+        //then
+
+        //empty list
+        mockMvc.perform(post("/api/account/operations/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[]"))
+                .andDo(print())
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value(containsString("operations must be not empty")));
+
+        //negative amount
+        mockMvc.perform(post("/api/account/operations/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(operation))))
+                .andDo(print())
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value(containsString("amount must be positive")));
+    }
+
+    @Test
+    @SneakyThrows
+    void shouldStreamBulkAccountBalancesChunkByChunk() {
+        //given
+        AccountDto account = AccountDto.builder()
+                .accountNumber("test-1")
+                .currency(978L)
+                .balance(1000L)
+                .status(OPEN)
+                .build();
+        when(accountService.getAccountBalances(List.of("test-1", "wrong")))
+                .thenReturn(List.of(
+                        AccountBalanceResultDto.builder().accountNumber("test-1").found(true).account(account).build(),
+                        AccountBalanceResultDto.builder().accountNumber("wrong").found(false)
+                                .error("Account does not exists. AccountNumber = wrong").build()));
+        when(accountService.getAccountBalances(List.of("test-1")))
+                .thenReturn(List.of(
+                        AccountBalanceResultDto.builder().accountNumber("test-1").found(true).account(account).build()));
+
+        //when
+        //then
+        mockMvc.perform(post("/api/account/balance/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of("test-1", "wrong", "test-1"))))
+                .andDo(print())
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.length()").value(3))
+                .andExpect(jsonPath("$[0].found").value(true))
+                .andExpect(jsonPath("$[0].account.balance").value(10.0))
+                .andExpect(jsonPath("$[1].found").value(false))
+                .andExpect(jsonPath("$[1].error").value(containsString("Account does not exists")))
+                .andExpect(jsonPath("$[2].accountNumber").value("test-1"));
+        verify(accountService, times(1)).getAccountBalances(List.of("test-1", "wrong"));
+        verify(accountService, times(1)).getAccountBalances(List.of("test-1"));
+    }
+
+    @Test
+    @SneakyThrows
+    void shouldValidateBulkAccountBalancesRequestBody() {
+        //when
+        //then
+        mockMvc.perform(post("/api/account/balance/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[]"))
+                .andDo(print())
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value(containsString("accountNumbers must be not empty")));
+    }
+}
@@ -0,0 +1,218 @@
+package com.bank.bankaccountapi.grpc;
+
+import com.bank.bankaccountapi.domain.AccountStatus;
+import com.bank.bankaccountapi.dto.AccountDto;
+import com.bank.bankaccountapi.dto.AccountOperationDto;
+import com.bank.bankaccountapi.dto.AccountOperationResultDto;
+import com.bank.bankaccountapi.dto.OperationSign;
+import com.bank.bankaccountapi.expection.AccountApiException;
+import com.bank.bankaccountapi.expection.AccountApiException.Reason;
+import com.bank.bankaccountapi.service.AccountOperationOutcome;
+import com.bank.bankaccountapi.service.AccountService;
+import com.bank.bankaccountapi.service.metrics.AccountMetrics;
+import io.grpc.CallOptions;
+import io.grpc.ManagedChannel;
+import io.grpc.Server;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.inprocess.InProcessServerBuilder;
+import io.grpc.stub.ClientCalls;
+import io.grpc.stub.StreamObserver;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@Slf4j
+@ExtendWith(MockitoExtension.class)
+class AccountGrpcServiceTest {
+
+    private static final AccountDto ACCOUNT = AccountDto.builder()
+            .accountNumber("test-1")
+            .currency(978L)
+            .balance(2000L)
+            .status(AccountStatus.OPEN)
+            .build();
+    private static final AccountOperationDto DEBIT = AccountOperationDto.builder()
+            .accountNumber("test-1")
+            .currency(978L)
+            .amount(1000L)
+            .operationSign(OperationSign.DEBIT)
+            .build();
+
+    @Mock
+    private AccountService accountService;
+    @Mock
+    private AccountMetrics metrics;
+
+    private Server server;
+    private ManagedChannel channel;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        String name = InProcessServerBuilder.generateName();
+        server = InProcessServerBuilder.forName(name)
+                .directExecutor()
+                .addService(new AccountGrpcService(accountService, metrics))
+                .build()
+                .start();
+        channel = InProcessChannelBuilder.forName(name).directExecutor().build();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        channel.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+        server.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void shouldReturnAccountStatusAndBalance() {
+        //given
+        when(accountService.getAccountStatusByAccountNumber("test-1"))
+                .thenReturn("OPEN");
+        when(accountService.getAccountBalanceInquiryByAccountNumber("test-1"))
+                .thenReturn(ACCOUNT);
+
+        //when
+        AccountStatus status = ClientCalls.blockingUnaryCall(channel, AccountGrpcMethods.GET_ACCOUNT_STATUS,
+                CallOptions.DEFAULT, "test-1");
+        AccountDto balance = ClientCalls.blockingUnaryCall(channel, AccountGrpcMethods.GET_ACCOUNT_BALANCE,
+                CallOptions.DEFAULT, "test-1");
+        log.info("status = {}; balance = {}", status, balance);
+
+        //then
+        assertEquals(AccountStatus.OPEN, status);
+        assertEquals(ACCOUNT, balance);
+    }
+
+    @Test
+    void shouldMapRejectionToStatusCodeWithSameMessageAndReasonTrailer() {
+        //given
+        when(accountService.getAccountBalanceInquiryByAccountNumber("wrong"))
+                .thenThrow(new AccountApiException(Reason.ACCOUNT_NOT_FOUND,
+                        "Account does not exists.AccountNumber = wrong"));
+        when(accountService.tryApplyAccountOperation(DEBIT))
+                .thenReturn(AccountOperationOutcome.rejected(Reason.INSUFFICIENT_BALANCE));
+
+        //when
+        StatusRuntimeException notFound = assertThrows(StatusRuntimeException.class,
+                () -> ClientCalls.blockingUnaryCall(channel, AccountGrpcMethods.GET_ACCOUNT_BALANCE,
+                        CallOptions.DEFAULT, "wrong"));
+        StatusRuntimeException insufficientBalance = assertThrows(StatusRuntimeException.class,
+                () -> ClientCalls.blockingUnaryCall(channel, AccountGrpcMethods.APPLY_OPERATION,
+                        CallOptions.DEFAULT, DEBIT));
+        log.error("Handled test-error", notFound);
+        log.error("Handled test-error", insufficientBalance);
+
+        //then
+        assertEquals(Status.Code.NOT_FOUND, notFound.getStatus().getCode());
+        assertEquals("Account does not exists.AccountNumber = wrong", notFound.getStatus().getDescription());
+        assertEquals("ACCOUNT_NOT_FOUND", notFound.getTrailers().get(GrpcStatuses.REASON));
+        assertEquals(Status.Code.FAILED_PRECONDITION, insufficientBalance.getStatus().getCode());
+        assertEquals("Account does not have enough balance to process operation. AccountNumber = test-1",
+                insufficientBalance.getStatus().getDescription());
+        assertEquals("INSUFFICIENT_BALANCE", insufficientBalance.getTrailers().get(GrpcStatuses.REASON));
+        verify(metrics).operationRejected(eq("test-1"), anyLong(), eq(Reason.INSUFFICIENT_BALANCE));
+    }
+
+    @Test
+    void shouldBuildRejectionStatusesWithoutStackTrace() {
+        //when
+        StatusRuntimeException rejected = GrpcStatuses.rejected(Reason.INSUFFICIENT_BALANCE, "test-1");
+        StatusRuntimeException notOpen = GrpcStatuses.toStatusException(
+                new AccountApiException(Reason.ACCOUNT_NOT_OPEN, Reason.ACCOUNT_NOT_OPEN.messageFor("test-1")));
+        log.info("actual = {}; {}", rejected.getStatus(), notOpen.getStatus());
+
+        //then
+        assertEquals(0, rejected.getStackTrace().length);
+        assertEquals(0, notOpen.getStackTrace().length);
+        assertEquals(Status.Code.FAILED_PRECONDITION, notOpen.getStatus().getCode());
+        assertEquals("ACCOUNT_NOT_OPEN", notOpen.getTrailers().get(GrpcStatuses.REASON));
+    }
+
+    @Test
+    void shouldRejectInvalidOperationWithValidationMessage() {
+        //when
+        StatusRuntimeException thrown = assertThrows(StatusRuntimeException.class,
+                () -> ClientCalls.blockingUnaryCall(channel, AccountGrpcMethods.APPLY_OPERATION,
+                        CallOptions.DEFAULT, DEBIT.toBuilder().amount(-100L).build()));
+        log.error("Handled test-error", thrown);
+
+        //then
+        assertEquals(Status.Code.INVALID_ARGUMENT, thrown.getStatus().getCode());
+        assertEquals("amount must be positive number", thrown.getStatus().getDescription());
+        assertNull(thrown.getTrailers().get(GrpcStatuses.REASON));
+        verify(accountService, times(0)).tryApplyAccountOperation(any());
+    }
+
+    @Test
+    void shouldAnswerEveryStreamedOperationInOrder() throws Exception {
+        //given
+        AccountOperationDto rejected = DEBIT.toBuilder().accountNumber("wrong").build();
+        when(accountService.tryApplyAccountOperation(DEBIT))
+                .thenReturn(AccountOperationOutcome.applied(ACCOUNT));
+        when(accountService.tryApplyAccountOperation(rejected))
+                .thenReturn(AccountOperationOutcome.rejected(Reason.ACCOUNT_NOT_FOUND));
+        List<AccountOperationResultDto> results = new CopyOnWriteArrayList<>();
+        CompletableFuture<Void> completed = new CompletableFuture<>();
+
+        //when
+        StreamObserver<AccountOperationDto> requests = ClientCalls.asyncBidiStreamingCall(
+                channel.newCall(AccountGrpcMethods.APPLY_OPERATIONS, CallOptions.DEFAULT),
+                new StreamObserver<>() {
+                    @Override
+                    public void onNext(AccountOperationResultDto result) {
+                        results.add(result);
+                    }
+
+                    @Override
+                    public void onError(Throwable t) {
+                        completed.completeExceptionally(t);
+                    }
+
+                    @Override
+                    public void onCompleted() {
+                        completed.complete(null);
+                    }
+                });
+        requests.onNext(DEBIT);
+        requests.onNext(rejected);
+        requests.onNext(DEBIT.toBuilder().operationSign(null).build());
+        requests.onNext(DEBIT);
+        requests.onCompleted();
+        completed.get(5, TimeUnit.SECONDS);
+        log.info("results = {}", results);
+
+        //then
+        assertEquals(4, results.size());
+        assertTrue(results.get(0).isApplied());
+        assertEquals(ACCOUNT, results.get(0).getAccount());
+        assertFalse(results.get(1).isApplied());
+        assertEquals("Account does not exists. AccountNumber = wrong", results.get(1).getError());
+        assertFalse(results.get(2).isApplied());
+        assertEquals("operationSign must be not null", results.get(2).getError());
+        assertTrue(results.get(3).isApplied());
+        verify(accountService, times(3)).tryApplyAccountOperation(any());
+    }
+}
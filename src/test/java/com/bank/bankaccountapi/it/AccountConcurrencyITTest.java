@@ -0,0 +1,205 @@
+package com.bank.bankaccountapi.it;
+
+import com.bank.bankaccountapi.config.AccountCoalescingProperties;
+import com.bank.bankaccountapi.config.AccountConcurrencyProperties;
+import com.bank.bankaccountapi.domain.Account;
+import com.bank.bankaccountapi.domain.AccountStatus;
+import com.bank.bankaccountapi.dto.AccountOperationDto;
+import com.bank.bankaccountapi.dto.AccountTransferDto;
+import com.bank.bankaccountapi.dto.OperationSign;
+import com.bank.bankaccountapi.expection.AccountApiException;
+import com.bank.bankaccountapi.mapper.AccountMapper;
+import com.bank.bankaccountapi.repo.AccountOperationRepo;
+import com.bank.bankaccountapi.repo.AccountRepo;
+import com.bank.bankaccountapi.service.AccountServiceImpl;
+import com.bank.bankaccountapi.service.cache.AccountCache;
+import com.bank.bankaccountapi.service.coalescing.OperationCoalescer;
+import com.bank.bankaccountapi.service.concurrency.AccountConcurrencyStrategy;
+import com.bank.bankaccountapi.service.concurrency.ConditionalUpdateConcurrencyStrategy;
+import com.bank.bankaccountapi.service.concurrency.OptimisticLockConcurrencyStrategy;
+import com.bank.bankaccountapi.service.concurrency.PessimisticLockConcurrencyStrategy;
+import com.bank.bankaccountapi.service.concurrency.StripedLockConcurrencyStrategy;
+import com.bank.bankaccountapi.service.outbox.AccountEventOutbox;
+import com.bank.bankaccountapi.service.split.SplitAccountService;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@Slf4j
+@SpringBootTest
+class AccountConcurrencyITTest {
+
+    private static final String ACCOUNT_NUMBER = "concurrency-1";
+    private static final String ACCOUNT_NUMBER_2 = "concurrency-2";
+    private static final int THREADS = 8;
+    private static final int OPERATIONS_PER_THREAD = 25;
+
+    @Autowired
+    private AccountRepo accountRepo;
+    @Autowired
+    private AccountOperationRepo accountOperationRepo;
+    @Autowired
+    private AccountMapper accountMapper;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private AccountCache accountCache;
+    @Autowired
+    private SplitAccountService splitAccountService;
+    @Autowired
+    private AccountEventOutbox eventOutbox;
+
+    @BeforeEach
+    void setUp() {
+        for (String accountNumber : List.of(ACCOUNT_NUMBER, ACCOUNT_NUMBER_2)) {
+            accountRepo.save(Account.builder()
+                    .accountNumber(accountNumber)
+                    .currency(978L)
+                    .balance(0L)
+                    .status(AccountStatus.OPEN)
+                    .build());
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        accountRepo.deleteById(ACCOUNT_NUMBER);
+        accountRepo.deleteById(ACCOUNT_NUMBER_2);
+    }
+
+    @ParameterizedTest
+    @EnumSource(AccountConcurrencyProperties.Strategy.class)
+    void shouldNotLoseUpdatesUnderConcurrentOperations(AccountConcurrencyProperties.Strategy strategy) throws Exception {
+        //given
+        AccountServiceImpl accountService = createService(strategy, false);
+
+        //when
+        applyConcurrently(accountService);
+        Account actual = accountRepo.findById(ACCOUNT_NUMBER).orElseThrow();
+        log.info("strategy = {}; actual = {}", strategy, actual);
+
+        //then
+        assertEquals(THREADS * OPERATIONS_PER_THREAD * 100L, actual.getBalance());
+    }
+
+    @ParameterizedTest
+    @EnumSource(AccountConcurrencyProperties.Strategy.class)
+    void shouldApplyAndJournalEveryCoalescedOperation(AccountConcurrencyProperties.Strategy strategy) throws Exception {
+        //given
+        AccountServiceImpl accountService = createService(strategy, true);
+        long journaledBefore = accountOperationRepo.count();
+
+        //when
+        applyConcurrently(accountService);
+        Account actual = accountRepo.findById(ACCOUNT_NUMBER).orElseThrow();
+        log.info("strategy = {}; actual = {}", strategy, actual);
+
+        //then
+        assertEquals(THREADS * OPERATIONS_PER_THREAD * 100L, actual.getBalance());
+        assertEquals(THREADS * OPERATIONS_PER_THREAD, accountOperationRepo.count() - journaledBefore);
+    }
+
+    @ParameterizedTest
+    @EnumSource(AccountConcurrencyProperties.Strategy.class)
+    void shouldNotDeadlockOrLoseMoneyUnderOppositeTransfers(AccountConcurrencyProperties.Strategy strategy)
+            throws Exception {
+        //given
+        AccountServiceImpl accountService = createService(strategy, false);
+        AccountTransferDto forth = AccountTransferDto.builder()
+                .fromAccountNumber(ACCOUNT_NUMBER)
+                .toAccountNumber(ACCOUNT_NUMBER_2)
+                .currency(978L)
+                .amount(100L)
+                .build();
+        AccountTransferDto back = forth.toBuilder()
+                .fromAccountNumber(ACCOUNT_NUMBER_2)
+                .toAccountNumber(ACCOUNT_NUMBER)
+                .build();
+        applyConcurrently(accountService);
+        long total = THREADS * OPERATIONS_PER_THREAD * 100L;
+
+        //when
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            AccountTransferDto transfer = i % 2 == 0 ? forth : back;
+            futures.add(executor.submit(() -> {
+                for (int j = 0; j < OPERATIONS_PER_THREAD; j++) {
+                    try {
+                        accountService.transfer(transfer);
+                    } catch (AccountApiException ex) {
+                        // the source ran dry for a moment, the transfer is rejected as a whole
+                    }
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+        Account actual1 = accountRepo.findById(ACCOUNT_NUMBER).orElseThrow();
+        Account actual2 = accountRepo.findById(ACCOUNT_NUMBER_2).orElseThrow();
+        log.info("strategy = {}; actual = {}, {}", strategy, actual1, actual2);
+
+        //then
+        assertEquals(total, actual1.getBalance() + actual2.getBalance());
+    }
+
+    private void applyConcurrently(AccountServiceImpl accountService) throws Exception {
+        AccountOperationDto operation = AccountOperationDto.builder()
+                .accountNumber(ACCOUNT_NUMBER)
+                .currency(978L)
+                .amount(100L)
+                .operationSign(OperationSign.DEBIT)
+                .build();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            futures.add(executor.submit(() -> {
+                for (int j = 0; j < OPERATIONS_PER_THREAD; j++) {
+                    accountService.applyAccountOperation(operation);
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+    }
+
+    private AccountServiceImpl createService(AccountConcurrencyProperties.Strategy strategy, boolean coalescing) {
+        AccountCoalescingProperties coalescingProperties = new AccountCoalescingProperties();
+        coalescingProperties.setEnabled(coalescing);
+        return new AccountServiceImpl(accountRepo, accountOperationRepo, accountMapper, createStrategy(strategy),
+                accountCache, splitAccountService, new OperationCoalescer(coalescingProperties), eventOutbox);
+    }
+
+    private AccountConcurrencyStrategy createStrategy(AccountConcurrencyProperties.Strategy strategy) {
+        AccountConcurrencyProperties properties = new AccountConcurrencyProperties();
+        properties.setMaxAttempts(Integer.MAX_VALUE);
+        switch (strategy) {
+            case OPTIMISTIC:
+                return new OptimisticLockConcurrencyStrategy(accountRepo, transactionTemplate, properties);
+            case PESSIMISTIC:
+                return new PessimisticLockConcurrencyStrategy(accountRepo, transactionTemplate);
+            case CONDITIONAL_UPDATE:
+                return new ConditionalUpdateConcurrencyStrategy(accountRepo, transactionTemplate);
+            default:
+                return new StripedLockConcurrencyStrategy(accountRepo, transactionTemplate, properties);
+        }
+    }
+}
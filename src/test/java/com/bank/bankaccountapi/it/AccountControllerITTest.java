@@ -2,28 +2,38 @@ package com.bank.bankaccountapi.it;
 
 import com.bank.bankaccountapi.BankAccountApiApplication;
 import com.bank.bankaccountapi.domain.AccountStatus;
+import com.bank.bankaccountapi.dto.AccountBalanceResultDto;
 import com.bank.bankaccountapi.dto.AccountDto;
 import com.bank.bankaccountapi.dto.AccountOperationDto;
+import com.bank.bankaccountapi.dto.AccountOperationResultDto;
+import com.bank.bankaccountapi.dto.AccountTransferDto;
+import com.bank.bankaccountapi.dto.AccountTransferResultDto;
 import com.bank.bankaccountapi.dto.OperationSign;
 import com.bank.bankaccountapi.errorhandler.ApiError;
 import lombok.extern.slf4j.Slf4j;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.metrics.AutoConfigureMetrics;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.web.client.TestRestTemplate;
 import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.ResponseEntity;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @Slf4j
+@AutoConfigureMetrics
 @ExtendWith(SpringExtension.class)
 @SpringBootTest(classes = BankAccountApiApplication.class, webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
 public class AccountControllerITTest {
@@ -73,7 +83,7 @@ public class AccountControllerITTest {
         AccountDto expected = AccountDto.builder()
                 .accountNumber("test-1")
                 .currency(978L)
-                .balance(0.00)
+                .balance(0L)
                 .status(AccountStatus.OPEN)
                 .build();
 
@@ -111,13 +121,13 @@ public class AccountControllerITTest {
         AccountOperationDto operation = AccountOperationDto.builder()
                 .accountNumber("test-2")
                 .currency(840L)
-                .amount(10.0)
+                .amount(1000L)
                 .operationSign(OperationSign.DEBIT)
                 .build();
         AccountDto expected = AccountDto.builder()
                 .accountNumber("test-2")
                 .currency(840L)
-                .balance(1012.00)
+                .balance(101200L)
                 .status(AccountStatus.OPEN)
                 .build();
         HttpEntity<AccountOperationDto> entity = new HttpEntity<>(operation, new HttpHeaders());
@@ -139,13 +149,13 @@ public class AccountControllerITTest {
         AccountOperationDto operation = AccountOperationDto.builder()
                 .accountNumber("test-3")
                 .currency(978L)
-                .amount(10.0)
+                .amount(1000L)
                 .operationSign(OperationSign.CREDIT)
                 .build();
         AccountDto expected = AccountDto.builder()
                 .accountNumber("test-3")
                 .currency(978L)
-                .balance(335.00)
+                .balance(33500L)
                 .status(AccountStatus.OPEN)
                 .build();
         HttpEntity<AccountOperationDto> entity = new HttpEntity<>(operation, new HttpHeaders());
@@ -167,7 +177,7 @@ public class AccountControllerITTest {
         AccountOperationDto operation = AccountOperationDto.builder()
                 .accountNumber("wrong")
                 .currency(978L)
-                .amount(10.0)
+                .amount(1000L)
                 .operationSign(OperationSign.CREDIT)
                 .build();
         HttpEntity<AccountOperationDto> entity = new HttpEntity<>(operation, new HttpHeaders());
@@ -190,7 +200,7 @@ public class AccountControllerITTest {
         AccountOperationDto operation = AccountOperationDto.builder()
                 .accountNumber("test-4")
                 .currency(978L)
-                .amount(10.0)
+                .amount(1000L)
                 .operationSign(OperationSign.DEBIT)
                 .build();
         HttpEntity<AccountOperationDto> entity = new HttpEntity<>(operation, new HttpHeaders());
@@ -213,7 +223,7 @@ public class AccountControllerITTest {
         AccountOperationDto operation = AccountOperationDto.builder()
                 .accountNumber("test-1")
                 .currency(1L)
-                .amount(10.0)
+                .amount(1000L)
                 .operationSign(OperationSign.DEBIT)
                 .build();
         HttpEntity<AccountOperationDto> entity = new HttpEntity<>(operation, new HttpHeaders());
@@ -236,7 +246,7 @@ public class AccountControllerITTest {
         AccountOperationDto operation = AccountOperationDto.builder()
                 .accountNumber("test-1")
                 .currency(978L)
-                .amount(10.0)
+                .amount(1000L)
                 .operationSign(OperationSign.CREDIT)
                 .build();
         HttpEntity<AccountOperationDto> entity = new HttpEntity<>(operation, new HttpHeaders());
@@ -253,6 +263,186 @@ public class AccountControllerITTest {
         assertTrue(response.getBody().getMessage().contains("Account does not have enough balance to process operation"));
     }
 
+    @Test
+    void shouldApplyAccountOperationsBatch() {
+        //given
+        AccountOperationDto debit = AccountOperationDto.builder()
+                .accountNumber("test-1")
+                .currency(978L)
+                .amount(500L)
+                .operationSign(OperationSign.DEBIT)
+                .build();
+        AccountOperationDto credit = debit.toBuilder()
+                .operationSign(OperationSign.CREDIT)
+                .build();
+        AccountOperationDto closedAccount = debit.toBuilder()
+                .accountNumber("test-4")
+                .build();
+        HttpEntity<List<AccountOperationDto>> entity =
+                new HttpEntity<>(List.of(debit, closedAccount, credit, credit), new HttpHeaders());
+
+        //when
+        ResponseEntity<List<AccountOperationResultDto>> response = restTemplate.exchange(
+                createURLWithPort("/api/account/operations/batch"),
+                HttpMethod.POST, entity, new ParameterizedTypeReference<>() {
+                });
+        log.info("response = {}", response);
+
+        //then
+        assertTrue(response.getStatusCode().is2xxSuccessful());
+        List<AccountOperationResultDto> results = response.getBody();
+        assertNotNull(results);
+        assertEquals(4, results.size());
+        assertEquals(500L, results.get(0).getAccount().getBalance());
+        assertFalse(results.get(1).isApplied());
+        assertTrue(results.get(1).getError().contains("Account is not OPEN"));
+        assertEquals(0L, results.get(2).getAccount().getBalance());
+        assertFalse(results.get(3).isApplied());
+        assertTrue(results.get(3).getError().contains("Account does not have enough balance to process operation"));
+    }
+
+    @Test
+    void shouldReturnBulkAccountBalancesWithMissingAccountsInline() {
+        //given
+        HttpEntity<List<String>> entity = new HttpEntity<>(List.of("test-4", "wrong", "test-2"), new HttpHeaders());
+
+        //when
+        ResponseEntity<List<AccountBalanceResultDto>> response = restTemplate.exchange(
+                createURLWithPort("/api/account/balance/bulk"),
+                HttpMethod.POST, entity, new ParameterizedTypeReference<>() {
+                });
+        log.info("response = {}", response);
+
+        //then
+        assertTrue(response.getStatusCode().is2xxSuccessful());
+        List<AccountBalanceResultDto> results = response.getBody();
+        assertNotNull(results);
+        assertEquals(3, results.size());
+        assertEquals(AccountStatus.CLOSED, results.get(0).getAccount().getStatus());
+        assertFalse(results.get(1).isFound());
+        assertTrue(results.get(1).getError().contains("Account does not exists"));
+        assertEquals("test-2", results.get(2).getAccountNumber());
+        assertEquals(840L, results.get(2).getAccount().getCurrency());
+    }
+
+    @Test
+    void shouldApplyOperationWithIdempotencyKeyOnce() {
+        //given
+        AccountOperationDto debit = AccountOperationDto.builder()
+                .accountNumber("test-1")
+                .currency(978L)
+                .amount(700L)
+                .operationSign(OperationSign.DEBIT)
+                .idempotencyKey("it-debit-1")
+                .build();
+        AccountOperationDto credit = debit.toBuilder()
+                .operationSign(OperationSign.CREDIT)
+                .idempotencyKey("it-credit-1")
+                .build();
+
+        //when
+        ResponseEntity<AccountDto> first = restTemplate.exchange(createURLWithPort("/api/account/operation"),
+                HttpMethod.POST, new HttpEntity<>(debit, new HttpHeaders()), AccountDto.class);
+        ResponseEntity<AccountDto> retried = restTemplate.exchange(createURLWithPort("/api/account/operation"),
+                HttpMethod.POST, new HttpEntity<>(debit, new HttpHeaders()), AccountDto.class);
+        ResponseEntity<AccountDto> reverted = restTemplate.exchange(createURLWithPort("/api/account/operation"),
+                HttpMethod.POST, new HttpEntity<>(credit, new HttpHeaders()), AccountDto.class);
+        log.info("response = {}, {}, {}", first, retried, reverted);
+
+        //then
+        assertTrue(retried.getStatusCode().is2xxSuccessful());
+        assertEquals(first.getBody(), retried.getBody());
+        assertNotNull(reverted.getBody());
+        assertEquals(first.getBody().getBalance() - 700L, reverted.getBody().getBalance());
+    }
+
+    @Test
+    void shouldTransferBetweenAccountsAndLeaveBothUnchangedOnRejection() {
+        //given
+        AccountTransferDto transfer = AccountTransferDto.builder()
+                .fromAccountNumber("test-3")
+                .toAccountNumber("test-1")
+                .currency(978L)
+                .amount(1500L)
+                .build();
+        AccountTransferDto back = transfer.toBuilder()
+                .fromAccountNumber("test-1")
+                .toAccountNumber("test-3")
+                .build();
+        AccountTransferDto toClosedAccount = transfer.toBuilder()
+                .toAccountNumber("test-4")
+                .build();
+        AccountDto before = restTemplate.getForObject(createURLWithPort("/api/account/balance/test-3"),
+                AccountDto.class);
+
+        //when
+        ResponseEntity<AccountTransferResultDto> transferred = restTemplate.exchange(
+                createURLWithPort("/api/account/transfer"),
+                HttpMethod.POST, new HttpEntity<>(transfer, new HttpHeaders()), AccountTransferResultDto.class);
+        ResponseEntity<AccountTransferResultDto> returned = restTemplate.exchange(
+                createURLWithPort("/api/account/transfer"),
+                HttpMethod.POST, new HttpEntity<>(back, new HttpHeaders()), AccountTransferResultDto.class);
+        ResponseEntity<ApiError> rejected = restTemplate.exchange(
+                createURLWithPort("/api/account/transfer"),
+                HttpMethod.POST, new HttpEntity<>(toClosedAccount, new HttpHeaders()), ApiError.class);
+        AccountDto after = restTemplate.getForObject(createURLWithPort("/api/account/balance/test-3"),
+                AccountDto.class);
+        log.info("response = {}, {}, {}", transferred, returned, rejected);
+
+        //then
+        assertTrue(transferred.getStatusCode().is2xxSuccessful());
+        assertNotNull(transferred.getBody());
+        assertEquals(before.getBalance() - 1500L, transferred.getBody().getFromAccount().getBalance());
+        assertEquals("test-1", transferred.getBody().getToAccount().getAccountNumber());
+        assertTrue(returned.getStatusCode().is2xxSuccessful());
+        assertNotNull(returned.getBody());
+        assertEquals(before.getBalance(), returned.getBody().getToAccount().getBalance());
+        assertTrue(rejected.getStatusCode().is4xxClientError());
+        assertNotNull(rejected.getBody());
+        assertTrue(rejected.getBody().getMessage().contains("Account is not OPEN"));
+        assertEquals(before.getBalance(), after.getBalance());
+    }
+
+    @Test
+    void shouldExportFilteredAccountsAsCsvAndNdjson() {
+        //when
+        ResponseEntity<String> csv = restTemplate.getForEntity(
+                createURLWithPort("/api/account/export?format=CSV&status=CLOSED"), String.class);
+        ResponseEntity<String> ndjson = restTemplate.getForEntity(
+                createURLWithPort("/api/account/export?currency=840"), String.class);
+        log.info("response = {}, {}", csv, ndjson);
+
+        //then
+        assertTrue(csv.getStatusCode().is2xxSuccessful());
+        assertEquals("accountNumber,currency,balance,status\ntest-4,978,0.00,CLOSED\n", csv.getBody());
+        assertTrue(ndjson.getStatusCode().is2xxSuccessful());
+        assertNotNull(ndjson.getBody());
+        String[] lines = ndjson.getBody().split("\n");
+        assertEquals(1, lines.length);
+        assertTrue(lines[0].startsWith("{\"accountNumber\":\"test-2\",\"currency\":840,"));
+    }
+
+    @Test
+    void shouldExposeServiceMetricsForScraping() {
+        //given
+        restTemplate.getForEntity(createURLWithPort("/api/account/status/test-1"), String.class);
+        restTemplate.getForEntity(createURLWithPort("/api/account/status/wrong"), String.class);
+
+        //when
+        ResponseEntity<String> response = restTemplate.getForEntity(createURLWithPort("/actuator/prometheus"),
+                String.class);
+        log.info("response = {}", response.getStatusCode());
+
+        //then
+        assertTrue(response.getStatusCode().is2xxSuccessful());
+        assertNotNull(response.getBody());
+        assertTrue(response.getBody().contains(
+                "account_service_seconds_count{method=\"getAccountStatusByAccountNumber\",outcome=\"success\",}"));
+        assertTrue(response.getBody().contains(
+                "account_service_seconds_count{method=\"getAccountStatusByAccountNumber\",outcome=\"account-not-found\",}"));
+        assertTrue(response.getBody().contains("hikaricp_connections_usage_seconds_bucket"));
+    }
+
     private String createURLWithPort(String uri) {
         return "http://localhost:" + port + uri;
     }
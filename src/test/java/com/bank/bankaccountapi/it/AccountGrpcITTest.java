@@ -0,0 +1,134 @@
+package com.bank.bankaccountapi.it;
+
+import com.bank.bankaccountapi.domain.AccountStatus;
+import com.bank.bankaccountapi.dto.AccountDto;
+import com.bank.bankaccountapi.dto.AccountOperationDto;
+import com.bank.bankaccountapi.dto.AccountOperationResultDto;
+import com.bank.bankaccountapi.dto.OperationSign;
+import com.bank.bankaccountapi.grpc.AccountGrpcMethods;
+import com.bank.bankaccountapi.grpc.GrpcServerLifecycle;
+import com.bank.bankaccountapi.grpc.GrpcStatuses;
+import io.grpc.CallOptions;
+import io.grpc.ManagedChannel;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.netty.shaded.io.grpc.netty.NettyChannelBuilder;
+import io.grpc.stub.ClientCalls;
+import io.grpc.stub.StreamObserver;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Slf4j
+@SpringBootTest(properties = {"account.grpc.enabled=true", "account.grpc.port=0"})
+class AccountGrpcITTest {
+
+    @Autowired
+    private GrpcServerLifecycle grpcServer;
+
+    private ManagedChannel channel;
+
+    @BeforeEach
+    void setUp() {
+        channel = NettyChannelBuilder.forAddress("localhost", grpcServer.getPort()).usePlaintext().build();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        channel.shutdownNow().awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void shouldServeAccountStatusAndBalanceOverHttp2() {
+        //when
+        AccountStatus status = ClientCalls.blockingUnaryCall(channel, AccountGrpcMethods.GET_ACCOUNT_STATUS,
+                CallOptions.DEFAULT, "test-4");
+        AccountDto balance = ClientCalls.blockingUnaryCall(channel, AccountGrpcMethods.GET_ACCOUNT_BALANCE,
+                CallOptions.DEFAULT, "test-2");
+        log.info("status = {}; balance = {}", status, balance);
+
+        //then
+        assertEquals(AccountStatus.CLOSED, status);
+        assertEquals(840L, balance.getCurrency());
+    }
+
+    @Test
+    void shouldReturnStatusForRejectedOperation() {
+        //given
+        AccountOperationDto operation = AccountOperationDto.builder()
+                .accountNumber("test-4")
+                .currency(978L)
+                .amount(100L)
+                .operationSign(OperationSign.DEBIT)
+                .build();
+
+        //when
+        StatusRuntimeException thrown = assertThrows(StatusRuntimeException.class,
+                () -> ClientCalls.blockingUnaryCall(channel, AccountGrpcMethods.APPLY_OPERATION,
+                        CallOptions.DEFAULT, operation));
+        log.error("Handled test-error", thrown);
+
+        //then
+        assertEquals(Status.Code.FAILED_PRECONDITION, thrown.getStatus().getCode());
+        assertEquals("ACCOUNT_NOT_OPEN", thrown.getTrailers().get(GrpcStatuses.REASON));
+    }
+
+    @Test
+    void shouldAnswerStreamedOperationsInOrder() throws Exception {
+        //given
+        AccountOperationDto closed = AccountOperationDto.builder()
+                .accountNumber("test-4")
+                .currency(978L)
+                .amount(100L)
+                .operationSign(OperationSign.DEBIT)
+                .build();
+        AccountOperationDto missing = closed.toBuilder().accountNumber("wrong").build();
+        List<AccountOperationResultDto> results = new CopyOnWriteArrayList<>();
+        CompletableFuture<Void> completed = new CompletableFuture<>();
+
+        //when
+        StreamObserver<AccountOperationDto> requests = ClientCalls.asyncBidiStreamingCall(
+                channel.newCall(AccountGrpcMethods.APPLY_OPERATIONS, CallOptions.DEFAULT),
+                new StreamObserver<>() {
+                    @Override
+                    public void onNext(AccountOperationResultDto result) {
+                        results.add(result);
+                    }
+
+                    @Override
+                    public void onError(Throwable t) {
+                        completed.completeExceptionally(t);
+                    }
+
+                    @Override
+                    public void onCompleted() {
+                        completed.complete(null);
+                    }
+                });
+        requests.onNext(closed);
+        requests.onNext(missing);
+        requests.onCompleted();
+        completed.get(10, TimeUnit.SECONDS);
+        log.info("results = {}", results);
+
+        //then
+        assertEquals(2, results.size());
+        assertEquals("test-4", results.get(0).getAccountNumber());
+        assertFalse(results.get(0).isApplied());
+        assertEquals("wrong", results.get(1).getAccountNumber());
+        assertTrue(results.get(1).getError().contains("Account does not exists"));
+    }
+}
@@ -0,0 +1,128 @@
+package com.bank.bankaccountapi.it;
+
+import com.bank.bankaccountapi.domain.Account;
+import com.bank.bankaccountapi.domain.AccountStatus;
+import com.bank.bankaccountapi.dto.AccountOperationDto;
+import com.bank.bankaccountapi.dto.AccountTransferDto;
+import com.bank.bankaccountapi.dto.BalanceChangedEvent;
+import com.bank.bankaccountapi.dto.OperationSign;
+import com.bank.bankaccountapi.expection.AccountApiException;
+import com.bank.bankaccountapi.repo.AccountRepo;
+import com.bank.bankaccountapi.service.AccountService;
+import com.bank.bankaccountapi.service.outbox.InMemoryAccountEventSink;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@Slf4j
+@SpringBootTest(properties = {"account.outbox.enabled=true", "account.outbox.poll-interval=10ms"})
+// stops the relay, which would otherwise keep draining the outbox of the shared database under later test classes
+@DirtiesContext
+class AccountOutboxITTest {
+
+    private static final String FROM = "outbox-1";
+    private static final String TO = "outbox-2";
+
+    @Autowired
+    private AccountService accountService;
+    @Autowired
+    private AccountRepo accountRepo;
+    @Autowired
+    private InMemoryAccountEventSink sink;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        for (String accountNumber : List.of(FROM, TO)) {
+            accountRepo.save(Account.builder()
+                    .accountNumber(accountNumber)
+                    .currency(978L)
+                    .balance(0L)
+                    .status(AccountStatus.OPEN)
+                    .build());
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        accountRepo.deleteAllById(List.of(FROM, TO));
+    }
+
+    @Test
+    void shouldPublishCommittedBalanceChangesInOrderPerAccount() throws Exception {
+        //given
+        accountService.applyAccountOperation(operation(OperationSign.DEBIT, 500L));
+        accountService.applyAccountOperation(operation(OperationSign.CREDIT, 200L));
+        AccountApiException thrown = assertThrows(AccountApiException.class,
+                () -> accountService.applyAccountOperation(operation(OperationSign.CREDIT, 10_000L)));
+        log.error("Handled test-error", thrown);
+        accountService.transfer(AccountTransferDto.builder()
+                .fromAccountNumber(FROM)
+                .toAccountNumber(TO)
+                .currency(978L)
+                .amount(100L)
+                .build());
+
+        //when
+        List<BalanceChangedEvent> actual = awaitEvents(4);
+        log.info("actual = {}", actual);
+
+        //then
+        assertEquals(List.of(500L, 300L, 200L), balancesOf(actual, FROM));
+        assertEquals(List.of(100L), balancesOf(actual, TO));
+        assertEquals(List.of(OperationSign.DEBIT, OperationSign.CREDIT, OperationSign.CREDIT),
+                actual.stream()
+                        .filter(event -> FROM.equals(event.getAccountNumber()))
+                        .map(BalanceChangedEvent::getOperationSign)
+                        .collect(Collectors.toList()));
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM ACCOUNT_OUTBOX WHERE ACCOUNT_NUMBER IN (?, ?)", Integer.class, FROM, TO));
+    }
+
+    private List<BalanceChangedEvent> awaitEvents(int expected) throws InterruptedException {
+        List<BalanceChangedEvent> events = new ArrayList<>();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (events.size() < expected && System.nanoTime() < deadline) {
+            sink.drain(100).stream()
+                    .filter(event -> FROM.equals(event.getAccountNumber()) || TO.equals(event.getAccountNumber()))
+                    .forEach(events::add);
+            Thread.sleep(10);
+        }
+        // anything published after the expected events would be a duplicate or an event of the rejected operation
+        Thread.sleep(100);
+        sink.drain(100).stream()
+                .filter(event -> FROM.equals(event.getAccountNumber()) || TO.equals(event.getAccountNumber()))
+                .forEach(events::add);
+        return events;
+    }
+
+    private static List<Long> balancesOf(List<BalanceChangedEvent> events, String accountNumber) {
+        return events.stream()
+                .filter(event -> accountNumber.equals(event.getAccountNumber()))
+                .map(BalanceChangedEvent::getBalance)
+                .collect(Collectors.toList());
+    }
+
+    private static AccountOperationDto operation(OperationSign operationSign, long amount) {
+        return AccountOperationDto.builder()
+                .accountNumber(FROM)
+                .currency(978L)
+                .amount(amount)
+                .operationSign(operationSign)
+                .build();
+    }
+}
@@ -0,0 +1,35 @@
+package com.bank.bankaccountapi.it;
+
+import com.bank.bankaccountapi.service.AccountService;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+@Slf4j
+@SpringBootTest
+@ActiveProfiles("fast-start")
+class FastStartProfileITTest {
+
+    @Autowired
+    private ConfigurableListableBeanFactory beanFactory;
+    @Autowired
+    private AccountService accountService;
+
+    @Test
+    void shouldCreateBeansOnFirstUseAndServeRequests() {
+        //when
+        boolean exporterCreated = beanFactory.containsSingleton("accountExporter");
+        String actual = accountService.getAccountStatusByAccountNumber("test-1");
+        log.info("actual = {}; exporterCreated = {}", actual, exporterCreated);
+
+        //then
+        assertFalse(exporterCreated);
+        assertEquals("OPEN", actual);
+    }
+}
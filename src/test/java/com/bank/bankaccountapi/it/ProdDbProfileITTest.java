@@ -0,0 +1,74 @@
+package com.bank.bankaccountapi.it;
+
+import com.bank.bankaccountapi.dto.AccountDto;
+import com.bank.bankaccountapi.dto.AccountOperationDto;
+import com.bank.bankaccountapi.dto.OperationSign;
+import com.bank.bankaccountapi.service.AccountService;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.orm.jpa.support.OpenEntityManagerInViewInterceptor;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Slf4j
+@SpringBootTest
+@ActiveProfiles("prod-db")
+class ProdDbProfileITTest {
+
+    @Autowired
+    private ApplicationContext context;
+    @Autowired
+    private DataSource dataSource;
+    @Autowired
+    private MeterRegistry meterRegistry;
+    @Autowired
+    private AccountService accountService;
+
+    @Test
+    void shouldNotHoldConnectionForWholeRequest() {
+        //when
+        int interceptors = context.getBeanNamesForType(OpenEntityManagerInViewInterceptor.class).length;
+
+        //then
+        assertEquals(0, interceptors);
+    }
+
+    @Test
+    void shouldUseFixedPoolWithoutAutoCommitAndRecordPoolWaitTime() {
+        //given
+        HikariDataSource hikari = (HikariDataSource) dataSource;
+        AccountOperationDto operation = AccountOperationDto.builder()
+                .accountNumber("test-3")
+                .currency(978L)
+                .amount(100L)
+                .operationSign(OperationSign.DEBIT)
+                .build();
+
+        //when
+        AccountDto actual = accountService.applyAccountOperation(operation);
+        Timer acquire = meterRegistry.find("hikaricp.connections.acquire").tag("pool", "account-pool").timer();
+        log.info("actual = {}; acquire = {}", actual, acquire);
+
+        //then
+        assertNotNull(actual);
+        assertEquals(10, hikari.getMaximumPoolSize());
+        assertEquals(10, hikari.getMinimumIdle());
+        assertFalse(hikari.isAutoCommit());
+        assertNotNull(acquire);
+        assertTrue(acquire.count() > 0);
+        assertNotNull(meterRegistry.find("hikaricp.connections.active").tag("pool", "account-pool").gauge());
+        assertNotNull(meterRegistry.find("hikaricp.connections.pending").tag("pool", "account-pool").gauge());
+    }
+}
@@ -0,0 +1,151 @@
+package com.bank.bankaccountapi.it;
+
+import com.bank.bankaccountapi.domain.Account;
+import com.bank.bankaccountapi.domain.AccountStatus;
+import com.bank.bankaccountapi.dto.AccountDto;
+import com.bank.bankaccountapi.dto.AccountOperationDto;
+import com.bank.bankaccountapi.dto.OperationSign;
+import com.bank.bankaccountapi.repo.AccountRepo;
+import com.bank.bankaccountapi.replica.ReadReplicaRouter;
+import com.bank.bankaccountapi.replica.Replica;
+import com.bank.bankaccountapi.replica.ReplicaSynchronizer;
+import com.bank.bankaccountapi.service.AccountService;
+import com.bank.bankaccountapi.service.ratelimit.AccountRateLimiter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Slf4j
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "account.read-replica.enabled=true",
+        "account.read-replica.replicas[0].url=jdbc:h2:mem:replica-it-1;DB_CLOSE_DELAY=-1",
+        "account.read-replica.replicas[1].url=jdbc:h2:mem:replica-it-2;DB_CLOSE_DELAY=-1",
+        "account.read-replica.max-staleness=10m",
+        // replicas only catch up when a test calls syncNow()
+        "account.read-replica.sync.interval=1h"})
+class ReadReplicaITTest {
+
+    private static final String ACCOUNT_NUMBER = "replica-1";
+
+    @LocalServerPort
+    private int port;
+    @Autowired
+    private TestRestTemplate restTemplate;
+    @Autowired
+    private AccountService accountService;
+    @Autowired
+    private AccountRepo accountRepo;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private ReplicaSynchronizer synchronizer;
+    @Autowired
+    private ReadReplicaRouter router;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        accountRepo.save(Account.builder()
+                .accountNumber(ACCOUNT_NUMBER)
+                .currency(978L)
+                .balance(100L)
+                .status(AccountStatus.OPEN)
+                .build());
+        synchronizer.syncNow();
+    }
+
+    @AfterEach
+    void tearDown() {
+        accountRepo.deleteById(ACCOUNT_NUMBER);
+        synchronizer.syncNow();
+    }
+
+    @Test
+    void shouldServeReadOnlyTransactionsFromReplicasInTurn() {
+        //given
+        jdbcTemplate.update("UPDATE ACCOUNT SET BALANCE = 999 WHERE ACCOUNT_NUMBER = ?", ACCOUNT_NUMBER);
+        double before = replicaReads();
+
+        //when
+        AccountDto first = accountService.getAccountBalanceInquiryByAccountNumber(ACCOUNT_NUMBER);
+        AccountDto second = accountService.getAccountBalanceInquiryByAccountNumber(ACCOUNT_NUMBER);
+        synchronizer.syncNow();
+        AccountDto synced = accountService.getAccountBalanceInquiryByAccountNumber(ACCOUNT_NUMBER);
+        log.info("first = {}; second = {}; synced = {}", first, second, synced);
+
+        //then
+        assertEquals(100L, first.getBalance());
+        assertEquals(100L, second.getBalance());
+        assertEquals(999L, synced.getBalance());
+        assertEquals(3.0, replicaReads() - before);
+        for (Replica replica : router.getReplicas()) {
+            assertTrue(meterRegistry.get("account.read.replica.reads").tag("target", replica.getName())
+                    .functionCounter().count() > 0, replica.getName());
+        }
+    }
+
+    @Test
+    void shouldReadOwnWriteFromPrimaryWhileOtherClientsReadReplica() {
+        //given
+        AccountOperationDto operation = AccountOperationDto.builder()
+                .accountNumber(ACCOUNT_NUMBER)
+                .currency(978L)
+                .amount(50L)
+                .operationSign(OperationSign.DEBIT)
+                .build();
+
+        //when
+        ResponseEntity<AccountDto> written = restTemplate.exchange(url("/api/account/operation"),
+                HttpMethod.POST, new HttpEntity<>(operation, client("writer")), AccountDto.class);
+        AccountDto writer = balance("writer");
+        AccountDto other = balance("other");
+        synchronizer.syncNow();
+        AccountDto otherAfterSync = balance("other");
+        log.info("written = {}; writer = {}; other = {}; otherAfterSync = {}",
+                written.getBody(), writer, other, otherAfterSync);
+
+        //then
+        assertTrue(written.getStatusCode().is2xxSuccessful());
+        assertEquals(150L, writer.getBalance());
+        assertEquals(100L, other.getBalance());
+        assertEquals(150L, otherAfterSync.getBalance());
+        assertTrue(meterRegistry.get("account.read.replica.reads").tag("reason", "read-your-writes")
+                .functionCounter().count() > 0);
+    }
+
+    private AccountDto balance(String client) {
+        return restTemplate.exchange(url("/api/account/balance/" + ACCOUNT_NUMBER), HttpMethod.GET,
+                new HttpEntity<>(null, client(client)), AccountDto.class).getBody();
+    }
+
+    private double replicaReads() {
+        return meterRegistry.get("account.read.replica.reads").tag("reason", "fresh").functionCounters().stream()
+                .mapToDouble(counter -> counter.count())
+                .sum();
+    }
+
+    private static HttpHeaders client(String client) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(AccountRateLimiter.CLIENT_ID_HEADER, client);
+        return headers;
+    }
+
+    private String url(String uri) {
+        return "http://localhost:" + port + uri;
+    }
+}
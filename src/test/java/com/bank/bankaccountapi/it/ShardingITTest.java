@@ -0,0 +1,248 @@
+package com.bank.bankaccountapi.it;
+
+import com.bank.bankaccountapi.domain.Account;
+import com.bank.bankaccountapi.domain.AccountStatus;
+import com.bank.bankaccountapi.dto.AccountBalanceResultDto;
+import com.bank.bankaccountapi.dto.AccountDto;
+import com.bank.bankaccountapi.dto.AccountOperationDto;
+import com.bank.bankaccountapi.dto.AccountTransferDto;
+import com.bank.bankaccountapi.dto.BalanceChangedEvent;
+import com.bank.bankaccountapi.dto.OperationSign;
+import com.bank.bankaccountapi.expection.AccountApiException;
+import com.bank.bankaccountapi.repo.AccountRepo;
+import com.bank.bankaccountapi.service.AccountService;
+import com.bank.bankaccountapi.service.export.AccountExporter;
+import com.bank.bankaccountapi.service.export.ExportFormat;
+import com.bank.bankaccountapi.service.outbox.InMemoryAccountEventSink;
+import com.bank.bankaccountapi.shard.AccountShards;
+import com.bank.bankaccountapi.shard.ShardContext;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Slf4j
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:shard-it-0;DB_CLOSE_ON_EXIT=FALSE",
+        "account.sharding.enabled=true",
+        "account.sharding.shards[0].url=jdbc:h2:mem:shard-it-1;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "account.sharding.shards[1].url=jdbc:h2:mem:shard-it-2;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+        "account.outbox.enabled=true",
+        "account.outbox.poll-interval=10ms"})
+class ShardingITTest {
+
+    private static final String PREFIX = "shard-it-";
+    private static final int ACCOUNTS = 12;
+
+    @Autowired
+    private AccountService accountService;
+    @Autowired
+    private AccountRepo accountRepo;
+    @Autowired
+    private AccountShards shards;
+    @Autowired
+    private InMemoryAccountEventSink sink;
+    @Autowired
+    private AccountExporter accountExporter;
+
+    private final List<String> accountNumbers = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < ACCOUNTS; i++) {
+            accountNumbers.add(PREFIX + i);
+            accountRepo.save(Account.builder()
+                    .accountNumber(PREFIX + i)
+                    .currency(978L)
+                    .balance(1_000L)
+                    .status(AccountStatus.OPEN)
+                    .build());
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        for (int shard = 0; shard < shards.size(); shard++) {
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(shards.getDataSource(shard));
+            for (String table : List.of("ACCOUNT_OUTBOX", "ACCOUNT_OPERATION", "ACCOUNT")) {
+                jdbcTemplate.update("DELETE FROM " + table + " WHERE ACCOUNT_NUMBER LIKE ?", PREFIX + "%");
+            }
+        }
+    }
+
+    @Test
+    void shouldKeepEveryAccountWithItsJournalOnItsOwnShard() throws Exception {
+        //given
+        // more journal rows than one block of ids of the sequence
+        for (int round = 0; round < 5; round++) {
+            for (String accountNumber : accountNumbers) {
+                accountService.applyAccountOperation(operation(accountNumber, OperationSign.DEBIT, 2L));
+            }
+        }
+
+        //when
+        List<BalanceChangedEvent> events = awaitEvents(ACCOUNTS * 5);
+        log.info("events = {}", events.size());
+
+        //then
+        Set<Integer> used = new HashSet<>();
+        for (String accountNumber : accountNumbers) {
+            int home = shards.shardOf(accountNumber);
+            used.add(home);
+            for (int shard = 0; shard < shards.size(); shard++) {
+                int expected = shard == home ? 1 : 0;
+                assertEquals(expected, count(shard, "ACCOUNT", accountNumber), accountNumber + "@" + shard);
+                assertEquals(expected * 5, count(shard, "ACCOUNT_OPERATION", accountNumber),
+                        accountNumber + "@" + shard);
+            }
+            assertEquals(1_010L, accountService.getAccountBalanceInquiryByAccountNumber(accountNumber).getBalance());
+        }
+        assertEquals(3, used.size());
+        assertEquals(new HashSet<>(accountNumbers),
+                events.stream().map(BalanceChangedEvent::getAccountNumber).collect(Collectors.toSet()));
+        assertEquals(events.size(), events.stream().map(BalanceChangedEvent::getEventId).distinct().count());
+        assertEquals(events.size(), events.stream().map(BalanceChangedEvent::getOperationId).distinct().count());
+    }
+
+    @Test
+    void shouldReadBulkBalancesFromEveryShard() {
+        //given
+        List<String> requested = new ArrayList<>(accountNumbers);
+        requested.add(PREFIX + "missing");
+
+        //when
+        List<AccountBalanceResultDto> actual = accountService.getAccountBalances(requested);
+        log.info("actual = {}", actual);
+
+        //then
+        assertEquals(requested, actual.stream()
+                .map(AccountBalanceResultDto::getAccountNumber)
+                .collect(Collectors.toList()));
+        assertTrue(actual.subList(0, ACCOUNTS).stream().allMatch(AccountBalanceResultDto::isFound));
+        assertEquals(1_000L, actual.get(0).getAccount().getBalance());
+        assertFalse(actual.get(ACCOUNTS).isFound());
+    }
+
+    @Test
+    void shouldTransferWithinShardAndRejectTransferAcrossShards() {
+        //given
+        Map<Integer, List<String>> byShard = shards.byShard(accountNumbers);
+        List<String> sameShard = byShard.values().stream()
+                .filter(shardAccounts -> shardAccounts.size() > 1)
+                .findFirst()
+                .orElseThrow();
+        String otherShard = byShard.values().stream()
+                .filter(shardAccounts -> !shardAccounts.contains(sameShard.get(0)))
+                .findFirst()
+                .orElseThrow()
+                .get(0);
+
+        //when
+        AccountDto from = accountService.transfer(transfer(sameShard.get(0), sameShard.get(1))).getFromAccount();
+        AccountApiException thrown = assertThrows(AccountApiException.class,
+                () -> accountService.transfer(transfer(sameShard.get(1), otherShard)));
+        log.error("Handled test-error", thrown);
+
+        //then
+        assertEquals(900L, from.getBalance());
+        assertEquals(AccountApiException.Reason.CROSS_SHARD, thrown.getReason());
+        assertEquals(1_100L, accountService.getAccountBalanceInquiryByAccountNumber(sameShard.get(1)).getBalance());
+        assertEquals(1_000L, accountService.getAccountBalanceInquiryByAccountNumber(otherShard).getBalance());
+    }
+
+    @Test
+    void shouldExportAccountsOfEveryShard() throws Exception {
+        //given
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        //when
+        accountExporter.export(AccountStatus.OPEN, 978L, ExportFormat.CSV, out);
+        List<String> actual = Arrays.stream(out.toString(StandardCharsets.UTF_8).split("\n"))
+                .filter(line -> line.startsWith(PREFIX))
+                .collect(Collectors.toList());
+        log.info("actual = {}", actual);
+
+        //then
+        assertEquals(new HashSet<>(accountNumbers), actual.stream()
+                .map(line -> line.substring(0, line.indexOf(',')))
+                .collect(Collectors.toSet()));
+        assertEquals(ACCOUNTS, actual.size());
+    }
+
+    @Test
+    void shouldRejectUnroutedCallOverSeveralShardsAndRunItOnBoundShard() throws Exception {
+        //given
+        long expected = 0;
+        for (int shard = 0; shard < shards.size(); shard++) {
+            expected += new JdbcTemplate(shards.getDataSource(shard)).queryForObject(
+                    "SELECT COUNT(*) FROM ACCOUNT", Long.class);
+        }
+
+        //when
+        AccountApiException thrown = assertThrows(AccountApiException.class, () -> accountRepo.count());
+        log.error("Handled test-error", thrown);
+        long actual = 0;
+        for (int shard = 0; shard < shards.size(); shard++) {
+            actual += ShardContext.callOn(shard, accountRepo::count);
+        }
+        log.info("actual = {}", actual);
+
+        //then
+        assertEquals(AccountApiException.Reason.CROSS_SHARD, thrown.getReason());
+        assertEquals(expected, actual);
+    }
+
+    private List<BalanceChangedEvent> awaitEvents(int expected) throws InterruptedException {
+        List<BalanceChangedEvent> events = new ArrayList<>();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (events.size() < expected && System.nanoTime() < deadline) {
+            sink.drain(100).stream()
+                    .filter(event -> event.getAccountNumber().startsWith(PREFIX))
+                    .forEach(events::add);
+            Thread.sleep(10);
+        }
+        return events;
+    }
+
+    private int count(int shard, String table, String accountNumber) {
+        return new JdbcTemplate(shards.getDataSource(shard)).queryForObject(
+                "SELECT COUNT(*) FROM " + table + " WHERE ACCOUNT_NUMBER = ?", Integer.class, accountNumber);
+    }
+
+    private static AccountTransferDto transfer(String from, String to) {
+        return AccountTransferDto.builder()
+                .fromAccountNumber(from)
+                .toAccountNumber(to)
+                .currency(978L)
+                .amount(100L)
+                .build();
+    }
+
+    private static AccountOperationDto operation(String accountNumber, OperationSign operationSign, long amount) {
+        return AccountOperationDto.builder()
+                .accountNumber(accountNumber)
+                .currency(978L)
+                .amount(amount)
+                .operationSign(operationSign)
+                .build();
+    }
+}
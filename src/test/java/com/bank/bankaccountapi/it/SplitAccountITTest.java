@@ -0,0 +1,290 @@
+package com.bank.bankaccountapi.it;
+
+import com.bank.bankaccountapi.config.AccountSplitProperties;
+import com.bank.bankaccountapi.domain.Account;
+import com.bank.bankaccountapi.domain.AccountStatus;
+import com.bank.bankaccountapi.dto.AccountDto;
+import com.bank.bankaccountapi.dto.AccountOperationDto;
+import com.bank.bankaccountapi.dto.AccountOperationResultDto;
+import com.bank.bankaccountapi.dto.OperationSign;
+import com.bank.bankaccountapi.expection.AccountApiException;
+import com.bank.bankaccountapi.expection.AccountApiException.Reason;
+import com.bank.bankaccountapi.repo.AccountOperationRepo;
+import com.bank.bankaccountapi.repo.AccountRepo;
+import com.bank.bankaccountapi.repo.AccountSlotRepo;
+import com.bank.bankaccountapi.service.AccountService;
+import com.bank.bankaccountapi.service.export.AccountExporter;
+import com.bank.bankaccountapi.service.export.ExportFormat;
+import com.bank.bankaccountapi.service.outbox.AccountEventOutbox;
+import com.bank.bankaccountapi.service.split.SplitAccountService;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Slf4j
+@SpringBootTest(properties = {"account.split.account-numbers=split-1", "account.split.slots=4"})
+class SplitAccountITTest {
+
+    private static final String ACCOUNT_NUMBER = "split-1";
+    private static final int THREADS = 8;
+    private static final int OPERATIONS_PER_THREAD = 25;
+
+    @Autowired
+    private AccountService accountService;
+    @Autowired
+    private SplitAccountService splitAccountService;
+    @Autowired
+    private AccountRepo accountRepo;
+    @Autowired
+    private AccountSlotRepo accountSlotRepo;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private AccountOperationRepo accountOperationRepo;
+    @Autowired
+    private AccountEventOutbox eventOutbox;
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private AccountExporter accountExporter;
+
+    @BeforeEach
+    void setUp() {
+        accountRepo.save(Account.builder()
+                .accountNumber(ACCOUNT_NUMBER)
+                .currency(978L)
+                .balance(0L)
+                .status(AccountStatus.OPEN)
+                .build());
+        splitAccountService.prepareSlots();
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("DELETE FROM ACCOUNT_SLOT WHERE ACCOUNT_NUMBER = ?", ACCOUNT_NUMBER);
+        accountRepo.deleteById(ACCOUNT_NUMBER);
+    }
+
+    @Test
+    void shouldSpreadConcurrentDebitsOverSlotsAndReportTheirSum() throws Exception {
+        //given
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+
+        //when
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            futures.add(executor.submit(() -> {
+                for (int j = 0; j < OPERATIONS_PER_THREAD; j++) {
+                    accountService.applyAccountOperation(operation(OperationSign.DEBIT, 100L));
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+        AccountDto actual = accountService.getAccountBalanceInquiryByAccountNumber(ACCOUNT_NUMBER);
+        Map<Integer, Long> slots = lockSlots();
+        log.info("actual = {}; slots = {}", actual, slots);
+
+        //then
+        assertEquals(THREADS * OPERATIONS_PER_THREAD * 100L, actual.getBalance());
+        assertEquals(4, slots.size());
+        assertTrue(slots.values().stream().filter(balance -> balance > 0).count() > 1);
+        assertEquals(actual.getBalance(),
+                accountService.getAccountBalances(List.of(ACCOUNT_NUMBER)).get(0).getAccount().getBalance());
+    }
+
+    @Test
+    void shouldBorrowFromOtherSlotsAndRebalanceEvenly() {
+        //given
+        transactionTemplate.executeWithoutResult(status ->
+                accountSlotRepo.setBalances(ACCOUNT_NUMBER, Map.of(0, 250L, 1, 250L, 2, 250L, 3, 250L)));
+
+        //when
+        AccountDto actual = accountService.applyAccountOperation(operation(OperationSign.CREDIT, 590L));
+        Map<Integer, Long> slots = lockSlots();
+        log.info("actual = {}; slots = {}", actual, slots);
+
+        //then
+        assertEquals(410L, actual.getBalance());
+        assertEquals(410L, slots.values().stream().mapToLong(Long::longValue).sum());
+        assertTrue(slots.values().stream().allMatch(balance -> balance >= 102L && balance <= 104L));
+    }
+
+    @Test
+    void shouldRejectWithSameReasonsAsWholeAccounts() {
+        //given
+        transactionTemplate.executeWithoutResult(status ->
+                accountSlotRepo.setBalances(ACCOUNT_NUMBER, Map.of(0, 100L, 1, 100L, 2, 100L, 3, 100L)));
+
+        //when
+        AccountApiException insufficientBalance = assertThrows(AccountApiException.class,
+                () -> accountService.applyAccountOperation(operation(OperationSign.CREDIT, 401L)));
+        AccountApiException currencyMismatch = assertThrows(AccountApiException.class,
+                () -> accountService.applyAccountOperation(operation(OperationSign.DEBIT, 1L).toBuilder()
+                        .currency(840L)
+                        .build()));
+        log.error("Handled test-error", insufficientBalance);
+
+        //then
+        assertEquals(Reason.INSUFFICIENT_BALANCE, insufficientBalance.getReason());
+        assertTrue(insufficientBalance.getMessage().contains("Account does not have enough balance"));
+        assertEquals(Reason.CURRENCY_MISMATCH, currencyMismatch.getReason());
+        assertEquals(400L, accountService.getAccountBalanceInquiryByAccountNumber(ACCOUNT_NUMBER).getBalance());
+    }
+
+    @Test
+    void shouldRejectDebitThatWouldOverflowSumOfSlots() {
+        //given
+        long half = Long.MAX_VALUE / 2;
+        transactionTemplate.executeWithoutResult(status ->
+                accountSlotRepo.setBalances(ACCOUNT_NUMBER, Map.of(0, half, 1, half, 2, 0L, 3, 0L)));
+
+        //when
+        AccountApiException thrown = assertThrows(AccountApiException.class,
+                () -> accountService.applyAccountOperation(operation(OperationSign.DEBIT, 2L)));
+        log.error("Handled test-error", thrown);
+        AccountDto actual = accountService.applyAccountOperation(operation(OperationSign.DEBIT, 1L));
+        log.info("actual = {}", actual);
+
+        //then
+        assertEquals(Reason.BALANCE_OVERFLOW, thrown.getReason());
+        assertEquals(Long.MAX_VALUE, actual.getBalance());
+        assertEquals(Long.MAX_VALUE, accountService.getAccountBalanceInquiryByAccountNumber(ACCOUNT_NUMBER).getBalance());
+    }
+
+    @Test
+    void shouldNeverOverdrawUnderConcurrentCreditsAndDebits() throws Exception {
+        //given
+        transactionTemplate.executeWithoutResult(status ->
+                accountSlotRepo.setBalances(ACCOUNT_NUMBER, Map.of(0, 500L, 1, 500L, 2, 500L, 3, 500L)));
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+
+        //when
+        List<Future<Long>> futures = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            boolean crediting = i % 2 == 0;
+            futures.add(executor.submit(() -> {
+                long applied = 0;
+                for (int j = 0; j < OPERATIONS_PER_THREAD; j++) {
+                    try {
+                        accountService.applyAccountOperation(
+                                operation(crediting ? OperationSign.CREDIT : OperationSign.DEBIT, 70L));
+                        applied += crediting ? -70L : 70L;
+                    } catch (AccountApiException ex) {
+                        assertEquals(Reason.INSUFFICIENT_BALANCE, ex.getReason());
+                    }
+                }
+                return applied;
+            }));
+        }
+        long expected = 2000L;
+        for (Future<Long> future : futures) {
+            expected += future.get();
+        }
+        executor.shutdown();
+        Map<Integer, Long> slots = lockSlots();
+        log.info("expected = {}; slots = {}", expected, slots);
+
+        //then
+        assertEquals(expected, accountService.getAccountBalanceInquiryByAccountNumber(ACCOUNT_NUMBER).getBalance());
+        assertTrue(slots.values().stream().allMatch(balance -> balance >= 0));
+    }
+
+    @Test
+    void shouldApplySplitAccountOperationsInBatch() {
+        //when
+        List<AccountOperationResultDto> actual = accountService.applyAccountOperations(List.of(
+                operation(OperationSign.DEBIT, 300L),
+                operation(OperationSign.CREDIT, 500L),
+                operation(OperationSign.CREDIT, 200L)));
+        log.info("actual = {}", actual);
+
+        //then
+        assertTrue(actual.get(0).isApplied());
+        assertFalse(actual.get(1).isApplied());
+        assertTrue(actual.get(2).isApplied());
+        assertEquals(100L, actual.get(2).getAccount().getBalance());
+        assertEquals(100L, accountService.getAccountBalanceInquiryByAccountNumber(ACCOUNT_NUMBER).getBalance());
+    }
+
+    @Test
+    void shouldFoldSlotsBackIntoAccountWhenItIsNoLongerSplit() {
+        //given
+        transactionTemplate.executeWithoutResult(status ->
+                accountSlotRepo.setBalances(ACCOUNT_NUMBER, Map.of(0, 100L, 1, 200L, 2, 300L, 3, 400L)));
+
+        //when
+        splitAccountService(Set.of(ACCOUNT_NUMBER), 2).prepareSlots();
+        Map<Integer, Long> fewerSlots = lockSlots();
+        splitAccountService(Set.of(), 4).prepareSlots();
+        Map<Integer, Long> unsplit = lockSlots();
+        log.info("fewerSlots = {}; unsplit = {}", fewerSlots, unsplit);
+
+        //then
+        assertEquals(Map.of(0, 800L, 1, 200L), fewerSlots);
+        assertEquals(Map.of(0, 1000L), unsplit);
+        assertEquals(1000L, accountRepo.findById(ACCOUNT_NUMBER).orElseThrow().getBalance());
+    }
+
+    @Test
+    void shouldExportSumOfSlots() throws Exception {
+        //given
+        transactionTemplate.executeWithoutResult(status ->
+                accountSlotRepo.setBalances(ACCOUNT_NUMBER, Map.of(0, 100L, 1, 100L, 2, 100L, 3, 100L)));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        //when
+        accountExporter.export(AccountStatus.OPEN, 978L, ExportFormat.CSV, out);
+        String actual = out.toString(StandardCharsets.UTF_8);
+        log.info("actual = {}", actual);
+
+        //then
+        assertTrue(actual.contains(ACCOUNT_NUMBER + ",978,4.00,OPEN\n"));
+    }
+
+    private SplitAccountService splitAccountService(Set<String> accountNumbers, int slots) {
+        AccountSplitProperties properties = new AccountSplitProperties();
+        properties.setAccountNumbers(accountNumbers);
+        properties.setSlots(slots);
+        return new SplitAccountService(accountRepo, accountSlotRepo, accountOperationRepo, eventOutbox,
+                entityManager, transactionTemplate, properties);
+    }
+
+    private Map<Integer, Long> lockSlots() {
+        return transactionTemplate.execute(status -> accountSlotRepo.lockSlots(ACCOUNT_NUMBER));
+    }
+
+    private AccountOperationDto operation(OperationSign sign, long amount) {
+        return AccountOperationDto.builder()
+                .accountNumber(ACCOUNT_NUMBER)
+                .currency(978L)
+                .amount(amount)
+                .operationSign(sign)
+                .build();
+    }
+}
@@ -0,0 +1,67 @@
+package com.bank.bankaccountapi.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.core.spi.FilterReply;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SamplingTurboFilterTest {
+
+    private SamplingTurboFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        filter = new SamplingTurboFilter();
+        filter.setRate(10);
+    }
+
+    @Test
+    void unmarkedEventsAreNeverSampled() {
+        //when
+        FilterReply actual = filter.decide(null, null, Level.INFO, "message", null, null);
+
+        //then
+        assertEquals(FilterReply.NEUTRAL, actual);
+    }
+
+    @Test
+    void errorEventsAreNeverSampled() {
+        //when
+        long denied = IntStream.range(0, 1_000)
+                .mapToObj(i -> filter.decide(LogMarkers.SAMPLED, null, Level.ERROR, "message", null, null))
+                .filter(FilterReply.DENY::equals)
+                .count();
+
+        //then
+        assertEquals(0, denied);
+    }
+
+    @Test
+    void markedInfoEventsAreSampled() {
+        //when
+        long kept = IntStream.range(0, 10_000)
+                .mapToObj(i -> filter.decide(LogMarkers.SAMPLED, null, Level.INFO, "message", null, null))
+                .filter(FilterReply.NEUTRAL::equals)
+                .count();
+
+        //then
+        assertTrue(kept > 500 && kept < 1_500, "kept = " + kept);
+    }
+
+    @Test
+    void rateOfOneKeepsEverything() {
+        //given
+        filter.setRate(1);
+
+        //when
+        FilterReply actual = filter.decide(LogMarkers.SAMPLED, null, Level.INFO, "message", null, null);
+
+        //then
+        assertEquals(FilterReply.NEUTRAL, actual);
+    }
+}
@@ -24,14 +24,14 @@ class AccountMapperTest {
         Account input = Account.builder()
                 .accountNumber("test-1")
                 .currency(978L)
-                .balance(0.00)
+                .balance(0L)
                 .status(AccountStatus.OPEN)
                 .build();
 
         AccountDto expected = AccountDto.builder()
                 .accountNumber("test-1")
                 .currency(978L)
-                .balance(0.00)
+                .balance(0L)
                 .status(AccountStatus.OPEN)
                 .build();
 
@@ -49,14 +49,14 @@ class AccountMapperTest {
         Account expected = Account.builder()
                 .accountNumber("test-1")
                 .currency(978L)
-                .balance(0.00)
+                .balance(0L)
                 .status(AccountStatus.OPEN)
                 .build();
 
         AccountDto input = AccountDto.builder()
                 .accountNumber("test-1")
                 .currency(978L)
-                .balance(0.00)
+                .balance(0L)
                 .status(AccountStatus.OPEN)
                 .build();
 
@@ -74,7 +74,7 @@ class AccountMapperTest {
         Account account = Account.builder()
                 .accountNumber("test-1")
                 .currency(978L)
-                .balance(0.00)
+                .balance(0L)
                 .status(AccountStatus.OPEN)
                 .build();
         List<Account> input = List.of(account);
@@ -82,7 +82,7 @@ class AccountMapperTest {
         AccountDto accountDto = AccountDto.builder()
                 .accountNumber("test-1")
                 .currency(978L)
-                .balance(0.00)
+                .balance(0L)
                 .status(AccountStatus.OPEN)
                 .build();
         List<AccountDto> expected = List.of(accountDto);
@@ -102,7 +102,7 @@ class AccountMapperTest {
         Account account = Account.builder()
                 .accountNumber("test-1")
                 .currency(978L)
-                .balance(0.00)
+                .balance(0L)
                 .status(AccountStatus.OPEN)
                 .build();
         List<Account> expected = List.of(account);
@@ -110,7 +110,7 @@ class AccountMapperTest {
         AccountDto accountDto = AccountDto.builder()
                 .accountNumber("test-1")
                 .currency(978L)
-                .balance(0.00)
+                .balance(0L)
                 .status(AccountStatus.OPEN)
                 .build();
         List<AccountDto> input = List.of(accountDto);
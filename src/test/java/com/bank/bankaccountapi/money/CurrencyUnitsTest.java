@@ -0,0 +1,54 @@
+package com.bank.bankaccountapi.money;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Slf4j
+class CurrencyUnitsTest {
+
+    private static final Long EUR = 978L;
+    private static final Long JPY = 392L;
+    private static final Long KWD = 414L;
+
+    @Test
+    void shouldLookUpScaleByNumericCode() {
+        assertEquals(2, CurrencyUnits.scale(EUR));
+        assertEquals(0, CurrencyUnits.scale(JPY));
+        assertEquals(3, CurrencyUnits.scale(KWD));
+        assertEquals(CurrencyUnits.DEFAULT_SCALE, CurrencyUnits.scale(1000L));
+        assertEquals(CurrencyUnits.DEFAULT_SCALE, CurrencyUnits.scale(null));
+    }
+
+    @Test
+    void shouldConvertMajorUnitsToMinorUnitsExactly() {
+        assertEquals(1012L, CurrencyUnits.toMinorUnits(new BigDecimal("10.12"), EUR));
+        assertEquals(30L, CurrencyUnits.toMinorUnits(new BigDecimal("0.1").add(new BigDecimal("0.2")), EUR));
+        assertEquals(1000L, CurrencyUnits.toMinorUnits(new BigDecimal("1000"), JPY));
+        assertEquals(1001L, CurrencyUnits.toMinorUnits(new BigDecimal("1.001"), KWD));
+        assertNull(CurrencyUnits.toMinorUnits(null, EUR));
+    }
+
+    @Test
+    void shouldRejectMorePrecisionThanCurrencyAllows() {
+        //when
+        IllegalArgumentException thrown = assertThrows(IllegalArgumentException.class,
+                () -> CurrencyUnits.toMinorUnits(new BigDecimal("10.005"), EUR));
+        log.error("Handled test-error", thrown);
+
+        //then
+        assertTrue(thrown.getMessage().contains("has more decimal places than currency 978 allows"));
+    }
+
+    @Test
+    void shouldConvertMinorUnitsToMajorUnits() {
+        assertEquals(new BigDecimal("10.12"), CurrencyUnits.toMajorUnits(1012L, EUR));
+        assertEquals(new BigDecimal("1012"), CurrencyUnits.toMajorUnits(1012L, JPY));
+    }
+}
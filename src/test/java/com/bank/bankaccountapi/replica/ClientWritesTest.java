@@ -0,0 +1,35 @@
+package com.bank.bankaccountapi.replica;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@Slf4j
+class ClientWritesTest {
+
+    private static final long NOW = 1_000_000L;
+    private static final long WINDOW = 1_000L;
+
+    @Test
+    void shouldSweepFullMapAtMostOncePerFractionOfWindowAndHonourOverflowEntry() {
+        //given
+        ClientWrites clientWrites = new ClientWrites(2, WINDOW);
+        clientWrites.writeStarted("client-1", NOW).finished(NOW);
+        clientWrites.writeStarted("client-2", NOW).finished(NOW);
+        clientWrites.writeStarted("new-1", NOW + 900).finished(NOW + 900);
+
+        //when
+        clientWrites.writeStarted("new-2", NOW + 1_100).finished(NOW + 1_100);
+        int clientsBeforeNextSweep = clientWrites.size();
+        clientWrites.writeStarted("new-3", NOW + 1_200).finished(NOW + 1_200);
+        int clientsAfterNextSweep = clientWrites.size();
+        log.info("clientsBeforeNextSweep = {}; clientsAfterNextSweep = {}",
+                clientsBeforeNextSweep, clientsAfterNextSweep);
+
+        //then
+        assertEquals(2, clientsBeforeNextSweep);
+        assertEquals(1, clientsAfterNextSweep);
+        assertEquals(NOW + 1_100, clientWrites.minPositionMillis("new-2", NOW + 1_200));
+    }
+}
@@ -0,0 +1,136 @@
+package com.bank.bankaccountapi.replica;
+
+import com.bank.bankaccountapi.config.ReadReplicaProperties.Selection;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+@Slf4j
+class ReadReplicaRouterTest {
+
+    private static final long NOW = 1_000_000L;
+
+    private final DataSource primary = new SimpleDriverDataSource();
+    private final AtomicLong clock = new AtomicLong(NOW);
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    void shouldTakeReplicasInTurn() {
+        //given
+        Replica first = replica("first", NOW, new AtomicInteger());
+        Replica second = replica("second", NOW, new AtomicInteger());
+        ReadReplicaRouter router = router(Selection.ROUND_ROBIN, first, second);
+
+        //when
+        List<DataSource> actual = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            actual.add(router.select(0));
+        }
+        log.info("actual = {}", actual);
+
+        //then
+        assertEquals(List.of(first.getDataSource(), second.getDataSource(), first.getDataSource(),
+                second.getDataSource()), actual);
+        assertEquals(2.0, reads("first", "fresh"));
+        assertEquals(2.0, reads("second", "fresh"));
+    }
+
+    @Test
+    void shouldTakeLeastLoadedReplica() {
+        //given
+        AtomicInteger firstLoad = new AtomicInteger(3);
+        AtomicInteger secondLoad = new AtomicInteger(1);
+        Replica first = replica("first", NOW, firstLoad);
+        Replica second = replica("second", NOW, secondLoad);
+        ReadReplicaRouter router = router(Selection.LEAST_LOADED, first, second);
+
+        //when
+        DataSource busyFirst = router.select(0);
+        DataSource againBusyFirst = router.select(0);
+        secondLoad.set(5);
+        DataSource busySecond = router.select(0);
+
+        //then
+        assertSame(second.getDataSource(), busyFirst);
+        assertSame(second.getDataSource(), againBusyFirst);
+        assertSame(first.getDataSource(), busySecond);
+    }
+
+    @Test
+    void shouldFallBackToPrimaryWhenReplicasAreTooStale() {
+        //given
+        Replica stale = replica("stale", NOW - 1_001, new AtomicInteger());
+        Replica fresh = replica("fresh", NOW - 1_000, new AtomicInteger());
+        ReadReplicaRouter router = router(Selection.ROUND_ROBIN, stale, fresh);
+
+        //when
+        DataSource whileFresh = router.select(0);
+        clock.addAndGet(1);
+        DataSource afterFallingBehind = router.select(0);
+
+        //then
+        assertSame(fresh.getDataSource(), whileFresh);
+        assertSame(primary, afterFallingBehind);
+        assertEquals(1.0, reads("primary", "stale"));
+    }
+
+    @Test
+    void shouldFallBackToPrimaryUntilReplicaHasReplicatedPastOwnWrite() {
+        //given
+        Replica replica = replica("replica", NOW - 10, new AtomicInteger());
+        ReadReplicaRouter router = router(Selection.ROUND_ROBIN, replica);
+
+        //when
+        DataSource pendingWrite = router.select(Long.MAX_VALUE);
+        DataSource behindWrite = router.select(NOW - 5);
+        replica.replicatedUpTo(NOW - 5);
+        DataSource pastWrite = router.select(NOW - 5);
+
+        //then
+        assertSame(primary, pendingWrite);
+        assertSame(primary, behindWrite);
+        assertSame(replica.getDataSource(), pastWrite);
+        assertEquals(2.0, reads("primary", "read-your-writes"));
+        assertEquals(0.0, reads("primary", "stale"));
+    }
+
+    @Test
+    void shouldUsePrimaryWithoutReplicas() {
+        //given
+        ReadReplicaRouter router = router(Selection.LEAST_LOADED);
+
+        //when
+        DataSource actual = router.select(0);
+
+        //then
+        assertSame(primary, actual);
+        assertEquals(1.0, reads("primary", "no-replica"));
+    }
+
+    private ReadReplicaRouter router(Selection selection, Replica... replicas) {
+        ReadReplicaRouter router = new ReadReplicaRouter(primary, List.of(replicas), selection, 1_000, clock::get);
+        router.bindTo(registry);
+        return router;
+    }
+
+    private double reads(String target, String reason) {
+        return registry.get(ReadReplicaRouter.READS).tag("target", target).tag("reason", reason)
+                .functionCounter().count();
+    }
+
+    private static Replica replica(String name, long positionMillis, AtomicInteger load) {
+        Replica replica = new Replica(name, new SimpleDriverDataSource(), load::get);
+        replica.replicatedUpTo(positionMillis);
+        return replica;
+    }
+}
@@ -0,0 +1,47 @@
+package com.bank.bankaccountapi.repo;
+
+import com.bank.bankaccountapi.domain.Account;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@Slf4j
+@DataJpaTest
+@Import(AccountBatchRepo.class)
+class AccountBatchRepoTest {
+
+    @Autowired
+    private TestEntityManager em;
+
+    @Autowired
+    private AccountRepo accountRepo;
+
+    @Autowired
+    private AccountBatchRepo accountBatchRepo;
+
+    @Test
+    void shouldUpdateBalancesInBatch() {
+        //given
+        Account account1 = accountRepo.findById("test-1").orElseThrow().toBuilder().balance(1100L).build();
+        Account account3 = accountRepo.findById("test-3").orElseThrow().toBuilder().balance(3300L).build();
+        em.clear();
+
+        //when
+        accountBatchRepo.updateBalances(List.of(account1, account3));
+        Account actual1 = accountRepo.findById("test-1").orElseThrow();
+        Account actual3 = accountRepo.findById("test-3").orElseThrow();
+        log.info("actual = {}, {}", actual1, actual3);
+
+        //then
+        assertEquals(1100L, actual1.getBalance());
+        assertEquals(1L, actual1.getVersion());
+        assertEquals(3300L, actual3.getBalance());
+    }
+}
@@ -0,0 +1,83 @@
+package com.bank.bankaccountapi.repo;
+
+import com.bank.bankaccountapi.domain.AccountOperation;
+import com.bank.bankaccountapi.dto.OperationSign;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Slf4j
+@DataJpaTest
+class AccountOperationRepoTest {
+
+    @Autowired
+    private AccountOperationRepo accountOperationRepo;
+
+    @Test
+    void shouldAppendEntriesWithSequenceIds() {
+        //when
+        List<AccountOperation> actual = accountOperationRepo.saveAllAndFlush(List.of(
+                entry("test-1", 100L, null),
+                entry("test-1", 200L, null)));
+        log.info("actual = {}", actual);
+
+        //then
+        assertNotNull(actual.get(0).getId());
+        assertNotNull(actual.get(1).getId());
+        assertNotEquals(actual.get(0).getId(), actual.get(1).getId());
+        assertEquals(2, accountOperationRepo.findByAccountNumberOrderById("test-1").size());
+    }
+
+    @Test
+    void shouldFindEntryByIdempotencyKey() {
+        //given
+        accountOperationRepo.saveAndFlush(entry("test-1", 100L, "key-1"));
+
+        //when
+        Optional<AccountOperation> actual = accountOperationRepo.findByAccountNumberAndIdempotencyKey("test-1", "key-1");
+        log.info("actual = {}", actual);
+
+        //then
+        assertTrue(actual.isPresent());
+        assertEquals(100L, actual.get().getBalanceAfter());
+        assertTrue(accountOperationRepo.findByAccountNumberAndIdempotencyKey("test-2", "key-1").isEmpty());
+    }
+
+    @Test
+    void shouldRejectDuplicateIdempotencyKeyForSameAccount() {
+        //given
+        accountOperationRepo.saveAndFlush(entry("test-1", 100L, "key-1"));
+
+        //when
+        DataIntegrityViolationException thrown = assertThrows(DataIntegrityViolationException.class,
+                () -> accountOperationRepo.saveAndFlush(entry("test-1", 200L, "key-1")));
+        log.error("Handled test-error", thrown);
+
+        //then
+        assertNotNull(thrown.getMessage());
+    }
+
+    private AccountOperation entry(String accountNumber, long balanceAfter, String idempotencyKey) {
+        return AccountOperation.builder()
+                .accountNumber(accountNumber)
+                .currency(978L)
+                .amount(100L)
+                .operationSign(OperationSign.DEBIT)
+                .balanceAfter(balanceAfter)
+                .idempotencyKey(idempotencyKey)
+                .createdAt(Instant.now())
+                .build();
+    }
+}
@@ -9,9 +9,12 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
@@ -46,7 +49,7 @@ class AccountRepoTest {
         Account expected = Account.builder()
                 .accountNumber("test-1")
                 .currency(978L)
-                .balance(0.00)
+                .balance(0L)
                 .status(AccountStatus.OPEN)
                 .build();
 
@@ -59,13 +62,24 @@ class AccountRepoTest {
         assertEquals(expected, actual.get());
     }
 
+    @Test
+    void shouldFindLockedByAccountNumber() {
+        //when
+        Optional<Account> actual = accountRepo.findLockedByAccountNumber("test-1");
+        log.info("actual = {}", actual);
+
+        //then
+        assertTrue(actual.isPresent());
+        assertEquals("test-1", actual.get().getAccountNumber());
+    }
+
     @Test
     void shouldUpdateAccount() {
         //given
         Account expected = Account.builder()
                 .accountNumber("test-1")
                 .currency(978L)
-                .balance(20.00)
+                .balance(2000L)
                 .status(AccountStatus.OPEN)
                 .build();
 
@@ -78,4 +92,92 @@ class AccountRepoTest {
         assertTrue(actual.isPresent());
         assertEquals(expected, actual.get());
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldApplyConditionalUpdateAndReadUpdatedAccountAfterIt() {
+        //given
+        Account loaded = accountRepo.findById("test-3").orElseThrow();
+        log.info("loaded = {}", loaded);
+
+        //when
+        int updated = accountRepo.applyConditionalUpdate("test-3", 978L, -4500L, 4500L, Long.MAX_VALUE);
+        Account actual = accountRepo.findById("test-3").orElseThrow();
+        log.info("actual = {}", actual);
+
+        //then
+        assertEquals(1, updated);
+        assertEquals(30000L, actual.getBalance());
+        assertEquals(1L, actual.getVersion());
+    }
+
+    @Test
+    void shouldNotApplyConditionalUpdateIfBalanceIsNotEnough() {
+        //when
+        int actual = accountRepo.applyConditionalUpdate("test-3", 978L, -40000L, 40000L, Long.MAX_VALUE);
+        log.info("actual = {}", actual);
+
+        //then
+        assertEquals(0, actual);
+        em.clear();
+        assertEquals(34500L, accountRepo.findById("test-3").orElseThrow().getBalance());
+    }
+
+    @Test
+    void shouldNotApplyConditionalUpdateThatWouldOverflowBalance() {
+        //when
+        int actual = accountRepo.applyConditionalUpdate("test-3", 978L, Long.MAX_VALUE,
+                Long.MIN_VALUE, 0L);
+        log.info("actual = {}", actual);
+
+        //then
+        assertEquals(0, actual);
+        em.clear();
+        assertEquals(34500L, accountRepo.findById("test-3").orElseThrow().getBalance());
+    }
+
+    @Test
+    void shouldNotApplyConditionalUpdateToNotOpenedAccount() {
+        //when
+        int actual = accountRepo.applyConditionalUpdate("test-4", 978L, 100L, Long.MIN_VALUE,
+                Long.MAX_VALUE - 100L);
+        log.info("actual = {}", actual);
+
+        //then
+        assertEquals(0, actual);
+    }
+
+    @Test
+    void shouldNotApplyConditionalUpdateWithWrongCurrency() {
+        //when
+        int actual = accountRepo.applyConditionalUpdate("test-2", 978L, 100L, Long.MIN_VALUE,
+                Long.MAX_VALUE - 100L);
+        log.info("actual = {}", actual);
+
+        //then
+        assertEquals(0, actual);
+    }
+
+    @Test
+    @Transactional(readOnly = true)
+    void shouldStreamAccountsFilteredByStatusAndCurrencyInAccountNumberOrder() {
+        //when
+        List<String> all;
+        List<String> open978;
+        List<String> closed;
+        try (Stream<Account> accounts = accountRepo.streamAll(null, null)) {
+            all = accounts.map(Account::getAccountNumber).collect(Collectors.toList());
+        }
+        try (Stream<Account> accounts = accountRepo.streamAll(AccountStatus.OPEN, 978L)) {
+            open978 = accounts.map(Account::getAccountNumber).collect(Collectors.toList());
+        }
+        try (Stream<Account> accounts = accountRepo.streamAll(AccountStatus.CLOSED, null)) {
+            closed = accounts.map(Account::getAccountNumber).collect(Collectors.toList());
+        }
+        log.info("all = {}; open978 = {}; closed = {}", all, open978, closed);
+
+        //then
+        assertEquals(List.of("test-1", "test-2", "test-3", "test-4"), all);
+        assertEquals(List.of("test-1", "test-3"), open978);
+        assertEquals(List.of("test-4"), closed);
+    }
+}
@@ -0,0 +1,62 @@
+package com.bank.bankaccountapi.repo;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Slf4j
+@DataJpaTest
+@Import(AccountSlotRepo.class)
+class AccountSlotRepoTest {
+
+    @Autowired
+    private AccountSlotRepo accountSlotRepo;
+
+    @Test
+    void shouldSumAccountRowAndSlotsAndNeverTakeSlotBelowZero() {
+        //given
+        accountSlotRepo.createSlots("test-3", 4);
+        accountSlotRepo.createSlots("test-3", 4);
+
+        //when
+        boolean added = accountSlotRepo.addToSlot("test-3", 2, 500L);
+        boolean overdrawn = accountSlotRepo.addToSlot("test-3", 2, -600L);
+        boolean missingSlot = accountSlotRepo.addToSlot("test-3", 7, 100L);
+        long total = accountSlotRepo.totalBalance("test-3");
+        TreeMap<Integer, Long> locked = accountSlotRepo.lockSlots("test-3");
+        log.info("total = {}; locked = {}", total, locked);
+
+        //then
+        assertTrue(added);
+        assertFalse(overdrawn);
+        assertFalse(missingSlot);
+        assertEquals(35000L, total);
+        assertEquals(Map.of(0, 34500L, 1, 0L, 2, 500L, 3, 0L), locked);
+        assertEquals(Map.of("test-3", 500L), accountSlotRepo.slotBalances(List.of("test-1", "test-3")));
+    }
+
+    @Test
+    void shouldSetBalancesOfAccountRowAndSlots() {
+        //given
+        accountSlotRepo.createSlots("test-3", 3);
+
+        //when
+        accountSlotRepo.setBalances("test-3", Map.of(0, 11500L, 1, 11500L, 2, 11500L));
+        TreeMap<Integer, Long> actual = accountSlotRepo.lockSlots("test-3");
+        log.info("actual = {}", actual);
+
+        //then
+        assertEquals(Map.of(0, 11500L, 1, 11500L, 2, 11500L), actual);
+        assertEquals(34500L, accountSlotRepo.totalBalance("test-3"));
+    }
+}
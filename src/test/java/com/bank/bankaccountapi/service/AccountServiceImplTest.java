@@ -1,28 +1,61 @@
 package com.bank.bankaccountapi.service;
 
+import com.bank.bankaccountapi.config.AccountCacheProperties;
+import com.bank.bankaccountapi.config.AccountCoalescingProperties;
+import com.bank.bankaccountapi.config.AccountConcurrencyProperties;
+import com.bank.bankaccountapi.config.AccountOutboxProperties;
+import com.bank.bankaccountapi.config.AccountSplitProperties;
 import com.bank.bankaccountapi.domain.Account;
+import com.bank.bankaccountapi.domain.AccountOperation;
+import com.bank.bankaccountapi.domain.AccountOutboxEvent;
 import com.bank.bankaccountapi.domain.AccountStatus;
+import com.bank.bankaccountapi.dto.AccountBalanceResultDto;
 import com.bank.bankaccountapi.dto.AccountDto;
 import com.bank.bankaccountapi.dto.AccountOperationDto;
+import com.bank.bankaccountapi.dto.AccountOperationResultDto;
+import com.bank.bankaccountapi.dto.AccountTransferDto;
 import com.bank.bankaccountapi.dto.OperationSign;
 import com.bank.bankaccountapi.expection.AccountApiException;
+import com.bank.bankaccountapi.expection.AccountApiException.Reason;
 import com.bank.bankaccountapi.mapper.AccountMapper;
+import com.bank.bankaccountapi.repo.AccountOperationRepo;
+import com.bank.bankaccountapi.repo.AccountOutboxRepo;
 import com.bank.bankaccountapi.repo.AccountRepo;
+import com.bank.bankaccountapi.repo.AccountSlotRepo;
+import com.bank.bankaccountapi.service.cache.AccountCache;
+import com.bank.bankaccountapi.service.coalescing.OperationCoalescer;
+import com.bank.bankaccountapi.service.concurrency.ConditionalUpdateConcurrencyStrategy;
+import com.bank.bankaccountapi.service.concurrency.StripedLockConcurrencyStrategy;
+import com.bank.bankaccountapi.service.outbox.AccountEventOutbox;
+import com.bank.bankaccountapi.service.split.SplitAccountService;
 import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import javax.persistence.EntityManager;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -36,15 +69,15 @@ class AccountServiceImplTest {
     private static final String ACCOUNT_NUMBER_2 = "test-2";
     private static final Long CURRENCY_1 = 978L;
     private static final Long CURRENCY_2 = 1000L;
-    private static final Double BALANCE = 20.0;
-    private static final Account account1 = Account.builder()
+    private static final Long BALANCE = 2000L;
+    private final Account account1 = Account.builder()
             .accountNumber(ACCOUNT_NUMBER_1)
             .currency(CURRENCY_1)
             .balance(BALANCE)
             .status(AccountStatus.OPEN)
             .build();
 
-    private static final Account account2 = Account.builder()
+    private final Account account2 = Account.builder()
             .accountNumber(ACCOUNT_NUMBER_2)
             .currency(CURRENCY_1)
             .balance(BALANCE)
@@ -60,11 +93,32 @@ class AccountServiceImplTest {
     @Mock
     private AccountRepo accountRepo;
     @Mock
+    private AccountOperationRepo accountOperationRepo;
+    @Mock
     private AccountMapper accountMapper;
+    @Mock
+    private AccountSlotRepo accountSlotRepo;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    @Mock
+    private AccountOutboxRepo accountOutboxRepo;
+    @Mock
+    private EntityManager entityManager;
 
-    @InjectMocks
+    private final AccountOutboxProperties outboxProperties = new AccountOutboxProperties();
+    private AccountEventOutbox eventOutbox;
     private AccountServiceImpl accountService;
 
+    @BeforeEach
+    void setUp() {
+        eventOutbox = new AccountEventOutbox(accountOutboxRepo, outboxProperties);
+        StripedLockConcurrencyStrategy concurrencyStrategy = new StripedLockConcurrencyStrategy(accountRepo,
+                new TransactionTemplate(transactionManager), new AccountConcurrencyProperties());
+        accountService = new AccountServiceImpl(accountRepo, accountOperationRepo, accountMapper, concurrencyStrategy,
+                new AccountCache(new AccountCacheProperties()), splitAccountService(new AccountSplitProperties()),
+                new OperationCoalescer(new AccountCoalescingProperties()), eventOutbox);
+    }
+
     @Test
     void shouldReturnAccountStatusByAccountNumber() {
         //given
@@ -138,8 +192,8 @@ class AccountServiceImplTest {
     @Test
     void shouldApplyDebitAccountOperation() {
         //given
-        Account updatedAccount = account1.toBuilder().balance(BALANCE + 10.0).build();
-        AccountDto updatedAccountDto = accountDto1.toBuilder().balance(BALANCE + 10.0).build();
+        Account updatedAccount = account1.toBuilder().balance(BALANCE + 1000L).build();
+        AccountDto updatedAccountDto = accountDto1.toBuilder().balance(BALANCE + 1000L).build();
         when(accountMapper.map(updatedAccount))
                 .thenReturn(updatedAccountDto);
         when(accountRepo.findById(ACCOUNT_NUMBER_1))
@@ -149,7 +203,7 @@ class AccountServiceImplTest {
         AccountOperationDto operation = AccountOperationDto.builder()
                 .accountNumber(ACCOUNT_NUMBER_1)
                 .currency(CURRENCY_1)
-                .amount(10.0)
+                .amount(1000L)
                 .operationSign(OperationSign.DEBIT)
                 .build();
 
@@ -167,8 +221,8 @@ class AccountServiceImplTest {
     @Test
     void shouldApplyCreditAccountOperation() {
         //given
-        Account updatedAccount = account1.toBuilder().balance(BALANCE - 10.0).build();
-        AccountDto updatedAccountDto = accountDto1.toBuilder().balance(BALANCE - 10.0).build();
+        Account updatedAccount = account1.toBuilder().balance(BALANCE - 1000L).build();
+        AccountDto updatedAccountDto = accountDto1.toBuilder().balance(BALANCE - 1000L).build();
         when(accountMapper.map(updatedAccount))
                 .thenReturn(updatedAccountDto);
         when(accountRepo.findById(ACCOUNT_NUMBER_1))
@@ -178,7 +232,7 @@ class AccountServiceImplTest {
         AccountOperationDto operation = AccountOperationDto.builder()
                 .accountNumber(ACCOUNT_NUMBER_1)
                 .currency(CURRENCY_1)
-                .amount(10.0)
+                .amount(1000L)
                 .operationSign(OperationSign.CREDIT)
                 .build();
 
@@ -193,6 +247,136 @@ class AccountServiceImplTest {
         verify(accountRepo, times(1)).save(any());
     }
 
+    @Test
+    void shouldJournalAppliedOperation() {
+        //given
+        Account account = account1.toBuilder().balance(BALANCE).build();
+        when(accountRepo.findById(ACCOUNT_NUMBER_1))
+                .thenReturn(Optional.of(account));
+        when(accountRepo.save(any()))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+        AccountOperationDto operation = AccountOperationDto.builder()
+                .accountNumber(ACCOUNT_NUMBER_1)
+                .currency(CURRENCY_1)
+                .amount(1000L)
+                .operationSign(OperationSign.DEBIT)
+                .idempotencyKey("key-1")
+                .build();
+        ArgumentCaptor<AccountOperation> captor = ArgumentCaptor.forClass(AccountOperation.class);
+
+        //when
+        accountService.applyAccountOperation(operation);
+
+        //then
+        verify(accountOperationRepo, times(1)).save(captor.capture());
+        AccountOperation actual = captor.getValue();
+        log.info("actual = {}", actual);
+        assertEquals(ACCOUNT_NUMBER_1, actual.getAccountNumber());
+        assertEquals(1000L, actual.getAmount());
+        assertEquals(OperationSign.DEBIT, actual.getOperationSign());
+        assertEquals(BALANCE + 1000L, actual.getBalanceAfter());
+        assertEquals("key-1", actual.getIdempotencyKey());
+    }
+
+    @Test
+    void shouldWriteOutboxEventForJournaledOperationWhenOutboxIsEnabled() {
+        //given
+        outboxProperties.setEnabled(true);
+        Account account = account1.toBuilder().balance(BALANCE).build();
+        when(accountRepo.findById(ACCOUNT_NUMBER_1))
+                .thenReturn(Optional.of(account));
+        when(accountRepo.save(any()))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+        when(accountOperationRepo.save(any()))
+                .thenAnswer(invocation -> ((AccountOperation) invocation.getArgument(0)).toBuilder().id(42L).build());
+        AccountOperationDto operation = AccountOperationDto.builder()
+                .accountNumber(ACCOUNT_NUMBER_1)
+                .currency(CURRENCY_1)
+                .amount(1000L)
+                .operationSign(OperationSign.CREDIT)
+                .build();
+        ArgumentCaptor<AccountOutboxEvent> captor = ArgumentCaptor.forClass(AccountOutboxEvent.class);
+
+        //when
+        accountService.applyAccountOperation(operation);
+
+        //then
+        verify(accountOutboxRepo, times(1)).save(captor.capture());
+        AccountOutboxEvent actual = captor.getValue();
+        log.info("actual = {}", actual);
+        assertEquals(42L, actual.getOperationId());
+        assertEquals(ACCOUNT_NUMBER_1, actual.getAccountNumber());
+        assertEquals(OperationSign.CREDIT, actual.getOperationSign());
+        assertEquals(BALANCE - 1000L, actual.getBalanceAfter());
+    }
+
+    @Test
+    void shouldReturnOriginalResultForRepeatedIdempotencyKey() {
+        //given
+        when(accountRepo.findById(ACCOUNT_NUMBER_1))
+                .thenReturn(Optional.of(account1.toBuilder().balance(BALANCE + 1000L).build()));
+        when(accountOperationRepo.findByAccountNumberAndIdempotencyKey(ACCOUNT_NUMBER_1, "key-1"))
+                .thenReturn(Optional.of(AccountOperation.builder()
+                        .accountNumber(ACCOUNT_NUMBER_1)
+                        .currency(CURRENCY_1)
+                        .amount(1000L)
+                        .operationSign(OperationSign.DEBIT)
+                        .balanceAfter(BALANCE)
+                        .idempotencyKey("key-1")
+                        .build()));
+        Account original = account1.toBuilder().balance(BALANCE).build();
+        when(accountMapper.map(original))
+                .thenReturn(accountDto1);
+        AccountOperationDto operation = AccountOperationDto.builder()
+                .accountNumber(ACCOUNT_NUMBER_1)
+                .currency(CURRENCY_1)
+                .amount(1000L)
+                .operationSign(OperationSign.DEBIT)
+                .idempotencyKey("key-1")
+                .build();
+
+        //when
+        AccountDto actual = accountService.applyAccountOperation(operation);
+        log.info("actual = {}", actual);
+
+        //then
+        assertEquals(accountDto1, actual);
+        verify(accountRepo, times(0)).save(any());
+        verify(accountOperationRepo, times(0)).save(any());
+    }
+
+    @Test
+    void shouldRejectIdempotencyKeyReusedForAnotherOperation() {
+        //given
+        when(accountRepo.findById(ACCOUNT_NUMBER_1))
+                .thenReturn(Optional.of(account1));
+        when(accountOperationRepo.findByAccountNumberAndIdempotencyKey(ACCOUNT_NUMBER_1, "key-1"))
+                .thenReturn(Optional.of(AccountOperation.builder()
+                        .accountNumber(ACCOUNT_NUMBER_1)
+                        .currency(CURRENCY_1)
+                        .amount(1000L)
+                        .operationSign(OperationSign.DEBIT)
+                        .balanceAfter(BALANCE)
+                        .idempotencyKey("key-1")
+                        .build()));
+        AccountOperationDto operation = AccountOperationDto.builder()
+                .accountNumber(ACCOUNT_NUMBER_1)
+                .currency(CURRENCY_1)
+                .amount(500L)
+                .operationSign(OperationSign.DEBIT)
+                .idempotencyKey("key-1")
+                .build();
+
+        //when
+        AccountApiException thrown = assertThrows(AccountApiException.class,
+                () -> accountService.applyAccountOperation(operation));
+        log.error("Handled test-error", thrown);
+
+        //then
+        assertTrue(thrown.getMessage().contains("Idempotency key was already used for another operation"));
+        verify(accountRepo, times(0)).save(any());
+    }
+
     @Test
     void shouldNotApplyOperationForNonExistingAccount() {
         //given
@@ -201,7 +385,7 @@ class AccountServiceImplTest {
         AccountOperationDto operation = AccountOperationDto.builder()
                 .accountNumber(ACCOUNT_NUMBER_1)
                 .currency(CURRENCY_1)
-                .amount(10.0)
+                .amount(1000L)
                 .operationSign(OperationSign.DEBIT)
                 .build();
 
@@ -225,7 +409,7 @@ class AccountServiceImplTest {
         AccountOperationDto operation = AccountOperationDto.builder()
                 .accountNumber(ACCOUNT_NUMBER_2)
                 .currency(CURRENCY_1)
-                .amount(10.0)
+                .amount(1000L)
                 .operationSign(OperationSign.DEBIT)
                 .build();
 
@@ -249,7 +433,7 @@ class AccountServiceImplTest {
         AccountOperationDto operation = AccountOperationDto.builder()
                 .accountNumber(ACCOUNT_NUMBER_1)
                 .currency(CURRENCY_2)
-                .amount(10.0)
+                .amount(1000L)
                 .operationSign(OperationSign.DEBIT)
                 .build();
 
@@ -273,7 +457,7 @@ class AccountServiceImplTest {
         AccountOperationDto operation = AccountOperationDto.builder()
                 .accountNumber(ACCOUNT_NUMBER_1)
                 .currency(CURRENCY_1)
-                .amount(BALANCE + 10.0)
+                .amount(BALANCE + 1000L)
                 .operationSign(OperationSign.CREDIT)
                 .build();
 
@@ -288,4 +472,403 @@ class AccountServiceImplTest {
                 .findById(ACCOUNT_NUMBER_1);
         verify(accountRepo, times(0)).save(any());
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldNotApplyDebitOperationThatWouldOverflowBalance() {
+        //given
+        when(accountRepo.findById(ACCOUNT_NUMBER_1))
+                .thenReturn(Optional.of(account1));
+        AccountOperationDto operation = AccountOperationDto.builder()
+                .accountNumber(ACCOUNT_NUMBER_1)
+                .currency(CURRENCY_1)
+                .amount(Long.MAX_VALUE)
+                .operationSign(OperationSign.DEBIT)
+                .build();
+
+        //when
+        AccountApiException thrown = assertThrows(AccountApiException.class,
+                () -> accountService.applyAccountOperation(operation));
+        log.error("Handled test-error", thrown);
+
+        //then
+        assertEquals(Reason.BALANCE_OVERFLOW, thrown.getReason());
+        assertEquals(BALANCE, account1.getBalance());
+        verify(accountRepo, times(0)).save(any());
+    }
+
+    @Test
+    void shouldReturnRejectionAsOutcomeWithoutException() {
+        //given
+        when(accountRepo.findById(ACCOUNT_NUMBER_1))
+                .thenReturn(Optional.of(account1));
+        when(accountRepo.findById("wrong"))
+                .thenReturn(Optional.empty());
+        AccountOperationDto credit = AccountOperationDto.builder()
+                .accountNumber(ACCOUNT_NUMBER_1)
+                .currency(CURRENCY_1)
+                .amount(BALANCE + 1000L)
+                .operationSign(OperationSign.CREDIT)
+                .build();
+
+        //when
+        AccountOperationOutcome insufficientBalance = accountService.tryApplyAccountOperation(credit);
+        AccountOperationOutcome notFound = accountService.tryApplyAccountOperation(
+                credit.toBuilder().accountNumber("wrong").build());
+        log.info("actual = {}, {}", insufficientBalance.getRejection(), notFound.getRejection());
+
+        //then
+        assertFalse(insufficientBalance.isApplied());
+        assertEquals(Reason.INSUFFICIENT_BALANCE, insufficientBalance.getRejection());
+        assertEquals(Reason.ACCOUNT_NOT_FOUND, notFound.getRejection());
+        assertEquals(BALANCE, account1.getBalance());
+        verify(accountRepo, times(0)).save(any());
+        verify(accountOperationRepo, times(0)).save(any());
+    }
+
+    @Test
+    void shouldApplyAccountOperationsBatchWithOneLoadAndPerItemResults() {
+        //given
+        Account account = account1.toBuilder().balance(BALANCE).build();
+        when(accountRepo.findAllById(anyCollection()))
+                .thenReturn(List.of(account));
+        when(accountMapper.mapToAccountDtoList(anyList()))
+                .thenReturn(Arrays.asList(
+                        accountDto1.toBuilder().balance(BALANCE + 1000L).build(),
+                        null,
+                        null,
+                        null));
+        AccountOperationDto debit = AccountOperationDto.builder()
+                .accountNumber(ACCOUNT_NUMBER_1)
+                .currency(CURRENCY_1)
+                .amount(1000L)
+                .operationSign(OperationSign.DEBIT)
+                .build();
+        AccountOperationDto tooLargeCredit = debit.toBuilder()
+                .amount(BALANCE + 10000L)
+                .operationSign(OperationSign.CREDIT)
+                .build();
+        AccountOperationDto unknownAccount = debit.toBuilder()
+                .accountNumber("wrong")
+                .build();
+        AccountOperationDto wrongCurrency = debit.toBuilder()
+                .currency(CURRENCY_2)
+                .build();
+
+        //when
+        List<AccountOperationResultDto> actual = accountService.applyAccountOperations(
+                List.of(debit, tooLargeCredit, unknownAccount, wrongCurrency));
+        log.info("actual = {}", actual);
+
+        //then
+        assertEquals(4, actual.size());
+        assertTrue(actual.get(0).isApplied());
+        assertEquals(BALANCE + 1000L, actual.get(0).getAccount().getBalance());
+        assertFalse(actual.get(1).isApplied());
+        assertTrue(actual.get(1).getError().contains("Account does not have enough balance to process operation"));
+        assertFalse(actual.get(2).isApplied());
+        assertTrue(actual.get(2).getError().contains("Account does not exists"));
+        assertFalse(actual.get(3).isApplied());
+        assertEquals(Reason.CURRENCY_MISMATCH.messageFor(ACCOUNT_NUMBER_1), actual.get(3).getError());
+        assertEquals(BALANCE + 1000L, account.getBalance());
+        verify(accountRepo, times(1)).findAllById(anyCollection());
+        verify(accountRepo, times(0)).findById(any());
+        verify(accountRepo, times(1)).saveAll(any());
+    }
+
+    @Test
+    void shouldTransferWithOneLoadAndOneWriteOfBothAccounts() {
+        //given
+        Account target = account1.toBuilder().accountNumber("test-0").balance(0L).build();
+        when(accountRepo.findAllById(anyCollection()))
+                .thenReturn(List.of(target, account1));
+        AccountTransferDto transfer = AccountTransferDto.builder()
+                .fromAccountNumber(ACCOUNT_NUMBER_1)
+                .toAccountNumber("test-0")
+                .currency(CURRENCY_1)
+                .amount(500L)
+                .build();
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<Set<String>> loaded = ArgumentCaptor.forClass(Set.class);
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<AccountOperation>> journal = ArgumentCaptor.forClass(List.class);
+
+        //when
+        accountService.transfer(transfer);
+        log.info("from = {}; to = {}", account1, target);
+
+        //then
+        assertEquals(BALANCE - 500L, account1.getBalance());
+        assertEquals(500L, target.getBalance());
+        verify(accountRepo, times(1)).findAllById(loaded.capture());
+        assertEquals(List.of("test-0", ACCOUNT_NUMBER_1), List.copyOf(loaded.getValue()));
+        verify(accountRepo, times(1)).saveAll(anyCollection());
+        verify(accountOperationRepo, times(1)).saveAll(journal.capture());
+        assertEquals(OperationSign.CREDIT, journal.getValue().get(0).getOperationSign());
+        assertEquals(BALANCE - 500L, journal.getValue().get(0).getBalanceAfter());
+        assertEquals(OperationSign.DEBIT, journal.getValue().get(1).getOperationSign());
+        assertEquals(500L, journal.getValue().get(1).getBalanceAfter());
+    }
+
+    @Test
+    void shouldNotWriteAnyAccountWhenOneSideOfTransferIsRejected() {
+        //given
+        when(accountRepo.findAllById(anyCollection()))
+                .thenReturn(List.of(account1, account2));
+        AccountTransferDto transfer = AccountTransferDto.builder()
+                .fromAccountNumber(ACCOUNT_NUMBER_1)
+                .toAccountNumber(ACCOUNT_NUMBER_2)
+                .currency(CURRENCY_1)
+                .amount(500L)
+                .build();
+
+        //when
+        AccountApiException thrown = assertThrows(AccountApiException.class,
+                () -> accountService.transfer(transfer));
+        log.error("Handled test-error", thrown);
+
+        //then
+        assertEquals(Reason.ACCOUNT_NOT_OPEN, thrown.getReason());
+        verify(accountRepo, times(0)).saveAll(any());
+        verify(accountOperationRepo, times(0)).saveAll(any());
+        verify(transactionManager, times(1)).rollback(any());
+    }
+
+    @Test
+    void shouldApplyCoalescedOperationAsGroupAndThrowItsOwnRejection() {
+        //given
+        AccountCoalescingProperties properties = new AccountCoalescingProperties();
+        properties.setEnabled(true);
+        AccountServiceImpl coalescingService = new AccountServiceImpl(accountRepo, accountOperationRepo, accountMapper,
+                new StripedLockConcurrencyStrategy(accountRepo, new TransactionTemplate(transactionManager),
+                        new AccountConcurrencyProperties()),
+                new AccountCache(new AccountCacheProperties()), splitAccountService(new AccountSplitProperties()),
+                new OperationCoalescer(properties), eventOutbox);
+        Account account = account1.toBuilder().build();
+        when(accountRepo.findAllById(anyCollection()))
+                .thenReturn(List.of(account));
+        when(accountMapper.mapToAccountDtoList(anyList()))
+                .thenReturn(Arrays.asList((AccountDto) null));
+        AccountOperationDto tooLargeCredit = AccountOperationDto.builder()
+                .accountNumber(ACCOUNT_NUMBER_1)
+                .currency(CURRENCY_1)
+                .amount(BALANCE + 10000L)
+                .operationSign(OperationSign.CREDIT)
+                .build();
+
+        //when
+        AccountApiException thrown = assertThrows(AccountApiException.class,
+                () -> coalescingService.applyAccountOperation(tooLargeCredit));
+        log.error("Handled test-error", thrown);
+
+        //then
+        assertEquals(Reason.INSUFFICIENT_BALANCE, thrown.getReason());
+        assertEquals(BALANCE, account.getBalance());
+        verify(accountRepo, times(1)).findAllById(Set.of(ACCOUNT_NUMBER_1));
+        verify(accountRepo, times(0)).findById(any());
+    }
+
+    @Test
+    void shouldReturnAccountBalancesWithOneLoadAndMissingAccountsInline() {
+        //given
+        when(accountRepo.findAllById(anyCollection()))
+                .thenReturn(List.of(account1));
+        when(accountMapper.mapToAccountDtoList(List.of(account1)))
+                .thenReturn(List.of(accountDto1));
+
+        //when
+        List<AccountBalanceResultDto> actual = accountService.getAccountBalances(
+                List.of("wrong", ACCOUNT_NUMBER_1, ACCOUNT_NUMBER_1));
+        log.info("actual = {}", actual);
+
+        //then
+        assertEquals(3, actual.size());
+        assertFalse(actual.get(0).isFound());
+        assertTrue(actual.get(0).getError().contains("Account does not exists"));
+        assertEquals(accountDto1, actual.get(1).getAccount());
+        assertEquals(accountDto1, actual.get(2).getAccount());
+        verify(accountRepo, times(1)).findAllById(Set.of("wrong", ACCOUNT_NUMBER_1));
+        verify(accountRepo, times(0)).findById(any());
+    }
+
+    @Test
+    void shouldApplyOperationWithConditionalUpdate() {
+        //given
+        AccountServiceImpl conditionalService = conditionalUpdateService();
+        Account updatedAccount = account1.toBuilder().balance(BALANCE - 500L).version(1L).build();
+        AccountDto updatedAccountDto = accountDto1.toBuilder().balance(BALANCE - 500L).build();
+        when(accountRepo.applyConditionalUpdate(ACCOUNT_NUMBER_1, CURRENCY_1, -500L, 500L, Long.MAX_VALUE))
+                .thenReturn(1);
+        when(accountRepo.findById(ACCOUNT_NUMBER_1))
+                .thenReturn(Optional.of(updatedAccount));
+        when(accountMapper.map(updatedAccount))
+                .thenReturn(updatedAccountDto);
+        AccountOperationDto operation = AccountOperationDto.builder()
+                .accountNumber(ACCOUNT_NUMBER_1)
+                .currency(CURRENCY_1)
+                .amount(500L)
+                .operationSign(OperationSign.CREDIT)
+                .build();
+
+        //when
+        AccountDto actual = conditionalService.applyAccountOperation(operation);
+        log.info("actual = {}", actual);
+
+        //then
+        assertEquals(updatedAccountDto, actual);
+        verify(accountRepo, times(1)).findById(ACCOUNT_NUMBER_1);
+        verify(accountRepo, times(0)).save(any());
+        verify(accountOperationRepo, times(1)).save(any());
+    }
+
+    @Test
+    void shouldReportSameReasonsWhenConditionalUpdateDoesNotMatch() {
+        //given
+        AccountServiceImpl conditionalService = conditionalUpdateService();
+        when(accountRepo.applyConditionalUpdate(any(), any(), anyLong(), anyLong(), anyLong()))
+                .thenReturn(0);
+        when(accountRepo.findById(ACCOUNT_NUMBER_1))
+                .thenReturn(Optional.of(account1));
+        when(accountRepo.findById(ACCOUNT_NUMBER_2))
+                .thenReturn(Optional.of(account2));
+        AccountOperationDto credit = AccountOperationDto.builder()
+                .accountNumber(ACCOUNT_NUMBER_1)
+                .currency(CURRENCY_1)
+                .amount(BALANCE + 1000L)
+                .operationSign(OperationSign.CREDIT)
+                .build();
+
+        //when
+        Reason insufficientBalance = assertThrows(AccountApiException.class,
+                () -> conditionalService.applyAccountOperation(credit)).getReason();
+        Reason currencyMismatch = assertThrows(AccountApiException.class,
+                () -> conditionalService.applyAccountOperation(credit.toBuilder().currency(CURRENCY_2).build()))
+                .getReason();
+        Reason notOpen = assertThrows(AccountApiException.class,
+                () -> conditionalService.applyAccountOperation(credit.toBuilder()
+                        .accountNumber(ACCOUNT_NUMBER_2)
+                        .build()))
+                .getReason();
+        Reason notFound = assertThrows(AccountApiException.class,
+                () -> conditionalService.applyAccountOperation(credit.toBuilder().accountNumber("wrong").build()))
+                .getReason();
+        Reason concurrentModification = assertThrows(AccountApiException.class,
+                () -> conditionalService.applyAccountOperation(credit.toBuilder().amount(1000L).build()))
+                .getReason();
+        Reason overflow = assertThrows(AccountApiException.class,
+                () -> conditionalService.applyAccountOperation(credit.toBuilder()
+                        .amount(Long.MAX_VALUE)
+                        .operationSign(OperationSign.DEBIT)
+                        .build()))
+                .getReason();
+
+        //then
+        assertEquals(Reason.INSUFFICIENT_BALANCE, insufficientBalance);
+        assertEquals(Reason.CURRENCY_MISMATCH, currencyMismatch);
+        assertEquals(Reason.ACCOUNT_NOT_OPEN, notOpen);
+        assertEquals(Reason.ACCOUNT_NOT_FOUND, notFound);
+        assertEquals(Reason.CONCURRENT_MODIFICATION, concurrentModification);
+        assertEquals(Reason.BALANCE_OVERFLOW, overflow);
+        assertEquals(BALANCE, account1.getBalance());
+        verify(accountOperationRepo, times(0)).save(any());
+    }
+
+    @Test
+    void shouldReturnConditionalUpdateRejectionAsOutcome() {
+        //given
+        AccountServiceImpl conditionalService = conditionalUpdateService();
+        when(accountRepo.applyConditionalUpdate(any(), any(), anyLong(), anyLong(), anyLong()))
+                .thenReturn(0);
+        when(accountRepo.findById(ACCOUNT_NUMBER_2))
+                .thenReturn(Optional.of(account2));
+        AccountOperationDto debit = AccountOperationDto.builder()
+                .accountNumber(ACCOUNT_NUMBER_2)
+                .currency(CURRENCY_1)
+                .amount(1000L)
+                .operationSign(OperationSign.DEBIT)
+                .build();
+
+        //when
+        AccountOperationOutcome actual = conditionalService.tryApplyAccountOperation(debit);
+        log.info("actual = {}", actual.getRejection());
+
+        //then
+        assertFalse(actual.isApplied());
+        assertEquals(Reason.ACCOUNT_NOT_OPEN, actual.getRejection());
+        verify(accountOperationRepo, times(0)).save(any());
+    }
+
+    @Test
+    void shouldRetryBatchOnSplitAccountThatWasDeadlockVictim() {
+        //given
+        AccountSplitProperties properties = new AccountSplitProperties();
+        properties.setAccountNumbers(Set.of(ACCOUNT_NUMBER_1));
+        properties.setSlots(2);
+        AccountServiceImpl splitService = new AccountServiceImpl(accountRepo, accountOperationRepo, accountMapper,
+                new StripedLockConcurrencyStrategy(accountRepo, new TransactionTemplate(transactionManager),
+                        new AccountConcurrencyProperties()),
+                new AccountCache(new AccountCacheProperties()), splitAccountService(properties),
+                new OperationCoalescer(new AccountCoalescingProperties()), eventOutbox);
+        when(accountRepo.findById(ACCOUNT_NUMBER_1))
+                .thenReturn(Optional.of(account1.toBuilder().build()));
+        when(accountSlotRepo.addToSlot(any(), anyInt(), anyLong()))
+                .thenThrow(new CannotAcquireLockException("Deadlock detected"))
+                .thenReturn(true);
+        when(accountSlotRepo.totalBalance(ACCOUNT_NUMBER_1))
+                .thenReturn(BALANCE + 1000L);
+        when(accountMapper.mapToAccountDtoList(anyList()))
+                .thenReturn(Arrays.asList(accountDto1));
+        AccountOperationDto operation = AccountOperationDto.builder()
+                .accountNumber(ACCOUNT_NUMBER_1)
+                .currency(CURRENCY_1)
+                .amount(1000L)
+                .operationSign(OperationSign.DEBIT)
+                .build();
+
+        //when
+        List<AccountOperationResultDto> actual = splitService.applyAccountOperations(List.of(operation));
+        log.info("actual = {}", actual);
+
+        //then
+        assertTrue(actual.get(0).isApplied());
+        verify(accountSlotRepo, times(2)).addToSlot(any(), anyInt(), anyLong());
+        verify(accountOperationRepo, times(1)).saveAll(anyList());
+    }
+
+    @Test
+    void shouldApplyOperationWithIdempotencyKeyUnderRowLockWhenConditionalUpdatesAreEnabled() {
+        //given
+        AccountServiceImpl conditionalService = conditionalUpdateService();
+        Account account = account1.toBuilder().build();
+        when(accountRepo.findLockedByAccountNumber(ACCOUNT_NUMBER_1))
+                .thenReturn(Optional.of(account));
+        when(accountRepo.save(any()))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+        AccountOperationDto operation = AccountOperationDto.builder()
+                .accountNumber(ACCOUNT_NUMBER_1)
+                .currency(CURRENCY_1)
+                .amount(1000L)
+                .operationSign(OperationSign.DEBIT)
+                .idempotencyKey("key-1")
+                .build();
+
+        //when
+        conditionalService.applyAccountOperation(operation);
+
+        //then
+        assertEquals(BALANCE + 1000L, account.getBalance());
+        verify(accountRepo, times(0)).applyConditionalUpdate(any(), any(), anyLong(), anyLong(), anyLong());
+        verify(accountOperationRepo, times(1)).findByAccountNumberAndIdempotencyKey(ACCOUNT_NUMBER_1, "key-1");
+    }
+
+    private SplitAccountService splitAccountService(AccountSplitProperties properties) {
+        return new SplitAccountService(accountRepo, accountSlotRepo, accountOperationRepo, eventOutbox,
+                entityManager, new TransactionTemplate(transactionManager), properties);
+    }
+
+    private AccountServiceImpl conditionalUpdateService() {
+        return new AccountServiceImpl(accountRepo, accountOperationRepo, accountMapper,
+                new ConditionalUpdateConcurrencyStrategy(accountRepo, new TransactionTemplate(transactionManager)),
+                new AccountCache(new AccountCacheProperties()), splitAccountService(new AccountSplitProperties()),
+                new OperationCoalescer(new AccountCoalescingProperties()), eventOutbox);
+    }
+}
@@ -0,0 +1,106 @@
+package com.bank.bankaccountapi.service.cache;
+
+import com.bank.bankaccountapi.config.AccountCacheProperties;
+import com.bank.bankaccountapi.domain.Account;
+import com.bank.bankaccountapi.domain.AccountStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class AccountCacheTest {
+
+    private static final String ACCOUNT_NUMBER = "test-1";
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    void shouldPassThroughWhenDisabled() {
+        //given
+        AccountCache cache = createCache(AccountCacheProperties.Mode.NONE);
+
+        //when
+        cache.findForStatus(ACCOUNT_NUMBER, loader(account(1000L, 0)));
+        cache.findForStatus(ACCOUNT_NUMBER, loader(account(1000L, 0)));
+
+        //then
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void shouldCacheStatusOnlyInStatusMode() {
+        //given
+        AccountCache cache = createCache(AccountCacheProperties.Mode.STATUS);
+
+        //when
+        cache.findForStatus(ACCOUNT_NUMBER, loader(account(1000L, 0)));
+        cache.findForStatus(ACCOUNT_NUMBER, loader(account(1000L, 0)));
+        cache.findForBalance(ACCOUNT_NUMBER, loader(account(1000L, 0)));
+
+        //then
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void shouldNotOverwriteNewerSnapshotWithStaleRead() {
+        //given
+        AccountCache cache = createCache(AccountCacheProperties.Mode.ALL);
+        cache.updateAfterCommit(account(2000L, 2));
+
+        //when
+        cache.invalidate(ACCOUNT_NUMBER);
+        cache.findForBalance(ACCOUNT_NUMBER, loader(account(2000L, 2)));
+        cache.updateAfterCommit(account(1000L, 1));
+        Optional<Account> actual = cache.findForBalance(ACCOUNT_NUMBER, loader(account(0L, 0)));
+
+        //then
+        assertEquals(2000L, actual.orElseThrow().getBalance());
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void shouldPublishHitAndMissMetrics() {
+        //given
+        AccountCache cache = createCache(AccountCacheProperties.Mode.ALL);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        cache.bindTo(registry);
+
+        //when
+        cache.findForBalance(ACCOUNT_NUMBER, loader(account(1000L, 0)));
+        cache.findForBalance(ACCOUNT_NUMBER, loader(account(1000L, 0)));
+        cache.findForBalance(ACCOUNT_NUMBER, loader(account(1000L, 0)));
+
+        //then
+        assertEquals(2.0, registry.get("cache.gets").tag("cache", "account").tag("result", "hit")
+                .functionCounter().count());
+        assertEquals(1.0, registry.get("cache.gets").tag("cache", "account").tag("result", "miss")
+                .functionCounter().count());
+    }
+
+    private AccountCache createCache(AccountCacheProperties.Mode mode) {
+        AccountCacheProperties properties = new AccountCacheProperties();
+        properties.setMode(mode);
+        return new AccountCache(properties);
+    }
+
+    private Function<String, Optional<Account>> loader(Account account) {
+        return accountNumber -> {
+            loads.incrementAndGet();
+            return Optional.of(account);
+        };
+    }
+
+    private Account account(long balance, long version) {
+        return Account.builder()
+                .accountNumber(ACCOUNT_NUMBER)
+                .currency(978L)
+                .balance(balance)
+                .status(AccountStatus.OPEN)
+                .version(version)
+                .build();
+    }
+}
@@ -0,0 +1,132 @@
+package com.bank.bankaccountapi.service.coalescing;
+
+import com.bank.bankaccountapi.config.AccountCoalescingProperties;
+import com.bank.bankaccountapi.dto.AccountDto;
+import com.bank.bankaccountapi.dto.AccountOperationDto;
+import com.bank.bankaccountapi.dto.OperationSign;
+import com.bank.bankaccountapi.expection.AccountApiException;
+import com.bank.bankaccountapi.expection.AccountApiException.Reason;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Slf4j
+class OperationCoalescerTest {
+
+    private static final String ACCOUNT_NUMBER = "test-1";
+    private static final long REJECTED_AMOUNT = 13L;
+
+    private final OperationCoalescer coalescer = new OperationCoalescer(new AccountCoalescingProperties());
+
+    @Test
+    void shouldApplyOperationsQueuedMeanwhileAsOneGroupInArrivalOrder() throws Exception {
+        //given
+        CountDownLatch release = new CountDownLatch(1);
+        List<List<Long>> groups = new CopyOnWriteArrayList<>();
+        Consumer<List<PendingOperation>> groupApplier = group -> {
+            groups.add(group.stream().map(pending -> pending.getOperation().getAmount()).collect(Collectors.toList()));
+            awaitIfFirst(groups, release);
+            group.forEach(OperationCoalescerTest::applyByAmount);
+        };
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+
+        //when
+        Future<AccountDto> first = executor.submit(() -> coalescer.submit(operation(1L), groupApplier));
+        waitUntil(() -> groups.size() == 1);
+        Future<AccountDto> second = executor.submit(() -> coalescer.submit(operation(2L), groupApplier));
+        waitUntil(() -> coalescer.queued(ACCOUNT_NUMBER) == 1);
+        Future<AccountDto> rejected = executor.submit(() -> coalescer.submit(operation(REJECTED_AMOUNT), groupApplier));
+        waitUntil(() -> coalescer.queued(ACCOUNT_NUMBER) == 2);
+        Future<AccountDto> fourth = executor.submit(() -> coalescer.submit(operation(4L), groupApplier));
+        waitUntil(() -> coalescer.queued(ACCOUNT_NUMBER) == 3);
+        release.countDown();
+        ExecutionException thrown = assertThrows(ExecutionException.class, rejected::get);
+        log.info("groups = {}", groups);
+        log.error("Handled test-error", thrown);
+        executor.shutdown();
+
+        //then
+        assertEquals(List.of(List.of(1L), List.of(2L, REJECTED_AMOUNT, 4L)), groups);
+        assertEquals(1L, first.get().getBalance());
+        assertEquals(2L, second.get().getBalance());
+        assertEquals(4L, fourth.get().getBalance());
+        assertTrue(thrown.getCause() instanceof AccountApiException);
+        assertEquals(Reason.INSUFFICIENT_BALANCE, ((AccountApiException) thrown.getCause()).getReason());
+    }
+
+    @Test
+    void shouldFailEveryOperationOfGroupWhenGroupFails() {
+        //given
+        IllegalStateException failure = new IllegalStateException("database is down");
+
+        //when
+        IllegalStateException thrown = assertThrows(IllegalStateException.class,
+                () -> coalescer.submit(operation(1L), group -> {
+                    throw failure;
+                }));
+        log.error("Handled test-error", thrown);
+
+        //then
+        assertEquals(failure, thrown);
+    }
+
+    @Test
+    void shouldFailOperationLeftIncompleteByGroupApplier() {
+        //when
+        IllegalStateException thrown = assertThrows(IllegalStateException.class,
+                () -> coalescer.submit(operation(1L), group -> {
+                }));
+        log.error("Handled test-error", thrown);
+
+        //then
+        assertEquals(0, coalescer.queued(ACCOUNT_NUMBER));
+    }
+
+    private static void applyByAmount(PendingOperation pending) {
+        long amount = pending.getOperation().getAmount();
+        if (amount == REJECTED_AMOUNT) {
+            pending.fail(new AccountApiException(Reason.INSUFFICIENT_BALANCE, "rejected"));
+        } else {
+            pending.complete(AccountDto.builder().accountNumber(ACCOUNT_NUMBER).balance(amount).build());
+        }
+    }
+
+    private static void awaitIfFirst(List<List<Long>> groups, CountDownLatch release) {
+        if (groups.size() == 1) {
+            try {
+                release.await();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        while (!condition.getAsBoolean()) {
+            Thread.sleep(1);
+        }
+    }
+
+    private static AccountOperationDto operation(long amount) {
+        return AccountOperationDto.builder()
+                .accountNumber(ACCOUNT_NUMBER)
+                .currency(978L)
+                .amount(amount)
+                .operationSign(OperationSign.DEBIT)
+                .build();
+    }
+}
@@ -0,0 +1,76 @@
+package com.bank.bankaccountapi.service.concurrency;
+
+import com.bank.bankaccountapi.config.AccountConcurrencyProperties;
+import com.bank.bankaccountapi.expection.AccountApiException;
+import com.bank.bankaccountapi.repo.AccountRepo;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Slf4j
+@ExtendWith(MockitoExtension.class)
+class OptimisticLockConcurrencyStrategyTest {
+
+    @Mock
+    private AccountRepo accountRepo;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private OptimisticLockConcurrencyStrategy strategy;
+
+    @BeforeEach
+    void setUp() {
+        AccountConcurrencyProperties properties = new AccountConcurrencyProperties();
+        properties.setMaxAttempts(3);
+        strategy = new OptimisticLockConcurrencyStrategy(accountRepo,
+                new TransactionTemplate(transactionManager), properties);
+    }
+
+    @Test
+    void shouldRetryOnVersionConflict() {
+        //given
+        AtomicInteger attempts = new AtomicInteger();
+
+        //when
+        String actual = strategy.execute("test-1", () -> {
+            if (attempts.incrementAndGet() < 3) {
+                throw new ObjectOptimisticLockingFailureException("ACCOUNT", "test-1");
+            }
+            return "done";
+        });
+
+        //then
+        assertEquals("done", actual);
+        assertEquals(3, attempts.get());
+    }
+
+    @Test
+    void shouldGiveUpAfterMaxAttempts() {
+        //given
+        AtomicInteger attempts = new AtomicInteger();
+
+        //when
+        AccountApiException thrown = assertThrows(AccountApiException.class,
+                () -> strategy.execute("test-1", () -> {
+                    attempts.incrementAndGet();
+                    throw new ObjectOptimisticLockingFailureException("ACCOUNT", "test-1");
+                }));
+        log.error("Handled test-error", thrown);
+
+        //then
+        assertTrue(thrown.getMessage().contains("Account was concurrently modified"));
+        assertEquals(3, attempts.get());
+    }
+}
@@ -0,0 +1,72 @@
+package com.bank.bankaccountapi.service.concurrency;
+
+import com.bank.bankaccountapi.config.AccountConcurrencyProperties;
+import com.bank.bankaccountapi.repo.AccountRepo;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@ExtendWith(MockitoExtension.class)
+class StripedLockConcurrencyStrategyTest {
+
+    @Mock
+    private AccountRepo accountRepo;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void shouldUseSameLockForSameAccount() {
+        //given
+        StripedLockConcurrencyStrategy strategy = createStrategy(16);
+
+        //when
+        //then
+        assertSame(strategy.lockFor("test-1"), strategy.lockFor(new String("test-1")));
+    }
+
+    @Test
+    void shouldSerializeOperationsOnSameAccount() throws Exception {
+        //given
+        StripedLockConcurrencyStrategy strategy = createStrategy(3);
+        int[] counter = new int[1];
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        //when
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            futures.add(executor.submit(() -> {
+                for (int j = 0; j < 10_000; j++) {
+                    strategy.execute("test-1", () -> counter[0]++);
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        //then
+        assertTrue(executor.awaitTermination(1, TimeUnit.SECONDS));
+        assertEquals(80_000, counter[0]);
+    }
+
+    private StripedLockConcurrencyStrategy createStrategy(int stripes) {
+        AccountConcurrencyProperties properties = new AccountConcurrencyProperties();
+        properties.setStripes(stripes);
+        return new StripedLockConcurrencyStrategy(accountRepo, new TransactionTemplate(transactionManager), properties);
+    }
+}
@@ -0,0 +1,437 @@
+package com.bank.bankaccountapi.service.ledger;
+
+import com.bank.bankaccountapi.config.AccountSplitProperties;
+import com.bank.bankaccountapi.config.LedgerProperties;
+import com.bank.bankaccountapi.domain.Account;
+import com.bank.bankaccountapi.domain.AccountOperation;
+import com.bank.bankaccountapi.domain.AccountStatus;
+import com.bank.bankaccountapi.dto.AccountDto;
+import com.bank.bankaccountapi.dto.AccountOperationDto;
+import com.bank.bankaccountapi.dto.AccountTransferDto;
+import com.bank.bankaccountapi.dto.AccountTransferResultDto;
+import com.bank.bankaccountapi.dto.OperationSign;
+import com.bank.bankaccountapi.expection.AccountApiException;
+import com.bank.bankaccountapi.expection.AccountApiException.Reason;
+import com.bank.bankaccountapi.mapper.AccountMapper;
+import com.bank.bankaccountapi.repo.AccountBatchRepo;
+import com.bank.bankaccountapi.repo.AccountOperationRepo;
+import com.bank.bankaccountapi.repo.AccountRepo;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mapstruct.factory.Mappers;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@Slf4j
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class ShardedLedgerAccountServiceTest {
+
+    private static final String ACCOUNT_NUMBER = "test-1";
+    private static final String OTHER_ACCOUNT_NUMBER = "test-2";
+    private static final Long CURRENCY = 978L;
+
+    @Mock
+    private AccountRepo accountRepo;
+    @Mock
+    private AccountBatchRepo accountBatchRepo;
+    @Mock
+    private AccountOperationRepo accountOperationRepo;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final AccountMapper mapper = Mappers.getMapper(AccountMapper.class);
+
+    private ShardedLedgerAccountService ledger;
+
+    @BeforeEach
+    void setUp() {
+        when(accountRepo.findById(any())).thenReturn(Optional.empty());
+        when(accountRepo.findById(ACCOUNT_NUMBER)).thenReturn(Optional.of(Account.builder()
+                .accountNumber(ACCOUNT_NUMBER)
+                .currency(CURRENCY)
+                .balance(0L)
+                .status(AccountStatus.OPEN)
+                .build()));
+        when(accountRepo.findById(OTHER_ACCOUNT_NUMBER)).thenReturn(Optional.of(Account.builder()
+                .accountNumber(OTHER_ACCOUNT_NUMBER)
+                .currency(CURRENCY)
+                .balance(0L)
+                .status(AccountStatus.OPEN)
+                .build()));
+        when(accountBatchRepo.addToBalance(any(), anyLong())).thenReturn(1);
+        LedgerProperties properties = new LedgerProperties();
+        properties.setShards(4);
+        properties.setFlushInterval(Duration.ofHours(1));
+        ledger = ledger(properties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ledger.close();
+    }
+
+    @Test
+    void shouldApplyOperationsInMemoryAndLoadAccountOnce() {
+        //when
+        ledger.applyAccountOperation(operation(OperationSign.DEBIT, 3000L));
+        AccountDto actual = ledger.applyAccountOperation(operation(OperationSign.CREDIT, 1000L));
+        log.info("actual = {}", actual);
+
+        //then
+        assertEquals(2000L, actual.getBalance());
+        assertEquals(2000L, ledger.getAccountBalanceInquiryByAccountNumber(ACCOUNT_NUMBER).getBalance());
+        assertEquals("OPEN", ledger.getAccountStatusByAccountNumber(ACCOUNT_NUMBER));
+        verify(accountRepo, times(1)).findById(ACCOUNT_NUMBER);
+    }
+
+    @Test
+    void shouldNotLoseUpdatesFromConcurrentWriters() throws Exception {
+        //given
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        //when
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            futures.add(executor.submit(() -> {
+                for (int j = 0; j < 1_000; j++) {
+                    ledger.applyAccountOperation(operation(OperationSign.DEBIT, 100L));
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+
+        //then
+        assertEquals(800_000L, ledger.getAccountBalanceInquiryByAccountNumber(ACCOUNT_NUMBER).getBalance());
+    }
+
+    @Test
+    void shouldRejectOperationForNonExistingAccount() {
+        //when
+        AccountApiException thrown = assertThrows(AccountApiException.class,
+                () -> ledger.applyAccountOperation(operation(OperationSign.DEBIT, 100L).toBuilder()
+                        .accountNumber("wrong")
+                        .build()));
+        log.error("Handled test-error", thrown);
+
+        //then
+        assertTrue(thrown.getMessage().contains("Account does not exists"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldWriteBalancesBehindOnClose() {
+        //given
+        ledger.applyAccountOperation(operation(OperationSign.DEBIT, 1500L));
+        ArgumentCaptor<Collection<Account>> captor = ArgumentCaptor.forClass(Collection.class);
+
+        //when
+        ledger.close();
+
+        //then
+        verify(accountBatchRepo, atLeastOnce()).updateBalances(captor.capture());
+        Account flushed = captor.getValue().iterator().next();
+        assertEquals(ACCOUNT_NUMBER, flushed.getAccountNumber());
+        assertEquals(1500L, flushed.getBalance());
+    }
+
+    @Test
+    void shouldReturnOriginalResultForRepeatedIdempotencyKey() {
+        //given
+        AccountOperationDto operation = operation(OperationSign.DEBIT, 1500L).toBuilder()
+                .idempotencyKey("key-1")
+                .build();
+        AccountDto first = ledger.applyAccountOperation(operation);
+
+        //when
+        AccountDto actual = ledger.applyAccountOperation(operation);
+        log.info("actual = {}", actual);
+
+        //then
+        assertEquals(first, actual);
+        assertEquals(1500L, ledger.getAccountBalanceInquiryByAccountNumber(ACCOUNT_NUMBER).getBalance());
+        verify(accountOperationRepo, times(1)).findByAccountNumberAndIdempotencyKey(ACCOUNT_NUMBER, "key-1");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldWriteJournalBehindWithBalances() {
+        //given
+        ledger.applyAccountOperation(operation(OperationSign.DEBIT, 1500L));
+        ledger.applyAccountOperation(operation(OperationSign.CREDIT, 500L));
+        ArgumentCaptor<Iterable<AccountOperation>> captor = ArgumentCaptor.forClass(Iterable.class);
+
+        //when
+        ledger.close();
+
+        //then
+        verify(accountOperationRepo, atLeastOnce()).saveAll(captor.capture());
+        List<AccountOperation> journal = new ArrayList<>();
+        captor.getAllValues().forEach(entries -> entries.forEach(journal::add));
+        assertEquals(2, journal.size());
+        assertEquals(1500L, journal.get(0).getBalanceAfter());
+        assertEquals(1000L, journal.get(1).getBalanceAfter());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldWriteJournalOfFlushThatFailedWhileClosing() throws Exception {
+        //given
+        LedgerProperties properties = new LedgerProperties();
+        properties.setShards(1);
+        properties.setFlushInterval(Duration.ofMillis(10));
+        ShardedLedgerAccountService flushingLedger = ledger(properties);
+        CountDownLatch flushStarted = new CountDownLatch(1);
+        CountDownLatch closing = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            if (flushStarted.getCount() == 0) {
+                return null;
+            }
+            flushStarted.countDown();
+            closing.await();
+            throw new IllegalStateException("database is down");
+        }).when(accountBatchRepo).updateBalances(any());
+        flushingLedger.applyAccountOperation(operation(OperationSign.DEBIT, 1500L));
+        flushStarted.await();
+        ArgumentCaptor<Iterable<AccountOperation>> captor = ArgumentCaptor.forClass(Iterable.class);
+
+        //when
+        Thread closer = new Thread(flushingLedger::close);
+        closer.start();
+        // the flush fails once the writer no longer takes tasks
+        Thread.sleep(200);
+        closing.countDown();
+        closer.join();
+
+        //then
+        verify(accountOperationRepo).saveAll(captor.capture());
+        List<AccountOperation> journal = new ArrayList<>();
+        captor.getValue().forEach(journal::add);
+        assertEquals(1, journal.size());
+        assertEquals(1500L, journal.get(0).getBalanceAfter());
+    }
+
+    @Test
+    void shouldEvictOnlyAccountsWithoutUnflushedChanges() {
+        //given
+        LedgerProperties properties = new LedgerProperties();
+        properties.setShards(1);
+        properties.setFlushInterval(Duration.ofHours(1));
+        properties.setMaxAccountsPerShard(1);
+        ShardedLedgerAccountService boundedLedger = ledger(properties);
+
+        //when
+        boundedLedger.applyAccountOperation(operation(OperationSign.DEBIT, 1500L));
+        boundedLedger.getAccountBalanceInquiryByAccountNumber(OTHER_ACCOUNT_NUMBER);
+        AccountDto actual = boundedLedger.applyAccountOperation(operation(OperationSign.DEBIT, 500L));
+        boundedLedger.getAccountBalanceInquiryByAccountNumber(OTHER_ACCOUNT_NUMBER);
+        log.info("actual = {}", actual);
+        boundedLedger.close();
+
+        //then
+        assertEquals(2000L, actual.getBalance());
+        verify(accountRepo, times(1)).findById(ACCOUNT_NUMBER);
+        verify(accountRepo, times(2)).findById(OTHER_ACCOUNT_NUMBER);
+    }
+
+    @Test
+    void shouldTransferBetweenAccountsOfDifferentShardsWithoutDeadlock() throws Exception {
+        //given
+        ledger.applyAccountOperation(operation(OperationSign.DEBIT, 100_000L));
+        ledger.applyAccountOperation(operation(OperationSign.DEBIT, 100_000L).toBuilder()
+                .accountNumber(OTHER_ACCOUNT_NUMBER)
+                .build());
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+
+        //when
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            boolean forward = i % 2 == 0;
+            futures.add(executor.submit(() -> {
+                for (int j = 0; j < 500; j++) {
+                    ledger.transfer(forward
+                            ? transfer(ACCOUNT_NUMBER, OTHER_ACCOUNT_NUMBER, 10L)
+                            : transfer(OTHER_ACCOUNT_NUMBER, ACCOUNT_NUMBER, 5L));
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+        AccountTransferResultDto actual = ledger.transfer(transfer(ACCOUNT_NUMBER, OTHER_ACCOUNT_NUMBER, 1L));
+        log.info("actual = {}", actual);
+
+        //then
+        assertEquals(100_000L - 4 * 500 * 5L - 1L, actual.getFromAccount().getBalance());
+        assertEquals(100_000L + 4 * 500 * 5L + 1L, actual.getToAccount().getBalance());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldWriteTransferAcrossShardsThroughInOneTransaction() {
+        //given
+        ledger.applyAccountOperation(operation(OperationSign.DEBIT, 1000L));
+        ArgumentCaptor<Iterable<AccountOperation>> captor = ArgumentCaptor.forClass(Iterable.class);
+
+        //when
+        AccountTransferResultDto actual = ledger.transfer(transfer(ACCOUNT_NUMBER, OTHER_ACCOUNT_NUMBER, 300L));
+        log.info("actual = {}", actual);
+
+        //then
+        assertEquals(700L, actual.getFromAccount().getBalance());
+        assertEquals(300L, actual.getToAccount().getBalance());
+        verify(accountBatchRepo, times(1)).addToBalance(ACCOUNT_NUMBER, -300L);
+        verify(accountBatchRepo, times(1)).addToBalance(OTHER_ACCOUNT_NUMBER, 300L);
+        verify(accountOperationRepo, times(1)).saveAll(captor.capture());
+        Map<String, Long> balancesAfter = new HashMap<>();
+        captor.getValue().forEach(entry -> balancesAfter.put(entry.getAccountNumber(), entry.getBalanceAfter()));
+        assertEquals(Map.of(ACCOUNT_NUMBER, 700L, OTHER_ACCOUNT_NUMBER, 300L), balancesAfter);
+        verify(transactionManager, times(1)).commit(any());
+    }
+
+    @Test
+    void shouldLeaveBothAccountsUnchangedWhenTransferAcrossShardsFailsToCommit() {
+        //given
+        ledger.applyAccountOperation(operation(OperationSign.DEBIT, 1000L));
+        when(accountBatchRepo.addToBalance(OTHER_ACCOUNT_NUMBER, 300L)).thenReturn(0);
+
+        //when
+        IllegalStateException thrown = assertThrows(IllegalStateException.class,
+                () -> ledger.transfer(transfer(ACCOUNT_NUMBER, OTHER_ACCOUNT_NUMBER, 300L)));
+        log.error("Handled test-error", thrown);
+
+        //then
+        assertEquals(1000L, ledger.getAccountBalanceInquiryByAccountNumber(ACCOUNT_NUMBER).getBalance());
+        assertEquals(0L, ledger.getAccountBalanceInquiryByAccountNumber(OTHER_ACCOUNT_NUMBER).getBalance());
+        verify(transactionManager, times(1)).rollback(any());
+    }
+
+    @Test
+    void shouldLeaveBothAccountsUnchangedWhenEitherLegOfTransferIsRejected() {
+        //given
+        ledger.applyAccountOperation(operation(OperationSign.DEBIT, 1000L));
+
+        //when
+        AccountApiException insufficientBalance = assertThrows(AccountApiException.class,
+                () -> ledger.transfer(transfer(ACCOUNT_NUMBER, OTHER_ACCOUNT_NUMBER, 1001L)));
+        AccountApiException notFound = assertThrows(AccountApiException.class,
+                () -> ledger.transfer(transfer(ACCOUNT_NUMBER, "wrong", 500L)));
+        log.error("Handled test-error", insufficientBalance);
+
+        //then
+        assertEquals(Reason.INSUFFICIENT_BALANCE, insufficientBalance.getReason());
+        assertEquals(Reason.ACCOUNT_NOT_FOUND, notFound.getReason());
+        assertEquals(1000L, ledger.getAccountBalanceInquiryByAccountNumber(ACCOUNT_NUMBER).getBalance());
+        assertEquals(0L, ledger.getAccountBalanceInquiryByAccountNumber(OTHER_ACCOUNT_NUMBER).getBalance());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldReturnOriginalResultForRepeatedTransferIdempotencyKey() {
+        //given
+        // transfers across shards are journaled in the database right away
+        Map<List<String>, AccountOperation> saved = new HashMap<>();
+        doAnswer(invocation -> {
+            for (AccountOperation entry : (Iterable<AccountOperation>) invocation.getArgument(0)) {
+                if (entry.getIdempotencyKey() != null) {
+                    saved.put(List.of(entry.getAccountNumber(), entry.getIdempotencyKey()), entry);
+                }
+            }
+            return null;
+        }).when(accountOperationRepo).saveAll(any());
+        when(accountOperationRepo.findByAccountNumberAndIdempotencyKey(anyString(), anyString()))
+                .thenAnswer(invocation -> Optional.ofNullable(saved.get(
+                        List.of(invocation.getArgument(0), invocation.getArgument(1)))));
+        ledger.applyAccountOperation(operation(OperationSign.DEBIT, 1000L));
+        AccountTransferDto transfer = transfer(ACCOUNT_NUMBER, OTHER_ACCOUNT_NUMBER, 300L).toBuilder()
+                .idempotencyKey("key-1")
+                .build();
+        AccountTransferResultDto first = ledger.transfer(transfer);
+
+        //when
+        AccountTransferResultDto actual = ledger.transfer(transfer);
+        log.info("actual = {}", actual);
+
+        //then
+        assertEquals(first, actual);
+        assertEquals(700L, ledger.getAccountBalanceInquiryByAccountNumber(ACCOUNT_NUMBER).getBalance());
+        assertEquals(300L, ledger.getAccountBalanceInquiryByAccountNumber(OTHER_ACCOUNT_NUMBER).getBalance());
+    }
+
+    @Test
+    void shouldRejectSplitAccounts() {
+        //given
+        AccountSplitProperties splitProperties = new AccountSplitProperties();
+        splitProperties.setAccountNumbers(Set.of(ACCOUNT_NUMBER));
+
+        //when
+        IllegalStateException thrown = assertThrows(IllegalStateException.class,
+                () -> new ShardedLedgerAccountService(accountRepo, accountBatchRepo, accountOperationRepo, mapper,
+                        new TransactionTemplate(transactionManager), new LedgerProperties(), splitProperties));
+        log.error("Handled test-error", thrown);
+
+        //then
+        assertTrue(thrown.getMessage().contains("account.split"));
+    }
+
+    private ShardedLedgerAccountService ledger(LedgerProperties properties) {
+        return new ShardedLedgerAccountService(accountRepo, accountBatchRepo, accountOperationRepo, mapper,
+                new TransactionTemplate(transactionManager), properties, new AccountSplitProperties());
+    }
+
+    private static AccountTransferDto transfer(String fromAccountNumber, String toAccountNumber, long amount) {
+        return AccountTransferDto.builder()
+                .fromAccountNumber(fromAccountNumber)
+                .toAccountNumber(toAccountNumber)
+                .currency(CURRENCY)
+                .amount(amount)
+                .build();
+    }
+
+    private AccountOperationDto operation(OperationSign sign, long amount) {
+        return AccountOperationDto.builder()
+                .accountNumber(ACCOUNT_NUMBER)
+                .currency(CURRENCY)
+                .amount(amount)
+                .operationSign(sign)
+                .build();
+    }
+}
@@ -0,0 +1,108 @@
+package com.bank.bankaccountapi.service.metrics;
+
+import com.bank.bankaccountapi.config.AccountMetricsProperties;
+import com.bank.bankaccountapi.expection.AccountApiException;
+import com.bank.bankaccountapi.expection.AccountApiException.Reason;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Slf4j
+class AccountMetricsTest {
+
+    private PrometheusMeterRegistry registry;
+    private AccountMetrics metrics;
+
+    @BeforeEach
+    void setUp() {
+        registry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+        metrics = new AccountMetrics(registry, new AccountMetricsProperties());
+    }
+
+    @Test
+    void shouldTagCallsByOutcome() {
+        //when
+        metrics.record(AccountMetrics.Method.GET_STATUS, System.nanoTime(), null);
+        metrics.record(AccountMetrics.Method.GET_STATUS, System.nanoTime(),
+                new AccountApiException(Reason.ACCOUNT_NOT_FOUND, "not found"));
+        metrics.record(AccountMetrics.Method.GET_STATUS, System.nanoTime(), new IllegalStateException());
+
+        //then
+        assertEquals(1, timer("getAccountStatusByAccountNumber", "success").count());
+        assertEquals(1, timer("getAccountStatusByAccountNumber", "account-not-found").count());
+        assertEquals(1, timer("getAccountStatusByAccountNumber", "error").count());
+        assertEquals(0, timer("applyAccountOperation", "insufficient-balance").count());
+    }
+
+    @Test
+    void shouldTrackOperationsInFlightPerShard() {
+        //given
+        long start = metrics.operationStarted("test-1");
+
+        //when
+        double inFlight = registry.get(AccountMetrics.IN_FLIGHT).gauges().stream()
+                .mapToDouble(gauge -> gauge.value())
+                .sum();
+        metrics.operationFinished("test-1", start, new AccountApiException(Reason.CURRENCY_MISMATCH, "mismatch"));
+        double afterFinish = registry.get(AccountMetrics.IN_FLIGHT).gauges().stream()
+                .mapToDouble(gauge -> gauge.value())
+                .sum();
+
+        //then
+        assertEquals(1.0, inFlight);
+        assertEquals(0.0, afterFinish);
+        assertEquals(1, timer("applyAccountOperation", "currency-mismatch").count());
+    }
+
+    @Test
+    void shouldExposeHistogramInScrape() {
+        //given
+        metrics.record(AccountMetrics.Method.APPLY_OPERATIONS, System.nanoTime(), null);
+
+        //when
+        String actual = registry.scrape();
+
+        //then
+        assertTrue(actual.contains("account_service_seconds_bucket{method=\"applyAccountOperations\","
+                + "outcome=\"success\","));
+        assertFalse(actual.contains("account_service_seconds_bucket{method=\"applyAccountOperations\","
+                + "outcome=\"account-not-found\","));
+        assertTrue(actual.contains("account_service_seconds_count{method=\"applyAccountOperations\","
+                + "outcome=\"account-not-found\","));
+        assertTrue(actual.contains("account_operations_in_flight{shard=\"7\",}"));
+    }
+
+    @Test
+    void shouldNotAllocateOnSuccessPath() {
+        //given
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        for (int i = 0; i < 100_000; i++) {
+            metrics.operationFinished("test-1", metrics.operationStarted("test-1"), null);
+        }
+
+        //when
+        long before = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < 100_000; i++) {
+            metrics.operationFinished("test-1", metrics.operationStarted("test-1"), null);
+        }
+        long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+        log.info("actual = {} bytes", allocated);
+
+        //then
+        assertTrue(allocated < 100_000, "allocated " + allocated + " bytes for 100000 operations");
+    }
+
+    private Timer timer(String method, String outcome) {
+        return registry.get(AccountMetrics.TIMER).tag("method", method).tag("outcome", outcome).timer();
+    }
+}
@@ -0,0 +1,127 @@
+package com.bank.bankaccountapi.service.outbox;
+
+import com.bank.bankaccountapi.config.AccountOutboxProperties;
+import com.bank.bankaccountapi.domain.AccountOutboxEvent;
+import com.bank.bankaccountapi.dto.BalanceChangedEvent;
+import com.bank.bankaccountapi.dto.OperationSign;
+import com.bank.bankaccountapi.repo.AccountOutboxRepo;
+import com.bank.bankaccountapi.shard.AccountShards;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@Slf4j
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class AccountOutboxRelayTest {
+
+    @Mock
+    private AccountOutboxRepo outboxRepo;
+    @Mock
+    private AccountEventSink failingSink;
+
+    private final AccountOutboxProperties properties = new AccountOutboxProperties();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private InMemoryAccountEventSink sink;
+
+    @BeforeEach
+    void setUp() {
+        properties.setBatchSize(2);
+        sink = new InMemoryAccountEventSink(properties);
+    }
+
+    @Test
+    void shouldPublishOldestEventsFirstAndDeleteThemOnceAccepted() {
+        //given
+        when(outboxRepo.findByOrderById(any()))
+                .thenReturn(List.of(event(1L, "test-1", 100L), event(2L, "test-1", 200L)))
+                .thenReturn(List.of(event(3L, "test-3", 50L)));
+        AccountOutboxRelay relay = new AccountOutboxRelay(outboxRepo, sink, properties, registry, 1);
+
+        //when
+        relay.drain();
+        List<BalanceChangedEvent> actual = sink.drain(10);
+        log.info("actual = {}", actual);
+
+        //then
+        assertEquals(List.of(1L, 2L, 3L),
+                actual.stream().map(BalanceChangedEvent::getEventId).collect(Collectors.toList()));
+        assertEquals(200L, actual.get(1).getBalance());
+        verify(outboxRepo, times(1)).deleteAllByIdInBatch(List.of(1L, 2L));
+        verify(outboxRepo, times(1)).deleteAllByIdInBatch(List.of(3L));
+        assertEquals(2, registry.get(AccountOutboxRelay.BATCH_SIZE).summary().count());
+        assertEquals(3, registry.get(AccountOutboxRelay.LAG).timer().count());
+        assertEquals(0.0, registry.get(AccountOutboxRelay.OLDEST_AGE).timeGauge().value());
+    }
+
+    @Test
+    void shouldPublishIdsThatAreUniqueAcrossShards() {
+        //given
+        when(outboxRepo.findByOrderById(any()))
+                .thenReturn(List.of(event(1L, "test-1", 100L)))
+                .thenReturn(List.of(event(1L, "test-2", 100L)));
+        AccountOutboxRelay relay = new AccountOutboxRelay(outboxRepo, sink, properties, registry, 2);
+
+        //when
+        relay.drain();
+        List<BalanceChangedEvent> actual = sink.drain(10);
+        log.info("actual = {}", actual);
+
+        //then
+        assertEquals(List.of(1L, AccountShards.ID_RANGE + 1),
+                actual.stream().map(BalanceChangedEvent::getEventId).collect(Collectors.toList()));
+        assertEquals(List.of(10L, AccountShards.ID_RANGE + 10),
+                actual.stream().map(BalanceChangedEvent::getOperationId).collect(Collectors.toList()));
+        verify(outboxRepo, times(2)).deleteAllByIdInBatch(List.of(1L));
+    }
+
+    @Test
+    void shouldKeepBatchInOutboxWhenSinkFails() throws Exception {
+        //given
+        when(outboxRepo.findByOrderById(any()))
+                .thenReturn(List.of(event(1L, "test-1", 100L)));
+        doThrow(new IllegalStateException("broker is down")).when(failingSink).publish(any());
+        AccountOutboxRelay relay = new AccountOutboxRelay(outboxRepo, failingSink, properties, registry, 1);
+
+        //when
+        relay.drain();
+        relay.drain();
+
+        //then
+        verify(failingSink, times(2)).publish(any());
+        verify(outboxRepo, times(0)).deleteAllByIdInBatch(any());
+        assertEquals(2.0, registry.get(AccountOutboxRelay.FAILURES).counter().count());
+        assertEquals(0, registry.get(AccountOutboxRelay.LAG).timer().count());
+        log.info("oldest = {}", registry.get(AccountOutboxRelay.OLDEST_AGE).timeGauge().value());
+    }
+
+    private static AccountOutboxEvent event(Long id, String accountNumber, long balanceAfter) {
+        return AccountOutboxEvent.builder()
+                .id(id)
+                .operationId(id * 10)
+                .accountNumber(accountNumber)
+                .currency(978L)
+                .amount(100L)
+                .operationSign(OperationSign.DEBIT)
+                .balanceAfter(balanceAfter)
+                .createdAt(Instant.now().minusMillis(5))
+                .build();
+    }
+}
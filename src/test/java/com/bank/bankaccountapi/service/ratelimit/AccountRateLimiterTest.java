@@ -0,0 +1,162 @@
+package com.bank.bankaccountapi.service.ratelimit;
+
+import com.bank.bankaccountapi.config.AccountRateLimitProperties;
+import com.bank.bankaccountapi.expection.RateLimitExceededException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Slf4j
+class AccountRateLimiterTest {
+
+    private final AccountRateLimitProperties properties = new AccountRateLimitProperties();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    // negative on purpose, System.nanoTime() may be
+    private final AtomicLong clock = new AtomicLong(-TimeUnit.HOURS.toNanos(1));
+
+    @BeforeEach
+    void setUp() {
+        properties.setEnabled(true);
+        properties.setPerAccount(new AccountRateLimitProperties.Limit(10, 3));
+        properties.setPerClient(new AccountRateLimitProperties.Limit(1_000, 1_000));
+    }
+
+    @Test
+    void shouldAdmitBurstThenShedUntilTokenIsEarned() {
+        //given
+        AccountRateLimiter limiter = new AccountRateLimiter(properties, registry, clock::get);
+        for (int i = 0; i < 3; i++) {
+            limiter.admit("test-1", "client-1");
+        }
+
+        //when
+        RateLimitExceededException thrown = assertThrows(RateLimitExceededException.class,
+                () -> limiter.admit("test-1", "client-1"));
+        log.error("Handled test-error", thrown);
+
+        //then
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(100), thrown.getRetryAfterNanos());
+        assertEquals(1, thrown.getRetryAfterSeconds());
+        assertEquals(1.0, registry.get(AccountRateLimiter.REJECTED).tag("scope", "account").counter().count());
+        assertDoesNotThrow(() -> limiter.admit("test-3", "client-1"));
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(100));
+        assertDoesNotThrow(() -> limiter.admit("test-1", "client-1"));
+        assertThrows(RateLimitExceededException.class, () -> limiter.admit("test-1", "client-2"));
+    }
+
+    @Test
+    void shouldShedClientOverItsLimitWithoutTakingAccountTokens() {
+        //given
+        properties.setPerClient(new AccountRateLimitProperties.Limit(1, 1));
+        AccountRateLimiter limiter = new AccountRateLimiter(properties, registry, clock::get);
+        limiter.admit("test-1", "noisy");
+
+        //when
+        for (int i = 0; i < 10; i++) {
+            assertThrows(RateLimitExceededException.class, () -> limiter.admit("test-1", "noisy"));
+        }
+
+        //then
+        assertEquals(10.0, registry.get(AccountRateLimiter.REJECTED).tag("scope", "client").counter().count());
+        assertDoesNotThrow(() -> limiter.admit("test-1", "quiet-1"));
+        assertDoesNotThrow(() -> limiter.admit("test-1", "quiet-2"));
+    }
+
+    @Test
+    void shouldGiveClientTokenBackWhenAccountIsThrottled() {
+        //given
+        properties.setPerClient(new AccountRateLimitProperties.Limit(1, 5));
+        AccountRateLimiter limiter = new AccountRateLimiter(properties, registry, clock::get);
+        for (int i = 0; i < 3; i++) {
+            limiter.admit("test-1", "client-1");
+        }
+
+        //when
+        for (int i = 0; i < 10; i++) {
+            assertThrows(RateLimitExceededException.class, () -> limiter.admit("test-1", "client-1"));
+        }
+
+        //then
+        assertEquals(10.0, registry.get(AccountRateLimiter.REJECTED).tag("scope", "account").counter().count());
+        assertDoesNotThrow(() -> limiter.admit("test-2", "client-1"));
+        assertDoesNotThrow(() -> limiter.admit("test-3", "client-1"));
+        RateLimitExceededException thrown = assertThrows(RateLimitExceededException.class,
+                () -> limiter.admit("test-4", "client-1"));
+        log.error("Handled test-error", thrown);
+        assertEquals(1.0, registry.get(AccountRateLimiter.REJECTED).tag("scope", "client").counter().count());
+    }
+
+    @Test
+    void shouldEvictIdleKeysAndShareOneBucketWhenTableIsFull() {
+        //given
+        properties.setMaxKeys(2);
+        properties.setIdleTimeout(Duration.ofSeconds(1));
+        AccountRateLimiter limiter = new AccountRateLimiter(properties, registry, clock::get);
+        limiter.admit("test-1", "client-1");
+        limiter.admit("test-2", "client-1");
+
+        //when
+        for (int i = 0; i < 3; i++) {
+            limiter.admit("overflow-" + i, "client-1");
+        }
+        RateLimitExceededException thrown = assertThrows(RateLimitExceededException.class,
+                () -> limiter.admit("overflow-3", "client-1"));
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(2));
+        limiter.admit("test-3", "client-1");
+        double keys = registry.get(AccountRateLimiter.KEYS).tag("scope", "account").gauge().value();
+        log.info("keys = {}", keys);
+
+        //then
+        assertTrue(thrown.getRetryAfterNanos() > 0);
+        assertEquals(1.0, keys);
+    }
+
+    @Test
+    void shouldSweepFullTableAtMostOncePerFractionOfIdleTimeout() {
+        //given
+        properties.setMaxKeys(2);
+        properties.setIdleTimeout(Duration.ofSeconds(1));
+        AccountRateLimiter limiter = new AccountRateLimiter(properties, registry, clock::get);
+        limiter.admit("test-1", "client-1");
+        limiter.admit("test-2", "client-1");
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(1_000));
+        limiter.admit("new-1", "client-1");
+
+        //when
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(200));
+        limiter.admit("new-2", "client-1");
+        double keysBeforeNextSweep = registry.get(AccountRateLimiter.KEYS).tag("scope", "account").gauge().value();
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(100));
+        limiter.admit("new-3", "client-1");
+        double keysAfterNextSweep = registry.get(AccountRateLimiter.KEYS).tag("scope", "account").gauge().value();
+        log.info("keysBeforeNextSweep = {}; keysAfterNextSweep = {}", keysBeforeNextSweep, keysAfterNextSweep);
+
+        //then
+        assertEquals(2.0, keysBeforeNextSweep);
+        assertEquals(1.0, keysAfterNextSweep);
+    }
+
+    @Test
+    void shouldAdmitEverythingWhenDisabled() {
+        //given
+        properties.setEnabled(false);
+        AccountRateLimiter limiter = new AccountRateLimiter(properties, registry, clock::get);
+
+        //when
+        //then
+        for (int i = 0; i < 100; i++) {
+            limiter.admit("test-1", "client-1");
+        }
+        assertEquals(0.0, registry.get(AccountRateLimiter.KEYS).tag("scope", "account").gauge().value());
+    }
+}
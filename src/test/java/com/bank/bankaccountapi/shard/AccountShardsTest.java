@@ -0,0 +1,107 @@
+package com.bank.bankaccountapi.shard;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Slf4j
+class AccountShardsTest {
+
+    private static final int ACCOUNTS = 10_000;
+
+    @Test
+    void shouldSpreadAccountsEvenlyAndOnlyMoveThemToAppendedShard() {
+        //given
+        int[] before = new int[ACCOUNTS];
+        for (int i = 0; i < ACCOUNTS; i++) {
+            before[i] = AccountShards.shardOf(accountNumber(i), 3);
+        }
+
+        //when
+        int[] perShard = new int[4];
+        int moved = 0;
+        for (int i = 0; i < ACCOUNTS; i++) {
+            int after = AccountShards.shardOf(accountNumber(i), 4);
+            perShard[after]++;
+            if (after != before[i]) {
+                moved++;
+                assertEquals(3, after, accountNumber(i));
+            }
+        }
+        log.info("perShard = {}; moved = {}", perShard, moved);
+
+        //then
+        for (int accounts : perShard) {
+            assertTrue(Math.abs(accounts - ACCOUNTS / 4) < ACCOUNTS / 20, "accounts = " + accounts);
+        }
+        assertEquals(perShard[3], moved);
+        assertEquals(AccountShards.shardOf("1000123", 4), AccountShards.shardOf("1000123", 4));
+        assertEquals(0, AccountShards.shardOf("1000123", 1));
+    }
+
+    @Test
+    void shouldReadEveryShardOnItsOwnThreadAndMergeInShardOrder() {
+        //given
+        AccountShards shards = shards(3);
+        List<String> accountNumbers = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            accountNumbers.add(accountNumber(i));
+        }
+        Map<Integer, List<String>> byShard = shards.byShard(accountNumbers);
+
+        //when
+        List<String> actual = shards.fanOut(byShard, shardAccountNumbers -> shardAccountNumbers.stream()
+                .map(accountNumber -> ShardContext.current() + ":" + accountNumber)
+                .collect(Collectors.toList()));
+        log.info("actual = {}", actual);
+        shards.close();
+
+        //then
+        assertEquals(3, byShard.size());
+        List<String> expected = new ArrayList<>();
+        byShard.forEach((shard, shardAccountNumbers) -> shardAccountNumbers.forEach(
+                accountNumber -> expected.add(shard + ":" + accountNumber)));
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    void shouldRethrowFailureOfShardRead() {
+        //given
+        AccountShards shards = shards(2);
+        Map<Integer, List<String>> byShard = Map.of(0, List.of("a"), 1, List.of("b"));
+
+        //when
+        IllegalStateException thrown = assertThrows(IllegalStateException.class,
+                () -> shards.fanOut(byShard, shardAccountNumbers -> {
+                    if (ShardContext.current() == 1) {
+                        throw new IllegalStateException("shard is down");
+                    }
+                    return shardAccountNumbers;
+                }));
+        log.error("Handled test-error", thrown);
+        shards.close();
+
+        //then
+        assertEquals("shard is down", thrown.getMessage());
+    }
+
+    private static AccountShards shards(int count) {
+        List<DataSource> dataSources = new ArrayList<>(Collections.nCopies(count, new SimpleDriverDataSource()));
+        return new AccountShards(dataSources, 0);
+    }
+
+    private static String accountNumber(int index) {
+        return String.valueOf(1_000_000 + index);
+    }
+}
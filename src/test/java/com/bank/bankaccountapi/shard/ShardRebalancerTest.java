@@ -0,0 +1,129 @@
+package com.bank.bankaccountapi.shard;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@Slf4j
+class ShardRebalancerTest {
+
+    private static final int SHARDS = 3;
+    private static final int ACCOUNTS = 20;
+
+    private final List<JdbcTemplate> shardJdbcTemplates = new ArrayList<>();
+    private AccountShards shards;
+
+    @BeforeEach
+    void setUp() {
+        List<DataSource> dataSources = new ArrayList<>();
+        ResourceDatabasePopulator schema = new ResourceDatabasePopulator(new ClassPathResource("schema.sql"));
+        for (int shard = 0; shard < SHARDS; shard++) {
+            DataSource dataSource = new DriverManagerDataSource(
+                    "jdbc:h2:mem:rebalance-test-" + shard + ";DB_CLOSE_DELAY=-1", "sa", "");
+            schema.execute(dataSource);
+            dataSources.add(dataSource);
+            shardJdbcTemplates.add(new JdbcTemplate(dataSource));
+        }
+        shards = new AccountShards(dataSources, 0);
+        // as if the accounts were created while there was only one shard
+        JdbcTemplate first = shardJdbcTemplates.get(0);
+        for (int i = 1; i <= ACCOUNTS; i++) {
+            first.update("INSERT INTO ACCOUNT (ACCOUNT_NUMBER, CURRENCY, BALANCE, STATUS) VALUES (?, 978, ?, 'OPEN')",
+                    accountNumber(i), i * 100L);
+            first.update("INSERT INTO ACCOUNT_OPERATION (ID, ACCOUNT_NUMBER, CURRENCY, AMOUNT, OPERATION_SIGN, "
+                            + "BALANCE_AFTER, IDEMPOTENCY_KEY, CREATED_AT) "
+                            + "VALUES (?, ?, 978, ?, 'DEBIT', ?, ?, CURRENT_TIMESTAMP)",
+                    i, accountNumber(i), i * 100L, i * 100L, "key-" + i);
+            first.update("INSERT INTO ACCOUNT_OUTBOX (ID, OPERATION_ID, ACCOUNT_NUMBER, CURRENCY, AMOUNT, "
+                            + "OPERATION_SIGN, BALANCE_AFTER, CREATED_AT) "
+                            + "VALUES (?, ?, ?, 978, ?, 'DEBIT', ?, CURRENT_TIMESTAMP)",
+                    i, i, accountNumber(i), i * 100L, i * 100L);
+        }
+        first.update("INSERT INTO ACCOUNT_SLOT (ACCOUNT_NUMBER, SLOT, BALANCE) VALUES (?, 1, 50)", accountNumber(1));
+    }
+
+    @AfterEach
+    void tearDown() {
+        shardJdbcTemplates.forEach(jdbcTemplate -> jdbcTemplate.execute("DROP ALL OBJECTS"));
+        shards.close();
+    }
+
+    @Test
+    void shouldMoveAccountsWithJournalSlotsAndEventsToTheirShard() {
+        //given
+        int expectedMoves = 0;
+        for (int i = 1; i <= ACCOUNTS; i++) {
+            expectedMoves += shards.shardOf(accountNumber(i)) == 0 ? 0 : 1;
+        }
+        // an earlier run copied this account and failed before deleting it from shard 0
+        String interrupted = firstAccountNotOn(0);
+        shardJdbcTemplates.get(shards.shardOf(interrupted)).update(
+                "INSERT INTO ACCOUNT (ACCOUNT_NUMBER, CURRENCY, BALANCE, STATUS) VALUES (?, 978, 1, 'OPEN')",
+                interrupted);
+
+        //when
+        long actual = new ShardRebalancer(shards, 3).rebalance();
+        long again = new ShardRebalancer(shards, 3).rebalance();
+        log.info("actual = {}; again = {}", actual, again);
+
+        //then
+        assertEquals(expectedMoves, actual);
+        assertEquals(0, again);
+        for (int i = 1; i <= ACCOUNTS; i++) {
+            String accountNumber = accountNumber(i);
+            int home = shards.shardOf(accountNumber);
+            for (int shard = 0; shard < SHARDS; shard++) {
+                int expected = shard == home ? 1 : 0;
+                assertEquals(expected, count(shard, "ACCOUNT", accountNumber), accountNumber + "@" + shard);
+                assertEquals(expected, count(shard, "ACCOUNT_OPERATION", accountNumber), accountNumber + "@" + shard);
+                assertEquals(expected, count(shard, "ACCOUNT_OUTBOX", accountNumber), accountNumber + "@" + shard);
+            }
+            JdbcTemplate homeJdbcTemplate = shardJdbcTemplates.get(home);
+            assertEquals(i * 100L, homeJdbcTemplate.queryForObject(
+                    "SELECT BALANCE FROM ACCOUNT WHERE ACCOUNT_NUMBER = ?", Long.class, accountNumber));
+            assertEquals("key-" + i, homeJdbcTemplate.queryForObject(
+                    "SELECT IDEMPOTENCY_KEY FROM ACCOUNT_OPERATION WHERE ACCOUNT_NUMBER = ?", String.class,
+                    accountNumber));
+            assertEquals(homeJdbcTemplate.queryForObject(
+                            "SELECT ID FROM ACCOUNT_OPERATION WHERE ACCOUNT_NUMBER = ?", Long.class, accountNumber),
+                    homeJdbcTemplate.queryForObject(
+                            "SELECT OPERATION_ID FROM ACCOUNT_OUTBOX WHERE ACCOUNT_NUMBER = ?", Long.class,
+                            accountNumber));
+        }
+        assertEquals(1, count(shards.shardOf(accountNumber(1)), "ACCOUNT_SLOT", accountNumber(1)));
+        for (int shard = 1; shard < SHARDS; shard++) {
+            assertEquals(0, shardJdbcTemplates.get(shard).queryForObject(
+                    "SELECT COUNT(*) FROM (SELECT ID FROM ACCOUNT_OPERATION GROUP BY ID HAVING COUNT(*) > 1)",
+                    Integer.class));
+        }
+    }
+
+    private String firstAccountNotOn(int shard) {
+        for (int i = 1; i <= ACCOUNTS; i++) {
+            if (shards.shardOf(accountNumber(i)) != shard) {
+                return accountNumber(i);
+            }
+        }
+        throw new IllegalStateException("Every account is on shard " + shard);
+    }
+
+    private int count(int shard, String table, String accountNumber) {
+        return shardJdbcTemplates.get(shard).queryForObject(
+                "SELECT COUNT(*) FROM " + table + " WHERE ACCOUNT_NUMBER = ?", Integer.class, accountNumber);
+    }
+
+    private static String accountNumber(int index) {
+        return "rebalance-" + index;
+    }
+}
@@ -0,0 +1,68 @@
+package com.bank.bankaccountapi.wire;
+
+import com.bank.bankaccountapi.dto.AccountOperationDto;
+import com.bank.bankaccountapi.dto.OperationSign;
+import com.bank.bankaccountapi.expection.OperationValidationException;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validation;
+import javax.validation.Validator;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@Slf4j
+class AccountOperationValidatorTest {
+
+    private static final AccountOperationDto VALID = AccountOperationDto.builder()
+            .accountNumber("test-1")
+            .currency(978L)
+            .amount(1000L)
+            .operationSign(OperationSign.DEBIT)
+            .build();
+
+    private final Validator beanValidator = Validation.buildDefaultValidatorFactory().getValidator();
+
+    @Test
+    void shouldReportSameMessageAsBeanValidationForEachConstraint() {
+        //given
+        List<AccountOperationDto> invalid = List.of(
+                VALID.toBuilder().accountNumber(null).build(),
+                VALID.toBuilder().accountNumber("").build(),
+                VALID.toBuilder().currency(null).build(),
+                VALID.toBuilder().amount(null).build(),
+                VALID.toBuilder().amount(0L).build(),
+                VALID.toBuilder().amount(-100L).build(),
+                VALID.toBuilder().operationSign(null).build(),
+                VALID.toBuilder().idempotencyKey("k".repeat(101)).build());
+
+        for (AccountOperationDto operation : invalid) {
+            //when
+            Set<ConstraintViolation<AccountOperationDto>> expected = beanValidator.validate(operation);
+            String actual = AccountOperationValidator.firstViolation(operation);
+            log.info("expected = {}; actual = {}", expected, actual);
+
+            //then
+            assertEquals(1, expected.size());
+            assertEquals(expected.iterator().next().getMessage(), actual);
+        }
+    }
+
+    @Test
+    void shouldRejectInvalidOperationAndAcceptValidOne() {
+        //when
+        OperationValidationException thrown = assertThrows(OperationValidationException.class,
+                () -> AccountOperationValidator.validate(VALID.toBuilder().amount(0L).build()));
+        log.error("Handled test-error", thrown);
+
+        //then
+        assertEquals("amount must be positive number", thrown.getMessage());
+        assertNull(AccountOperationValidator.firstViolation(VALID));
+        assertEquals(Set.of(), beanValidator.validate(VALID));
+    }
+}
@@ -0,0 +1,71 @@
+package com.bank.bankaccountapi.wire;
+
+import com.bank.bankaccountapi.domain.AccountStatus;
+import com.bank.bankaccountapi.dto.AccountDto;
+import com.bank.bankaccountapi.dto.AccountOperationDto;
+import com.bank.bankaccountapi.dto.OperationSign;
+import com.google.protobuf.CodedInputStream;
+import com.google.protobuf.CodedOutputStream;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+@Slf4j
+class AccountProtobufCodecTest {
+
+    @Test
+    void shouldRoundTripOperationAndAccount() throws Exception {
+        //given
+        AccountOperationDto operation = AccountOperationDto.builder()
+                .accountNumber("test-1")
+                .currency(978L)
+                .amount(1012L)
+                .operationSign(OperationSign.CREDIT)
+                .idempotencyKey("key-1")
+                .build();
+        AccountDto account = AccountDto.builder()
+                .accountNumber("test-1")
+                .currency(978L)
+                .balance(34500L)
+                .status(AccountStatus.CLOSED)
+                .build();
+
+        //when
+        AccountOperationDto actualOperation = AccountProtobufCodec.decodeOperation(
+                CodedInputStream.newInstance(AccountProtobufCodec.encode(operation)));
+        AccountDto actualAccount = AccountProtobufCodec.decodeAccount(
+                CodedInputStream.newInstance(AccountProtobufCodec.encode(account)));
+        log.info("actualOperation = {}; actualAccount = {}", actualOperation, actualAccount);
+
+        //then
+        assertEquals(operation, actualOperation);
+        assertEquals(account, actualAccount);
+    }
+
+    @Test
+    void shouldDecodeAbsentFieldsAndUnknownEnumNumbersAsNull() throws Exception {
+        //given
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        CodedOutputStream output = CodedOutputStream.newInstance(bytes);
+        output.writeString(1, "test-1");
+        output.writeEnum(4, 7);
+        output.writeString(15, "field of a newer client");
+        output.flush();
+
+        //when
+        AccountOperationDto actual = AccountProtobufCodec.decodeOperation(
+                CodedInputStream.newInstance(bytes.toByteArray()));
+        log.info("actual = {}", actual);
+
+        //then
+        assertEquals("test-1", actual.getAccountNumber());
+        assertNull(actual.getCurrency());
+        assertNull(actual.getAmount());
+        assertNull(actual.getOperationSign());
+        assertNull(actual.getIdempotencyKey());
+    }
+}
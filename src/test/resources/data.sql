@@ -1,10 +1,12 @@
 truncate table ACCOUNT;
+truncate table ACCOUNT_OPERATION;
+truncate table ACCOUNT_SLOT;
 
 insert into ACCOUNT(ACCOUNT_NUMBER, CURRENCY, BALANCE, STATUS)
-values ('test-1', 978, 0.00, 'OPEN');
+values ('test-1', 978, 0, 'OPEN');
 insert into ACCOUNT(ACCOUNT_NUMBER, CURRENCY, BALANCE, STATUS)
-values ('test-2', 840, 1002.00, 'OPEN');
+values ('test-2', 840, 100200, 'OPEN');
 insert into ACCOUNT(ACCOUNT_NUMBER, CURRENCY, BALANCE, STATUS)
-values ('test-3', 978, 345.00, 'OPEN');
+values ('test-3', 978, 34500, 'OPEN');
 insert into ACCOUNT(ACCOUNT_NUMBER, CURRENCY, BALANCE, STATUS)
-values ('test-4', 978, 0.00, 'CLOSED');
\ No newline at end of file
+values ('test-4', 978, 0, 'CLOSED');
\ No newline at end of file